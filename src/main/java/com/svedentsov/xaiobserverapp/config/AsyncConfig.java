@@ -1,5 +1,8 @@
 package com.svedentsov.xaiobserverapp.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -7,6 +10,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Конфигурация для асинхронных операций в приложении.
@@ -23,12 +27,16 @@ public class AsyncConfig {
      * Аннотация {@code @Primary} указывает Spring Boot использовать именно этот TaskExecutor
      * по умолчанию, когда встречается {@code @Async} без указания конкретного исполнителя.
      * Это решает проблему "More than one TaskExecutor bean found...".
+     * Размер очереди и активные потоки публикует Spring Boot Actuator ({@code executor.*} с тегом
+     * {@code name=taskExecutor}); отклоненные из-за переполненной очереди задачи считаются отдельно
+     * в {@code executor.rejected}.
      *
+     * @param registry реестр метрик.
      * @return настроенный {@link Executor}.
      */
     @Bean
     @Primary
-    public Executor taskExecutor() {
+    public Executor taskExecutor(MeterRegistry registry) {
         var executor = new ThreadPoolTaskExecutor();
         // Оптимальное количество потоков, обычно основанное на количестве ядер CPU.
         int corePoolSize = Runtime.getRuntime().availableProcessors();
@@ -36,10 +44,44 @@ public class AsyncConfig {
         executor.setMaxPoolSize(corePoolSize * 2);
         executor.setQueueCapacity(500);
         executor.setThreadNamePrefix("AsyncTask-");
+        // Считаем отклоненные задачи, сохраняя стандартное поведение - исключение у вызывающего
+        Counter rejected = Counter.builder("executor.rejected")
+                .description("Задачи, отклоненные из-за переполненной очереди")
+                .tag("name", "taskExecutor")
+                .register(registry);
+        var abortPolicy = new ThreadPoolExecutor.AbortPolicy();
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            abortPolicy.rejectedExecution(task, pool);
+        });
         // Включаем graceful shutdown, чтобы задачи успели завершиться при остановке приложения
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Создает отдельный ограниченный пул для потоковых выгрузок ({@code ExportController}).
+     * Выгрузка держит поток и соединение с БД на все время передачи файла, поэтому одновременных выгрузок
+     * не больше {@code xai.export.max-concurrent}, а в очереди ждут не больше {@code xai.export.queue-capacity};
+     * остальные запросы отклоняются ({@link org.springframework.core.task.TaskRejectedException}, ответ 503),
+     * не занимая общий пул {@code taskExecutor}.
+     *
+     * @param maxConcurrent Максимальное количество одновременных выгрузок.
+     * @param queueCapacity Максимальное количество ожидающих выгрузок.
+     * @return настроенный пул выгрузок.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor exportTaskExecutor(@Value("${xai.export.max-concurrent:4}") int maxConcurrent,
+                                                     @Value("${xai.export.queue-capacity:8}") int queueCapacity) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("export-");
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
 }
@@ -1,14 +1,23 @@
 package com.svedentsov.xaiobserverapp.config;
 
 import com.svedentsov.xaiobserverapp.dto.ApiErrorResponse;
+import com.svedentsov.xaiobserverapp.exception.BadRequestException;
+import com.svedentsov.xaiobserverapp.exception.ConflictException;
 import com.svedentsov.xaiobserverapp.exception.ResourceNotFoundException;
+import com.svedentsov.xaiobserverapp.exception.ServiceUnavailableException;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.stream.Collectors;
 
@@ -56,6 +65,105 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Обрабатывает исключение {@link HandlerMethodValidationException}, возникающее при ошибках валидации
+     * элементов коллекций в параметрах метода (например, {@code List<@Valid Dto>} в теле запроса).
+     * Возвращает клиенту статус 400 BAD REQUEST с перечнем нарушенных ограничений.
+     *
+     * @param ex Исключение с результатами валидации параметров.
+     * @return {@link ResponseEntity} со статусом 400 и телом, содержащим детали ошибок.
+     */
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ApiErrorResponse> handleMethodValidationExceptions(HandlerMethodValidationException ex) {
+        String errorMessage = ex.getAllValidationResults().stream()
+                .flatMap(result -> result.getResolvableErrors().stream())
+                .map(MessageSourceResolvable::getDefaultMessage)
+                .collect(Collectors.joining("; "));
+
+        log.warn("Validation error: {}", errorMessage);
+        var errorResponse = new ApiErrorResponse(HttpStatus.BAD_REQUEST.value(), "Validation failed: " + errorMessage, LocalDateTime.now());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Обрабатывает исключение {@link BadRequestException}, которое выбрасывается при некорректных
+     * параметрах запроса (например, неподдерживаемом формате выгрузки). Прочие {@link IllegalArgumentException}
+     * считаются внутренними ошибками: их сообщения клиенту не возвращаются.
+     * Возвращает клиенту статус 400 BAD REQUEST.
+     *
+     * @param ex Исключение с описанием некорректного параметра.
+     * @return {@link ResponseEntity} со статусом 400 и телом ошибки.
+     */
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiErrorResponse> handleBadRequestException(BadRequestException ex) {
+        log.warn("Invalid request argument: {}", ex.getMessage());
+        var errorResponse = new ApiErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage(), LocalDateTime.now());
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Обрабатывает исключение {@link ConflictException}, возникающее, когда операция несовместима
+     * с текущим состоянием ресурса (например, повторный запуск уже выполняющегося задания). Прочие
+     * {@link IllegalStateException} считаются внутренними ошибками: их сообщения клиенту не возвращаются.
+     * Возвращает клиенту статус 409 CONFLICT.
+     *
+     * @param ex Исключение с описанием конфликта.
+     * @return {@link ResponseEntity} со статусом 409 и телом ошибки.
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiErrorResponse> handleConflictException(ConflictException ex) {
+        log.warn("Request conflicts with current state: {}", ex.getMessage());
+        var errorResponse = new ApiErrorResponse(HttpStatus.CONFLICT.value(), ex.getMessage(), LocalDateTime.now());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Обрабатывает исключение {@link ServiceUnavailableException}: узел временно не принимает запрос
+     * (например, исчерпан лимит подключений). Возвращает клиенту статус 503 SERVICE UNAVAILABLE.
+     *
+     * @param ex Исключение с причиной отказа.
+     * @return {@link ResponseEntity} со статусом 503 и телом ошибки.
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiErrorResponse> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        log.warn("Request rejected: {}", ex.getMessage());
+        var errorResponse = new ApiErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage(), LocalDateTime.now());
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Обрабатывает исключение {@link TaskRejectedException}: пул, выполняющий запрос (например, выгрузку),
+     * переполнен. Возвращает клиенту статус 503 SERVICE UNAVAILABLE без внутренних подробностей.
+     *
+     * @param ex Исключение об отклоненной задаче.
+     * @return {@link ResponseEntity} со статусом 503.
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ApiErrorResponse> handleTaskRejectedException(TaskRejectedException ex) {
+        log.warn("Request rejected, executor is saturated: {}", ex.getMessage());
+        var errorResponse = new ApiErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is busy, please retry later.", LocalDateTime.now());
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Обрабатывает {@link IOException}. Если ответ уже начат или стал недоступен
+     * ({@link AsyncRequestNotUsableException}), значит клиент закрыл соединение во время асинхронной отправки
+     * (например, SSE-потока): записать ответ уже нельзя, поэтому ничего не возвращается. Остальные ошибки
+     * ввода-вывода обрабатываются как непредвиденные.
+     *
+     * @param ex       Исключение ввода-вывода.
+     * @param response Текущий HTTP-ответ.
+     * @return {@code null}, если клиент отключился, иначе ответ со статусом 500.
+     */
+    @ExceptionHandler(IOException.class)
+    public ResponseEntity<ApiErrorResponse> handleIOException(IOException ex, HttpServletResponse response) {
+        if (ex instanceof AsyncRequestNotUsableException || response.isCommitted()) {
+            log.debug("Client disconnected during asynchronous response: {}", ex.getMessage());
+            return null;
+        }
+        return handleAllExceptions(ex);
+    }
+
     /**
      * Обрабатывает все остальные непредвиденные исключения как "fallback" механизм.
      * Логирует полную ошибку для последующего анализа и возвращает общий ответ
@@ -0,0 +1,163 @@
+package com.svedentsov.xaiobserverapp.config;
+
+import com.svedentsov.xaiobserverapp.dto.WebSocketSessionStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Декоратор WebSocket-сессии с собственной очередью отправки и защитой от медленного клиента.
+ * <p>
+ * {@link #sendMessage} не блокирует вызывающий поток: сообщение ставится в очередь сессии, а запись в сокет
+ * выполняет отдельная задача на виртуальном потоке, по одному сообщению за раз. Поэтому медленный клиент не
+ * занимает потоки исходящего канала брокера, а очередь, которую Spring держит поверх этой сессии, не растет.
+ * Размер очереди и время текущей записи контролируются {@link WebSocketSessionGuard}: при превышении мягкого
+ * порога некритичные сообщения отбрасываются, при превышении лимитов сессия закрывается.
+ */
+@Slf4j
+final class GuardedWebSocketSession extends WebSocketSessionDecorator {
+
+    private final WebSocketSessionGuard guard;
+    private final LocalDateTime connectedAt = LocalDateTime.now();
+
+    private final Object lock = new Object();
+    private final Queue<WebSocketMessage<?>> queue = new ArrayDeque<>();
+    private long queuedBytes;
+    private long maxQueuedBytes;
+    private boolean draining;
+    private long sendStartedAt;
+    private long sentMessages;
+    private long sentBytes;
+    private long droppedMessages;
+    private volatile boolean closing;
+
+    GuardedWebSocketSession(WebSocketSession delegate, WebSocketSessionGuard guard) {
+        super(delegate);
+        this.guard = guard;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closing) {
+            return;
+        }
+        int size = message.getPayloadLength();
+        boolean startDrain;
+        synchronized (lock) {
+            if (queuedBytes + size > guard.getDropThresholdBytes() && guard.isDroppable(message)) {
+                droppedMessages++;
+                guard.recordDropped();
+                return;
+            }
+            queue.add(message);
+            queuedBytes += size;
+            maxQueuedBytes = Math.max(maxQueuedBytes, queuedBytes);
+            startDrain = !draining;
+            draining = true;
+        }
+        if (checkLimits(System.currentTimeMillis())) {
+            return;
+        }
+        if (startDrain) {
+            guard.sendExecutor().execute(this::drain);
+        }
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        closing = true;
+        clearQueue();
+        super.close(status);
+    }
+
+    /**
+     * Проверяет лимиты очереди и времени записи и закрывает сессию при их превышении.
+     *
+     * @param now Текущее время, мс.
+     * @return {@code true}, если сессия закрыта.
+     */
+    boolean checkLimits(long now) {
+        String reason;
+        synchronized (lock) {
+            if (closing) {
+                return true;
+            }
+            if (queuedBytes > guard.getSendBufferSizeLimit()) {
+                reason = "send buffer " + queuedBytes + " bytes exceeds limit " + guard.getSendBufferSizeLimit();
+            } else if (sendStartedAt > 0 && now - sendStartedAt > guard.getSendTimeLimitMillis()) {
+                reason = "send in progress for " + (now - sendStartedAt) + " ms exceeds limit " + guard.getSendTimeLimitMillis();
+            } else {
+                return false;
+            }
+        }
+        terminate(reason);
+        return true;
+    }
+
+    WebSocketSessionStatsDTO statistics(long now) {
+        synchronized (lock) {
+            return new WebSocketSessionStatsDTO(getId(), String.valueOf(getRemoteAddress()), connectedAt, queuedBytes,
+                    queue.size(), maxQueuedBytes, sentMessages, sentBytes, droppedMessages, sendStartedAt > 0 ? now - sendStartedAt : 0);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            WebSocketMessage<?> message;
+            synchronized (lock) {
+                message = closing ? null : queue.poll();
+                if (message == null) {
+                    draining = false;
+                    sendStartedAt = 0;
+                    return;
+                }
+                sendStartedAt = System.currentTimeMillis();
+            }
+            try {
+                getDelegate().sendMessage(message);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Failed to send WebSocket message to session {}: {}", getId(), e.getMessage());
+                terminate("send failed: " + e.getMessage());
+                synchronized (lock) {
+                    draining = false;
+                    sendStartedAt = 0;
+                }
+                return;
+            }
+            synchronized (lock) {
+                queuedBytes -= message.getPayloadLength();
+                sentMessages++;
+                sentBytes += message.getPayloadLength();
+            }
+        }
+    }
+
+    private void terminate(String reason) {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        clearQueue();
+        guard.recordTerminated();
+        log.warn("Closing slow WebSocket session {} ({}): {}", getId(), getRemoteAddress(), reason);
+        try {
+            getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Failed to close WebSocket session {}: {}", getId(), e.getMessage());
+        }
+    }
+
+    private void clearQueue() {
+        synchronized (lock) {
+            queue.clear();
+            queuedBytes = 0;
+        }
+    }
+}
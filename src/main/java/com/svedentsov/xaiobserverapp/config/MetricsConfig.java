@@ -0,0 +1,199 @@
+package com.svedentsov.xaiobserverapp.config;
+
+import com.svedentsov.xaiobserverapp.dto.XaiCacheStatsDTO;
+import com.svedentsov.xaiobserverapp.service.xai.XaiPredictionCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Конфигурация метрик приложения, экспортируемых через {@code /actuator/prometheus}.
+ * <p>
+ * Метрики пулов Hikari ({@code hikaricp.connections.*}, в том числе время ожидания соединения
+ * {@code hikaricp.connections.acquire}), пула {@code @Async} ({@code executor.*}), JVM и HTTP-запросов
+ * регистрирует Spring Boot Actuator. Здесь добавляются метрики компонентов, о которых Boot не знает:
+ * <ul>
+ *   <li>кэши Spring ({@code dashboard_statistics} и другие) - {@code cache.gets{result=hit|miss}},
+ *   {@code cache.puts}, {@code cache.evictions}, {@code cache.size}. Стандартный {@link ConcurrentMapCacheManager}
+ *   не ведет статистики, поэтому он заменен на вариант со счетчиками;</li>
+ *   <li>кэш предсказаний XAI-сервиса - те же метрики с тегом {@code cache=xai_predictions};</li>
+ *   <li>WebSocket-сессии - {@code xai.websocket.sessions}, {@code xai.websocket.queued},
+ *   {@code xai.websocket.dropped}, {@code xai.websocket.terminated}.</li>
+ * </ul>
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Менеджер кэшей в памяти, кэши которого считают попадания и промахи и регистрируют свои метрики
+     * при создании, в том числе создаваемые динамически при первом обращении.
+     *
+     * @param registry Реестр метрик.
+     * @return Менеджер кэшей.
+     */
+    @Bean
+    public CacheManager cacheManager(MeterRegistry registry) {
+        return new ConcurrentMapCacheManager() {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                var cache = new InstrumentedConcurrentMapCache(name, isAllowNullValues());
+                new ConcurrentMapCacheMetrics(cache).bindTo(registry);
+                return cache;
+            }
+        };
+    }
+
+    /**
+     * Метрики кэша предсказаний XAI-сервиса в терминах стандартных метрик кэшей Micrometer.
+     *
+     * @param cache Кэш предсказаний.
+     * @return Регистратор метрик.
+     */
+    @Bean
+    public MeterBinder xaiPredictionCacheMetrics(XaiPredictionCache cache) {
+        return registry -> {
+            Tags tags = Tags.of("cache", "xai_predictions");
+            FunctionCounter.builder("cache.gets", cache, c -> c.getStatistics().hits())
+                    .tags(tags).tag("result", "hit")
+                    .description("Попадания в кэш предсказаний XAI")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", cache, c -> c.getStatistics().misses())
+                    .tags(tags).tag("result", "miss")
+                    .description("Промахи кэша предсказаний XAI")
+                    .register(registry);
+            FunctionCounter.builder("xai.cache.coalesced", cache, c -> c.getStatistics().coalesced())
+                    .tags(tags)
+                    .description("Запросы, объединенные с уже выполняющимся запросом того же отпечатка")
+                    .register(registry);
+            Gauge.builder("cache.size", cache, c -> c.getStatistics().size())
+                    .tags(tags)
+                    .description("Записей в памяти")
+                    .register(registry);
+            Gauge.builder("xai.cache.hit.ratio", cache, c -> c.getStatistics().hitRate())
+                    .tags(tags)
+                    .description("Доля попаданий с момента запуска")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Метрики WebSocket-сессий и защиты от медленных клиентов.
+     *
+     * @param guard Защита WebSocket-сессий.
+     * @return Регистратор метрик.
+     */
+    @Bean
+    public MeterBinder webSocketSessionMetrics(WebSocketSessionGuard guard) {
+        return registry -> {
+            Gauge.builder("xai.websocket.sessions", guard, WebSocketSessionGuard::activeSessions)
+                    .description("Открытые WebSocket-сессии")
+                    .register(registry);
+            Gauge.builder("xai.websocket.queued", guard, WebSocketSessionGuard::queuedBytes)
+                    .description("Суммарный размер очередей отправки WebSocket-сессий")
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("xai.websocket.dropped", guard, WebSocketSessionGuard::droppedMessages)
+                    .description("Отброшенные некритичные сообщения медленным клиентам")
+                    .register(registry);
+            FunctionCounter.builder("xai.websocket.terminated", guard, WebSocketSessionGuard::terminatedSessions)
+                    .description("Закрытые медленные WebSocket-сессии")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * {@link ConcurrentMapCache} со счетчиками обращений. Запросы через {@code @Cacheable} проходят через
+     * {@link #lookup(Object)}, поэтому попадания и промахи считаются там.
+     */
+    static final class InstrumentedConcurrentMapCache extends ConcurrentMapCache {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder puts = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        InstrumentedConcurrentMapCache(String name, boolean allowNullValues) {
+            super(name, allowNullValues);
+        }
+
+        @Override
+        protected Object lookup(Object key) {
+            Object value = super.lookup(key);
+            (value != null ? hits : misses).increment();
+            return value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            super.put(key, value);
+            puts.increment();
+        }
+
+        @Override
+        public void evict(Object key) {
+            super.evict(key);
+            evictions.increment();
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Стандартные метрики кэша Micrometer для {@link InstrumentedConcurrentMapCache}.
+     */
+    private static final class ConcurrentMapCacheMetrics extends CacheMeterBinder<InstrumentedConcurrentMapCache> {
+
+        ConcurrentMapCacheMetrics(InstrumentedConcurrentMapCache cache) {
+            super(cache, cache.getName(), Tags.empty());
+        }
+
+        @Override
+        protected Long size() {
+            InstrumentedConcurrentMapCache cache = getCache();
+            return cache != null ? (long) cache.getNativeCache().size() : null;
+        }
+
+        @Override
+        protected long hitCount() {
+            InstrumentedConcurrentMapCache cache = getCache();
+            return cache != null ? cache.hits.sum() : 0;
+        }
+
+        @Override
+        protected Long missCount() {
+            InstrumentedConcurrentMapCache cache = getCache();
+            return cache != null ? cache.misses.sum() : null;
+        }
+
+        @Override
+        protected Long evictionCount() {
+            InstrumentedConcurrentMapCache cache = getCache();
+            return cache != null ? cache.evictions.sum() : null;
+        }
+
+        @Override
+        protected long putCount() {
+            InstrumentedConcurrentMapCache cache = getCache();
+            return cache != null ? cache.puts.sum() : 0;
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.svedentsov.xaiobserverapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Конфигурация разделения нагрузки чтения и записи между двумя источниками данных.
+ * Активируется, когда задано свойство {@code xai.datasource.read.url} (например, адрес реплики PostgreSQL).
+ * <p>
+ * Создаются два независимых пула Hikari:
+ * <ul>
+ *   <li><b>write</b> - основная БД, настраивается стандартными {@code spring.datasource.*} и {@code spring.datasource.hikari.*};
+ *   на нем же выполняются миграции Liquibase.</li>
+ *   <li><b>read</b> - реплика, настраивается {@code xai.datasource.read.*} и {@code xai.datasource.read.hikari.*}.</li>
+ * </ul>
+ * Приложение работает через {@link LazyConnectionDataSourceProxy}: физическое соединение берется только
+ * при первом запросе, когда флаг read-only транзакции уже известен. Поэтому все методы
+ * {@code @Transactional(readOnly = true)} (статистика, списки, детали, выгрузка) прозрачно уходят в пул чтения,
+ * а запись событий остается на основной БД.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "xai.datasource.read.url")
+public class ReadWriteDataSourceConfig {
+
+    private static final String READ_PREFIX = "xai.datasource.read";
+
+    /**
+     * Пул соединений основной БД (запись и миграции).
+     *
+     * @param properties  Стандартные свойства {@code spring.datasource.*}.
+     * @param environment Окружение для привязки настроек пула.
+     * @return Пул основной БД.
+     */
+    @Bean
+    @LiquibaseDataSource
+    public HikariDataSource writeDataSource(DataSourceProperties properties, Environment environment) {
+        return createPool(properties, environment, "spring.datasource.hikari", "xai-write", false);
+    }
+
+    /**
+     * Пул соединений реплики для read-only транзакций.
+     *
+     * @param environment Окружение для привязки свойств {@code xai.datasource.read.*}.
+     * @return Пул реплики.
+     */
+    @Bean
+    public HikariDataSource readDataSource(Environment environment) {
+        var properties = Binder.get(environment).bind(READ_PREFIX, DataSourceProperties.class)
+                .orElseThrow(() -> new IllegalStateException("Property " + READ_PREFIX + ".url is required for read routing"));
+        return createPool(properties, environment, READ_PREFIX + ".hikari", "xai-read", true);
+    }
+
+    /**
+     * Основной источник данных приложения, маршрутизирующий соединения по флагу read-only.
+     *
+     * @param writeDataSource Пул основной БД.
+     * @param readDataSource  Пул реплики.
+     * @return Прокси-источник данных.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                                 @Qualifier("readDataSource") DataSource readDataSource) {
+        var proxy = new LazyConnectionDataSourceProxy(writeDataSource);
+        proxy.setReadOnlyDataSource(readDataSource);
+        log.info("Read/write routing enabled: read-only transactions use the '{}' pool.", ((HikariDataSource) readDataSource).getPoolName());
+        return proxy;
+    }
+
+    private HikariDataSource createPool(DataSourceProperties properties, Environment environment,
+                                        String hikariPrefix, String defaultPoolName, boolean readOnly) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind(hikariPrefix, Bindable.ofInstance(dataSource));
+        if (!StringUtils.hasText(dataSource.getPoolName())) {
+            dataSource.setPoolName(defaultPoolName);
+        }
+        if (readOnly) {
+            dataSource.setReadOnly(true);
+        }
+        return dataSource;
+    }
+}
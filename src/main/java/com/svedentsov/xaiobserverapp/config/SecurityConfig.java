@@ -45,9 +45,14 @@ public class SecurityConfig {
                     "/demo/**", 
                     "/mock/xai/**",
                     "/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**",
-                    "/ws/**"
+                    "/ws/**",
+                    "/actuator/health", "/actuator/prometheus" // Проверки живости и сбор метрик Prometheus
                 ).permitAll()
-                // 3. ВСЕ ОСТАЛЬНЫЕ запросы (включая '/', и все остальные /api/v1/**) ТРЕБУЮТ АУТЕНТИФИКАЦИИ
+                // 3. Административные эндпоинты (запись JFR, импорт из файловой системы сервера, повторный анализ
+                // истории, перезагрузка и переупорядочивание правил RCA) доступны только администраторам
+                .requestMatchers("/api/v1/admin/**", "/api/v1/import/**", "/api/v1/analysis/backfill/**",
+                        "/api/v1/analysis/rules/reload", "/api/v1/analysis/rules/reorder").hasRole("ADMIN")
+                // 4. ВСЕ ОСТАЛЬНЫЕ запросы (включая '/', и все остальные /api/v1/**) ТРЕБУЮТ АУТЕНТИФИКАЦИИ
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
@@ -1,21 +1,49 @@
 package com.svedentsov.xaiobserverapp.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 /**
  * Конфигурация для WebSocket с использованием STOMP поверх SockJS.
  * <p>
  * Включает и настраивает брокер сообщений для обмена данными в реальном времени
  * между сервером и клиентами (например, для уведомления о новых тестовых запусках).
+ * Исходящие сообщения каждой сессии проходят через {@link WebSocketSessionGuard}, который не дает
+ * медленным клиентам занимать потоки исходящего канала и накапливать неограниченные буферы в памяти.
  */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final WebSocketSessionGuard sessionGuard;
+    private final int outboundCorePoolSize;
+    private final int outboundMaxPoolSize;
+    private final int outboundQueueCapacity;
+
+    /**
+     * Конструктор конфигурации WebSocket.
+     *
+     * @param sessionGuard          Защита сессий от медленных клиентов.
+     * @param outboundCorePoolSize  Базовый размер пула исходящего канала.
+     * @param outboundMaxPoolSize   Максимальный размер пула исходящего канала.
+     * @param outboundQueueCapacity Емкость очереди исходящего канала.
+     */
+    public WebSocketConfig(WebSocketSessionGuard sessionGuard,
+                           @Value("${xai.websocket.outbound.core-pool-size:4}") int outboundCorePoolSize,
+                           @Value("${xai.websocket.outbound.max-pool-size:8}") int outboundMaxPoolSize,
+                           @Value("${xai.websocket.outbound.queue-capacity:10000}") int outboundQueueCapacity) {
+        this.sessionGuard = sessionGuard;
+        this.outboundCorePoolSize = outboundCorePoolSize;
+        this.outboundMaxPoolSize = outboundMaxPoolSize;
+        this.outboundQueueCapacity = outboundQueueCapacity;
+    }
+
     /**
      * Регистрирует эндпоинт "/ws", который клиенты будут использовать для подключения к WebSocket-серверу.
      * {@code withSockJS()} обеспечивает фолбэк для браузеров, не поддерживающих WebSocket нативно.
@@ -43,4 +71,31 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.enableSimpleBroker("/topic"); // Топики, на которые подписывается клиент
         registry.setApplicationDestinationPrefixes("/app"); // Префикс для сообщений от клиента к серверу
     }
+
+    /**
+     * Подключает {@link WebSocketSessionGuard} к каждой сессии. Лимиты Spring совпадают с лимитами защиты
+     * и остаются страховкой на случай, если очередь все же начнет расти на уровне Spring.
+     *
+     * @param registration параметры транспорта WebSocket.
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit((int) sessionGuard.getSendTimeLimitMillis())
+                .setSendBufferSizeLimit(sessionGuard.getSendBufferSizeLimit())
+                .addDecoratorFactory(sessionGuard::decorate);
+    }
+
+    /**
+     * Ограничивает пул исходящего канала: запись в сокеты выполняется вне его потоков, поэтому
+     * небольшой пул не блокируется медленными клиентами.
+     *
+     * @param registration параметры исходящего канала.
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
 }
@@ -0,0 +1,202 @@
+package com.svedentsov.xaiobserverapp.config;
+
+import com.svedentsov.xaiobserverapp.dto.WebSocketGuardStatsDTO;
+import com.svedentsov.xaiobserverapp.dto.WebSocketSessionStatsDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Защита узла от медленных WebSocket-клиентов.
+ * <p>
+ * Каждая сессия оборачивается в {@link GuardedWebSocketSession} с неблокирующей очередью отправки.
+ * Политика для сессии, которая не успевает принимать сообщения:
+ * <ul>
+ *   <li>очередь больше {@code drop-threshold-bytes} - новые некритичные сообщения (адреса из
+ *   {@code droppable-destinations}, например снимки статистики, которые заменяются следующим снимком)
+ *   отбрасываются;</li>
+ *   <li>очередь больше {@code send-buffer-size-limit} или одна запись длится дольше
+ *   {@code send-time-limit-ms} - сессия закрывается со статусом {@code SESSION_NOT_RELIABLE}.
+ *   Клиент переподключается и дочитывает пропущенные запуски по номеру события.</li>
+ * </ul>
+ * Зависшие записи проверяются раз в секунду, даже если новых сообщений для сессии нет.
+ */
+@Slf4j
+@Component
+public class WebSocketSessionGuard {
+
+    private final long sendTimeLimitMillis;
+    private final int sendBufferSizeLimit;
+    private final int dropThresholdBytes;
+    private final List<String> droppableDestinations;
+
+    private final Map<String, GuardedWebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService sendExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-send-", 0).factory());
+    private final LongAdder droppedMessages = new LongAdder();
+    private final LongAdder terminatedSessions = new LongAdder();
+    private ScheduledExecutorService watchdog;
+
+    /**
+     * Конструктор защиты сессий.
+     *
+     * @param sendTimeLimitMillis   Лимит длительности одной записи в сокет, мс.
+     * @param sendBufferSizeLimit   Лимит очереди отправки сессии, байт.
+     * @param dropThresholdBytes    Размер очереди, начиная с которого отбрасываются некритичные сообщения, байт.
+     * @param droppableDestinations Префиксы адресов некритичных сообщений.
+     */
+    public WebSocketSessionGuard(@Value("${xai.websocket.session.send-time-limit-ms:10000}") long sendTimeLimitMillis,
+                                 @Value("${xai.websocket.session.send-buffer-size-limit:524288}") int sendBufferSizeLimit,
+                                 @Value("${xai.websocket.session.drop-threshold-bytes:65536}") int dropThresholdBytes,
+                                 @Value("${xai.websocket.session.droppable-destinations:/topic/statistics}") List<String> droppableDestinations) {
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.dropThresholdBytes = dropThresholdBytes;
+        this.droppableDestinations = List.copyOf(droppableDestinations);
+    }
+
+    @PostConstruct
+    public void start() {
+        watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ws-session-guard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(this::checkSessions, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        watchdog.shutdownNow();
+        sendExecutor.shutdownNow();
+    }
+
+    /**
+     * Оборачивает обработчик WebSocket так, чтобы каждая новая сессия получала защищенную очередь отправки.
+     * Используется как {@code WebSocketHandlerDecoratorFactory}.
+     *
+     * @param handler Исходный обработчик.
+     * @return Обработчик-декоратор.
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                var guarded = new GuardedWebSocketSession(session, WebSocketSessionGuard.this);
+                sessions.put(session.getId(), guarded);
+                super.afterConnectionEstablished(guarded);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Возвращает состояние защиты и метрики очередей всех открытых сессий.
+     *
+     * @return DTO со статистикой.
+     */
+    public WebSocketGuardStatsDTO getStatistics() {
+        long now = System.currentTimeMillis();
+        List<WebSocketSessionStatsDTO> stats = sessions.values().stream()
+                .map(session -> session.statistics(now))
+                .sorted(Comparator.comparingLong(WebSocketSessionStatsDTO::queuedBytes).reversed())
+                .toList();
+        long queued = stats.stream().mapToLong(WebSocketSessionStatsDTO::queuedBytes).sum();
+        return new WebSocketGuardStatsDTO(sendTimeLimitMillis, sendBufferSizeLimit, dropThresholdBytes, stats.size(), queued,
+                droppedMessages.sum(), terminatedSessions.sum(), stats);
+    }
+
+    int activeSessions() {
+        return sessions.size();
+    }
+
+    long queuedBytes() {
+        long now = System.currentTimeMillis();
+        return sessions.values().stream().mapToLong(session -> session.statistics(now).queuedBytes()).sum();
+    }
+
+    long droppedMessages() {
+        return droppedMessages.sum();
+    }
+
+    long terminatedSessions() {
+        return terminatedSessions.sum();
+    }
+
+    long getSendTimeLimitMillis() {
+        return sendTimeLimitMillis;
+    }
+
+    int getSendBufferSizeLimit() {
+        return sendBufferSizeLimit;
+    }
+
+    int getDropThresholdBytes() {
+        return dropThresholdBytes;
+    }
+
+    ExecutorService sendExecutor() {
+        return sendExecutor;
+    }
+
+    void recordDropped() {
+        droppedMessages.increment();
+    }
+
+    void recordTerminated() {
+        terminatedSessions.increment();
+    }
+
+    /**
+     * Проверяет, можно ли отбросить сообщение: это STOMP-кадр MESSAGE на некритичный адрес.
+     * Служебные кадры (CONNECTED, RECEIPT, ERROR, heartbeat) не отбрасываются никогда.
+     *
+     * @param message Исходящее сообщение.
+     * @return {@code true}, если сообщение некритично.
+     */
+    boolean isDroppable(WebSocketMessage<?> message) {
+        if (droppableDestinations.isEmpty() || !(message instanceof TextMessage text)) {
+            return false;
+        }
+        String frame = text.getPayload();
+        if (!frame.startsWith("MESSAGE\n")) {
+            return false;
+        }
+        int headersEnd = frame.indexOf("\n\n");
+        int start = frame.indexOf("\ndestination:");
+        if (start < 0 || (headersEnd >= 0 && start > headersEnd)) {
+            return false;
+        }
+        start += "\ndestination:".length();
+        int end = frame.indexOf('\n', start);
+        String destination = frame.substring(start, end < 0 ? frame.length() : end);
+        return droppableDestinations.stream().anyMatch(destination::startsWith);
+    }
+
+    private void checkSessions() {
+        long now = System.currentTimeMillis();
+        sessions.values().forEach(session -> session.checkLimits(now));
+    }
+}
@@ -0,0 +1,67 @@
+package com.svedentsov.xaiobserverapp.controller;
+
+import com.svedentsov.xaiobserverapp.dto.RuleDispatchStatsDTO;
+import com.svedentsov.xaiobserverapp.dto.RuleSetInfoDTO;
+import com.svedentsov.xaiobserverapp.exception.BadRequestException;
+import com.svedentsov.xaiobserverapp.service.analysis.RuleDispatcher;
+import com.svedentsov.xaiobserverapp.service.analysis.rules.DeclarativeRuleEngine;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-контроллер для наблюдения за работой правил анализа первопричин (RCA).
+ * Перезагрузка и переупорядочивание правил доступны только администраторам.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/analysis/rules")
+@RequiredArgsConstructor
+@Tag(name = "Правила анализа", description = "Статистика и управление правилами RCA")
+public class AnalysisRulesController {
+
+    private final RuleDispatcher ruleDispatcher;
+    private final DeclarativeRuleEngine ruleEngine;
+
+    @Operation(summary = "Текущий набор декларативных правил",
+            description = "Возвращает источник и время загрузки правил, количество правил и подстрок автомата, а также статистику срабатываний каждого правила.")
+    @GetMapping
+    public ResponseEntity<RuleSetInfoDTO> getRuleSet() {
+        log.debug("API request for RCA rule set info.");
+        return ResponseEntity.ok(ruleEngine.getRuleSetInfo());
+    }
+
+    @Operation(summary = "Перезагрузить правила",
+            description = "Перечитывает файл правил и атомарно заменяет текущий набор. При ошибке в файле возвращается 400, а прежние правила продолжают работать.")
+    @PostMapping("/reload")
+    public ResponseEntity<RuleSetInfoDTO> reloadRules() {
+        log.info("API request to reload RCA rules.");
+        try {
+            return ResponseEntity.ok(ruleEngine.reload());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage(), e);
+        }
+    }
+
+    @Operation(summary = "Пересчитать порядок правил",
+            description = "Упорядочивает правила по точности (отзывам пользователей), доле срабатываний и стоимости проверки. Действует до следующего пересчета или перезагрузки правил.")
+    @PostMapping("/reorder")
+    public ResponseEntity<RuleSetInfoDTO> reorderRules() {
+        log.info("API request to re-rank RCA rules.");
+        return ResponseEntity.ok(ruleEngine.reorder());
+    }
+
+    @Operation(summary = "Статистика стратегий анализа",
+            description = "Возвращает для каждой стратегии количество вызовов и срабатываний, а также суммарное и среднее время выполнения.")
+    @GetMapping("/stats")
+    public ResponseEntity<RuleDispatchStatsDTO> getRuleStatistics() {
+        log.debug("API request for RCA rule statistics.");
+        return ResponseEntity.ok(ruleDispatcher.getStatistics());
+    }
+}
@@ -3,11 +3,13 @@ package com.svedentsov.xaiobserverapp.controller;
 import com.svedentsov.xaiobserverapp.dto.AnalysisFeedbackDTO;
 import com.svedentsov.xaiobserverapp.dto.DashboardStatisticsDTO;
 import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.TestHistoryTimelineDTO;
 import com.svedentsov.xaiobserverapp.dto.TestRunDetailDTO;
 import com.svedentsov.xaiobserverapp.mapper.TestRunMapper;
 import com.svedentsov.xaiobserverapp.service.FeedbackService;
 import com.svedentsov.xaiobserverapp.service.StatisticsService;
 import com.svedentsov.xaiobserverapp.service.TestEventOrchestrator;
+import com.svedentsov.xaiobserverapp.service.TestHistoryService;
 import com.svedentsov.xaiobserverapp.service.TestRunService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -37,6 +39,7 @@ public class DashboardApiController {
 
     private final TestEventOrchestrator testEventOrchestrator;
     private final TestRunService testRunService;
+    private final TestHistoryService testHistoryService;
     private final StatisticsService statisticsService;
     private final FeedbackService feedbackService;
     private final TestRunMapper testRunMapper;
@@ -49,6 +52,30 @@ public class DashboardApiController {
         return ResponseEntity.ok(testRunService.getAllTestRunsPaginated(pageable));
     }
 
+    @Operation(summary = "Детали тестового запуска", description = "Возвращает полную информацию о запуске, включая стек, путь выполнения и результаты анализа. Живые уведомления содержат только краткие данные, детали загружаются этим запросом.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Детали запуска"),
+            @ApiResponse(responseCode = "404", description = "Запуск с указанным ID не найден")
+    })
+    @GetMapping("/tests/{id}")
+    public ResponseEntity<TestRunDetailDTO> getTestRun(@PathVariable String id) {
+        log.debug("API request for test run details {}", id);
+        return ResponseEntity.ok(testRunService.getTestRunDetails(id));
+    }
+
+    @Operation(summary = "История запусков одного теста", description = "Возвращает временную шкалу всех запусков теста (класс + метод) в компактном колоночном формате с дельта-кодированием времени и ID конфигураций. Предназначено для построения графиков истории без постраничной загрузки детальных DTO.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "История теста", content = @Content(schema = @Schema(implementation = TestHistoryTimelineDTO.class)))
+    })
+    @GetMapping("/tests/history")
+    public ResponseEntity<TestHistoryTimelineDTO> getTestHistory(
+            @RequestParam String testClass,
+            @RequestParam String testMethod,
+            @RequestParam(defaultValue = "" + TestHistoryService.DEFAULT_LIMIT) int limit) {
+        log.debug("API request for history timeline of {}.{}", testClass, testMethod);
+        return ResponseEntity.ok(testHistoryService.getTimeline(testClass, testMethod, limit));
+    }
+
     @Operation(summary = "Регистрация события завершения теста", description = "Асинхронно принимает, обрабатывает и сохраняет детали завершенного тестового запуска. Сразу возвращает ответ, обработка происходит в фоновом режиме.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "202", description = "Событие принято к обработке"),
@@ -0,0 +1,110 @@
+package com.svedentsov.xaiobserverapp.controller;
+
+import com.svedentsov.xaiobserverapp.exception.BadRequestException;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.service.export.ExportFormat;
+import com.svedentsov.xaiobserverapp.service.export.TestRunExportFilter;
+import com.svedentsov.xaiobserverapp.service.export.TestRunExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST-контроллер для массовой выгрузки тестовых запусков (например, для анализа в ноутбуках).
+ * Ответ формируется потоково в асинхронной задаче ({@link WebAsyncTask}): строки пишутся в сокет
+ * по мере чтения с курсора БД, не накапливаясь в памяти сервера. Выгрузка может длиться долго,
+ * поэтому для нее действует собственный таймаут {@code xai.export.timeout-minutes} вместо общего таймаута
+ * асинхронных запросов, а выполняется она в отдельном ограниченном пуле {@code exportTaskExecutor}.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/export")
+@Tag(name = "Выгрузка", description = "Потоковая выгрузка тестовых запусков в CSV, NDJSON и колоночном формате")
+public class ExportController {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final TestRunExportService exportService;
+    private final AsyncTaskExecutor exportExecutor;
+    private final long timeoutMillis;
+
+    /**
+     * Конструктор контроллера.
+     *
+     * @param exportService  Сервис выгрузки.
+     * @param exportExecutor Ограниченный пул выгрузок.
+     * @param timeoutMinutes Максимальная длительность одной выгрузки, минуты.
+     */
+    public ExportController(TestRunExportService exportService,
+                            @Qualifier("exportTaskExecutor") AsyncTaskExecutor exportExecutor,
+                            @Value("${xai.export.timeout-minutes:30}") long timeoutMinutes) {
+        this.exportService = exportService;
+        this.exportExecutor = exportExecutor;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+    }
+
+    @Operation(summary = "Потоковая выгрузка тестовых запусков",
+            description = "Выгружает тестовые запуски в выбранном формате (csv, ndjson, columnar) с опциональным сжатием GZIP и фильтрами. " +
+                    "Данные читаются серверным курсором и передаются клиенту потоково, поэтому выгрузка миллионов строк не нагружает память сервера.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Файл выгрузки"),
+            @ApiResponse(responseCode = "400", description = "Неподдерживаемый формат или некорректный фильтр"),
+            @ApiResponse(responseCode = "503", description = "Слишком много одновременных выгрузок")
+    })
+    @GetMapping("/test-runs")
+    public WebAsyncTask<Void> exportTestRuns(
+            @Parameter(description = "Формат: csv, ndjson или columnar") @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "Сжимать ли выгрузку GZIP") @RequestParam(defaultValue = "false") boolean gzip,
+            @Parameter(description = "Статус: PASSED, FAILED, SKIPPED или BROKEN") @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String environment,
+            @RequestParam(required = false) String testSuite,
+            @RequestParam(required = false) String appVersion,
+            @RequestParam(required = false) String testClass,
+            HttpServletResponse response) {
+        var exportFormat = ExportFormat.fromString(format);
+        var filter = new TestRunExportFilter(
+                StringUtils.hasText(status) ? parseStatus(status) : null,
+                from, to, environment, testSuite, appVersion, testClass);
+        log.info("API request for test run export: format={}, gzip={}, filter={}", exportFormat, gzip, filter);
+
+        String fileName = "test-runs-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "." + exportFormat.getFileExtension() + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip") : MediaType.parseMediaType(exportFormat.getContentType());
+
+        response.setContentType(contentType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString());
+        return new WebAsyncTask<>(timeoutMillis, exportExecutor, () -> {
+            exportService.export(filter, exportFormat, gzip, response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
+    private static TestRun.TestStatus parseStatus(String status) {
+        return TestRun.TestStatus.parse(status).orElseThrow(() -> new BadRequestException(
+                "Unknown test status '" + status + "', expected one of " + Arrays.toString(TestRun.TestStatus.values())));
+    }
+}
@@ -0,0 +1,90 @@
+package com.svedentsov.xaiobserverapp.controller;
+
+import com.svedentsov.xaiobserverapp.dto.FlightRecordingStatusDTO;
+import com.svedentsov.xaiobserverapp.service.diagnostics.FlightRecordingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * REST-контроллер для управления записью Java Flight Recorder. Доступен только администраторам.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/admin/jfr")
+@RequiredArgsConstructor
+@Tag(name = "Flight Recorder", description = "Запись Java Flight Recorder с событиями приема и анализа запусков")
+public class FlightRecorderController {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final FlightRecordingService recordingService;
+
+    @Operation(summary = "Состояние записи")
+    @GetMapping
+    public ResponseEntity<FlightRecordingStatusDTO> getStatus() {
+        return ResponseEntity.ok(recordingService.getStatus());
+    }
+
+    @Operation(summary = "Начать запись",
+            description = "Начинает запись событий JVM и приложения. Параметры, не указанные в запросе, берутся из конфигурации (xai.jfr.*). " +
+                    "Предыдущая остановленная запись удаляется.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Запись начата"),
+            @ApiResponse(responseCode = "400", description = "Неизвестный набор настроек или некорректные лимиты"),
+            @ApiResponse(responseCode = "409", description = "Запись уже идет")
+    })
+    @PostMapping("/start")
+    public ResponseEntity<FlightRecordingStatusDTO> start(
+            @Parameter(description = "Набор настроек JFR: default или profile") @RequestParam(required = false) String settings,
+            @Parameter(description = "Хранимая история, минуты") @RequestParam(required = false) Long maxAgeMinutes,
+            @Parameter(description = "Максимальный размер записи, МБ") @RequestParam(required = false) Long maxSizeMb) {
+        log.info("API request to start flight recording: settings={}, maxAgeMinutes={}, maxSizeMb={}", settings, maxAgeMinutes, maxSizeMb);
+        return ResponseEntity.ok(recordingService.start(settings, maxAgeMinutes, maxSizeMb));
+    }
+
+    @Operation(summary = "Остановить запись", description = "Данные остановленной записи остаются доступны для выгрузки.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Запись остановлена"),
+            @ApiResponse(responseCode = "409", description = "Запись не идет")
+    })
+    @PostMapping("/stop")
+    public ResponseEntity<FlightRecordingStatusDTO> stop() {
+        log.info("API request to stop flight recording");
+        return ResponseEntity.ok(recordingService.stop());
+    }
+
+    @Operation(summary = "Выгрузить запись",
+            description = "Возвращает файл .jfr текущей или последней остановленной записи для JDK Mission Control или утилиты jfr. Идущая запись продолжается.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Файл записи"),
+            @ApiResponse(responseCode = "404", description = "Записи нет")
+    })
+    @GetMapping("/recording")
+    public ResponseEntity<StreamingResponseBody> download() {
+        recordingService.checkAvailable();
+        String fileName = "xai-observer-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr";
+        StreamingResponseBody body = recordingService::dump;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,62 @@
+package com.svedentsov.xaiobserverapp.controller;
+
+import com.svedentsov.xaiobserverapp.dto.ImportReportDTO;
+import com.svedentsov.xaiobserverapp.service.importer.TestResultImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * REST-контроллер для импорта исторических результатов тестов (JUnit XML, Allure)
+ * из каталога внутри корня импорта {@code xai.import.root}. Доступен только администраторам.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/import")
+@RequiredArgsConstructor
+@Tag(name = "Импорт", description = "Массовый импорт исторических результатов JUnit XML и Allure")
+public class ImportController {
+
+    private final TestResultImportService importService;
+
+    @Operation(summary = "Импорт результатов из каталога",
+            description = "Рекурсивно импортирует файлы JUnit XML и Allure (*-result.json) из каталога на сервере внутри корня импорта (xai.import.root). " +
+                    "Импорт идемпотентен и возобновляем: уже импортированные файлы и запуски пропускаются.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Импорт завершен, возвращены итоги"),
+            @ApiResponse(responseCode = "400", description = "Каталог не существует или находится вне корня импорта, либо размер пакета или параллелизм вне допустимых пределов")
+    })
+    @PostMapping
+    public ResponseEntity<ImportReportDTO> importDirectory(
+            @Parameter(description = "Путь к каталогу относительно корня импорта", required = true) @RequestParam String directory,
+            @Parameter(description = "Версия приложения для импортируемых запусков") @RequestParam(required = false) String appVersion,
+            @Parameter(description = "Окружение для импортируемых запусков") @RequestParam(required = false) String environment,
+            @Parameter(description = "Тестовый набор (по умолчанию берется из файлов)") @RequestParam(required = false) String testSuite,
+            @Parameter(description = "Размер пакета сохранения")
+            @RequestParam(required = false)
+            @Min(value = 1, message = "batchSize must be at least 1")
+            @Max(value = TestResultImportService.MAX_BATCH_SIZE, message = "batchSize must be at most " + TestResultImportService.MAX_BATCH_SIZE)
+            Integer batchSize,
+            @Parameter(description = "Количество параллельно обрабатываемых файлов")
+            @RequestParam(required = false)
+            @Min(value = 1, message = "parallelism must be at least 1")
+            @Max(value = TestResultImportService.MAX_PARALLELISM, message = "parallelism must be at most " + TestResultImportService.MAX_PARALLELISM)
+            Integer parallelism) throws IOException {
+        var options = importService.options(appVersion, environment, testSuite, batchSize, parallelism);
+        log.info("API request for import of {} with {}", directory, options);
+        return ResponseEntity.ok(importService.importDirectory(importService.resolveImportDirectory(directory), options));
+    }
+}
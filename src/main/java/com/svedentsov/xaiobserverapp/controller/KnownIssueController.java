@@ -0,0 +1,83 @@
+package com.svedentsov.xaiobserverapp.controller;
+
+import com.svedentsov.xaiobserverapp.dto.KnownIssueDTO;
+import com.svedentsov.xaiobserverapp.dto.KnownIssueMatcherInfoDTO;
+import com.svedentsov.xaiobserverapp.service.KnownIssueService;
+import com.svedentsov.xaiobserverapp.service.analysis.KnownIssueMatcher;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST-контроллер для управления каталогом известных проблем (known issues).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/known-issues")
+@RequiredArgsConstructor
+@Tag(name = "Известные проблемы", description = "Каталог сигнатур известных проблем и автоматическое сопоставление сбоев")
+public class KnownIssueController {
+
+    private final KnownIssueService knownIssueService;
+    private final KnownIssueMatcher knownIssueMatcher;
+
+    @Operation(summary = "Список известных проблем")
+    @GetMapping
+    public ResponseEntity<List<KnownIssueDTO>> getKnownIssues() {
+        return ResponseEntity.ok(knownIssueService.findAll());
+    }
+
+    @Operation(summary = "Добавить известную проблему")
+    @PostMapping
+    public ResponseEntity<KnownIssueDTO> createKnownIssue(@Valid @RequestBody KnownIssueDTO issue) {
+        log.info("API request to create known issue {}", issue.ticketId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(knownIssueService.createAll(List.of(issue)).get(0));
+    }
+
+    @Operation(summary = "Массово добавить известные проблемы",
+            description = "Сохраняет список проблем в одной транзакции; автомат сигнатур перестраивается один раз.")
+    @PostMapping("/bulk")
+    public ResponseEntity<List<KnownIssueDTO>> createKnownIssues(@RequestBody List<@Valid KnownIssueDTO> issues) {
+        log.info("API request to create {} known issues", issues.size());
+        return ResponseEntity.status(HttpStatus.CREATED).body(knownIssueService.createAll(issues));
+    }
+
+    @Operation(summary = "Изменить известную проблему")
+    @PutMapping("/{id}")
+    public ResponseEntity<KnownIssueDTO> updateKnownIssue(
+            @Parameter(description = "ID проблемы", required = true) @PathVariable Long id,
+            @Valid @RequestBody KnownIssueDTO issue) {
+        log.info("API request to update known issue {}", id);
+        return ResponseEntity.ok(knownIssueService.update(id, issue));
+    }
+
+    @Operation(summary = "Удалить известную проблему")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteKnownIssue(@Parameter(description = "ID проблемы", required = true) @PathVariable Long id) {
+        log.info("API request to delete known issue {}", id);
+        knownIssueService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Состояние автомата сигнатур",
+            description = "Возвращает версию автомата, количество сигнатур, время и длительность последней перестройки.")
+    @GetMapping("/matcher")
+    public ResponseEntity<KnownIssueMatcherInfoDTO> getMatcherInfo() {
+        return ResponseEntity.ok(knownIssueMatcher.getInfo());
+    }
+}
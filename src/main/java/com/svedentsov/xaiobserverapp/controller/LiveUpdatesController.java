@@ -0,0 +1,103 @@
+package com.svedentsov.xaiobserverapp.controller;
+
+import com.svedentsov.xaiobserverapp.config.WebSocketSessionGuard;
+import com.svedentsov.xaiobserverapp.dto.ClusterStatusDTO;
+import com.svedentsov.xaiobserverapp.dto.LiveTopicStatsDTO;
+import com.svedentsov.xaiobserverapp.dto.TestRunReplayDTO;
+import com.svedentsov.xaiobserverapp.dto.WebSocketGuardStatsDTO;
+import com.svedentsov.xaiobserverapp.exception.BadRequestException;
+import com.svedentsov.xaiobserverapp.service.TestRunBroadcaster;
+import com.svedentsov.xaiobserverapp.service.TestRunEventLog;
+import com.svedentsov.xaiobserverapp.service.TestRunStreamService;
+import com.svedentsov.xaiobserverapp.service.cluster.ClusterRelay;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST-контроллер для наблюдения за живыми уведомлениями через WebSocket.
+ */
+@RestController
+@RequestMapping("/api/v1/live")
+@RequiredArgsConstructor
+@Tag(name = "Живые уведомления", description = "Метрики каналов WebSocket-уведомлений, возобновление и SSE-поток новых запусков")
+public class LiveUpdatesController {
+
+    private final TestRunBroadcaster testRunBroadcaster;
+    private final TestRunEventLog eventLog;
+    private final TestRunStreamService streamService;
+    private final WebSocketSessionGuard sessionGuard;
+    private final ClusterRelay clusterRelay;
+
+    @Operation(summary = "Метрики каналов уведомлений",
+            description = "Возвращает для общего и отфильтрованных каналов /topic/new-test-run количество подписчиков, отправленных пакетов и запусков, а также их количество за последнюю минуту.")
+    @GetMapping("/topics")
+    public ResponseEntity<List<LiveTopicStatsDTO>> getTopicStatistics() {
+        return ResponseEntity.ok(testRunBroadcaster.getStatistics());
+    }
+
+    @Operation(summary = "Метрики WebSocket-сессий",
+            description = "Возвращает лимиты защиты от медленных клиентов, количество отброшенных сообщений и закрытых сессий, а также размер очереди отправки каждой открытой сессии.")
+    @GetMapping("/sessions")
+    public ResponseEntity<WebSocketGuardStatsDTO> getSessionStatistics() {
+        return ResponseEntity.ok(sessionGuard.getStatistics());
+    }
+
+    @Operation(summary = "Состояние узла в кластере",
+            description = "Возвращает идентификатор узла, номер последнего прочитанного события кластера и количество опубликованных и примененных событий.")
+    @GetMapping("/cluster")
+    public ResponseEntity<ClusterStatusDTO> getClusterStatus() {
+        return ResponseEntity.ok(clusterRelay.getStatus());
+    }
+
+    @Operation(summary = "Дочитать пропущенные запуски",
+            description = "Возвращает запуски живого потока с номером больше after, прошедшие фильтр. Без after возвращает только текущую позицию потока. Признак gap означает, что часть событий уже вытеснена из буфера и список нужно перезагрузить обычным запросом.")
+    @GetMapping("/test-runs")
+    public ResponseEntity<TestRunReplayDTO> replay(
+            @Parameter(description = "Номер последнего полученного события") @RequestParam(required = false) Long after,
+            @Parameter(description = "Тестовый набор") @RequestParam(required = false) String suite,
+            @Parameter(description = "Окружение") @RequestParam(required = false) String environment,
+            @Parameter(description = "Версия приложения") @RequestParam(name = "app-version", required = false) String appVersion,
+            @Parameter(description = "Статус") @RequestParam(required = false) String status,
+            @Parameter(description = "Максимальное количество запусков в ответе") @RequestParam(defaultValue = "500") int limit) {
+        if (limit > 1000) {
+            throw new BadRequestException("Limit must not exceed 1000");
+        }
+        return ResponseEntity.ok(eventLog.replay(after, criteria(suite, environment, appVersion, status), limit));
+    }
+
+    @Operation(summary = "SSE-поток новых запусков",
+            description = "Отправляет новые запуски как события test-run с id, равным номеру события. Заголовок Last-Event-ID (его передает EventSource при переподключении) или параметр after задают номер, с которого поток возобновляется.")
+    @GetMapping(value = "/test-runs/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @Parameter(description = "Номер последнего полученного события") @RequestParam(required = false) Long after,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+            @Parameter(description = "Тестовый набор") @RequestParam(required = false) String suite,
+            @Parameter(description = "Окружение") @RequestParam(required = false) String environment,
+            @Parameter(description = "Версия приложения") @RequestParam(name = "app-version", required = false) String appVersion,
+            @Parameter(description = "Статус") @RequestParam(required = false) String status) {
+        return streamService.subscribe(lastEventId != null ? lastEventId : after, criteria(suite, environment, appVersion, status));
+    }
+
+    private static Map<String, String> criteria(String suite, String environment, String appVersion, String status) {
+        Map<String, String> criteria = new HashMap<>();
+        criteria.put("suite", suite);
+        criteria.put("environment", environment);
+        criteria.put("app-version", appVersion);
+        criteria.put("status", status);
+        return criteria;
+    }
+}
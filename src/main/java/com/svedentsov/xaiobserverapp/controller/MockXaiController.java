@@ -4,28 +4,61 @@ import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
 import com.svedentsov.xaiobserverapp.model.AnalysisResult;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Контроллер-заглушка (mock), имитирующий работу внешнего XAI-сервиса.
  * Используется для локальной разработки и тестирования интеграции с ML-моделью,
  * когда реальный сервис недоступен. Принимает данные о сбое и возвращает
  * предопределенный фиктивный результат анализа.
+ * <p>
+ * Свойства {@code xai.mock.delay-ms} и {@code xai.mock.failure-rate} позволяют имитировать медленный
+ * и нестабильный сервис для проверки таймаутов, повторов и circuit breaker'а клиента.
  */
 @RestController
 @Tag(name = "XAI Service Mock", description = "Имитация внешнего Python XAI сервиса для тестирования интеграции")
 public class MockXaiController {
 
+    @Value("${xai.mock.delay-ms:0}")
+    private long delayMillis;
+
+    @Value("${xai.mock.failure-rate:0}")
+    private double failureRate;
+
     @Operation(summary = "Имитация предиктивного анализа",
             description = "Принимает данные о сбое и возвращает фиктивный результат анализа, как это делал бы реальный ML-сервис. Возвращает структурированные данные в поле `explanationData`.")
     @PostMapping("/mock/xai/predict")
-    public AnalysisResult mockXaiPrediction(@RequestBody FailureEventDTO event) {
+    public AnalysisResult mockXaiPrediction(@RequestBody FailureEventDTO event) throws InterruptedException {
+        simulateServiceBehaviour();
+        return predict(event);
+    }
+
+    @Operation(summary = "Имитация пакетного предиктивного анализа",
+            description = "Принимает массив событий и возвращает массив результатов в том же порядке, как пакетный endpoint реального ML-сервиса. Задержка и сбои имитируются один раз на пакет.")
+    @PostMapping("/mock/xai/predict/batch")
+    public List<AnalysisResult> mockXaiBatchPrediction(@RequestBody List<FailureEventDTO> events) throws InterruptedException {
+        simulateServiceBehaviour();
+        return events.stream().map(this::predict).toList();
+    }
+
+    /**
+     * Формирует фиктивный результат анализа для одного события.
+     *
+     * @param event DTO события.
+     * @return Фиктивный результат анализа.
+     */
+    private AnalysisResult predict(FailureEventDTO event) {
         var result = new AnalysisResult();
         result.setAnalysisType("ML-based XAI Analysis (Mock)");
         result.setAiConfidence(0.78);
@@ -61,4 +94,18 @@ public class MockXaiController {
         result.setExplanationData(explanationData);
         return result;
     }
+
+    /**
+     * Имитирует задержку и случайные сбои внешнего сервиса согласно настройкам.
+     *
+     * @throws InterruptedException если ожидание было прервано.
+     */
+    private void simulateServiceBehaviour() throws InterruptedException {
+        if (delayMillis > 0) {
+            Thread.sleep(delayMillis);
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Simulated XAI service failure");
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.svedentsov.xaiobserverapp.controller;
+
+import com.svedentsov.xaiobserverapp.dto.AlertingStatsDTO;
+import com.svedentsov.xaiobserverapp.service.NotificationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-контроллер для наблюдения за уведомлениями о сбоях.
+ */
+@RestController
+@RequestMapping("/api/v1/notifications")
+@RequiredArgsConstructor
+@Tag(name = "Уведомления", description = "Агрегация сбоев в сводки и их доставка по каналам")
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    @Operation(summary = "Статистика уведомлений о сбоях",
+            description = "Возвращает количество принятых сбоев и отслеживаемых групп, отправленных, отложенных из-за лимита частоты и отброшенных сводок, а также статистику доставки по каждому каналу.")
+    @GetMapping("/stats")
+    public ResponseEntity<AlertingStatsDTO> getStatistics() {
+        return ResponseEntity.ok(notificationService.getStatistics());
+    }
+}
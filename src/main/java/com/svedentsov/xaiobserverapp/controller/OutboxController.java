@@ -0,0 +1,30 @@
+package com.svedentsov.xaiobserverapp.controller;
+
+import com.svedentsov.xaiobserverapp.dto.OutboxStatsDTO;
+import com.svedentsov.xaiobserverapp.service.outbox.OutboxRelay;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-контроллер для наблюдения за транзакционным outbox.
+ */
+@RestController
+@RequestMapping("/api/v1/outbox")
+@RequiredArgsConstructor
+@Tag(name = "Outbox", description = "Доставка событий о сохраненных запусках после фиксации транзакции")
+public class OutboxController {
+
+    private final OutboxRelay outboxRelay;
+
+    @Operation(summary = "Статистика outbox",
+            description = "Возвращает количество событий, ожидающих доставки и недоставленных за допустимое число попыток, а также количество доставленных событий и повторных попыток с момента запуска узла.")
+    @GetMapping("/stats")
+    public ResponseEntity<OutboxStatsDTO> getStatistics() {
+        return ResponseEntity.ok(outboxRelay.getStatistics());
+    }
+}
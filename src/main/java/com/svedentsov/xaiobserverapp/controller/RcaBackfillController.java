@@ -0,0 +1,82 @@
+package com.svedentsov.xaiobserverapp.controller;
+
+import com.svedentsov.xaiobserverapp.dto.RcaBackfillRequestDTO;
+import com.svedentsov.xaiobserverapp.dto.RcaBackfillStatusDTO;
+import com.svedentsov.xaiobserverapp.service.backfill.RcaBackfillService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST-контроллер для управления заданиями повторного анализа первопричин исторических запусков.
+ * Доступен только администраторам.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/analysis/backfill")
+@RequiredArgsConstructor
+@Tag(name = "Повторный анализ", description = "Повторный анализ первопричин исторических сбоев после обновления правил или модели")
+public class RcaBackfillController {
+
+    private final RcaBackfillService backfillService;
+
+    @Operation(summary = "Запустить повторный анализ",
+            description = "Запускает фоновое задание, которое заново анализирует отобранные запуски (по умолчанию FAILED и BROKEN). " +
+                    "В режиме dryRun результаты не записываются, а сравниваются с сохраненными.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Задание запущено"),
+            @ApiResponse(responseCode = "400", description = "Некорректные параметры"),
+            @ApiResponse(responseCode = "409", description = "Уже выполняется другое задание")
+    })
+    @PostMapping
+    public ResponseEntity<RcaBackfillStatusDTO> startBackfill(@Valid @RequestBody RcaBackfillRequestDTO request) {
+        log.info("API request to start RCA backfill: {}", request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(backfillService.start(request));
+    }
+
+    @Operation(summary = "Список заданий повторного анализа")
+    @GetMapping
+    public ResponseEntity<List<RcaBackfillStatusDTO>> getBackfillJobs() {
+        return ResponseEntity.ok(backfillService.findAll());
+    }
+
+    @Operation(summary = "Состояние задания",
+            description = "Возвращает прогресс, скорость обработки, оценку оставшегося времени и выборку различий.")
+    @GetMapping("/{id}")
+    public ResponseEntity<RcaBackfillStatusDTO> getBackfillJob(
+            @Parameter(description = "ID задания", required = true) @PathVariable String id) {
+        return ResponseEntity.ok(backfillService.getStatus(id));
+    }
+
+    @Operation(summary = "Остановить задание", description = "Задание останавливается после записи текущей страницы.")
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<RcaBackfillStatusDTO> cancelBackfillJob(
+            @Parameter(description = "ID задания", required = true) @PathVariable String id) {
+        log.info("API request to cancel RCA backfill job {}", id);
+        return ResponseEntity.ok(backfillService.cancel(id));
+    }
+
+    @Operation(summary = "Продолжить задание", description = "Продолжает отмененное, упавшее или прерванное задание с контрольной точки. " +
+            "Для завершенного задания повторно анализирует запуски, анализ которых завершился ошибкой.")
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<RcaBackfillStatusDTO> resumeBackfillJob(
+            @Parameter(description = "ID задания", required = true) @PathVariable String id) {
+        log.info("API request to resume RCA backfill job {}", id);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(backfillService.resume(id));
+    }
+}
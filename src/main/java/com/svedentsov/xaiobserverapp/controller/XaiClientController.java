@@ -0,0 +1,85 @@
+package com.svedentsov.xaiobserverapp.controller;
+
+import com.svedentsov.xaiobserverapp.dto.LocalXaiModelStatsDTO;
+import com.svedentsov.xaiobserverapp.dto.XaiCacheStatsDTO;
+import com.svedentsov.xaiobserverapp.dto.XaiClientStatsDTO;
+import com.svedentsov.xaiobserverapp.exception.ResourceNotFoundException;
+import com.svedentsov.xaiobserverapp.service.xai.ResilientXaiServiceClient;
+import com.svedentsov.xaiobserverapp.service.xai.XaiPredictionCache;
+import com.svedentsov.xaiobserverapp.service.xai.local.LocalXaiModel;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST-контроллер для наблюдения за клиентом внешнего XAI-сервиса.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/xai")
+@RequiredArgsConstructor
+@Tag(name = "XAI-клиент", description = "Состояние и метрики клиента внешнего XAI-сервиса, кэша предсказаний и локальной модели")
+public class XaiClientController {
+
+    private final ResilientXaiServiceClient xaiServiceClient;
+    private final XaiPredictionCache predictionCache;
+    private final LocalXaiModel localXaiModel;
+
+    @Operation(summary = "Статистика XAI-клиента",
+            description = "Возвращает состояние circuit breaker, загрузку bulkhead, счетчики успехов, ошибок, таймаутов и дублирующих запросов, а также перцентили задержек.")
+    @GetMapping("/client/stats")
+    public ResponseEntity<XaiClientStatsDTO> getStatistics() {
+        return ResponseEntity.ok(xaiServiceClient.getStatistics());
+    }
+
+    @Operation(summary = "Статистика кэша предсказаний",
+            description = "Возвращает размер кэша, количество попаданий, промахов, объединенных запросов и инвалидаций.")
+    @GetMapping("/cache")
+    public ResponseEntity<XaiCacheStatsDTO> getCacheStatistics() {
+        return ResponseEntity.ok(predictionCache.getStatistics());
+    }
+
+    @Operation(summary = "Инвалидировать предсказание",
+            description = "Удаляет из кэша предсказание для указанного отпечатка сбоя (значение explanationData.fingerprint).")
+    @DeleteMapping("/cache/{fingerprint}")
+    public ResponseEntity<Void> invalidateCacheEntry(
+            @Parameter(description = "Отпечаток сбоя", required = true) @PathVariable String fingerprint) {
+        log.info("API request to invalidate XAI cache entry {}", fingerprint);
+        if (!predictionCache.invalidate(fingerprint)) {
+            throw new ResourceNotFoundException("XAI cache entry " + fingerprint + " not found");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Очистить кэш предсказаний")
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> clearCache() {
+        log.info("API request to clear XAI prediction cache");
+        predictionCache.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Статистика локальной модели",
+            description = "Возвращает размер обучающей выборки и словаря, количество сбоев, классифицированных локально и переданных XAI-сервису, долю совпадений с ответами сервиса и среднее время классификации.")
+    @GetMapping("/local-model")
+    public ResponseEntity<LocalXaiModelStatsDTO> getLocalModelStatistics() {
+        return ResponseEntity.ok(localXaiModel.getStatistics());
+    }
+
+    @Operation(summary = "Переобучить локальную модель",
+            description = "Сбрасывает локальную модель и в фоне обучает ее заново по сохраненным результатам анализа и исправлениям пользователей. Возвращает 409, если обучение уже выполняется или модель отключена.")
+    @PostMapping("/local-model/retrain")
+    public ResponseEntity<LocalXaiModelStatsDTO> retrainLocalModel() {
+        log.info("API request to retrain the local XAI model");
+        return ResponseEntity.accepted().body(localXaiModel.retrain());
+    }
+}
@@ -0,0 +1,34 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO со статистикой канала доставки уведомлений о сбоях.
+ *
+ * @param name       Имя канала.
+ * @param sent       Количество доставленных сводок.
+ * @param failed     Количество сводок, которые не удалось доставить.
+ * @param lastError  Текст последней ошибки доставки.
+ * @param lastSentAt Время последней успешной доставки.
+ */
+@Schema(description = "Статистика канала доставки уведомлений")
+public record AlertSinkStatsDTO(
+
+        @Schema(description = "Имя канала", example = "webhook")
+        String name,
+
+        @Schema(description = "Доставлено сводок", example = "42")
+        long sent,
+
+        @Schema(description = "Сводок с ошибкой доставки", example = "1")
+        long failed,
+
+        @Schema(description = "Последняя ошибка доставки", example = "Connection refused")
+        String lastError,
+
+        @Schema(description = "Время последней успешной доставки")
+        LocalDateTime lastSentAt
+) {
+}
@@ -0,0 +1,58 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO со статистикой агрегации и рассылки уведомлений о сбоях.
+ *
+ * @param enabled                   Включены ли уведомления.
+ * @param windowSeconds             Окно накопления сбоев группы, секунды.
+ * @param maxDigestsPerGroupPerHour Максимальное количество сводок одной группы в час.
+ * @param activeGroups              Количество отслеживаемых групп.
+ * @param pendingFailures           Сбои, ожидающие отправки в сводке.
+ * @param receivedFailures          Всего принято сбоев.
+ * @param overflowFailures          Сбои, попавшие в общую группу из-за лимита количества групп.
+ * @param digestsSent               Количество сформированных сводок.
+ * @param deferredDigests           Сколько раз сводка откладывалась из-за лимита частоты.
+ * @param droppedDigests            Сводки, отброшенные из-за переполнения очереди рассылки.
+ * @param sinks                     Статистика каналов доставки.
+ */
+@Schema(description = "Статистика агрегации и рассылки уведомлений о сбоях")
+public record AlertingStatsDTO(
+
+        @Schema(description = "Включены ли уведомления", example = "true")
+        boolean enabled,
+
+        @Schema(description = "Окно накопления сбоев группы, секунды", example = "60")
+        long windowSeconds,
+
+        @Schema(description = "Максимум сводок одной группы в час", example = "6")
+        int maxDigestsPerGroupPerHour,
+
+        @Schema(description = "Количество отслеживаемых групп", example = "12")
+        int activeGroups,
+
+        @Schema(description = "Сбои, ожидающие отправки", example = "340")
+        long pendingFailures,
+
+        @Schema(description = "Всего принято сбоев", example = "3000")
+        long receivedFailures,
+
+        @Schema(description = "Сбои в общей группе из-за лимита групп", example = "0")
+        long overflowFailures,
+
+        @Schema(description = "Сформировано сводок", example = "14")
+        long digestsSent,
+
+        @Schema(description = "Отложено сводок из-за лимита частоты", example = "3")
+        long deferredDigests,
+
+        @Schema(description = "Отброшено сводок из-за переполнения очереди", example = "0")
+        long droppedDigests,
+
+        @Schema(description = "Статистика каналов доставки")
+        List<AlertSinkStatsDTO> sinks
+) {
+}
@@ -0,0 +1,46 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO с состоянием узла в режиме кластера.
+ *
+ * @param enabled         Включен ли режим кластера.
+ * @param nodeId          Идентификатор узла.
+ * @param lastEventId     Номер последнего прочитанного события кластера.
+ * @param publishedEvents Количество событий, опубликованных узлом.
+ * @param receivedEvents  Количество событий других узлов, примененных узлом.
+ * @param failedEvents    Количество событий, которые не удалось опубликовать или применить.
+ * @param skippedEvents   Количество номеров событий, пропущенных после истечения ожидания.
+ * @param lastPollAt      Время последнего чтения журнала кластера.
+ */
+@Schema(description = "Состояние узла в режиме кластера")
+public record ClusterStatusDTO(
+
+        @Schema(description = "Включен ли режим кластера", example = "true")
+        boolean enabled,
+
+        @Schema(description = "Идентификатор узла", example = "node-1")
+        String nodeId,
+
+        @Schema(description = "Номер последнего прочитанного события", example = "10452")
+        long lastEventId,
+
+        @Schema(description = "Опубликовано событий", example = "320")
+        long publishedEvents,
+
+        @Schema(description = "Применено событий других узлов", example = "640")
+        long receivedEvents,
+
+        @Schema(description = "Событий с ошибкой публикации или применения", example = "0")
+        long failedEvents,
+
+        @Schema(description = "Пропущено номеров событий, не появившихся за время ожидания", example = "0")
+        long skippedEvents,
+
+        @Schema(description = "Время последнего чтения журнала")
+        LocalDateTime lastPollAt
+) {
+}
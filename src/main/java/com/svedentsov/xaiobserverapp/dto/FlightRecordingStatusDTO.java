@@ -0,0 +1,47 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO с состоянием записи Java Flight Recorder.
+ *
+ * @param state         Состояние записи: {@code NONE}, {@code RUNNING}, {@code STOPPED}.
+ * @param settings      Набор настроек JFR ({@code default} или {@code profile}).
+ * @param startedAt     Время начала записи.
+ * @param stoppedAt     Время остановки записи.
+ * @param maxAgeMinutes Сколько минут истории хранит запись.
+ * @param maxSizeMb     Максимальный размер записи на диске, МБ.
+ * @param sizeBytes     Текущий размер записи, байт.
+ * @param events        Собственные события приложения, включаемые в запись.
+ */
+@Schema(description = "Состояние записи Java Flight Recorder")
+public record FlightRecordingStatusDTO(
+
+        @Schema(description = "Состояние записи", example = "RUNNING")
+        String state,
+
+        @Schema(description = "Набор настроек JFR", example = "default")
+        String settings,
+
+        @Schema(description = "Время начала записи")
+        LocalDateTime startedAt,
+
+        @Schema(description = "Время остановки записи")
+        LocalDateTime stoppedAt,
+
+        @Schema(description = "Хранимая история, минуты", example = "30")
+        long maxAgeMinutes,
+
+        @Schema(description = "Максимальный размер записи, МБ", example = "100")
+        long maxSizeMb,
+
+        @Schema(description = "Текущий размер записи, байт", example = "5242880")
+        long sizeBytes,
+
+        @Schema(description = "Собственные события приложения", example = "[\"com.svedentsov.xai.IngestStage\"]")
+        List<String> events
+) {
+}
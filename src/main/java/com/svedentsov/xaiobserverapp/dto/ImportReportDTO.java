@@ -0,0 +1,44 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO с итогами импорта исторических результатов тестов.
+ *
+ * @param filesTotal    Количество найденных поддерживаемых файлов.
+ * @param filesImported Количество успешно обработанных файлов.
+ * @param filesSkipped  Количество файлов, пропущенных по контрольной точке (уже импортированы ранее).
+ * @param filesFailed   Количество файлов, которые не удалось разобрать.
+ * @param runsImported  Количество добавленных тестовых запусков.
+ * @param runsSkipped   Количество запусков, пропущенных как уже существующие.
+ * @param elapsedMillis Длительность импорта в миллисекундах.
+ * @param runsPerSecond Средняя скорость импорта (запусков в секунду).
+ */
+@Schema(description = "Итоги импорта исторических результатов тестов")
+public record ImportReportDTO(
+
+        @Schema(description = "Количество найденных поддерживаемых файлов", example = "120")
+        long filesTotal,
+
+        @Schema(description = "Количество успешно обработанных файлов", example = "118")
+        long filesImported,
+
+        @Schema(description = "Количество файлов, пропущенных по контрольной точке", example = "0")
+        long filesSkipped,
+
+        @Schema(description = "Количество файлов, которые не удалось разобрать", example = "2")
+        long filesFailed,
+
+        @Schema(description = "Количество добавленных тестовых запусков", example = "45210")
+        long runsImported,
+
+        @Schema(description = "Количество запусков, пропущенных как уже существующие", example = "0")
+        long runsSkipped,
+
+        @Schema(description = "Длительность импорта в миллисекундах", example = "18250")
+        long elapsedMillis,
+
+        @Schema(description = "Средняя скорость импорта, запусков в секунду", example = "2477")
+        long runsPerSecond
+) {
+}
@@ -0,0 +1,39 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO известной проблемы (known issue).
+ *
+ * @param id        Уникальный идентификатор (заполняется сервером).
+ * @param signature Подстрока сообщения об ошибке или стек-трейса, по которой распознается проблема.
+ * @param ticketId  Идентификатор тикета в баг-трекере.
+ * @param title     Краткое описание проблемы.
+ * @param enabled   Участвует ли сигнатура в сопоставлении (по умолчанию - да).
+ */
+@Schema(description = "Известная проблема и ее сигнатура")
+public record KnownIssueDTO(
+
+        @Schema(description = "Уникальный идентификатор", accessMode = Schema.AccessMode.READ_ONLY, example = "42")
+        Long id,
+
+        @NotBlank(message = "signature must not be blank")
+        @Size(max = 1000, message = "signature must be at most 1000 characters")
+        @Schema(description = "Подстрока для поиска (без учета регистра)", requiredMode = Schema.RequiredMode.REQUIRED,
+                example = "Connection refused: selenium-grid")
+        String signature,
+
+        @Size(max = 100, message = "ticketId must be at most 100 characters")
+        @Schema(description = "Идентификатор тикета", example = "INFRA-1234")
+        String ticketId,
+
+        @Size(max = 500, message = "title must be at most 500 characters")
+        @Schema(description = "Краткое описание проблемы", example = "Selenium Grid недоступен на ночных прогонах")
+        String title,
+
+        @Schema(description = "Участвует ли сигнатура в сопоставлении", example = "true")
+        Boolean enabled
+) {
+}
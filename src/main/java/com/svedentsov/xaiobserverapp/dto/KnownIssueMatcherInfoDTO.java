@@ -0,0 +1,38 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO с информацией о текущей версии автомата известных проблем.
+ *
+ * @param version      Номер версии автомата (увеличивается при каждой перестройке).
+ * @param issueCount   Количество активных известных проблем.
+ * @param patternCount Количество уникальных сигнатур в автомате.
+ * @param builtAt      Время построения текущей версии.
+ * @param buildMillis  Длительность построения, мс.
+ * @param matchedRuns  Количество сбоев, совпавших хотя бы с одной проблемой, с момента запуска.
+ */
+@Schema(description = "Информация об автомате известных проблем")
+public record KnownIssueMatcherInfoDTO(
+
+        @Schema(description = "Номер версии автомата", example = "3")
+        long version,
+
+        @Schema(description = "Количество активных известных проблем", example = "2500")
+        int issueCount,
+
+        @Schema(description = "Количество уникальных сигнатур", example = "2480")
+        int patternCount,
+
+        @Schema(description = "Время построения текущей версии")
+        LocalDateTime builtAt,
+
+        @Schema(description = "Длительность построения, мс", example = "35")
+        long buildMillis,
+
+        @Schema(description = "Количество сбоев, совпавших с известными проблемами", example = "118")
+        long matchedRuns
+) {
+}
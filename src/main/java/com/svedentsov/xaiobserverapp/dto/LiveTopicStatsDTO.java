@@ -0,0 +1,55 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * DTO с метриками канала живых уведомлений о новых запусках.
+ *
+ * @param destination        Адрес STOMP-подписки.
+ * @param filter             Условия фильтра канала (пустые для общего канала).
+ * @param valid              Корректен ли фильтр в адресе. По некорректным адресам уведомления не отправляются.
+ * @param subscribers        Количество подписчиков.
+ * @param messagesSent       Количество отправленных пакетов.
+ * @param runsSent           Количество запусков в отправленных пакетах.
+ * @param runsOmitted        Количество запусков, не вошедших в пакеты из-за лимита окна.
+ * @param messagesLastMinute Количество пакетов за последнюю минуту.
+ * @param runsLastMinute     Количество запусков в пакетах за последнюю минуту.
+ * @param lastSentAt         Время отправки последнего пакета.
+ */
+@Schema(description = "Метрики канала живых уведомлений о новых запусках")
+public record LiveTopicStatsDTO(
+
+        @Schema(description = "Адрес STOMP-подписки", example = "/topic/new-test-run/status/FAILED")
+        String destination,
+
+        @Schema(description = "Условия фильтра канала")
+        Map<String, String> filter,
+
+        @Schema(description = "Корректен ли фильтр в адресе", example = "true")
+        boolean valid,
+
+        @Schema(description = "Количество подписчиков", example = "3")
+        int subscribers,
+
+        @Schema(description = "Отправлено пакетов", example = "120")
+        long messagesSent,
+
+        @Schema(description = "Запусков в отправленных пакетах", example = "860")
+        long runsSent,
+
+        @Schema(description = "Запусков, не вошедших в пакеты из-за лимита окна", example = "0")
+        long runsOmitted,
+
+        @Schema(description = "Пакетов за последнюю минуту", example = "40")
+        long messagesLastMinute,
+
+        @Schema(description = "Запусков за последнюю минуту", example = "95")
+        long runsLastMinute,
+
+        @Schema(description = "Время отправки последнего пакета")
+        LocalDateTime lastSentAt
+) {
+}
@@ -0,0 +1,58 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+/**
+ * DTO со статистикой локальной модели классификации сбоев.
+ *
+ * @param enabled             Включена ли локальная модель.
+ * @param training            Выполняется ли обучение по сохраненной истории.
+ * @param confidenceThreshold Минимальная уверенность, при которой ответ модели используется без обращения к XAI-сервису.
+ * @param examples            Количество обучающих примеров.
+ * @param vocabulary          Количество различных признаков (хэшей) в модели.
+ * @param servedLocally       Количество сбоев, классифицированных локально.
+ * @param delegated           Количество сбоев, переданных XAI-сервису.
+ * @param comparisons         Количество ответов XAI-сервиса, с которыми сравнивалось предсказание модели.
+ * @param agreementRate       Доля совпадений предсказания модели с ответом XAI-сервиса; {@code null}, если сравнений не было.
+ * @param avgClassifyMicros   Среднее время классификации, мкс.
+ * @param labelExamples       Количество обучающих примеров по классам.
+ */
+@Schema(description = "Статистика локальной модели классификации сбоев")
+public record LocalXaiModelStatsDTO(
+
+        @Schema(description = "Включена ли локальная модель", example = "true")
+        boolean enabled,
+
+        @Schema(description = "Идет ли обучение по истории", example = "false")
+        boolean training,
+
+        @Schema(description = "Порог уверенности для локального ответа", example = "0.9")
+        double confidenceThreshold,
+
+        @Schema(description = "Обучающих примеров", example = "5230")
+        long examples,
+
+        @Schema(description = "Различных признаков", example = "18400")
+        int vocabulary,
+
+        @Schema(description = "Классифицировано локально", example = "3100")
+        long servedLocally,
+
+        @Schema(description = "Передано XAI-сервису", example = "1200")
+        long delegated,
+
+        @Schema(description = "Сравнений с ответом XAI-сервиса", example = "1150")
+        long comparisons,
+
+        @Schema(description = "Доля совпадений с XAI-сервисом", example = "0.87")
+        Double agreementRate,
+
+        @Schema(description = "Среднее время классификации, мкс", example = "35.2")
+        double avgClassifyMicros,
+
+        @Schema(description = "Обучающих примеров по классам")
+        Map<String, Long> labelExamples
+) {
+}
@@ -0,0 +1,38 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO со статистикой транзакционного outbox.
+ *
+ * @param pending     Количество событий, ожидающих доставки.
+ * @param failed      Количество событий, не доставленных за допустимое число попыток.
+ * @param delivered   Количество событий, доставленных с момента запуска узла.
+ * @param retried     Количество отложенных повторных попыток доставки.
+ * @param lastDrainAt Время последней доставки пакета.
+ * @param lastError   Текст последней ошибки доставки.
+ */
+@Schema(description = "Статистика транзакционного outbox")
+public record OutboxStatsDTO(
+
+        @Schema(description = "Событий ожидает доставки", example = "0")
+        long pending,
+
+        @Schema(description = "Недоставленных событий", example = "0")
+        long failed,
+
+        @Schema(description = "Доставлено событий", example = "15230")
+        long delivered,
+
+        @Schema(description = "Отложено повторных попыток", example = "2")
+        long retried,
+
+        @Schema(description = "Время последней доставки пакета")
+        LocalDateTime lastDrainAt,
+
+        @Schema(description = "Последняя ошибка доставки", example = "Connection refused")
+        String lastError
+) {
+}
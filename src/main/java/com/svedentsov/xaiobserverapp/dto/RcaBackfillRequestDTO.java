@@ -0,0 +1,72 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO запроса на повторный анализ первопричин исторических запусков.
+ * Незаданные поля фильтра не участвуют в отборе, незаданные параметры выполнения берутся из конфигурации.
+ *
+ * @param statuses                Статусы отбираемых запусков (по умолчанию FAILED и BROKEN).
+ * @param from                    Нижняя граница времени завершения (включительно).
+ * @param to                      Верхняя граница времени завершения (не включительно).
+ * @param testClass               Полное имя класса теста.
+ * @param environment             Окружение.
+ * @param analysisStatus          Состояние анализа отбираемых запусков (например, PENDING).
+ * @param dryRun                  Пробный прогон: только сравнить новые результаты со старыми, не записывая их.
+ * @param useXai                  Обращаться ли к XAI-сервису для сбоев, не распознанных правилами (по умолчанию - да).
+ * @param refreshXaiCache         Очистить кэш предсказаний XAI перед началом (после обновления модели).
+ * @param parallelism             Количество параллельно анализируемых запусков.
+ * @param batchSize               Размер страницы обхода и транзакции записи.
+ * @param maxXaiRequestsPerSecond Ограничение частоты анализов, которые могут обратиться к XAI-сервису.
+ */
+@Schema(description = "Параметры повторного анализа первопричин исторических запусков")
+public record RcaBackfillRequestDTO(
+
+        @Schema(description = "Статусы запусков (по умолчанию FAILED и BROKEN)", example = "[\"FAILED\", \"BROKEN\"]")
+        List<String> statuses,
+
+        @Schema(description = "Нижняя граница времени завершения (включительно)", example = "2024-01-01T00:00:00")
+        LocalDateTime from,
+
+        @Schema(description = "Верхняя граница времени завершения (не включительно)", example = "2024-07-01T00:00:00")
+        LocalDateTime to,
+
+        @Schema(description = "Полное имя класса теста", example = "com.example.tests.LoginTests")
+        String testClass,
+
+        @Schema(description = "Окружение", example = "staging")
+        String environment,
+
+        @Schema(description = "Состояние анализа (PENDING, COMPLETED, FAILED)", example = "PENDING")
+        String analysisStatus,
+
+        @Schema(description = "Пробный прогон без записи результатов", example = "true")
+        Boolean dryRun,
+
+        @Schema(description = "Использовать XAI-сервис", example = "true")
+        Boolean useXai,
+
+        @Schema(description = "Очистить кэш предсказаний XAI перед началом", example = "false")
+        Boolean refreshXaiCache,
+
+        @Min(value = 1, message = "parallelism must be at least 1")
+        @Max(value = 64, message = "parallelism must be at most 64")
+        @Schema(description = "Количество параллельно анализируемых запусков", example = "4")
+        Integer parallelism,
+
+        @Min(value = 1, message = "batchSize must be at least 1")
+        @Max(value = 5000, message = "batchSize must be at most 5000")
+        @Schema(description = "Размер страницы обхода и транзакции записи", example = "200")
+        Integer batchSize,
+
+        @Positive(message = "maxXaiRequestsPerSecond must be positive")
+        @Schema(description = "Ограничение частоты обращений к XAI-сервису, запросов в секунду", example = "20")
+        Double maxXaiRequestsPerSecond
+) {
+}
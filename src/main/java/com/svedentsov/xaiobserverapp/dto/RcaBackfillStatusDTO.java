@@ -0,0 +1,96 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import com.svedentsov.xaiobserverapp.model.RcaBackfillDiff;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO состояния задания повторного анализа первопричин.
+ *
+ * @param id              ID задания.
+ * @param state           Состояние (RUNNING, COMPLETED, CANCELLED, FAILED, INTERRUPTED).
+ * @param dryRun          Пробный прогон без записи результатов.
+ * @param useXai          Используется ли XAI-сервис.
+ * @param statuses        Статусы отбираемых запусков.
+ * @param totalRuns       Количество запусков, подходящих под фильтр.
+ * @param processedRuns   Количество обработанных запусков.
+ * @param changedRuns     Количество запусков, результаты анализа которых изменились.
+ * @param unchangedRuns   Количество запусков с неизменившимися результатами.
+ * @param failedRuns      Количество запусков, анализ которых завершился ошибкой.
+ * @param progressPercent Процент выполнения.
+ * @param runsPerSecond   Текущая скорость обработки (только для выполняющегося задания).
+ * @param etaSeconds      Оценка оставшегося времени в секундах (только для выполняющегося задания).
+ * @param lastKey         Контрольная точка: ID последнего обработанного запуска.
+ * @param createdAt       Время создания задания.
+ * @param startedAt       Время последнего запуска задания.
+ * @param updatedAt       Время последнего сохранения контрольной точки.
+ * @param finishedAt      Время завершения.
+ * @param errorMessage    Ошибка, остановившая задание.
+ * @param diffs           Выборка различий между старыми и новыми результатами.
+ */
+@Schema(description = "Состояние задания повторного анализа первопричин")
+public record RcaBackfillStatusDTO(
+
+        @Schema(description = "ID задания", example = "5f0c1a52-7d0e-4c1b-9d4f-3f1b2a6c8e90")
+        String id,
+
+        @Schema(description = "Состояние задания", example = "RUNNING")
+        String state,
+
+        @Schema(description = "Пробный прогон без записи результатов", example = "true")
+        boolean dryRun,
+
+        @Schema(description = "Используется ли XAI-сервис", example = "true")
+        boolean useXai,
+
+        @Schema(description = "Статусы отбираемых запусков", example = "[\"FAILED\", \"BROKEN\"]")
+        List<String> statuses,
+
+        @Schema(description = "Количество запусков, подходящих под фильтр", example = "12000")
+        long totalRuns,
+
+        @Schema(description = "Количество обработанных запусков", example = "4800")
+        long processedRuns,
+
+        @Schema(description = "Количество запусков с изменившимися результатами", example = "730")
+        long changedRuns,
+
+        @Schema(description = "Количество запусков с неизменившимися результатами", example = "4065")
+        long unchangedRuns,
+
+        @Schema(description = "Количество запусков, анализ которых завершился ошибкой", example = "5")
+        long failedRuns,
+
+        @Schema(description = "Процент выполнения", example = "40.0")
+        double progressPercent,
+
+        @Schema(description = "Текущая скорость обработки, запусков в секунду", example = "35.2")
+        Double runsPerSecond,
+
+        @Schema(description = "Оценка оставшегося времени, секунды", example = "204")
+        Long etaSeconds,
+
+        @Schema(description = "ID последнего обработанного запуска", example = "7c9e6679-7425-40de-944b-e07fc1f90ae7")
+        String lastKey,
+
+        @Schema(description = "Время создания задания")
+        LocalDateTime createdAt,
+
+        @Schema(description = "Время последнего запуска задания")
+        LocalDateTime startedAt,
+
+        @Schema(description = "Время последнего сохранения контрольной точки")
+        LocalDateTime updatedAt,
+
+        @Schema(description = "Время завершения задания")
+        LocalDateTime finishedAt,
+
+        @Schema(description = "Ошибка, остановившая задание")
+        String errorMessage,
+
+        @Schema(description = "Выборка различий между старыми и новыми результатами анализа")
+        List<RcaBackfillDiff> diffs
+) {
+}
@@ -0,0 +1,26 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO со сводной статистикой диспетчеризации правил RCA.
+ *
+ * @param dispatches               Количество проанализированных событий.
+ * @param avgCandidatesPerDispatch Среднее число стратегий, вызванных на одно событие.
+ * @param strategies               Статистика по каждой стратегии в порядке применения.
+ */
+@Schema(description = "Сводная статистика диспетчеризации правил RCA")
+public record RuleDispatchStatsDTO(
+
+        @Schema(description = "Количество проанализированных событий", example = "1600")
+        long dispatches,
+
+        @Schema(description = "Среднее число вызванных стратегий на событие", example = "1.3")
+        double avgCandidatesPerDispatch,
+
+        @Schema(description = "Статистика по стратегиям")
+        List<StrategyStatsDTO> strategies
+) {
+}
@@ -0,0 +1,43 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO с информацией о загруженном наборе декларативных правил RCA.
+ *
+ * @param source       Источник правил (путь к файлу или ресурсу).
+ * @param loadedAt     Время загрузки текущей версии правил.
+ * @param ruleCount    Количество активных правил.
+ * @param patternCount Количество уникальных подстрок в общем автомате.
+ * @param rules        Статистика по правилам в порядке применения.
+ * @param adaptiveOrdering Включено ли адаптивное упорядочивание правил.
+ * @param reorderedAt  Время последнего пересчета порядка; {@code null}, если действует исходный порядок.
+ */
+@Schema(description = "Информация о загруженном наборе правил RCA")
+public record RuleSetInfoDTO(
+
+        @Schema(description = "Источник правил", example = "file:/etc/xai/rca-rules.yml")
+        String source,
+
+        @Schema(description = "Время загрузки текущей версии правил")
+        LocalDateTime loadedAt,
+
+        @Schema(description = "Количество активных правил", example = "6")
+        int ruleCount,
+
+        @Schema(description = "Количество уникальных подстрок в автомате", example = "4")
+        int patternCount,
+
+        @Schema(description = "Статистика по правилам")
+        List<RuleStatsDTO> rules,
+
+        @Schema(description = "Включено ли адаптивное упорядочивание правил", example = "true")
+        boolean adaptiveOrdering,
+
+        @Schema(description = "Время последнего пересчета порядка правил")
+        LocalDateTime reorderedAt
+) {
+}
@@ -0,0 +1,60 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO со статистикой работы одного декларативного правила RCA.
+ *
+ * @param strategy    Идентификатор правила.
+ * @param position    Позиция правила в текущем порядке применения.
+ * @param trigger     Описание условий срабатывания правила.
+ * @param evaluations Сколько раз правило проверялось.
+ * @param hits        Сколько раз правило сработало.
+ * @param hitRate     Доля срабатываний от числа вызовов.
+ * @param totalMicros Суммарное время проверки правила в микросекундах.
+ * @param avgMicros   Среднее время одного вызова в микросекундах.
+ * @param configuredPosition Позиция правила в исходном порядке (поле {@code order}).
+ * @param confirmed   Количество результатов, подтвержденных пользователями; {@code null}, если отзывы не учитываются.
+ * @param rejected    Количество результатов, отклоненных пользователями; {@code null}, если отзывы не учитываются.
+ * @param accuracy    Доля подтвержденных результатов среди оцененных; {@code null}, если оценок нет.
+ */
+@Schema(description = "Статистика работы правила RCA")
+public record RuleStatsDTO(
+
+        @Schema(description = "Идентификатор правила", example = "selenium-timeout")
+        String strategy,
+
+        @Schema(description = "Позиция правила в порядке применения", example = "2")
+        int position,
+
+        @Schema(description = "Условия срабатывания правила", example = "exceptionType~[TimeoutException]")
+        String trigger,
+
+        @Schema(description = "Количество вызовов", example = "1520")
+        long evaluations,
+
+        @Schema(description = "Количество срабатываний", example = "1488")
+        long hits,
+
+        @Schema(description = "Доля срабатываний", example = "0.98")
+        double hitRate,
+
+        @Schema(description = "Суммарное время выполнения, мкс", example = "3120")
+        long totalMicros,
+
+        @Schema(description = "Среднее время вызова, мкс", example = "2.05")
+        double avgMicros,
+
+        @Schema(description = "Позиция в исходном порядке правил", example = "3")
+        int configuredPosition,
+
+        @Schema(description = "Количество подтвержденных пользователями результатов", example = "42")
+        Long confirmed,
+
+        @Schema(description = "Количество отклоненных пользователями результатов", example = "3")
+        Long rejected,
+
+        @Schema(description = "Точность по отзывам пользователей", example = "0.93")
+        Double accuracy
+) {
+}
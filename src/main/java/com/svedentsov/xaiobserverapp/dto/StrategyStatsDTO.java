@@ -0,0 +1,40 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO со статистикой работы одной стратегии анализа в диспетчере RCA.
+ *
+ * @param strategy    Имя стратегии.
+ * @param position    Позиция стратегии в порядке применения.
+ * @param evaluations Сколько раз стратегия вызывалась.
+ * @param hits        Сколько раз стратегия вернула результат.
+ * @param hitRate     Доля срабатываний от числа вызовов.
+ * @param totalMicros Суммарное время выполнения стратегии в микросекундах.
+ * @param avgMicros   Среднее время одного вызова в микросекундах.
+ */
+@Schema(description = "Статистика работы стратегии анализа")
+public record StrategyStatsDTO(
+
+        @Schema(description = "Имя стратегии", example = "DeclarativeRuleEngine")
+        String strategy,
+
+        @Schema(description = "Позиция стратегии в порядке применения", example = "0")
+        int position,
+
+        @Schema(description = "Количество вызовов", example = "1520")
+        long evaluations,
+
+        @Schema(description = "Количество срабатываний", example = "1488")
+        long hits,
+
+        @Schema(description = "Доля срабатываний", example = "0.98")
+        double hitRate,
+
+        @Schema(description = "Суммарное время выполнения, мкс", example = "3120")
+        long totalMicros,
+
+        @Schema(description = "Среднее время вызова, мкс", example = "2.05")
+        double avgMicros
+) {
+}
@@ -0,0 +1,56 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO с историей запусков одного теста в колоночном (columnar) формате.
+ * Вместо списка объектов каждая характеристика запуска передается отдельным массивом,
+ * а монотонные значения (время, ID конфигурации) кодируются дельтами относительно предыдущего элемента.
+ * Это позволяет передать десятки тысяч точек одним небольшим ответом.
+ * <p>
+ * Декодирование на клиенте: {@code timestamp[i] = baseTimestamp + sum(timestampDeltas[0..i])},
+ * аналогично для {@code configurationIdDeltas}.
+ *
+ * @param testClass             Полное имя класса теста.
+ * @param testMethod            Имя тестового метода.
+ * @param count                 Количество точек во временной шкале.
+ * @param baseTimestamp         Время первого (самого раннего) запуска в миллисекундах (Unix epoch).
+ * @param timestampDeltas       Дельты времени завершения относительно предыдущего запуска (первый элемент равен 0).
+ * @param statusCodes           Коды статусов; расшифровка по индексу в {@code statusLegend}.
+ * @param durations             Длительности запусков в миллисекундах.
+ * @param configurationIdDeltas Дельты ID конфигураций относительно предыдущего запуска (первый элемент - сам ID).
+ * @param statusLegend          Список статусов, индекс которого соответствует коду в {@code statusCodes}.
+ */
+@Schema(description = "История запусков одного теста в компактном колоночном формате с дельта-кодированием")
+public record TestHistoryTimelineDTO(
+
+        @Schema(description = "Полное имя класса теста", example = "com.example.tests.LoginTests")
+        String testClass,
+
+        @Schema(description = "Имя тестового метода", example = "testSuccessfulLogin")
+        String testMethod,
+
+        @Schema(description = "Количество точек во временной шкале", example = "3")
+        int count,
+
+        @Schema(description = "Время самого раннего запуска в мс (Unix epoch)", example = "1719907200000")
+        long baseTimestamp,
+
+        @Schema(description = "Дельты времени завершения относительно предыдущего запуска, мс", example = "[0, 3600000, 1800000]")
+        long[] timestampDeltas,
+
+        @Schema(description = "Коды статусов (индексы в statusLegend)", example = "[0, 1, 0]")
+        int[] statusCodes,
+
+        @Schema(description = "Длительности запусков в мс", example = "[25432, 30112, 24980]")
+        long[] durations,
+
+        @Schema(description = "Дельты ID конфигураций относительно предыдущего запуска", example = "[7, 0, 1]")
+        long[] configurationIdDeltas,
+
+        @Schema(description = "Расшифровка кодов статусов", example = "[\"PASSED\", \"FAILED\", \"SKIPPED\", \"BROKEN\"]")
+        List<String> statusLegend
+) {
+}
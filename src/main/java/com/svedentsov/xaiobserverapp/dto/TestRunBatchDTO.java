@@ -0,0 +1,22 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Пакет уведомлений о новых тестовых запусках, накопленных за одно окно рассылки.
+ *
+ * @param runs    Краткие данные о запусках (не больше лимита окна), от старых к новым.
+ * @param omitted Сколько запусков окна не вошло в пакет из-за лимита.
+ */
+@Schema(description = "Пакет уведомлений о новых тестовых запусках")
+public record TestRunBatchDTO(
+
+        @Schema(description = "Краткие данные о запусках, от старых к новым")
+        List<TestRunSummaryDTO> runs,
+
+        @Schema(description = "Сколько запусков окна не вошло в пакет", example = "0")
+        int omitted
+) {
+}
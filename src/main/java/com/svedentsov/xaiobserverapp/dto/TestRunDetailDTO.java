@@ -30,6 +30,7 @@ import java.util.Map;
  * @param artifacts          Артефакты теста.
  * @param testTags           Теги теста.
  * @param customMetadata     Дополнительные метаданные.
+ * @param analysisStatus     Состояние анализа первопричин.
  */
 @Schema(description = "Детальная информация о конкретном тестовом запуске (объект ответа)")
 public record TestRunDetailDTO(
@@ -89,6 +90,9 @@ public record TestRunDetailDTO(
         List<String> testTags,
 
         @Schema(description = "Дополнительные метаданные", example = "{\"jiraTicket\": \"PROJ-456\"}")
-        Map<String, String> customMetadata
+        Map<String, String> customMetadata,
+
+        @Schema(description = "Состояние анализа первопричин (PENDING, COMPLETED, FAILED)", example = "COMPLETED")
+        String analysisStatus
 ) {
 }
@@ -0,0 +1,31 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * События живого потока запусков после указанного порядкового номера.
+ *
+ * @param runs         Запуски, прошедшие фильтр, в порядке номеров.
+ * @param lastSequence Номер, до которого просмотрен поток; с него продолжается следующее чтение.
+ * @param gap          Часть запрошенных событий уже вытеснена из буфера (или сервер перезапускался):
+ *                     клиенту нужно перезагрузить список запусков обычным запросом.
+ * @param hasMore      Достигнут лимит ответа, после {@code lastSequence} есть еще события.
+ */
+@Schema(description = "События живого потока запусков после указанного номера")
+public record TestRunReplayDTO(
+
+        @Schema(description = "Запуски, прошедшие фильтр, в порядке номеров")
+        List<TestRunSummaryDTO> runs,
+
+        @Schema(description = "Номер, до которого просмотрен поток", example = "1024")
+        long lastSequence,
+
+        @Schema(description = "Часть событий уже вытеснена из буфера", example = "false")
+        boolean gap,
+
+        @Schema(description = "Есть ли еще события после lastSequence", example = "false")
+        boolean hasMore
+) {
+}
@@ -0,0 +1,66 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * Краткое представление тестового запуска для живых уведомлений: без стека, пути выполнения,
+ * артефактов и результатов анализа. Детали клиент запрашивает по ID при необходимости.
+ *
+ * @param id             Уникальный ID запуска.
+ * @param testClass      Класс теста.
+ * @param testMethod     Метод теста.
+ * @param timestamp      Временная метка завершения теста.
+ * @param status         Статус.
+ * @param exceptionType  Тип исключения.
+ * @param durationMillis Длительность теста в мс.
+ * @param configuration  Конфигурация, в которой выполнялся тест.
+ * @param analysisStatus Состояние анализа первопричин.
+ * @param sequence       Порядковый номер события в живом потоке запусков (0 - еще не опубликован).
+ */
+@Schema(description = "Краткая информация о тестовом запуске для живых уведомлений")
+public record TestRunSummaryDTO(
+
+        @Schema(description = "Уникальный ID запуска", example = "a1b2c3d4-e5f6-7890-a1b2-c3d4e5f67890")
+        String id,
+
+        @Schema(description = "Класс теста", example = "com.example.tests.LoginTest")
+        String testClass,
+
+        @Schema(description = "Метод теста", example = "testSuccessfulLogin")
+        String testMethod,
+
+        @Schema(description = "Временная метка завершения теста")
+        LocalDateTime timestamp,
+
+        @Schema(description = "Статус", example = "FAILED")
+        String status,
+
+        @Schema(description = "Тип исключения", example = "org.openqa.selenium.TimeoutException")
+        String exceptionType,
+
+        @Schema(description = "Длительность теста в мс", example = "15230")
+        long durationMillis,
+
+        @Schema(description = "Конфигурация запуска")
+        TestConfigurationDTO configuration,
+
+        @Schema(description = "Состояние анализа первопричин", example = "COMPLETED")
+        String analysisStatus,
+
+        @Schema(description = "Порядковый номер события в живом потоке запусков", example = "1024")
+        long sequence
+) {
+
+    /**
+     * Возвращает копию с присвоенным порядковым номером события.
+     *
+     * @param sequence Порядковый номер.
+     * @return Новый экземпляр DTO.
+     */
+    public TestRunSummaryDTO withSequence(long sequence) {
+        return new TestRunSummaryDTO(id, testClass, testMethod, timestamp, status, exceptionType, durationMillis,
+                configuration, analysisStatus, sequence);
+    }
+}
@@ -0,0 +1,46 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO с состоянием защиты WebSocket-сессий от медленных клиентов.
+ *
+ * @param sendTimeLimitMillis  Лимит длительности одной записи в сокет, мс.
+ * @param sendBufferSizeLimit  Лимит очереди отправки сессии, байт.
+ * @param dropThresholdBytes   Размер очереди, начиная с которого отбрасываются некритичные сообщения, байт.
+ * @param activeSessions       Количество открытых сессий.
+ * @param queuedBytes          Суммарный размер очередей отправки, байт.
+ * @param droppedMessages      Всего отброшено некритичных сообщений.
+ * @param terminatedSessions   Всего закрыто медленных сессий.
+ * @param sessions             Метрики сессий, от самой большой очереди к меньшей.
+ */
+@Schema(description = "Состояние защиты WebSocket-сессий от медленных клиентов")
+public record WebSocketGuardStatsDTO(
+
+        @Schema(description = "Лимит длительности одной записи в сокет, мс", example = "10000")
+        long sendTimeLimitMillis,
+
+        @Schema(description = "Лимит очереди отправки сессии, байт", example = "524288")
+        long sendBufferSizeLimit,
+
+        @Schema(description = "Порог отбрасывания некритичных сообщений, байт", example = "65536")
+        long dropThresholdBytes,
+
+        @Schema(description = "Открытых сессий", example = "12")
+        int activeSessions,
+
+        @Schema(description = "Суммарный размер очередей отправки, байт", example = "0")
+        long queuedBytes,
+
+        @Schema(description = "Отброшено некритичных сообщений", example = "0")
+        long droppedMessages,
+
+        @Schema(description = "Закрыто медленных сессий", example = "0")
+        long terminatedSessions,
+
+        @Schema(description = "Метрики сессий, от самой большой очереди к меньшей")
+        List<WebSocketSessionStatsDTO> sessions
+) {
+}
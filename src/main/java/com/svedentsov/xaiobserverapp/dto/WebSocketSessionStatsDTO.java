@@ -0,0 +1,54 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO с метриками очереди отправки одной WebSocket-сессии.
+ *
+ * @param sessionId            ID сессии.
+ * @param remoteAddress        Адрес клиента.
+ * @param connectedAt          Время подключения.
+ * @param queuedBytes          Байт в очереди отправки.
+ * @param queuedMessages       Сообщений в очереди отправки.
+ * @param maxQueuedBytes       Максимальный размер очереди за время сессии, байт.
+ * @param sentMessages         Отправлено сообщений.
+ * @param sentBytes            Отправлено байт.
+ * @param droppedMessages      Отброшено некритичных сообщений.
+ * @param sendInProgressMillis Сколько длится текущая запись в сокет, мс (0 - запись не идет).
+ */
+@Schema(description = "Метрики очереди отправки WebSocket-сессии")
+public record WebSocketSessionStatsDTO(
+
+        @Schema(description = "ID сессии", example = "k3j2h1g0")
+        String sessionId,
+
+        @Schema(description = "Адрес клиента", example = "/10.0.0.15:53122")
+        String remoteAddress,
+
+        @Schema(description = "Время подключения")
+        LocalDateTime connectedAt,
+
+        @Schema(description = "Байт в очереди отправки", example = "0")
+        long queuedBytes,
+
+        @Schema(description = "Сообщений в очереди отправки", example = "0")
+        int queuedMessages,
+
+        @Schema(description = "Максимальный размер очереди за время сессии, байт", example = "4096")
+        long maxQueuedBytes,
+
+        @Schema(description = "Отправлено сообщений", example = "1200")
+        long sentMessages,
+
+        @Schema(description = "Отправлено байт", example = "3500000")
+        long sentBytes,
+
+        @Schema(description = "Отброшено некритичных сообщений", example = "0")
+        long droppedMessages,
+
+        @Schema(description = "Длительность текущей записи в сокет, мс", example = "0")
+        long sendInProgressMillis
+) {
+}
@@ -0,0 +1,56 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO со статистикой кэша предсказаний XAI-сервиса.
+ *
+ * @param enabled        Включен ли кэш.
+ * @param persistent     Сохраняются ли записи в БД.
+ * @param size           Количество записей в памяти.
+ * @param maxSize        Максимальное количество записей в памяти.
+ * @param ttlMinutes     Время жизни записи, минуты.
+ * @param hits           Количество попаданий.
+ * @param persistentHits Количество попаданий, загруженных из БД.
+ * @param misses         Количество промахов.
+ * @param coalesced      Количество запросов, объединенных с уже выполняющимся запросом того же отпечатка.
+ * @param invalidations  Количество инвалидированных записей.
+ * @param hitRate        Доля попаданий.
+ */
+@Schema(description = "Статистика кэша предсказаний XAI")
+public record XaiCacheStatsDTO(
+
+        @Schema(description = "Включен ли кэш", example = "true")
+        boolean enabled,
+
+        @Schema(description = "Сохраняются ли записи в БД", example = "false")
+        boolean persistent,
+
+        @Schema(description = "Записей в памяти", example = "350")
+        int size,
+
+        @Schema(description = "Максимум записей в памяти", example = "10000")
+        int maxSize,
+
+        @Schema(description = "Время жизни записи, минуты", example = "1440")
+        long ttlMinutes,
+
+        @Schema(description = "Попадания", example = "4200")
+        long hits,
+
+        @Schema(description = "Попадания, загруженные из БД", example = "120")
+        long persistentHits,
+
+        @Schema(description = "Промахи", example = "350")
+        long misses,
+
+        @Schema(description = "Объединенные одновременные запросы", example = "40")
+        long coalesced,
+
+        @Schema(description = "Инвалидированные записи", example = "3")
+        long invalidations,
+
+        @Schema(description = "Доля попаданий", example = "0.92")
+        double hitRate
+) {
+}
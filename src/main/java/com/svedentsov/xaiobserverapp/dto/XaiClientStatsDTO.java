@@ -0,0 +1,92 @@
+package com.svedentsov.xaiobserverapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO со статистикой клиента XAI-сервиса.
+ *
+ * @param circuitState   Состояние автоматического выключателя (CLOSED, OPEN, HALF_OPEN).
+ * @param maxConcurrent  Лимит одновременных запросов (bulkhead).
+ * @param inFlight       Количество выполняющихся сейчас запросов.
+ * @param calls          Количество вызовов клиента.
+ * @param predictions    Количество вызовов, завершившихся предсказанием.
+ * @param fallbacks      Количество вызовов, завершившихся без предсказания (fallback).
+ * @param attempts       Количество HTTP-запросов к сервису (с учетом дублирующих и повторных).
+ * @param failures       Количество запросов, завершившихся ошибкой.
+ * @param timeouts       Количество запросов, завершившихся таймаутом.
+ * @param rejected       Количество попыток, отклоненных bulkhead'ом.
+ * @param shortCircuited Количество попыток, не выполненных из-за разомкнутой цепи.
+ * @param hedges         Количество дублирующих и повторных запросов.
+ * @param batching       Включена ли пакетная отправка.
+ * @param batches        Количество отправленных пакетов.
+ * @param batchedEvents  Количество событий, отправленных в составе пакетов.
+ * @param latencyAvgMs   Средняя длительность вызова, мс.
+ * @param latencyP50Ms   Медиана длительности вызова по последним вызовам, мс.
+ * @param latencyP95Ms   95-й перцентиль длительности вызова, мс.
+ * @param latencyP99Ms   99-й перцентиль длительности вызова, мс.
+ * @param latencyMaxMs   Максимальная длительность вызова, мс.
+ */
+@Schema(description = "Статистика клиента XAI-сервиса")
+public record XaiClientStatsDTO(
+
+        @Schema(description = "Состояние автоматического выключателя", example = "CLOSED")
+        String circuitState,
+
+        @Schema(description = "Лимит одновременных запросов", example = "8")
+        int maxConcurrent,
+
+        @Schema(description = "Выполняющиеся запросы", example = "2")
+        int inFlight,
+
+        @Schema(description = "Вызовы клиента", example = "1200")
+        long calls,
+
+        @Schema(description = "Вызовы с предсказанием", example = "1150")
+        long predictions,
+
+        @Schema(description = "Вызовы без предсказания (fallback)", example = "50")
+        long fallbacks,
+
+        @Schema(description = "HTTP-запросы к сервису", example = "1260")
+        long attempts,
+
+        @Schema(description = "Запросы с ошибкой", example = "12")
+        long failures,
+
+        @Schema(description = "Запросы с таймаутом", example = "8")
+        long timeouts,
+
+        @Schema(description = "Попытки, отклоненные bulkhead'ом", example = "0")
+        long rejected,
+
+        @Schema(description = "Попытки, не выполненные из-за разомкнутой цепи", example = "30")
+        long shortCircuited,
+
+        @Schema(description = "Дублирующие и повторные запросы", example = "60")
+        long hedges,
+
+        @Schema(description = "Включена ли пакетная отправка", example = "true")
+        boolean batching,
+
+        @Schema(description = "Отправленные пакеты", example = "40")
+        long batches,
+
+        @Schema(description = "События, отправленные в составе пакетов", example = "1200")
+        long batchedEvents,
+
+        @Schema(description = "Средняя длительность вызова, мс", example = "85.4")
+        double latencyAvgMs,
+
+        @Schema(description = "Медиана длительности вызова, мс", example = "60.0")
+        double latencyP50Ms,
+
+        @Schema(description = "95-й перцентиль длительности вызова, мс", example = "240.0")
+        double latencyP95Ms,
+
+        @Schema(description = "99-й перцентиль длительности вызова, мс", example = "1500.0")
+        double latencyP99Ms,
+
+        @Schema(description = "Максимальная длительность вызова, мс", example = "5003.2")
+        double latencyMaxMs
+) {
+}
@@ -0,0 +1,30 @@
+package com.svedentsov.xaiobserverapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое, когда параметры запроса некорректны (неизвестный формат, фильтр, статус и т.п.).
+ * Сообщение возвращается клиенту, поэтому должно описывать ошибку в параметрах, а не внутреннее состояние системы.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends RuntimeException {
+    /**
+     * Конструктор, принимающий сообщение об ошибке.
+     *
+     * @param message Сообщение, описывающее некорректный параметр.
+     */
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    /**
+     * Конструктор, принимающий сообщение об ошибке и ее причину.
+     *
+     * @param message Сообщение, описывающее некорректный параметр.
+     * @param cause   Исходное исключение.
+     */
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
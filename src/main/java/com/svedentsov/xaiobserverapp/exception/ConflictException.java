@@ -0,0 +1,21 @@
+package com.svedentsov.xaiobserverapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое, когда операция несовместима с текущим состоянием ресурса
+ * (например, повторный запуск уже выполняющегося задания или остановка незапущенной записи).
+ * Сообщение возвращается клиенту, поэтому должно описывать конфликт, а не внутренние подробности.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+    /**
+     * Конструктор, принимающий сообщение об ошибке.
+     *
+     * @param message Сообщение, описывающее конфликт.
+     */
+    public ConflictException(String message) {
+        super(message);
+    }
+}
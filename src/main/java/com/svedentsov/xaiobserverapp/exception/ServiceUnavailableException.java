@@ -0,0 +1,20 @@
+package com.svedentsov.xaiobserverapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Исключение, выбрасываемое, когда узел временно не может принять запрос (например, исчерпан лимит
+ * одновременных подключений). Клиенту следует повторить запрос позже.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException {
+    /**
+     * Конструктор, принимающий сообщение об ошибке.
+     *
+     * @param message Сообщение, описывающее причину отказа.
+     */
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
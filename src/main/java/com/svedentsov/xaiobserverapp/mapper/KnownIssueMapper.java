@@ -0,0 +1,19 @@
+package com.svedentsov.xaiobserverapp.mapper;
+
+import com.svedentsov.xaiobserverapp.dto.KnownIssueDTO;
+import com.svedentsov.xaiobserverapp.model.KnownIssue;
+import org.mapstruct.Mapper;
+
+/**
+ * MapStruct маппер для преобразования сущности {@link KnownIssue} в {@link KnownIssueDTO}.
+ */
+@Mapper(componentModel = "spring")
+public interface KnownIssueMapper {
+    /**
+     * Преобразует сущность KnownIssue в DTO.
+     *
+     * @param entity Сущность для преобразования.
+     * @return DTO-представление.
+     */
+    KnownIssueDTO toDto(KnownIssue entity);
+}
@@ -4,6 +4,7 @@ import com.svedentsov.xaiobserverapp.dto.EnvironmentDetailsDTO;
 import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
 import com.svedentsov.xaiobserverapp.dto.TestArtifactsDTO;
 import com.svedentsov.xaiobserverapp.dto.TestRunDetailDTO;
+import com.svedentsov.xaiobserverapp.dto.TestRunSummaryDTO;
 import com.svedentsov.xaiobserverapp.model.EmbeddableEnvironmentDetails;
 import com.svedentsov.xaiobserverapp.model.EmbeddableTestArtifacts;
 import com.svedentsov.xaiobserverapp.model.TestRun;
@@ -40,6 +41,7 @@ public interface TestRunMapper {
     @Mapping(target = "customMetadata", source = "customMetadata")
     @Mapping(target = "configuration", ignore = true)
     @Mapping(target = "analysisResults", ignore = true)
+    @Mapping(target = "analysisStatus", ignore = true)
     TestRun toEntity(FailureEventDTO dto);
 
     /**
@@ -51,6 +53,31 @@ public interface TestRunMapper {
     @Mapping(source = "configuration", target = "configuration")
     TestRunDetailDTO toDetailDto(TestRun entity);
 
+    /**
+     * Преобразует сущность {@link TestRun} в краткое DTO для живых уведомлений.
+     *
+     * @param entity Сущность тестового запуска.
+     * @return Краткое DTO.
+     */
+    @Mapping(source = "configuration", target = "configuration")
+    @Mapping(target = "sequence", ignore = true)
+    @Mapping(target = "withSequence", ignore = true)
+    TestRunSummaryDTO toSummaryDto(TestRun entity);
+
+    /**
+     * Восстанавливает {@link FailureEventDTO} из сохраненного запуска, например для повторного анализа.
+     * Конфигурация должна быть загружена.
+     *
+     * @param entity Сущность тестового запуска.
+     * @return DTO события, эквивалентное исходному.
+     */
+    @Mapping(target = "testRunId", source = "id")
+    @Mapping(target = "startTime", source = "startTime", qualifiedByName = "localDateTimeToLong")
+    @Mapping(target = "endTime", source = "endTime", qualifiedByName = "localDateTimeToLong")
+    @Mapping(target = "appVersion", source = "configuration.appVersion")
+    @Mapping(target = "testSuite", source = "configuration.testSuite")
+    FailureEventDTO toEvent(TestRun entity);
+
     /**
      * Преобразует {@link EnvironmentDetailsDTO} во встраиваемый объект {@link EmbeddableEnvironmentDetails}.
      *
@@ -77,4 +104,15 @@ public interface TestRunMapper {
     default LocalDateTime longToLocalDateTime(long epochMilli) {
         return epochMilli > 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault()) : null;
     }
+
+    /**
+     * Обратное преобразование {@link LocalDateTime} во время в миллисекундах (Unix epoch).
+     *
+     * @param dateTime Дата и время.
+     * @return Время в миллисекундах или 0, если значение отсутствует.
+     */
+    @Named("localDateTimeToLong")
+    default long localDateTimeToLong(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
 }
@@ -0,0 +1,87 @@
+package com.svedentsov.xaiobserverapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Событие, которым узлы кластера обмениваются через общую БД (см. {@code ClusterRelay}).
+ */
+@Entity
+@Getter
+@Setter
+@ToString(exclude = "payload")
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "cluster_event")
+public class ClusterEvent {
+
+    /**
+     * Монотонный номер события, общий для всех узлов.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Идентификатор узла, опубликовавшего событие.
+     */
+    @Column(nullable = false)
+    private String nodeId;
+
+    /**
+     * Тип события.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ClusterEventType eventType;
+
+    /**
+     * Данные события в формате JSON.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    /**
+     * Время публикации.
+     */
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Тип события кластера.
+     */
+    public enum ClusterEventType {
+        /**
+         * Сброшен кэш статистики дашборда.
+         */
+        STATISTICS_INVALIDATED,
+        /**
+         * Изменился каталог известных проблем.
+         */
+        KNOWN_ISSUES_CHANGED,
+        /**
+         * Сохранен новый тестовый запуск (данные - {@code TestRunSummaryDTO}).
+         */
+        TEST_RUN_SAVED,
+        /**
+         * Сообщение для клиентов, подписанных на адрес STOMP.
+         */
+        TOPIC_MESSAGE
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ClusterEvent that = (ClusterEvent) o;
+        return id != null && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -2,6 +2,7 @@ package com.svedentsov.xaiobserverapp.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 
@@ -23,6 +24,7 @@ public class EmbeddableTestArtifacts {
     @ElementCollection
     @CollectionTable(name = "artifact_screenshots", joinColumns = @JoinColumn(name = "test_run_id"))
     @Column(name = "url", length = 1024)
+    @BatchSize(size = TestRun.COLLECTION_BATCH_SIZE)
     private List<String> screenshotUrls;
 
     /**
@@ -37,6 +39,7 @@ public class EmbeddableTestArtifacts {
     @ElementCollection
     @CollectionTable(name = "artifact_app_logs", joinColumns = @JoinColumn(name = "test_run_id"))
     @Column(name = "url", length = 1024)
+    @BatchSize(size = TestRun.COLLECTION_BATCH_SIZE)
     private List<String> appLogUrls;
 
     /**
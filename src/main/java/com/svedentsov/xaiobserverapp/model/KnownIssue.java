@@ -0,0 +1,75 @@
+package com.svedentsov.xaiobserverapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Сущность, представляющая известную проблему (known issue).
+ * Сигнатура - это подстрока сообщения об ошибке или стек-трейса (например, текст инфраструктурной ошибки),
+ * по которой новые сбои автоматически связываются с уже заведенным тикетом.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class KnownIssue {
+
+    /**
+     * Уникальный идентификатор известной проблемы (генерируется автоматически).
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Подстрока, по которой распознается проблема. Сравнение выполняется без учета регистра.
+     */
+    @Column(nullable = false, length = 1000)
+    private String signature;
+
+    /**
+     * Идентификатор тикета в баг-трекере (например, "JIRA-1234").
+     */
+    @Column(length = 100)
+    private String ticketId;
+
+    /**
+     * Краткое описание проблемы.
+     */
+    @Column(length = 500)
+    private String title;
+
+    /**
+     * Участвует ли сигнатура в сопоставлении. Отключенные проблемы хранятся для истории.
+     */
+    @Column(nullable = false)
+    private boolean enabled = true;
+
+    /**
+     * Время создания записи.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Время последнего изменения записи.
+     */
+    private LocalDateTime updatedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        KnownIssue that = (KnownIssue) o;
+        return id != null && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
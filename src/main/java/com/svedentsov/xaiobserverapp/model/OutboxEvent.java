@@ -0,0 +1,122 @@
+package com.svedentsov.xaiobserverapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Событие транзакционного outbox: записывается в одной транзакции с изменением данных и доставляется
+ * подписчикам после ее фиксации (см. {@code OutboxRelay}).
+ */
+@Entity
+@Getter
+@Setter
+@ToString(exclude = "payload")
+@NoArgsConstructor
+@Table(name = "outbox_event")
+public class OutboxEvent {
+
+    /**
+     * Монотонный номер события; события доставляются по возрастанию номера.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Тип события.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxEventType eventType;
+
+    /**
+     * Ключ упорядочивания: события с одним ключом доставляются строго по порядку, следующее - только после
+     * доставки предыдущего. Для запусков - идентичность теста ({@code класс#метод}).
+     */
+    @Column(nullable = false, length = 512)
+    private String aggregateKey;
+
+    /**
+     * Данные события в формате JSON.
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /**
+     * Время записи события.
+     */
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Время, не раньше которого событие можно доставлять: момент записи, окончание аренды обработчиком
+     * или время повторной попытки после ошибки.
+     */
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Количество попыток доставки.
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * Метка пакета, захватившего событие для доставки.
+     */
+    private String claimToken;
+
+    /**
+     * Текст последней ошибки доставки.
+     */
+    @Column(length = 1000)
+    private String lastError;
+
+    /**
+     * Событие не доставлено за допустимое число попыток и больше не доставляется.
+     */
+    @Column(nullable = false)
+    private boolean failed;
+
+    /**
+     * Создает новое событие, готовое к доставке.
+     *
+     * @param eventType    Тип события.
+     * @param aggregateKey Ключ упорядочивания.
+     * @param payload      Данные события в формате JSON.
+     * @param createdAt    Время записи.
+     */
+    public OutboxEvent(OutboxEventType eventType, String aggregateKey, String payload, LocalDateTime createdAt) {
+        this.eventType = eventType;
+        this.aggregateKey = aggregateKey;
+        this.payload = payload;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = createdAt;
+    }
+
+    /**
+     * Тип события outbox.
+     */
+    public enum OutboxEventType {
+        /**
+         * Сохранен новый тестовый запуск (данные - {@code TestRunSummaryDTO}).
+         */
+        TEST_RUN_SAVED
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        OutboxEvent that = (OutboxEvent) o;
+        return id != null && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
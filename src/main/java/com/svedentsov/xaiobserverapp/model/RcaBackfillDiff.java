@@ -0,0 +1,31 @@
+package com.svedentsov.xaiobserverapp.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Различие между сохраненными и заново вычисленными результатами анализа одного запуска.
+ * Результаты представлены краткими строками "тип: причина".
+ *
+ * @param testRunId ID тестового запуска.
+ * @param testName  Полное имя теста.
+ * @param before    Результаты анализа, сохраненные в БД.
+ * @param after     Результаты повторного анализа.
+ */
+@Schema(description = "Различие между старыми и новыми результатами анализа запуска")
+public record RcaBackfillDiff(
+
+        @Schema(description = "ID тестового запуска", example = "a1b2c3d4-e5f6-7890-a1b2-c3d4e5f67890")
+        String testRunId,
+
+        @Schema(description = "Полное имя теста", example = "com.example.tests.LoginTests.testInvalidPassword")
+        String testName,
+
+        @Schema(description = "Сохраненные результаты анализа")
+        List<String> before,
+
+        @Schema(description = "Результаты повторного анализа")
+        List<String> after
+) {
+}
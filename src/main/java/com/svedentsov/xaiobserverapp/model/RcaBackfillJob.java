@@ -0,0 +1,201 @@
+package com.svedentsov.xaiobserverapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Сущность задания повторного анализа первопричин (RCA backfill) исторических запусков.
+ * Хранит параметры отбора, контрольную точку обхода и счетчики прогресса,
+ * благодаря чему прерванное задание можно продолжить после перезапуска приложения.
+ */
+@Entity
+@Getter
+@Setter
+@ToString(exclude = {"diffSample", "failedRunIds"})
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "rca_backfill_job")
+public class RcaBackfillJob {
+
+    /**
+     * Состояния задания.
+     */
+    public enum State {
+        RUNNING, COMPLETED, CANCELLED, FAILED,
+        /**
+         * Задание выполнялось в момент остановки приложения.
+         */
+        INTERRUPTED;
+
+        /**
+         * @return {@code true}, если задание можно продолжить.
+         */
+        public boolean isResumable() {
+            return this == CANCELLED || this == FAILED || this == INTERRUPTED;
+        }
+    }
+
+    /**
+     * Уникальный идентификатор задания (UUID).
+     */
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    /**
+     * Текущее состояние задания.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private State state;
+
+    /**
+     * Пробный прогон: результаты анализа не записываются, а только сравниваются с сохраненными.
+     */
+    private boolean dryRun;
+
+    /**
+     * Использовать ли XAI-сервис для сбоев, не распознанных правилами.
+     */
+    private boolean useXai;
+
+    /**
+     * Статусы отбираемых запусков через запятую (например, "FAILED,BROKEN").
+     */
+    @Column(nullable = false, length = 100)
+    private String statuses;
+
+    /**
+     * Нижняя граница времени завершения запуска (включительно).
+     */
+    private LocalDateTime fromTimestamp;
+
+    /**
+     * Верхняя граница времени завершения запуска (не включительно).
+     */
+    private LocalDateTime toTimestamp;
+
+    /**
+     * Полное имя класса теста.
+     */
+    private String testClass;
+
+    /**
+     * Окружение конфигурации запуска.
+     */
+    private String environment;
+
+    /**
+     * Состояние анализа отбираемых запусков (например, PENDING - зависшие отложенные анализы).
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private TestRun.AnalysisStatus analysisStatus;
+
+    /**
+     * Количество параллельно анализируемых запусков.
+     */
+    private int parallelism;
+
+    /**
+     * Количество запусков в одной странице обхода и одной транзакции записи.
+     */
+    private int batchSize;
+
+    /**
+     * Ограничение частоты анализов, которые могут обратиться к XAI-сервису (в секунду).
+     */
+    private Double maxXaiRequestsPerSecond;
+
+    /**
+     * Контрольная точка: ID последнего обработанного запуска.
+     */
+    private String lastKey;
+
+    /**
+     * Общее количество запусков, подходящих под фильтр.
+     */
+    private long totalRuns;
+
+    /**
+     * Количество обработанных запусков.
+     */
+    private long processedRuns;
+
+    /**
+     * Количество запусков, результаты анализа которых изменились.
+     */
+    private long changedRuns;
+
+    /**
+     * Количество запусков с неизменившимися результатами.
+     */
+    private long unchangedRuns;
+
+    /**
+     * Количество запусков, анализ которых завершился ошибкой и пока не удался при повторе.
+     */
+    private long failedRuns;
+
+    /**
+     * ID запусков, анализ которых завершился ошибкой. Контрольная точка проходит мимо них, поэтому такие запуски
+     * анализируются повторно после основного прохода и при каждом продолжении задания.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column
+    private List<String> failedRunIds = new ArrayList<>();
+
+    /**
+     * Выборка различий между старыми и новыми результатами (ограничена по размеру).
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column
+    private List<RcaBackfillDiff> diffSample = new ArrayList<>();
+
+    /**
+     * Сообщение об ошибке, остановившей задание.
+     */
+    @Column(length = 2000)
+    private String errorMessage;
+
+    /**
+     * Время создания задания.
+     */
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Время последнего запуска (или продолжения) задания.
+     */
+    private LocalDateTime startedAt;
+
+    /**
+     * Время последнего сохранения контрольной точки.
+     */
+    private LocalDateTime updatedAt;
+
+    /**
+     * Время завершения задания.
+     */
+    private LocalDateTime finishedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RcaBackfillJob that = (RcaBackfillJob) o;
+        return id != null && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,55 @@
+package com.svedentsov.xaiobserverapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Накопительные счетчики обратной связи пользователей по одному правилу RCA.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "rca_rule_feedback")
+public class RuleFeedbackCounter {
+
+    /**
+     * Идентификатор правила (поле {@code id} в файле правил).
+     */
+    @Id
+    private String ruleId;
+
+    /**
+     * Количество отзывов, подтвердивших результат правила.
+     */
+    private long confirmed;
+
+    /**
+     * Количество отзывов, отклонивших результат правила.
+     */
+    private long rejected;
+
+    /**
+     * Время последнего изменения счетчиков.
+     */
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RuleFeedbackCounter that = (RuleFeedbackCounter) o;
+        return ruleId != null && Objects.equals(ruleId, that.ruleId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -2,19 +2,38 @@ package com.svedentsov.xaiobserverapp.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Основная JPA-сущность, представляющая один завершенный тестовый запуск.
  * Хранит всю информацию о тесте, его результате, контексте и результатах анализа.
+ * <p>
+ * Профили загрузки по сценариям использования:
+ * <ul>
+ *   <li>{@link #GRAPH_LIST} - страница списка: одним запросом загружается только конфигурация,
+ *   а коллекции догружаются пакетами ({@link BatchSize}) по всей странице сразу.</li>
+ *   <li>{@link #GRAPH_DETAIL} - детальный просмотр: дополнительно жадно загружаются метаданные;
+ *   остальные коллекции - пакетными запросами.</li>
+ *   <li>Выгрузка читает плоскую проекцию через JDBC и сущность не использует.</li>
+ * </ul>
+ * Несколько коллекций-"мешков" (bag) не загружаются одним JOIN'ом намеренно: это дало бы декартово
+ * произведение строк, а для постраничных запросов - пагинацию в памяти.
  */
 @Entity
+@NamedEntityGraph(name = TestRun.GRAPH_LIST, attributeNodes = @NamedAttributeNode("configuration"))
+@NamedEntityGraph(name = TestRun.GRAPH_DETAIL, attributeNodes = {
+        @NamedAttributeNode("configuration"),
+        @NamedAttributeNode("customMetadata")
+})
 @Getter
 @Setter
 @ToString(exclude = {"analysisResults", "configuration", "executionPath", "testTags", "customMetadata"})
@@ -22,6 +41,21 @@ import java.util.Objects;
 @AllArgsConstructor
 public class TestRun {
 
+    /**
+     * Имя графа загрузки для списка тестовых запусков.
+     */
+    public static final String GRAPH_LIST = "TestRun.list";
+
+    /**
+     * Имя графа загрузки для детального просмотра тестового запуска.
+     */
+    public static final String GRAPH_DETAIL = "TestRun.detail";
+
+    /**
+     * Размер пакета при догрузке ленивых коллекций для нескольких запусков одним запросом.
+     */
+    public static final int COLLECTION_BATCH_SIZE = 50;
+
     /**
      * Перечисление возможных статусов завершения теста.
      */
@@ -46,6 +80,39 @@ public class TestRun {
                 default -> BROKEN; // Все остальные случаи (включая "BROKEN")
             };
         }
+
+        /**
+         * Строго преобразует строку в статус без учета регистра, например для фильтра запроса:
+         * в отличие от {@link #fromString(String)}, неизвестное значение не превращается в BROKEN.
+         *
+         * @param text строковое представление статуса.
+         * @return статус или пустой Optional, если значение не является именем статуса.
+         */
+        public static Optional<TestStatus> parse(String text) {
+            if (!StringUtils.hasText(text)) {
+                return Optional.empty();
+            }
+            String name = text.strip();
+            return Arrays.stream(values()).filter(status -> status.name().equalsIgnoreCase(name)).findFirst();
+        }
+    }
+
+    /**
+     * Перечисление состояний анализа первопричин для запуска.
+     */
+    public enum AnalysisStatus {
+        /**
+         * Запуск сохранен, анализ выполняется в фоне (отложенный RCA).
+         */
+        PENDING,
+        /**
+         * Результаты анализа сохранены.
+         */
+        COMPLETED,
+        /**
+         * Фоновый анализ завершился ошибкой.
+         */
+        FAILED
     }
 
     /**
@@ -85,6 +152,13 @@ public class TestRun {
     @Enumerated(EnumType.STRING)
     private TestStatus status;
 
+    /**
+     * Состояние анализа первопричин. При синхронном анализе запуск сохраняется сразу в {@code COMPLETED}.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AnalysisStatus analysisStatus = AnalysisStatus.COMPLETED;
+
     /**
      * Тип исключения (если тест упал).
      */
@@ -115,6 +189,7 @@ public class TestRun {
     @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(name = "execution_path", joinColumns = @JoinColumn(name = "test_run_id"))
     @OrderColumn(name = "step_index")
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
     private List<AiDecisionMetadata> executionPath = new ArrayList<>();
 
     /**
@@ -135,6 +210,7 @@ public class TestRun {
     @ElementCollection(fetch = FetchType.LAZY)
     @CollectionTable(name = "test_run_tags", joinColumns = @JoinColumn(name = "test_run_id"))
     @Column(name = "tag_name")
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
     private List<String> testTags = new ArrayList<>();
 
     /**
@@ -144,12 +220,14 @@ public class TestRun {
     @CollectionTable(name = "test_run_custom_metadata", joinColumns = @JoinColumn(name = "test_run_id"))
     @MapKeyColumn(name = "meta_key")
     @Column(name = "meta_value", length = 1000)
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
     private Map<String, String> customMetadata;
 
     /**
      * Список результатов анализа, связанных с этим запуском.
      */
     @OneToMany(mappedBy = "testRun", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = COLLECTION_BATCH_SIZE)
     private List<AnalysisResult> analysisResults = new ArrayList<>();
 
     /**
@@ -0,0 +1,85 @@
+package com.svedentsov.xaiobserverapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Сущность персистентного кэша предсказаний XAI-сервиса.
+ * Хранит поля результата анализа, полученного от ML-модели для сбоя с данным отпечатком.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "xai_prediction_cache")
+public class XaiPredictionCacheEntry {
+
+    /**
+     * Отпечаток сбоя (см. {@link com.svedentsov.xaiobserverapp.service.xai.FailureFingerprint}).
+     */
+    @Id
+    @Column(length = 64)
+    private String fingerprint;
+
+    /**
+     * Тип анализа, возвращенный сервисом.
+     */
+    private String analysisType;
+
+    /**
+     * Предполагаемая причина сбоя.
+     */
+    @Column(length = 2000)
+    private String suggestedReason;
+
+    /**
+     * Предлагаемое решение.
+     */
+    @Column(length = 4000)
+    private String solution;
+
+    /**
+     * Уверенность модели.
+     */
+    private Double aiConfidence;
+
+    /**
+     * Данные объяснения предсказания в формате JSON.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column
+    private Map<String, Object> explanationData;
+
+    /**
+     * Время получения предсказания.
+     */
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Время, после которого запись считается устаревшей.
+     */
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        XaiPredictionCacheEntry that = (XaiPredictionCacheEntry) o;
+        return fingerprint != null && Objects.equals(fingerprint, that.fingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
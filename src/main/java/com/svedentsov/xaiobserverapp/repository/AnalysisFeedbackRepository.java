@@ -1,12 +1,28 @@
 package com.svedentsov.xaiobserverapp.repository;
 
 import com.svedentsov.xaiobserverapp.model.AnalysisFeedback;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Репозиторий для выполнения CRUD-операций с сущностями {@link AnalysisFeedback}.
  */
 @Repository
 public interface AnalysisFeedbackRepository extends JpaRepository<AnalysisFeedback, Long> {
+
+    /**
+     * Находит исправления пользователей: отзывы, отклонившие результат анализа и указавшие верную причину,
+     * от новых к старым, вместе с результатами анализа и тестовыми запусками.
+     *
+     * @param limit Максимальное количество отзывов.
+     * @return Отзывы с загруженными результатами анализа и запусками.
+     */
+    @Query("SELECT f FROM AnalysisFeedback f JOIN FETCH f.analysisResult ar JOIN FETCH ar.testRun " +
+            "WHERE f.isAiSuggestionCorrect = FALSE AND f.userProvidedReason IS NOT NULL " +
+            "ORDER BY f.feedbackTimestamp DESC")
+    List<AnalysisFeedback> findCorrections(Limit limit);
 }
@@ -1,9 +1,15 @@
 package com.svedentsov.xaiobserverapp.repository;
 
 import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 import java.util.Optional;
 
 /**
@@ -18,4 +24,18 @@ public interface AnalysisResultRepository extends JpaRepository<AnalysisResult,
      * @return Optional, содержащий сущность, если она найдена.
      */
     Optional<AnalysisResult> findById(String analysisId);
+
+    /**
+     * Находит результаты анализа провалившихся запусков, не отклоненные пользователями, от новых к старым,
+     * вместе с запусками (для обучения локальной модели).
+     *
+     * @param excludedStatus Статус запусков, которые не учитываются (PASSED).
+     * @param pageable       Страница выборки.
+     * @return Результаты анализа с загруженными тестовыми запусками.
+     */
+    @Query("SELECT ar FROM AnalysisResult ar JOIN FETCH ar.testRun t " +
+            "WHERE t.status <> :excludedStatus AND ar.explanationData IS NOT NULL " +
+            "AND (ar.userConfirmedCorrect IS NULL OR ar.userConfirmedCorrect = TRUE) " +
+            "ORDER BY ar.analysisTimestamp DESC, ar.id")
+    List<AnalysisResult> findTrainingCandidates(@Param("excludedStatus") TestRun.TestStatus excludedStatus, Pageable pageable);
 }
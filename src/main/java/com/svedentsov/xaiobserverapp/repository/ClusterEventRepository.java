@@ -0,0 +1,48 @@
+package com.svedentsov.xaiobserverapp.repository;
+
+import com.svedentsov.xaiobserverapp.model.ClusterEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Репозиторий журнала событий кластера.
+ */
+@Repository
+public interface ClusterEventRepository extends JpaRepository<ClusterEvent, Long> {
+
+    /**
+     * Читает события после указанного номера.
+     *
+     * @param afterId Номер последнего прочитанного события.
+     * @param limit   Максимальное количество событий.
+     * @return События по возрастанию номера (с пропусками, если события с меньшими номерами еще не зафиксированы).
+     */
+    List<ClusterEvent> findByIdGreaterThanOrderByIdAsc(long afterId, Limit limit);
+
+    /**
+     * Возвращает номер последнего события.
+     *
+     * @return Номер или 0, если журнал пуст.
+     */
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM ClusterEvent e")
+    long findMaxId();
+
+    /**
+     * Удаляет события старше указанного момента.
+     *
+     * @param cutoff Граница времени публикации.
+     * @return Количество удаленных событий.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClusterEvent e WHERE e.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,21 @@
+package com.svedentsov.xaiobserverapp.repository;
+
+import com.svedentsov.xaiobserverapp.model.KnownIssue;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Репозиторий для выполнения CRUD-операций с сущностями {@link KnownIssue}.
+ */
+@Repository
+public interface KnownIssueRepository extends JpaRepository<KnownIssue, Long> {
+
+    /**
+     * Находит все активные известные проблемы для построения автомата сопоставления.
+     *
+     * @return Список активных проблем.
+     */
+    List<KnownIssue> findAllByEnabledTrue();
+}
@@ -0,0 +1,101 @@
+package com.svedentsov.xaiobserverapp.repository;
+
+import com.svedentsov.xaiobserverapp.model.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий событий транзакционного outbox.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Выбирает номера событий, готовых к доставке: срок попытки наступил, и у ключа нет более раннего
+     * недоставленного события (ожидающего повтора или захваченного другим узлом). Так от каждого ключа
+     * в выборку попадает не больше одного события, и событие с отложенной попыткой не задерживает другие ключи.
+     *
+     * @param now   Текущее время.
+     * @param limit Максимальное количество событий.
+     * @return Номера событий по возрастанию.
+     */
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.failed = false AND e.nextAttemptAt <= :now " +
+            "AND NOT EXISTS (SELECT p.id FROM OutboxEvent p " +
+            "WHERE p.aggregateKey = e.aggregateKey AND p.failed = false AND p.id < e.id) " +
+            "ORDER BY e.id")
+    List<Long> findDeliverableIds(@Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Читает события, захваченные пакетом.
+     *
+     * @param claimToken Метка пакета.
+     * @return События по возрастанию номера.
+     */
+    List<OutboxEvent> findByClaimTokenOrderByIdAsc(String claimToken);
+
+    /**
+     * Захватывает события для доставки: помечает их меткой пакета и продлевает время следующей попытки до
+     * окончания аренды. Захватываются только события, срок которых наступил, поэтому одно событие не может
+     * одновременно доставляться двумя обработчиками (например, на разных узлах).
+     *
+     * @param ids        Номера событий.
+     * @param claimToken Метка пакета.
+     * @param now        Текущее время.
+     * @param leaseUntil Окончание аренды.
+     * @return Количество захваченных событий.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.claimToken = :claimToken, e.nextAttemptAt = :leaseUntil, e.attempts = e.attempts + 1 " +
+            "WHERE e.id IN :ids AND e.failed = false AND e.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimToken") String claimToken,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Откладывает повторную доставку событий после ошибки.
+     *
+     * @param ids           Номера событий.
+     * @param nextAttemptAt Время следующей попытки.
+     * @param error         Текст ошибки.
+     * @return Количество обновленных событий.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.claimToken = null, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error WHERE e.id IN :ids")
+    int reschedule(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    /**
+     * Помечает событие как недоставленное окончательно.
+     *
+     * @param id    Номер события.
+     * @param error Текст последней ошибки.
+     * @return Количество обновленных событий.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.claimToken = null, e.failed = true, e.lastError = :error WHERE e.id = :id")
+    int markFailed(@Param("id") long id, @Param("error") String error);
+
+    /**
+     * Возвращает количество событий, ожидающих доставки.
+     *
+     * @return Количество событий.
+     */
+    long countByFailedFalse();
+
+    /**
+     * Возвращает количество окончательно недоставленных событий.
+     *
+     * @return Количество событий.
+     */
+    long countByFailedTrue();
+}
@@ -0,0 +1,35 @@
+package com.svedentsov.xaiobserverapp.repository;
+
+import com.svedentsov.xaiobserverapp.model.RcaBackfillJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Репозиторий для работы с заданиями повторного анализа {@link RcaBackfillJob}.
+ */
+@Repository
+public interface RcaBackfillJobRepository extends JpaRepository<RcaBackfillJob, String> {
+
+    /**
+     * Возвращает все задания, начиная с самых новых.
+     *
+     * @return Список заданий.
+     */
+    List<RcaBackfillJob> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Переводит задания, оставшиеся в состоянии RUNNING после остановки приложения, в INTERRUPTED.
+     *
+     * @return Количество обновленных заданий.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RcaBackfillJob j SET j.state = com.svedentsov.xaiobserverapp.model.RcaBackfillJob.State.INTERRUPTED " +
+            "WHERE j.state = com.svedentsov.xaiobserverapp.model.RcaBackfillJob.State.RUNNING")
+    int markRunningAsInterrupted();
+}
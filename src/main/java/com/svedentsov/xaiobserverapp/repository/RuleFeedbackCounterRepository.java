@@ -0,0 +1,34 @@
+package com.svedentsov.xaiobserverapp.repository;
+
+import com.svedentsov.xaiobserverapp.model.RuleFeedbackCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Репозиторий счетчиков обратной связи по правилам RCA.
+ */
+@Repository
+public interface RuleFeedbackCounterRepository extends JpaRepository<RuleFeedbackCounter, String> {
+
+    /**
+     * Атомарно изменяет счетчики правила на заданные приращения.
+     *
+     * @param ruleId         ID правила.
+     * @param confirmedDelta Приращение числа подтверждений.
+     * @param rejectedDelta  Приращение числа отклонений.
+     * @param now            Время изменения.
+     * @return Количество обновленных строк (0, если счетчиков для правила еще нет).
+     */
+    @Modifying
+    @Query("UPDATE RuleFeedbackCounter c SET c.confirmed = c.confirmed + :confirmedDelta, " +
+            "c.rejected = c.rejected + :rejectedDelta, c.updatedAt = :now WHERE c.ruleId = :ruleId")
+    int increment(@Param("ruleId") String ruleId,
+                  @Param("confirmedDelta") long confirmedDelta,
+                  @Param("rejectedDelta") long rejectedDelta,
+                  @Param("now") LocalDateTime now);
+}
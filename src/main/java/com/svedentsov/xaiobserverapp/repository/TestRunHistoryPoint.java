@@ -0,0 +1,33 @@
+package com.svedentsov.xaiobserverapp.repository;
+
+import com.svedentsov.xaiobserverapp.model.TestRun.TestStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интерфейсная проекция одной точки истории теста.
+ * Содержит только поля, необходимые для построения временной шкалы,
+ * поэтому Hibernate не материализует полные сущности {@link com.svedentsov.xaiobserverapp.model.TestRun}.
+ */
+public interface TestRunHistoryPoint {
+
+    /**
+     * @return Временная метка завершения запуска.
+     */
+    LocalDateTime getRunTimestamp();
+
+    /**
+     * @return Статус запуска.
+     */
+    TestStatus getRunStatus();
+
+    /**
+     * @return Длительность запуска в миллисекундах.
+     */
+    long getRunDuration();
+
+    /**
+     * @return ID конфигурации, в которой выполнялся запуск.
+     */
+    Long getConfigurationId();
+}
@@ -2,18 +2,24 @@ package com.svedentsov.xaiobserverapp.repository;
 
 import com.svedentsov.xaiobserverapp.model.TestRun;
 import com.svedentsov.xaiobserverapp.model.TestRun.TestStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для выполнения CRUD-операций и сложных запросов с сущностями {@link TestRun}.
@@ -26,24 +32,35 @@ import java.util.Optional;
 public interface TestRunRepository extends JpaRepository<TestRun, String> {
 
     /**
-     * Возвращает страницу тестовых запусков. Жадная загрузка оптимизирована для отображения списка.
+     * Необязательные условия отбора запусков для повторного анализа.
+     */
+    String BACKFILL_FILTER = "AND (:from IS NULL OR tr.timestamp >= :from) " +
+            "AND (:to IS NULL OR tr.timestamp < :to) " +
+            "AND (:testClass IS NULL OR tr.testClass = :testClass) " +
+            "AND (:environment IS NULL OR tc.environment = :environment) " +
+            "AND (:analysisStatus IS NULL OR tr.analysisStatus = :analysisStatus) ";
+
+    /**
+     * Возвращает страницу тестовых запусков. Жадная загрузка оптимизирована для отображения списка:
+     * конфигурация загружается JOIN'ом, а коллекции - пакетными запросами сразу для всей страницы,
+     * поэтому пагинация выполняется в БД, а не в памяти.
      *
      * @param pageable параметры пагинации и сортировки.
      * @return Страница с тестовыми запусками.
      */
     @Override
-    @EntityGraph(attributePaths = {"configuration", "testTags"})
+    @EntityGraph(TestRun.GRAPH_LIST)
     Page<TestRun> findAll(Pageable pageable);
 
     /**
-     * Находит тестовый запуск по ID с жадной загрузкой всех связанных данных,
-     * необходимых для детального отображения.
+     * Находит тестовый запуск по ID с загрузкой всех связанных данных, необходимых для детального отображения
+     * (профиль {@link TestRun#GRAPH_DETAIL}; остальные коллекции догружаются отдельными пакетными запросами).
      *
      * @param id Уникальный идентификатор запуска.
      * @return Optional, содержащий TestRun.
      */
     @Override
-    @EntityGraph(attributePaths = {"configuration", "analysisResults", "executionPath", "environmentDetails", "artifacts", "testTags", "customMetadata"})
+    @EntityGraph(TestRun.GRAPH_DETAIL)
     Optional<TestRun> findById(String id);
 
     /**
@@ -137,4 +154,100 @@ public interface TestRunRepository extends JpaRepository<TestRun, String> {
      */
     @Query("SELECT COUNT(DISTINCT CONCAT(tr.testClass, '.', tr.testMethod)) FROM TestRun tr")
     long countDistinctTests();
+
+    /**
+     * Потоково читает историю запусков одного теста, начиная с самых свежих.
+     * Запрос обслуживается составным индексом {@code idx_testrun_identity_timestamp}
+     * и возвращает легковесную проекцию вместо полных сущностей. Размер выборки с курсора
+     * задается подсказкой fetch size, поэтому результат не буферизуется драйвером целиком.
+     * Поток должен закрываться вызывающей стороной и потребляться внутри транзакции.
+     *
+     * @param testClass  Полное имя класса теста.
+     * @param testMethod Имя тестового метода.
+     * @param limit      Максимальное количество возвращаемых точек.
+     * @return Поток точек истории в порядке убывания времени.
+     */
+    @Query("SELECT tr.timestamp as runTimestamp, tr.status as runStatus, tr.durationMillis as runDuration, " +
+            "tr.configuration.id as configurationId " +
+            "FROM TestRun tr " +
+            "WHERE tr.testClass = :testClass AND tr.testMethod = :testMethod AND tr.timestamp IS NOT NULL " +
+            "ORDER BY tr.timestamp DESC")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<TestRunHistoryPoint> streamHistory(@Param("testClass") String testClass,
+                                              @Param("testMethod") String testMethod,
+                                              Limit limit);
+
+    /**
+     * Возвращает те идентификаторы из переданного набора, которые уже существуют в БД.
+     * Используется массовыми загрузчиками для идемпотентной повторной обработки.
+     *
+     * @param ids Проверяемые идентификаторы.
+     * @return Список уже сохраненных идентификаторов.
+     */
+    @Query("SELECT tr.id FROM TestRun tr WHERE tr.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * Возвращает следующую страницу ID запусков для повторного анализа (keyset-пагинация по ID).
+     * Параметры фильтра со значением {@code null} не участвуют в отборе.
+     *
+     * @param statuses       Статусы запусков.
+     * @param afterId        ID, после которого начинается страница (пустая строка - с начала).
+     * @param from           Нижняя граница времени завершения (включительно).
+     * @param to             Верхняя граница времени завершения (не включительно).
+     * @param testClass      Полное имя класса теста.
+     * @param environment    Окружение конфигурации.
+     * @param analysisStatus Состояние анализа.
+     * @param limit          Размер страницы.
+     * @return ID запусков по возрастанию.
+     */
+    @Query("SELECT tr.id FROM TestRun tr JOIN tr.configuration tc " +
+            "WHERE tr.status IN :statuses AND tr.id > :afterId " + BACKFILL_FILTER +
+            "ORDER BY tr.id")
+    List<String> findBackfillKeys(@Param("statuses") Collection<TestStatus> statuses,
+                                  @Param("afterId") String afterId,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to,
+                                  @Param("testClass") String testClass,
+                                  @Param("environment") String environment,
+                                  @Param("analysisStatus") TestRun.AnalysisStatus analysisStatus,
+                                  Limit limit);
+
+    /**
+     * Подсчитывает запуски для повторного анализа, оставшиеся после контрольной точки.
+     * Параметры совпадают с {@link #findBackfillKeys}.
+     *
+     * @return Количество запусков.
+     */
+    @Query("SELECT count(tr) FROM TestRun tr JOIN tr.configuration tc " +
+            "WHERE tr.status IN :statuses AND tr.id > :afterId " + BACKFILL_FILTER)
+    long countBackfillCandidates(@Param("statuses") Collection<TestStatus> statuses,
+                                 @Param("afterId") String afterId,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to,
+                                 @Param("testClass") String testClass,
+                                 @Param("environment") String environment,
+                                 @Param("analysisStatus") TestRun.AnalysisStatus analysisStatus);
+
+    /**
+     * Возвращает следующую страницу ID запусков с заданным состоянием анализа (keyset-пагинация по ID).
+     *
+     * @param analysisStatus Состояние анализа.
+     * @param afterId        ID, после которого начинается страница (пустая строка - с начала).
+     * @param limit          Размер страницы.
+     * @return ID запусков по возрастанию.
+     */
+    @Query("SELECT tr.id FROM TestRun tr WHERE tr.analysisStatus = :analysisStatus AND tr.id > :afterId ORDER BY tr.id")
+    List<String> findIdsByAnalysisStatus(@Param("analysisStatus") TestRun.AnalysisStatus analysisStatus,
+                                         @Param("afterId") String afterId,
+                                         Limit limit);
+
+    /**
+     * Загружает запуски по списку ID вместе с конфигурацией; коллекции догружаются пакетами.
+     *
+     * @param ids ID запусков.
+     * @return Найденные запуски.
+     */
+    @EntityGraph(TestRun.GRAPH_LIST)
+    List<TestRun> findAllByIdIn(Collection<String> ids);
 }
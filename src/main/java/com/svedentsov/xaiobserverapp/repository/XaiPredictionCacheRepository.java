@@ -0,0 +1,29 @@
+package com.svedentsov.xaiobserverapp.repository;
+
+import com.svedentsov.xaiobserverapp.model.XaiPredictionCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Репозиторий персистентного кэша предсказаний XAI-сервиса.
+ */
+@Repository
+public interface XaiPredictionCacheRepository extends JpaRepository<XaiPredictionCacheEntry, String> {
+
+    /**
+     * Удаляет устаревшие записи кэша.
+     *
+     * @param now Текущее время.
+     * @return Количество удаленных записей.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM XaiPredictionCacheEntry e WHERE e.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,224 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.TestRunDetailDTO;
+import com.svedentsov.xaiobserverapp.mapper.TestRunMapper;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.repository.TestRunRepository;
+import com.svedentsov.xaiobserverapp.service.cluster.ClusterRelay;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Сервис отложенного анализа первопричин.
+ * <p>
+ * При включенном режиме {@code xai.analysis.deferred.enabled} {@link TestEventOrchestrator} сохраняет и рассылает
+ * запуск сразу со статусом анализа {@code PENDING}, а анализ выполняется здесь, после фиксации транзакции
+ * сохранения, в пуле {@code @Async}. Сам анализ (включая вызов XAI-сервиса) идет вне транзакции и не держит
+ * соединение с БД; в короткой транзакции только дописываются результаты. Готовый запуск публикуется
+ * в персональный STOMP-канал {@code /topic/test-runs/{id}/analysis}.
+ * <p>
+ * Запрос анализа не теряется: если очередь пула переполнена, анализ выполняется в вызывающем потоке, а запуски,
+ * оставшиеся в {@code PENDING} после остановки или падения приложения, анализируются повторно при старте.
+ * Результаты записываются, только пока запуск находится в {@code PENDING}, поэтому повторный анализ
+ * (например, на другом узле кластера) не дублирует их.
+ */
+@Slf4j
+@Service
+public class DeferredAnalysisService {
+
+    private static final String ANALYSIS_DESTINATION = "/topic/test-runs/%s/analysis";
+    private static final int RECOVERY_BATCH_SIZE = 100;
+
+    private final RcaService rcaService;
+    private final TestRunRepository testRunRepository;
+    private final TestRunMapper testRunMapper;
+    private final StatisticsService statisticsService;
+    private final ClusterRelay clusterRelay;
+    private final Executor taskExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param rcaService         Сервис анализа первопричин.
+     * @param testRunRepository  Репозиторий тестовых запусков.
+     * @param testRunMapper      Маппер запусков.
+     * @param statisticsService  Сервис статистики (сброс кэша после записи результатов).
+     * @param clusterRelay       Рассылка результата подписчикам всех узлов кластера.
+     * @param taskExecutor       Пул {@code @Async}, в котором выполняется анализ.
+     * @param transactionManager Менеджер транзакций.
+     * @param enabled            Включен ли отложенный анализ.
+     */
+    public DeferredAnalysisService(RcaService rcaService,
+                                   TestRunRepository testRunRepository,
+                                   TestRunMapper testRunMapper,
+                                   StatisticsService statisticsService,
+                                   ClusterRelay clusterRelay,
+                                   Executor taskExecutor,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${xai.analysis.deferred.enabled:false}") boolean enabled) {
+        this.rcaService = rcaService;
+        this.testRunRepository = testRunRepository;
+        this.testRunMapper = testRunMapper;
+        this.statisticsService = statisticsService;
+        this.clusterRelay = clusterRelay;
+        this.taskExecutor = taskExecutor;
+        // Анализ может выполняться и в вызывающем потоке после фиксации его транзакции - нужна новая транзакция
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Нужно ли откладывать анализ для события. Успешные запуски анализируются мгновенно и не откладываются.
+     *
+     * @param status Статус запуска.
+     * @return {@code true}, если запуск нужно сохранить со статусом {@code PENDING}.
+     */
+    public boolean shouldDefer(TestRun.TestStatus status) {
+        return enabled && status != TestRun.TestStatus.PASSED;
+    }
+
+    /**
+     * Возвращает STOMP-канал, в который публикуется результат анализа запуска.
+     *
+     * @param testRunId ID запуска.
+     * @return Адрес канала.
+     */
+    public static String analysisDestination(String testRunId) {
+        return ANALYSIS_DESTINATION.formatted(testRunId);
+    }
+
+    /**
+     * Передает анализ сохраненного запуска в пул после фиксации транзакции. Если очередь пула переполнена,
+     * анализ выполняется в вызывающем потоке, чтобы запрос не был потерян.
+     *
+     * @param request Событие с исходными данными запуска.
+     */
+    @TransactionalEventListener
+    public void onAnalysisRequested(TestRunAnalysisRequestedEvent request) {
+        FailureEventDTO event = request.event();
+        try {
+            taskExecutor.execute(() -> analyze(event));
+        } catch (RejectedExecutionException e) {
+            log.warn("Async pool is saturated, analyzing test run {} in the calling thread.", event.testRunId());
+            analyze(event);
+        }
+    }
+
+    /**
+     * Повторно запускает анализ запусков, оставшихся в {@code PENDING} после остановки или падения приложения.
+     * Запуски обрабатываются последовательно в отдельном потоке и не занимают пул {@code @Async}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingAnalyses() {
+        Thread thread = new Thread(this::analyzePending, "deferred-analysis-recovery");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void analyzePending() {
+        String afterId = "";
+        int recovered = 0;
+        try {
+            while (true) {
+                List<String> ids = testRunRepository.findIdsByAnalysisStatus(TestRun.AnalysisStatus.PENDING, afterId,
+                        Limit.of(RECOVERY_BATCH_SIZE));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                afterId = ids.get(ids.size() - 1);
+                List<FailureEventDTO> events = readOnlyTransaction.execute(tx -> testRunRepository.findAllByIdIn(ids).stream()
+                        .sorted(Comparator.comparing(TestRun::getId))
+                        .map(testRunMapper::toEvent)
+                        .toList());
+                for (FailureEventDTO event : events) {
+                    analyze(event);
+                    recovered++;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Recovery of pending analyses stopped after test run {}: {}", afterId, e.getMessage(), e);
+        }
+        if (recovered > 0) {
+            log.info("Re-analyzed {} test run(s) left in PENDING state.", recovered);
+        }
+    }
+
+    /**
+     * Выполняет анализ запуска, записывает результаты и публикует обновленный запуск.
+     * Ошибка анализа переводит запуск в статус {@code FAILED}. Если запуск уже не в {@code PENDING}
+     * (его проанализировал другой поток или узел), результаты отбрасываются.
+     *
+     * @param event Исходные данные запуска.
+     */
+    void analyze(FailureEventDTO event) {
+        String testRunId = event.testRunId();
+        long start = System.nanoTime();
+        List<AnalysisResult> results;
+        TestRun.AnalysisStatus status;
+        try {
+            results = rcaService.analyzeTestRun(event);
+            status = TestRun.AnalysisStatus.COMPLETED;
+        } catch (RuntimeException e) {
+            log.error("Deferred analysis failed for test run ID: {}", testRunId, e);
+            results = List.of();
+            status = TestRun.AnalysisStatus.FAILED;
+        }
+
+        List<AnalysisResult> analysisResults = results;
+        TestRun.AnalysisStatus analysisStatus = status;
+        var outcome = transactionTemplate.execute(tx -> testRunRepository.findById(testRunId)
+                .map(testRun -> {
+                    if (testRun.getAnalysisStatus() != TestRun.AnalysisStatus.PENDING) {
+                        return new Outcome(null, true);
+                    }
+                    analysisResults.forEach(testRun::addAnalysisResult);
+                    testRun.setAnalysisStatus(analysisStatus);
+                    testRunRepository.flush();
+                    return new Outcome(testRunMapper.toDetailDto(testRun), false);
+                })
+                .orElse(new Outcome(null, false)));
+        if (outcome.alreadyAnalyzed()) {
+            log.info("Test run {} was already analyzed, discarding the duplicate result.", testRunId);
+            return;
+        }
+        if (outcome.run() == null) {
+            log.warn("Test run {} was deleted before its deferred analysis completed.", testRunId);
+            return;
+        }
+        log.info("Deferred analysis of test run {} finished with status {} in {} ms.",
+                testRunId, analysisStatus, (System.nanoTime() - start) / 1_000_000);
+
+        clusterRelay.sendClusterWide(analysisDestination(testRunId), outcome.run());
+        statisticsService.clearStatisticsCache();
+    }
+
+    /**
+     * Итог записи результатов анализа.
+     *
+     * @param run             Обновленный запуск или {@code null}, если результаты не записаны.
+     * @param alreadyAnalyzed Запуск уже не ожидал анализа.
+     */
+    private record Outcome(TestRunDetailDTO run, boolean alreadyAnalyzed) {
+    }
+}
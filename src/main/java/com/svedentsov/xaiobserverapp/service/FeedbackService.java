@@ -6,6 +6,10 @@ import com.svedentsov.xaiobserverapp.model.AnalysisFeedback;
 import com.svedentsov.xaiobserverapp.model.AnalysisResult;
 import com.svedentsov.xaiobserverapp.repository.AnalysisFeedbackRepository;
 import com.svedentsov.xaiobserverapp.repository.AnalysisResultRepository;
+import com.svedentsov.xaiobserverapp.service.analysis.rules.DeclarativeRuleEngine;
+import com.svedentsov.xaiobserverapp.service.analysis.rules.RuleFeedbackStatistics;
+import com.svedentsov.xaiobserverapp.service.xai.XaiPredictionCache;
+import com.svedentsov.xaiobserverapp.service.xai.local.LocalXaiModel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -24,11 +28,18 @@ public class FeedbackService {
 
     private final AnalysisResultRepository analysisResultRepository;
     private final AnalysisFeedbackRepository analysisFeedbackRepository;
+    private final XaiPredictionCache xaiPredictionCache;
+    private final RuleFeedbackStatistics ruleFeedbackStatistics;
+    private final LocalXaiModel localXaiModel;
 
     /**
      * Обрабатывает и сохраняет отзыв пользователя.
      * Находит соответствующий результат анализа, обновляет его на основе отзыва
-     * и создает новую запись с деталями отзыва.
+     * и создает новую запись с деталями отзыва. Если пользователь отметил предсказание XAI-сервиса
+     * как неверное, закэшированное предсказание для этого отпечатка сбоя инвалидируется,
+     * и следующее повторение сбоя будет заново проанализировано моделью. Оценка результата декларативного
+     * правила учитывается в счетчиках точности этого правила, а оценка результата ML-анализа дообучает
+     * локальную модель классификации сбоев.
      *
      * @param analysisId  ID результата анализа, к которому относится отзыв.
      * @param feedbackDTO DTO с данными отзыва.
@@ -43,7 +54,17 @@ public class FeedbackService {
                 .orElseThrow(() -> new ResourceNotFoundException("Analysis with ID " + analysisId + " not found"));
 
         if (feedbackDTO.isAiSuggestionCorrect() != null) {
+            Boolean previous = analysisResult.getUserConfirmedCorrect();
             analysisResult.setUserConfirmedCorrect(feedbackDTO.isAiSuggestionCorrect());
+            if (analysisResult.getExplanationData() != null
+                    && analysisResult.getExplanationData().get(DeclarativeRuleEngine.RULE_KEY) instanceof String ruleId) {
+                ruleFeedbackStatistics.record(ruleId, previous, feedbackDTO.isAiSuggestionCorrect());
+            }
+            localXaiModel.onFeedback(analysisResult, previous, feedbackDTO);
+        }
+        if (Boolean.FALSE.equals(feedbackDTO.isAiSuggestionCorrect()) && analysisResult.getExplanationData() != null
+                && analysisResult.getExplanationData().get(XaiPredictionCache.FINGERPRINT_KEY) instanceof String fingerprint) {
+            xaiPredictionCache.invalidate(fingerprint);
         }
 
         AnalysisFeedback feedback = new AnalysisFeedback();
@@ -0,0 +1,104 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import com.svedentsov.xaiobserverapp.dto.KnownIssueDTO;
+import com.svedentsov.xaiobserverapp.exception.ResourceNotFoundException;
+import com.svedentsov.xaiobserverapp.mapper.KnownIssueMapper;
+import com.svedentsov.xaiobserverapp.model.KnownIssue;
+import com.svedentsov.xaiobserverapp.repository.KnownIssueRepository;
+import com.svedentsov.xaiobserverapp.service.analysis.KnownIssueMatcher;
+import com.svedentsov.xaiobserverapp.service.analysis.KnownIssuesChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Сервис управления каталогом известных проблем.
+ * После каждого изменения публикует {@link KnownIssuesChangedEvent}; {@link KnownIssueMatcher}
+ * перестраивает автомат сигнатур в фоне после фиксации транзакции.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class KnownIssueService {
+
+    private final KnownIssueRepository knownIssueRepository;
+    private final KnownIssueMapper knownIssueMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Возвращает все известные проблемы.
+     *
+     * @return Список DTO известных проблем.
+     */
+    @Transactional(readOnly = true)
+    public List<KnownIssueDTO> findAll() {
+        return knownIssueRepository.findAll().stream().map(knownIssueMapper::toDto).toList();
+    }
+
+    /**
+     * Создает известные проблемы. Перестройка автомата выполняется один раз на весь список.
+     *
+     * @param issues Список DTO новых проблем.
+     * @return Список созданных проблем.
+     */
+    @Transactional
+    public List<KnownIssueDTO> createAll(List<KnownIssueDTO> issues) {
+        LocalDateTime now = LocalDateTime.now();
+        List<KnownIssue> entities = issues.stream().map(dto -> {
+            var entity = new KnownIssue();
+            apply(entity, dto);
+            entity.setCreatedAt(now);
+            entity.setUpdatedAt(now);
+            return entity;
+        }).toList();
+        List<KnownIssue> saved = knownIssueRepository.saveAll(entities);
+        log.info("Created {} known issue(s).", saved.size());
+        eventPublisher.publishEvent(new KnownIssuesChangedEvent("created " + saved.size()));
+        return saved.stream().map(knownIssueMapper::toDto).toList();
+    }
+
+    /**
+     * Обновляет известную проблему.
+     *
+     * @param id  ID проблемы.
+     * @param dto Новые данные.
+     * @return Обновленная проблема.
+     * @throws ResourceNotFoundException если проблема не найдена.
+     */
+    @Transactional
+    public KnownIssueDTO update(Long id, KnownIssueDTO dto) {
+        KnownIssue entity = knownIssueRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Known issue with ID " + id + " not found"));
+        apply(entity, dto);
+        entity.setUpdatedAt(LocalDateTime.now());
+        eventPublisher.publishEvent(new KnownIssuesChangedEvent("updated " + id));
+        return knownIssueMapper.toDto(entity);
+    }
+
+    /**
+     * Удаляет известную проблему.
+     *
+     * @param id ID проблемы.
+     * @throws ResourceNotFoundException если проблема не найдена.
+     */
+    @Transactional
+    public void delete(Long id) {
+        if (!knownIssueRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Known issue with ID " + id + " not found");
+        }
+        knownIssueRepository.deleteById(id);
+        eventPublisher.publishEvent(new KnownIssuesChangedEvent("deleted " + id));
+    }
+
+    private static void apply(KnownIssue entity, KnownIssueDTO dto) {
+        entity.setSignature(dto.signature());
+        entity.setTicketId(dto.ticketId());
+        entity.setTitle(dto.title());
+        entity.setEnabled(dto.enabled() == null || dto.enabled());
+    }
+}
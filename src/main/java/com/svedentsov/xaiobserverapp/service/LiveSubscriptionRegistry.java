@@ -0,0 +1,91 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реестр активных STOMP-подписок: количество подписчиков на каждый адрес.
+ * <p>
+ * Позволяет рассыльщикам готовить и сериализовать сообщения только для адресов, на которые
+ * кто-то подписан, и служит источником метрик подписчиков по адресам.
+ */
+@Slf4j
+@Component
+public class LiveSubscriptionRegistry {
+
+    /**
+     * Подписки по сессиям: ID сессии - (ID подписки - адрес).
+     */
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> subscribers = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        String destination = accessor.getDestination();
+        if (sessionId == null || subscriptionId == null || destination == null) {
+            return;
+        }
+        String previous = sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, destination);
+        if (previous != null) {
+            decrement(previous);
+        }
+        subscribers.merge(destination, 1, Integer::sum);
+        log.debug("Session {} subscribed to {}.", sessionId, destination);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = accessor.getSessionId() != null ? sessions.get(accessor.getSessionId()) : null;
+        if (subscriptions != null && accessor.getSubscriptionId() != null) {
+            String destination = subscriptions.remove(accessor.getSubscriptionId());
+            if (destination != null) {
+                decrement(destination);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::decrement);
+        }
+    }
+
+    /**
+     * Возвращает количество подписчиков адреса.
+     *
+     * @param destination Адрес подписки.
+     * @return Количество активных подписок на адрес.
+     */
+    public int subscribers(String destination) {
+        return subscribers.getOrDefault(destination, 0);
+    }
+
+    /**
+     * Возвращает адреса, на которые есть хотя бы одна подписка.
+     *
+     * @return Неизменяемое живое представление множества адресов.
+     */
+    public Set<String> destinations() {
+        return Collections.unmodifiableSet(subscribers.keySet());
+    }
+
+    private void decrement(String destination) {
+        subscribers.computeIfPresent(destination, (key, count) -> count > 1 ? count - 1 : null);
+    }
+}
@@ -1,24 +1,354 @@
 package com.svedentsov.xaiobserverapp.service;
 
+import com.svedentsov.xaiobserverapp.dto.AlertSinkStatsDTO;
+import com.svedentsov.xaiobserverapp.dto.AlertingStatsDTO;
+import com.svedentsov.xaiobserverapp.dto.TestConfigurationDTO;
+import com.svedentsov.xaiobserverapp.dto.TestRunSummaryDTO;
 import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.service.notification.AlertSink;
+import com.svedentsov.xaiobserverapp.service.notification.FailureAlertDigest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
- * Сервис для отправки уведомлений.
- * В текущей реализации эмулирует отправку уведомлений путем логирования.
- * Может быть расширен для интеграции с реальными системами (Slack, email и т.д.).
+ * Сервис для отправки уведомлений о сбоях тестов.
+ * <p>
+ * Вместо отдельного уведомления на каждый проваленный запуск сбои группируются по конфигурации (окружение,
+ * версия, набор) и типу исключения. Первый сбой открывает окно группы {@code window-seconds}; по его закрытии
+ * группа отправляет одну сводку с количеством сбоев, числом различных тестов (повторные падения одного теста
+ * не дублируются) и примерами. Если группа уже отправила {@code max-digests-per-group-per-hour} сводок за
+ * последний час, сводка откладывается и продолжает накапливать сбои до следующей разрешенной отправки, поэтому
+ * при падении окружения, когда за пару минут проваливаются тысячи тестов, приходит несколько сводок, а не
+ * тысячи уведомлений.
+ * <p>
+ * Сбои приходят из транзакционного outbox после фиксации сохранения запуска; при повторной доставке события
+ * сбой может быть учтен в сводке дважды. Прием сбоя только обновляет счетчики группы в памяти и не блокирует
+ * обработку запусков. Сводки доставляются
+ * во все каналы ({@link AlertSink}) отдельным потоком через ограниченную очередь. Память ограничена: групп не
+ * больше {@code max-groups} (сбои сверх лимита попадают в общую группу), у группы хранится не больше
+ * {@code max-tests-per-group} имен тестов, группа без сбоев удаляется через час после последней сводки.
  */
 @Slf4j
 @Service
 public class NotificationService {
+
+    private static final int SAMPLE_SIZE = 10;
+    private static final Duration RATE_PERIOD = Duration.ofHours(1);
+    private static final GroupKey OVERFLOW_GROUP = new GroupKey("*", "*", "*", "*");
+
+    private final List<AlertSink> sinks;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxDigestsPerHour;
+    private final int maxGroups;
+    private final int maxTestsPerGroup;
+    private final int dispatchQueueCapacity;
+
+    private final Object lock = new Object();
+    private final Map<GroupKey, Group> groups = new HashMap<>();
+    private final Map<String, SinkStats> sinkStats = new LinkedHashMap<>();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+    private final LongAdder digests = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private ScheduledExecutorService aggregator;
+    private ThreadPoolExecutor dispatcher;
+
+    /**
+     * Конструктор сервиса уведомлений.
+     *
+     * @param sinks                 Каналы доставки сводок.
+     * @param enabled               Включены ли уведомления.
+     * @param windowSeconds         Окно накопления сбоев группы, секунды.
+     * @param maxDigestsPerHour     Максимальное количество сводок одной группы в час.
+     * @param maxGroups             Максимальное количество отслеживаемых групп.
+     * @param maxTestsPerGroup      Максимальное количество имен тестов, хранимых для группы.
+     * @param dispatchQueueCapacity Емкость очереди сводок, ожидающих доставки.
+     */
+    public NotificationService(List<AlertSink> sinks,
+                               @Value("${xai.notifications.alerts.enabled:true}") boolean enabled,
+                               @Value("${xai.notifications.alerts.window-seconds:60}") long windowSeconds,
+                               @Value("${xai.notifications.alerts.max-digests-per-group-per-hour:6}") int maxDigestsPerHour,
+                               @Value("${xai.notifications.alerts.max-groups:1000}") int maxGroups,
+                               @Value("${xai.notifications.alerts.max-tests-per-group:100}") int maxTestsPerGroup,
+                               @Value("${xai.notifications.alerts.dispatch-queue-capacity:1000}") int dispatchQueueCapacity) {
+        if (maxDigestsPerHour <= 0) {
+            throw new IllegalArgumentException("xai.notifications.alerts.max-digests-per-group-per-hour must be positive");
+        }
+        this.sinks = List.copyOf(sinks);
+        this.enabled = enabled;
+        this.window = Duration.ofSeconds(windowSeconds);
+        this.maxDigestsPerHour = maxDigestsPerHour;
+        this.maxGroups = maxGroups;
+        this.maxTestsPerGroup = maxTestsPerGroup;
+        this.dispatchQueueCapacity = dispatchQueueCapacity;
+        this.sinks.forEach(sink -> sinkStats.put(sink.name(), new SinkStats()));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(dispatchQueueCapacity), r -> {
+            Thread thread = new Thread(r, "alert-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        aggregator = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "alert-aggregator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkMillis = Math.max(100, Math.min(1000, window.toMillis() / 4));
+        aggregator.scheduleWithFixedDelay(this::flush, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+        log.info("Failure alerts grouped over {} s windows, at most {} digests per group per hour, sinks: {}.",
+                window.toSeconds(), maxDigestsPerHour, sinkStats.keySet());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (aggregator != null) {
+            aggregator.shutdownNow();
+            dispatcher.shutdown();
+        }
+    }
+
     /**
-     * Отправляет уведомление о сбое теста.
+     * Учитывает проваленный запуск после фиксации транзакции его сохранения.
      *
-     * @param testRun Сущность проваленного тестового запуска.
+     * @param event Событие о сохранении запуска, доставленное из outbox.
+     */
+    @EventListener
+    public void onTestRunSaved(TestRunSavedEvent event) {
+        if (TestRun.TestStatus.FAILED.name().equals(event.summary().status())) {
+            notifyAboutFailure(event.summary());
+        }
+    }
+
+    /**
+     * Добавляет сбой теста в группу его конфигурации и типа исключения. Сводка по группе отправляется
+     * асинхронно по закрытии окна.
+     *
+     * @param testRun Краткие данные о проваленном запуске.
+     */
+    public void notifyAboutFailure(TestRunSummaryDTO testRun) {
+        if (!enabled) {
+            return;
+        }
+        received.increment();
+        GroupKey key = GroupKey.of(testRun);
+        String testName = String.format("%s.%s", testRun.testClass(), testRun.testMethod());
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (lock) {
+            Group group = groups.get(key);
+            if (group == null) {
+                if (groups.size() >= maxGroups) {
+                    overflow.increment();
+                    key = OVERFLOW_GROUP;
+                    group = groups.get(key);
+                }
+                if (group == null) {
+                    group = new Group(key, maxDigestsPerHour);
+                    groups.put(key, group);
+                }
+            }
+            group.add(testName, testRun.id(), now, maxTestsPerGroup);
+        }
+    }
+
+    /**
+     * Возвращает статистику агрегации и доставки уведомлений.
+     *
+     * @return DTO со статистикой.
+     */
+    public AlertingStatsDTO getStatistics() {
+        int activeGroups;
+        long pending = 0;
+        synchronized (lock) {
+            activeGroups = groups.size();
+            for (Group group : groups.values()) {
+                pending += group.failures;
+            }
+        }
+        List<AlertSinkStatsDTO> sinkList = new ArrayList<>();
+        synchronized (sinkStats) {
+            sinkStats.forEach((name, stats) -> sinkList.add(
+                    new AlertSinkStatsDTO(name, stats.sent, stats.failed, stats.lastError, stats.lastSentAt)));
+        }
+        return new AlertingStatsDTO(enabled, window.toSeconds(), maxDigestsPerHour, activeGroups, pending, received.sum(),
+                overflow.sum(), digests.sum(), deferred.sum(), dropped.sum(), sinkList);
+    }
+
+    /**
+     * Формирует сводки групп с закрытым окном, откладывает превысившие лимит частоты и удаляет неактивные группы.
+     */
+    void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        List<FailureAlertDigest> ready = new ArrayList<>();
+        synchronized (lock) {
+            for (Iterator<Group> it = groups.values().iterator(); it.hasNext(); ) {
+                Group group = it.next();
+                if (group.failures == 0) {
+                    if (group.idleSince(now, RATE_PERIOD)) {
+                        it.remove();
+                    }
+                } else if (!group.windowStart.plus(window).isAfter(now)) {
+                    if (group.tryAcquire(now, RATE_PERIOD)) {
+                        ready.add(group.drain());
+                    } else if (!group.deferredInWindow) {
+                        group.deferredInWindow = true;
+                        group.deferred++;
+                        deferred.increment();
+                    }
+                }
+            }
+        }
+        ready.forEach(this::dispatch);
+    }
+
+    private void dispatch(FailureAlertDigest digest) {
+        digests.increment();
+        try {
+            dispatcher.execute(() -> sinks.forEach(sink -> deliver(sink, digest)));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            log.warn("Alert dispatch queue is full, dropping digest of {} failures with {}.", digest.failures(), digest.exceptionType());
+        }
+    }
+
+    private void deliver(AlertSink sink, FailureAlertDigest digest) {
+        try {
+            sink.send(digest);
+            synchronized (sinkStats) {
+                SinkStats stats = sinkStats.get(sink.name());
+                stats.sent++;
+                stats.lastSentAt = LocalDateTime.now();
+            }
+        } catch (RuntimeException e) {
+            synchronized (sinkStats) {
+                SinkStats stats = sinkStats.get(sink.name());
+                stats.failed++;
+                stats.lastError = e.getMessage();
+            }
+            log.error("Failed to deliver failure alert digest via {}: {}", sink.name(), e.getMessage());
+        }
+    }
+
+    /**
+     * Ключ группы сбоев: конфигурация запуска и тип исключения.
+     */
+    private record GroupKey(String environment, String appVersion, String testSuite, String exceptionType) {
+
+        static GroupKey of(TestRunSummaryDTO testRun) {
+            TestConfigurationDTO config = testRun.configuration();
+            return new GroupKey(config != null ? config.environment() : null, config != null ? config.appVersion() : null,
+                    config != null ? config.testSuite() : null, testRun.exceptionType());
+        }
+    }
+
+    /**
+     * Накопленные сбои и история отправок одной группы. Все поля защищены {@link #lock}.
+     */
+    private static final class Group {
+
+        private final GroupKey key;
+        private final LocalDateTime[] sentAt;
+        private int sentIndex;
+
+        private LocalDateTime windowStart;
+        private LocalDateTime lastFailureAt;
+        private long failures;
+        private final Set<String> tests = new LinkedHashSet<>();
+        private boolean moreTests;
+        private final List<String> sampleRunIds = new ArrayList<>();
+        private int deferred;
+        private boolean deferredInWindow;
+
+        Group(GroupKey key, int maxDigestsPerHour) {
+            this.key = key;
+            this.sentAt = new LocalDateTime[maxDigestsPerHour];
+        }
+
+        void add(String testName, String testRunId, LocalDateTime now, int maxTests) {
+            if (failures == 0) {
+                windowStart = now;
+            }
+            failures++;
+            lastFailureAt = now;
+            if (!tests.contains(testName)) {
+                if (tests.size() < maxTests) {
+                    tests.add(testName);
+                } else {
+                    moreTests = true;
+                }
+            }
+            if (sampleRunIds.size() < SAMPLE_SIZE) {
+                sampleRunIds.add(testRunId);
+            }
+        }
+
+        /**
+         * Занимает место в истории отправок, если за последний период отправлено меньше лимита сводок.
+         */
+        boolean tryAcquire(LocalDateTime now, Duration period) {
+            LocalDateTime oldest = sentAt[sentIndex];
+            if (oldest != null && oldest.plus(period).isAfter(now)) {
+                return false;
+            }
+            sentAt[sentIndex] = now;
+            sentIndex = (sentIndex + 1) % sentAt.length;
+            return true;
+        }
+
+        boolean idleSince(LocalDateTime now, Duration period) {
+            return lastFailureAt == null || !lastFailureAt.plus(period).isAfter(now);
+        }
+
+        FailureAlertDigest drain() {
+            var digest = new FailureAlertDigest(key.environment(), key.appVersion(), key.testSuite(), key.exceptionType(),
+                    windowStart, lastFailureAt, failures, tests.size(), moreTests,
+                    tests.stream().limit(SAMPLE_SIZE).toList(), List.copyOf(sampleRunIds), deferred);
+            failures = 0;
+            tests.clear();
+            moreTests = false;
+            sampleRunIds.clear();
+            deferred = 0;
+            deferredInWindow = false;
+            return digest;
+        }
+    }
+
+    /**
+     * Счетчики доставки одного канала. Поля защищены {@link #sinkStats}.
      */
-    public void notifyAboutFailure(TestRun testRun) {
-        String testName = String.format("%s.%s", testRun.getTestClass(), testRun.getTestMethod());
-        log.warn("!!! УВЕДОМЛЕНИЕ О СБОЕ !!! Тест '{}' провален. ID запуска: {}. Пожалуйста, проверьте дашборд.", testName, testRun.getId());
+    private static final class SinkStats {
+        private long sent;
+        private long failed;
+        private String lastError;
+        private LocalDateTime lastSentAt;
     }
 }
@@ -2,6 +2,9 @@ package com.svedentsov.xaiobserverapp.service;
 
 import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
 import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.service.analysis.KnownIssueMatcher;
+import com.svedentsov.xaiobserverapp.service.analysis.RuleDispatcher;
+import com.svedentsov.xaiobserverapp.service.diagnostics.RcaAnalysisEvent;
 import com.svedentsov.xaiobserverapp.service.xai.XaiServiceClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,20 +22,27 @@ import java.util.Map;
  * Принцип работы:
  * 1. Получает на вход событие о завершении теста {@link FailureEventDTO}.
  * 2. Если тест успешен, возвращает стандартное резюме.
- * 3. Если тест провален, последовательно применяет цепочку "rule-based" стратегий анализа
- * ({@link AnalysisStrategy}), отсортированных по приоритету (аннотация @Order).
- * Используется первая стратегия, которая сможет обработать сбой.
+ * 3. Если тест провален, применяет "rule-based" стратегии анализа ({@link AnalysisStrategy}) через
+ * {@link RuleDispatcher}: стратегии перебираются по очереди в порядке приоритета (аннотация @Order),
+ * и перебор останавливается на первой стратегии, вернувшей результат. Отбор подходящих правил по полям
+ * события выполняет сама стратегия {@code DeclarativeRuleEngine}.
  * 4. Если ни одна из "rule-based" стратегий не сработала, сервис обращается
  * к внешнему XAI-сервису (например, ML-модели) для получения предиктивного анализа.
  * 5. Если и XAI-сервис не дал ответа, формируется общее (fallback) сообщение об ошибке.
+ * 6. Дополнительно провал сопоставляется с каталогом известных проблем ({@link KnownIssueMatcher});
+ * при совпадении к результатам добавляется отдельный результат со ссылками на тикеты.
+ * <p>
+ * Каждый анализ фиксируется как событие Java Flight Recorder ({@link RcaAnalysisEvent}) с источником
+ * и типом результата.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RcaService {
 
-    private final List<AnalysisStrategy> analysisStrategies;
+    private final RuleDispatcher ruleDispatcher;
     private final XaiServiceClient xaiServiceClient;
+    private final KnownIssueMatcher knownIssueMatcher;
 
     /**
      * Выполняет полный анализ события о завершении теста.
@@ -41,37 +51,68 @@ public class RcaService {
      * @return Список результатов анализа.
      */
     public List<AnalysisResult> analyzeTestRun(FailureEventDTO event) {
+        return analyzeTestRun(event, true);
+    }
+
+    /**
+     * Выполняет анализ события с возможностью отключить обращение к внешнему XAI-сервису.
+     * Без XAI-фолбэка используется только цепочка "rule-based" стратегий, а при отсутствии
+     * совпадений - общее резюме сбоя. Применяется в массовых сценариях (импорт истории),
+     * где сетевой вызов на каждый сбой недопустимо дорог.
+     *
+     * @param event          DTO с данными о тестовом запуске.
+     * @param useXaiFallback Обращаться ли к XAI-сервису, если ни одна стратегия не сработала.
+     * @return Список результатов анализа.
+     */
+    public List<AnalysisResult> analyzeTestRun(FailureEventDTO event, boolean useXaiFallback) {
+        var jfrEvent = new RcaAnalysisEvent();
+        jfrEvent.begin();
         List<AnalysisResult> results = new ArrayList<>();
 
         if ("PASSED".equalsIgnoreCase(event.status())) {
-            results.add(createSuccessfulRunSummary());
+            var summary = createSuccessfulRunSummary();
+            results.add(summary);
+            jfrEvent.commit(event.testRunId(), "passed", summary.getAnalysisType(), false);
             return results;
         }
 
-        for (var strategy : analysisStrategies) {
-            var resultOpt = strategy.analyze(event);
-            if (resultOpt.isPresent()) {
-                log.info("Analysis found by rule-based strategy: {}", strategy.getClass().getSimpleName());
-                var result = resultOpt.get();
-                result.setAnalysisTimestamp(LocalDateTime.now());
-                results.add(result);
-                return results;
-            }
+        var failureAnalysis = analyzeFailure(event, useXaiFallback);
+        results.add(failureAnalysis.result());
+        knownIssueMatcher.match(event).ifPresent(results::add);
+        jfrEvent.commit(event.testRunId(), failureAnalysis.source(), failureAnalysis.result().getAnalysisType(), results.size() > 1);
+        return results;
+    }
+
+    /**
+     * Определяет основную причину сбоя: "rule-based" стратегии, затем XAI-сервис, затем общее резюме.
+     *
+     * @param event          DTO события.
+     * @param useXaiFallback Обращаться ли к XAI-сервису, если ни одна стратегия не сработала.
+     * @return Основной результат анализа сбоя и его источник.
+     */
+    private FailureAnalysis analyzeFailure(FailureEventDTO event, boolean useXaiFallback) {
+        var ruleResult = ruleDispatcher.dispatch(event);
+        if (ruleResult.isPresent()) {
+            var result = ruleResult.get();
+            result.setAnalysisTimestamp(LocalDateTime.now());
+            return new FailureAnalysis(result, "rules");
+        }
+
+        if (!useXaiFallback) {
+            return new FailureAnalysis(createGeneralFailureSummary(event), "fallback");
         }
 
         log.info("No specific rule-based strategy found. Calling XAI service as a fallback...");
-        xaiServiceClient.getPrediction(event).ifPresentOrElse(
-                mlResult -> {
+        return xaiServiceClient.getPrediction(event)
+                .map(mlResult -> {
                     log.info("Received prediction from XAI service.");
                     mlResult.setAnalysisTimestamp(LocalDateTime.now());
-                    results.add(mlResult);
-                },
-                () -> {
+                    return new FailureAnalysis(mlResult, "xai");
+                })
+                .orElseGet(() -> {
                     log.warn("XAI service did not provide a prediction. Falling back to generic analysis.");
-                    results.add(createGeneralFailureSummary(event));
-                }
-        );
-        return results;
+                    return new FailureAnalysis(createGeneralFailureSummary(event), "fallback");
+                });
     }
 
     /**
@@ -106,4 +147,10 @@ public class RcaService {
         ar.setExplanationData(Map.of("status", event.status(), "fallback_reason", "No specific analyzer triggered"));
         return ar;
     }
-}
\ No newline at end of file
+
+    /**
+     * Основной результат анализа сбоя вместе с источником: {@code rules}, {@code xai} или {@code fallback}.
+     */
+    private record FailureAnalysis(AnalysisResult result, String source) {
+    }
+}
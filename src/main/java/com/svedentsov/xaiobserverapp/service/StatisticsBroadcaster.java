@@ -0,0 +1,100 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import com.svedentsov.xaiobserverapp.dto.DashboardStatisticsDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Рассылка статистики дашборда через WebSocket.
+ * <p>
+ * Раньше каждый открытый дашборд на каждое уведомление о новом запуске сам запрашивал
+ * {@code /api/v1/statistics} сразу после сброса кэша, и количество пересчетов статистики росло
+ * пропорционально произведению числа клиентов на частоту событий. Теперь сброс кэша
+ * ({@link StatisticsInvalidatedEvent}) только помечает статистику устаревшей, а не чаще одного раза
+ * за {@code xai.websocket.statistics.interval-ms} сервер пересчитывает ее один раз и публикует
+ * снимок в {@value #DESTINATION}. Пересчитанная статистика попадает и в кэш, поэтому REST-запросы
+ * в промежутке между рассылками также не обращаются к БД.
+ */
+@Slf4j
+@Service
+public class StatisticsBroadcaster {
+
+    /**
+     * STOMP-канал снимков статистики.
+     */
+    public static final String DESTINATION = "/topic/statistics";
+
+    private final StatisticsService statisticsService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final long intervalMillis;
+
+    private final AtomicBoolean stale = new AtomicBoolean();
+    private ScheduledExecutorService executor;
+
+    /**
+     * Конструктор рассыльщика статистики.
+     *
+     * @param statisticsService Сервис расчета статистики.
+     * @param messagingTemplate Шаблон отправки STOMP-сообщений.
+     * @param intervalMillis    Минимальный интервал между рассылками, мс.
+     */
+    public StatisticsBroadcaster(StatisticsService statisticsService,
+                                 SimpMessagingTemplate messagingTemplate,
+                                 @Value("${xai.websocket.statistics.interval-ms:2000}") long intervalMillis) {
+        this.statisticsService = statisticsService;
+        this.messagingTemplate = messagingTemplate;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "statistics-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::publishIfStale, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Помечает статистику устаревшей. Внутри транзакции срабатывает после ее фиксации,
+     * чтобы пересчет видел сохраненные данные.
+     *
+     * @param event Событие о сбросе кэша статистики.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatisticsInvalidated(StatisticsInvalidatedEvent event) {
+        stale.set(true);
+    }
+
+    /**
+     * Пересчитывает и рассылает статистику, если с прошлой рассылки данные изменились.
+     */
+    void publishIfStale() {
+        if (!stale.getAndSet(false)) {
+            return;
+        }
+        try {
+            DashboardStatisticsDTO statistics = statisticsService.refreshDashboardStatistics();
+            messagingTemplate.convertAndSend(DESTINATION, statistics);
+        } catch (RuntimeException e) {
+            stale.set(true);
+            log.warn("Failed to broadcast dashboard statistics: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.svedentsov.xaiobserverapp.service;
+
+/**
+ * Событие приложения: данные, из которых строится статистика дашборда, изменились,
+ * и кэшированная статистика сброшена.
+ *
+ * @param replicated Кэш сброшен по событию другого узла кластера (повторно в кластер не публикуется).
+ */
+public record StatisticsInvalidatedEvent(boolean replicated) {
+}
@@ -5,10 +5,13 @@ import com.svedentsov.xaiobserverapp.dto.DashboardStatisticsDTO;
 import com.svedentsov.xaiobserverapp.dto.SlowTestDTO;
 import com.svedentsov.xaiobserverapp.model.TestRun;
 import com.svedentsov.xaiobserverapp.repository.TestRunRepository;
+import com.svedentsov.xaiobserverapp.service.diagnostics.StatisticsEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,6 +31,9 @@ import java.util.stream.LongStream;
  * Сервис для расчета и предоставления расширенных статистических данных по тестовым запускам.
  * Результаты вычислений кэшируются для повышения производительности.
  * Все тяжелые вычисления делегируются базе данных через JPQL-запросы для максимальной эффективности.
+ * Сброс кэша публикует {@link StatisticsInvalidatedEvent}, по которому {@link StatisticsBroadcaster}
+ * пересчитывает статистику и рассылает ее клиентам. Каждый расчет фиксируется как событие
+ * Java Flight Recorder ({@link StatisticsEvent}).
  */
 @Slf4j
 @Service
@@ -39,6 +45,7 @@ public class StatisticsService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     private final TestRunRepository testRunRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Рассчитывает и возвращает полную статистику для дашборда.
@@ -52,7 +59,52 @@ public class StatisticsService {
     @Cacheable("dashboard_statistics")
     public DashboardStatisticsDTO getDashboardStatistics() {
         log.info("Calculating new dashboard statistics (cache miss).");
+        return calculateDashboardStatistics("dashboard");
+    }
+
+    /**
+     * Пересчитывает статистику для дашборда и заменяет ею значение в кэше "dashboard_statistics".
+     * Используется для рассылки статистики после изменения данных: результат одного расчета получают
+     * и подписчики WebSocket, и последующие запросы к REST API.
+     *
+     * @return {@link DashboardStatisticsDTO} с актуальной статистикой.
+     */
+    @Transactional(readOnly = true)
+    @CachePut("dashboard_statistics")
+    public DashboardStatisticsDTO refreshDashboardStatistics() {
+        log.debug("Recalculating dashboard statistics for broadcast.");
+        return calculateDashboardStatistics("refresh");
+    }
+
+    /**
+     * Принудительно очищает кэш статистики.
+     * Вызывается после операций, изменяющих данные (сохранение, удаление).
+     */
+    @CacheEvict(value = "dashboard_statistics", allEntries = true)
+    public void clearStatisticsCache() {
+        log.info("Dashboard statistics cache has been cleared.");
+        eventPublisher.publishEvent(new StatisticsInvalidatedEvent(false));
+    }
 
+    /**
+     * Очищает локальный кэш статистики по событию другого узла кластера.
+     * В отличие от {@link #clearStatisticsCache()}, не публикует сброс обратно в кластер.
+     */
+    @CacheEvict(value = "dashboard_statistics", allEntries = true)
+    public void clearReplicatedStatisticsCache() {
+        log.debug("Dashboard statistics cache has been cleared by another cluster node.");
+        eventPublisher.publishEvent(new StatisticsInvalidatedEvent(true));
+    }
+
+    private DashboardStatisticsDTO calculateDashboardStatistics(String stage) {
+        var jfrEvent = new StatisticsEvent();
+        jfrEvent.begin();
+        var statistics = calculateDashboardStatistics();
+        jfrEvent.commit(stage, statistics.totalRuns());
+        return statistics;
+    }
+
+    private DashboardStatisticsDTO calculateDashboardStatistics() {
         long totalRuns = testRunRepository.count();
         if (totalRuns == 0) {
             return createEmptyStatistics();
@@ -90,15 +142,6 @@ public class StatisticsService {
                 dailyPassRateTrend, topFailingTests, topSlowTests, runsBySuite, runsByEnvironment, topExceptionTypes);
     }
 
-    /**
-     * Принудительно очищает кэш статистики.
-     * Вызывается после операций, изменяющих данные (сохранение, удаление).
-     */
-    @CacheEvict(value = "dashboard_statistics", allEntries = true)
-    public void clearStatisticsCache() {
-        log.info("Dashboard statistics cache has been cleared.");
-    }
-
     /**
      * Создает пустой объект статистики, когда в базе данных нет записей.
      *
@@ -4,12 +4,14 @@ import com.svedentsov.xaiobserverapp.dto.EnvironmentDetailsDTO;
 import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
 import com.svedentsov.xaiobserverapp.model.TestConfiguration;
 import com.svedentsov.xaiobserverapp.repository.TestConfigurationRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 
@@ -20,14 +22,29 @@ import java.util.Optional;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TestConfigurationService {
 
     private final TestConfigurationRepository testConfigurationRepository;
+    private final TransactionTemplate createTransaction;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param testConfigurationRepository Репозиторий конфигураций.
+     * @param transactionManager          Менеджер транзакций для создания конфигураций в отдельной транзакции.
+     */
+    public TestConfigurationService(TestConfigurationRepository testConfigurationRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.testConfigurationRepository = testConfigurationRepository;
+        this.createTransaction = new TransactionTemplate(transactionManager);
+        this.createTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     /**
      * Находит существующую конфигурацию или создает новую, если она не найдена.
-     * Этот метод является потокобезопасным и решает проблему "get-or-create".
+     * Этот метод является потокобезопасным и решает проблему "get-or-create": новая конфигурация
+     * создается в отдельной транзакции, поэтому ошибка вставки дубликата при гонке откатывает только ее,
+     * а не транзакцию вызывающего (например, пакет импорта).
      *
      * @param event DTO события завершения теста.
      * @return Существующая или только что созданная сущность {@link TestConfiguration}.
@@ -35,28 +52,34 @@ public class TestConfigurationService {
     @Transactional(propagation = Propagation.REQUIRED)
     public TestConfiguration findOrCreateConfiguration(FailureEventDTO event) {
         final String uniqueName = buildUniqueName(event);
-        return testConfigurationRepository.findByUniqueName(uniqueName)
-                .orElseGet(() -> createConfigurationWithRaceConditionHandling(event, uniqueName));
+        return testConfigurationRepository.findByUniqueName(uniqueName).orElseGet(() -> {
+            createConfigurationWithRaceConditionHandling(event, uniqueName);
+            // Запись зафиксирована нами или параллельным потоком - читаем ее в транзакции вызывающего
+            return testConfigurationRepository.findByUniqueName(uniqueName)
+                    .orElseThrow(() -> new IllegalStateException("FATAL: Could not find configuration for " + uniqueName + " after creating it. This should not happen."));
+        });
     }
 
     /**
      * Этот приватный метод инкапсулирует логику создания новой конфигурации.
-     * Он выполняется в НОВОЙ транзакции (REQUIRES_NEW), чтобы немедленно зафиксировать
+     * Он выполняется в НОВОЙ транзакции (REQUIRES_NEW, через {@link TransactionTemplate} - аннотация
+     * при вызове из того же класса не сработала бы), чтобы немедленно зафиксировать
      * новую запись и сделать её видимой для других параллельных запросов.
      * Если другой поток успевает создать такую же конфигурацию, наш `saveAndFlush`
      * вызовет {@link DataIntegrityViolationException} из-за нарушения unique constraint.
-     * Мы перехватываем это исключение и просто запрашиваем уже созданную запись из БД.
+     * Откатывается только новая транзакция, а уже созданную запись вызывающий прочитает из БД.
      *
      * @param event      DTO для извлечения данных.
      * @param uniqueName Уникальное имя для новой конфигурации.
-     * @return Сохраненная сущность.
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    protected TestConfiguration createConfigurationWithRaceConditionHandling(FailureEventDTO event, String uniqueName) {
-        // Повторная проверка внутри новой транзакции (Double-checked locking pattern)
-        // минимизирует вероятность DataIntegrityViolationException.
-        return testConfigurationRepository.findByUniqueName(uniqueName).orElseGet(() -> {
-            try {
+    private void createConfigurationWithRaceConditionHandling(FailureEventDTO event, String uniqueName) {
+        try {
+            createTransaction.executeWithoutResult(status -> {
+                // Повторная проверка внутри новой транзакции (Double-checked locking pattern)
+                // минимизирует вероятность DataIntegrityViolationException.
+                if (testConfigurationRepository.findByUniqueName(uniqueName).isPresent()) {
+                    return;
+                }
                 log.info("Attempting to create a new test configuration for uniqueName: {}", uniqueName);
                 var newConfig = new TestConfiguration();
                 newConfig.setAppVersion(Optional.ofNullable(event.appVersion()).filter(s -> !s.isBlank()).orElse("unknown"));
@@ -67,15 +90,12 @@ public class TestConfigurationService {
                         .orElse("unknown");
                 newConfig.setEnvironment(environment);
                 newConfig.setUniqueName(uniqueName);
-                return testConfigurationRepository.saveAndFlush(newConfig);
-            } catch (DataIntegrityViolationException e) {
-                log.warn("Race condition detected while creating configuration for uniqueName: {}. Re-fetching existing one.", uniqueName);
-                // Если произошла ошибка целостности, значит, другой поток уже создал запись.
-                // Мы уверены, что теперь она существует, и можем смело ее запрашивать.
-                return testConfigurationRepository.findByUniqueName(uniqueName)
-                        .orElseThrow(() -> new IllegalStateException("FATAL: Could not find configuration for " + uniqueName + " after a race condition. This should not happen."));
-            }
-        });
+                testConfigurationRepository.saveAndFlush(newConfig);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Если произошла ошибка целостности, значит, другой поток уже создал запись.
+            log.warn("Race condition detected while creating configuration for uniqueName: {}. Re-fetching existing one.", uniqueName);
+        }
     }
 
     /**
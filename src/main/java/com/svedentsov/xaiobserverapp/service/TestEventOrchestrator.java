@@ -2,13 +2,17 @@ package com.svedentsov.xaiobserverapp.service;
 
 import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
 import com.svedentsov.xaiobserverapp.mapper.TestRunMapper;
+import com.svedentsov.xaiobserverapp.model.OutboxEvent.OutboxEventType;
 import com.svedentsov.xaiobserverapp.model.TestConfiguration;
 import com.svedentsov.xaiobserverapp.model.TestRun;
 import com.svedentsov.xaiobserverapp.repository.TestRunRepository;
+import com.svedentsov.xaiobserverapp.service.metrics.IngestMetrics;
+import com.svedentsov.xaiobserverapp.service.metrics.IngestMetrics.Stage;
+import com.svedentsov.xaiobserverapp.service.outbox.OutboxService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +27,8 @@ import java.util.concurrent.CompletableFuture;
  * (сохранение, анализ, уведомление), не реализуя их логику самостоятельно.
  * Операция выполняется асинхронно ({@code @Async}), чтобы не блокировать вызывающий поток
  * (например, REST-контроллер), обеспечивая высокую отзывчивость API.
+ * Длительность каждого шага и количество принятых запусков публикуются через {@link IngestMetrics},
+ * шаги также фиксируются как события Java Flight Recorder с ID запуска.
  */
 @Slf4j
 @Service
@@ -33,10 +39,12 @@ public class TestEventOrchestrator {
     private final TestRunRepository testRunRepository;
     private final TestConfigurationService testConfigurationService;
     private final RcaService rcaService;
-    private final NotificationService notificationService;
     private final TestRunMapper testRunMapper;
     private final StatisticsService statisticsService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final DeferredAnalysisService deferredAnalysisService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final IngestMetrics metrics;
 
     /**
      * Асинхронно обрабатывает и сохраняет событие о завершении теста.
@@ -46,10 +54,13 @@ public class TestEventOrchestrator {
      *   <li>Преобразование DTO в сущность {@link TestRun}.</li>
      *   <li>Запуск анализа причин сбоя через {@link RcaService}.</li>
      *   <li>Сохранение тестового запуска и результатов анализа в БД в одной транзакции.</li>
-     *   <li>Отправку уведомления клиентам через WebSocket.</li>
-     *   <li>Отправку уведомления о сбое (если применимо).</li>
+     *   <li>Запись события {@link TestRunSavedEvent} в транзакционный outbox ({@link OutboxService}) в той же
+     *   транзакции. После фиксации событие получают пакетная рассылка через WebSocket ({@link TestRunBroadcaster})
+     *   и, для проваленного запуска, сводка уведомлений о сбоях ({@link NotificationService}).</li>
      *   <li>Сброс кэша статистики для немедленного обновления.</li>
      * </ol>
+     * При отложенном анализе ({@link DeferredAnalysisService}) шаг 3 пропускается: запуск сохраняется
+     * и рассылается со статусом анализа {@code PENDING}, а анализ запускается в фоне после фиксации транзакции.
      *
      * @param event Валидный DTO с данными о тестовом запуске. Аннотация {@code @Valid} запускает валидацию.
      * @return {@link CompletableFuture}, который завершается с сохраненной сущностью {@link TestRun}.
@@ -58,36 +69,46 @@ public class TestEventOrchestrator {
     @Transactional
     public CompletableFuture<TestRun> processAndSaveTestEvent(@Valid FailureEventDTO event) {
         log.info("Starting async processing for test run ID: {}", event.testRunId());
+        var trace = metrics.start(event.testRunId());
         try {
             // 1. Найти или создать уникальную конфигурацию
             var config = testConfigurationService.findOrCreateConfiguration(event);
+            trace.completed(Stage.CONFIG_LOOKUP);
 
             // 2. Преобразовать DTO в сущность
             var testRun = testRunMapper.toEntity(event);
             testRun.setConfiguration(config);
+            trace.completed(Stage.MAP);
 
-            // 3. Провести анализ причин сбоя (RCA)
-            var analysisResults = rcaService.analyzeTestRun(event);
-            analysisResults.forEach(testRun::addAnalysisResult);
+            // 3. Провести анализ причин сбоя (RCA) сразу или отложить его до сохранения запуска
+            if (deferredAnalysisService.shouldDefer(testRun.getStatus())) {
+                testRun.setAnalysisStatus(TestRun.AnalysisStatus.PENDING);
+                eventPublisher.publishEvent(new TestRunAnalysisRequestedEvent(event));
+            } else {
+                var analysisResults = rcaService.analyzeTestRun(event);
+                analysisResults.forEach(testRun::addAnalysisResult);
+            }
+            trace.completed(Stage.RCA);
 
             // 4. Сохранить все в одной транзакции
             var savedTestRun = testRunRepository.save(testRun);
+            trace.completed(Stage.SAVE);
             log.info("Test run with ID {} and its analysis have been successfully saved.", savedTestRun.getId());
 
-            // 5. Отправить уведомление клиентам через WebSocket
-            var dto = testRunMapper.toDetailDto(savedTestRun);
-            messagingTemplate.convertAndSend("/topic/new-test-run", dto);
-
-            // 6. Отправить уведомление о сбое (если применимо)
-            if (savedTestRun.getStatus() == TestRun.TestStatus.FAILED) {
-                notificationService.notifyAboutFailure(savedTestRun);
-            }
+            // 5. Записать событие для WebSocket-клиентов и уведомлений о сбоях в outbox (доставка после фиксации)
+            outboxService.enqueue(OutboxEventType.TEST_RUN_SAVED,
+                    savedTestRun.getTestClass() + "#" + savedTestRun.getTestMethod(),
+                    testRunMapper.toSummaryDto(savedTestRun));
+            trace.completed(Stage.OUTBOX);
 
-            // 7. Сбросить кэш статистики
+            // 6. Сбросить кэш статистики
             statisticsService.clearStatisticsCache();
+            trace.completed(Stage.CACHE_EVICT);
 
+            metrics.recordRun(savedTestRun.getStatus());
             return CompletableFuture.completedFuture(savedTestRun);
         } catch (Exception e) {
+            metrics.recordError();
             log.error("Failed to process test event for run ID: {}", event.testRunId(), e);
             // Возвращаем проваленный Future для корректной обработки ошибок
             return CompletableFuture.failedFuture(e);
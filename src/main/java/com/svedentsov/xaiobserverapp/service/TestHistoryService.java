@@ -0,0 +1,132 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import com.svedentsov.xaiobserverapp.dto.TestHistoryTimelineDTO;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.repository.TestRunHistoryPoint;
+import com.svedentsov.xaiobserverapp.repository.TestRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Сервис для построения истории запусков одного теста (класс + метод).
+ * Читает проекции из БД потоком и сразу раскладывает их по примитивным массивам,
+ * не создавая промежуточных списков объектов, а затем выполняет дельта-кодирование
+ * времени и ID конфигураций.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TestHistoryService {
+
+    /**
+     * Количество точек, возвращаемое по умолчанию.
+     */
+    public static final int DEFAULT_LIMIT = 10_000;
+
+    /**
+     * Верхняя граница количества точек в одном ответе.
+     */
+    public static final int MAX_LIMIT = 50_000;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final List<String> STATUS_LEGEND = Arrays.stream(TestRun.TestStatus.values()).map(Enum::name).toList();
+
+    private final TestRunRepository testRunRepository;
+
+    /**
+     * Возвращает временную шкалу запусков теста в колоночном формате.
+     * Выбираются последние {@code limit} запусков, результат упорядочен по возрастанию времени.
+     *
+     * @param testClass  Полное имя класса теста.
+     * @param testMethod Имя тестового метода.
+     * @param limit      Желаемое количество точек; приводится к диапазону [1, {@link #MAX_LIMIT}].
+     * @return {@link TestHistoryTimelineDTO} с историей; пустой, если запусков нет.
+     */
+    @Transactional(readOnly = true)
+    public TestHistoryTimelineDTO getTimeline(String testClass, String testMethod, int limit) {
+        int effectiveLimit = Math.clamp(limit, 1, MAX_LIMIT);
+        log.debug("Building history timeline for {}.{} (limit {})", testClass, testMethod, effectiveLimit);
+
+        // Буферы растут по мере чтения строк: короткая история не требует массивов на весь лимит.
+        int capacity = Math.min(effectiveLimit, INITIAL_CAPACITY);
+        long[] timestamps = new long[capacity];
+        int[] statusCodes = new int[capacity];
+        long[] durations = new long[capacity];
+        long[] configurationIds = new long[capacity];
+
+        int count = 0;
+        try (Stream<TestRunHistoryPoint> points = testRunRepository.streamHistory(testClass, testMethod, Limit.of(effectiveLimit))) {
+            var iterator = points.iterator();
+            while (iterator.hasNext() && count < effectiveLimit) {
+                TestRunHistoryPoint point = iterator.next();
+                if (count == timestamps.length) {
+                    capacity = Math.min(effectiveLimit, capacity * 2);
+                    timestamps = Arrays.copyOf(timestamps, capacity);
+                    statusCodes = Arrays.copyOf(statusCodes, capacity);
+                    durations = Arrays.copyOf(durations, capacity);
+                    configurationIds = Arrays.copyOf(configurationIds, capacity);
+                }
+                timestamps[count] = point.getRunTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                statusCodes[count] = point.getRunStatus() != null ? point.getRunStatus().ordinal() : TestRun.TestStatus.BROKEN.ordinal();
+                durations[count] = point.getRunDuration();
+                configurationIds[count] = point.getConfigurationId() != null ? point.getConfigurationId() : 0L;
+                count++;
+            }
+        }
+
+        // Строки приходят от новых к старым: переворачиваем, чтобы получить возрастающий порядок.
+        long[] ascendingTimestamps = reversed(timestamps, count);
+        int[] ascendingStatuses = new int[count];
+        for (int i = 0; i < count; i++) {
+            ascendingStatuses[i] = statusCodes[count - 1 - i];
+        }
+        long baseTimestamp = count > 0 ? ascendingTimestamps[0] : 0L;
+        return new TestHistoryTimelineDTO(
+                testClass,
+                testMethod,
+                count,
+                baseTimestamp,
+                deltaEncode(ascendingTimestamps, baseTimestamp),
+                ascendingStatuses,
+                reversed(durations, count),
+                deltaEncode(reversed(configurationIds, count), 0L),
+                STATUS_LEGEND);
+    }
+
+    /**
+     * Возвращает первые {@code count} элементов массива в обратном порядке.
+     */
+    private static long[] reversed(long[] values, int count) {
+        long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = values[count - 1 - i];
+        }
+        return result;
+    }
+
+    /**
+     * Заменяет элементы массива разностями соседних элементов.
+     *
+     * @param values  Исходные значения (массив изменяется на месте).
+     * @param initial Значение, относительно которого считается первая дельта.
+     * @return Тот же массив с дельтами.
+     */
+    private static long[] deltaEncode(long[] values, long initial) {
+        long previous = initial;
+        for (int i = 0; i < values.length; i++) {
+            long current = values[i];
+            values[i] = current - previous;
+            previous = current;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,12 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+
+/**
+ * Событие приложения: запуск сохранен со статусом анализа {@code PENDING} и ждет фонового анализа первопричин
+ * в {@link DeferredAnalysisService}.
+ *
+ * @param event Исходное событие о завершении теста, по которому выполняется анализ.
+ */
+public record TestRunAnalysisRequestedEvent(FailureEventDTO event) {
+}
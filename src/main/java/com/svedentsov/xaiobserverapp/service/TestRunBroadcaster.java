@@ -0,0 +1,320 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import com.svedentsov.xaiobserverapp.dto.LiveTopicStatsDTO;
+import com.svedentsov.xaiobserverapp.dto.TestRunBatchDTO;
+import com.svedentsov.xaiobserverapp.dto.TestRunSummaryDTO;
+import com.svedentsov.xaiobserverapp.model.ClusterEvent.ClusterEventType;
+import com.svedentsov.xaiobserverapp.service.cluster.ClusterRelay;
+import com.svedentsov.xaiobserverapp.service.cluster.TestRunReplicatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рассылка уведомлений о новых тестовых запусках через WebSocket.
+ * <p>
+ * Вместо отдельного сообщения с полным {@code TestRunDetailDTO} на каждое событие запуски копятся
+ * в течение окна {@code xai.websocket.broadcast.window-ms} и уходят в {@value #DESTINATION} одним
+ * {@link TestRunBatchDTO} с краткими данными ({@link TestRunSummaryDTO}). В пакет попадает не больше
+ * {@code max-per-window} запусков, остальные учитываются только счетчиком {@code omitted}: при всплеске
+ * в тысячи событий каждый клиент получает одно небольшое сообщение за окно, а не тысячи крупных.
+ * Запуск приходит из транзакционного outbox только после фиксации транзакции сохранения, поэтому клиент,
+ * получив уведомление, всегда может загрузить детали запуска по ID.
+ * <p>
+ * Кроме общего канала поддерживаются отфильтрованные: {@value #DESTINATION}{@code /suite/{suite}},
+ * {@code /environment/{env}}, {@code /app-version/{version}}, {@code /status/{status}} и их сочетания
+ * (см. {@link TestRunFilter}). Маршрутизация выполняется на сервере: запуск попадает только в очереди
+ * адресов, на которые есть подписчики ({@link LiveSubscriptionRegistry}) и фильтр которых он проходит,
+ * а каждый пакет сериализуется один раз на адрес независимо от числа подписчиков.
+ * <p>
+ * Каждый запуск в пакете несет порядковый номер ({@link TestRunSummaryDTO#sequence()}). По номеру последнего
+ * полученного запуска клиент после переподключения дочитывает пропущенное из {@link TestRunEventLog}, а также
+ * запуски, не вошедшие в пакет из-за лимита окна.
+ * <p>
+ * В режиме кластера ({@link ClusterRelay}) запуск не рассылается сразу: он публикуется в журнал кластера,
+ * и каждый узел, включая текущий, получает его оттуда ({@link TestRunReplicatedEvent}) с общим для кластера
+ * номером. Так подписчики любого узла видят запуски, принятые всеми узлами, в одном порядке.
+ */
+@Slf4j
+@Service
+public class TestRunBroadcaster {
+
+    /**
+     * Базовый STOMP-канал пакетов уведомлений о новых запусках.
+     */
+    public static final String DESTINATION = "/topic/new-test-run";
+
+    /**
+     * Гистограмма длительности отправки пакета в один адрес.
+     */
+    public static final String BROADCAST_TIMER = "xai.live.broadcast";
+
+    private static final int RATE_WINDOW_SECONDS = 60;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final LiveSubscriptionRegistry subscriptionRegistry;
+    private final TestRunEventLog eventLog;
+    private final ClusterRelay clusterRelay;
+    private final long windowMillis;
+    private final int maxPerWindow;
+    private final Timer broadcastTimer;
+
+    private final Object lock = new Object();
+    private final Map<String, Channel> channels = new HashMap<>();
+    private ScheduledExecutorService executor;
+
+    /**
+     * Конструктор рассыльщика.
+     *
+     * @param messagingTemplate    Шаблон отправки STOMP-сообщений.
+     * @param subscriptionRegistry Реестр активных подписок.
+     * @param eventLog             Журнал событий для возобновления потока после переподключения.
+     * @param clusterRelay         Обмен событиями между узлами кластера.
+     * @param windowMillis         Длительность окна накопления, мс.
+     * @param maxPerWindow         Максимальное количество запусков в одном пакете.
+     * @param registry             Реестр метрик.
+     */
+    public TestRunBroadcaster(SimpMessagingTemplate messagingTemplate,
+                              LiveSubscriptionRegistry subscriptionRegistry,
+                              TestRunEventLog eventLog,
+                              ClusterRelay clusterRelay,
+                              @Value("${xai.websocket.broadcast.window-ms:250}") long windowMillis,
+                              @Value("${xai.websocket.broadcast.max-per-window:50}") int maxPerWindow,
+                              MeterRegistry registry) {
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.eventLog = eventLog;
+        this.clusterRelay = clusterRelay;
+        this.windowMillis = windowMillis;
+        this.maxPerWindow = maxPerWindow;
+        this.broadcastTimer = Timer.builder(BROADCAST_TIMER)
+                .description("Длительность отправки пакета уведомлений о новых запусках")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "test-run-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        flush();
+    }
+
+    /**
+     * Присваивает сохраненному запуску номер в {@link TestRunEventLog} и ставит его в очереди всех адресов
+     * с подписчиками, фильтр которых он проходит. В режиме кластера только публикует запуск для всех узлов;
+     * ошибка публикации не перехватывается, чтобы outbox повторил доставку события.
+     *
+     * @param event Событие о сохранении запуска, доставленное из outbox.
+     */
+    @EventListener
+    public void onTestRunSaved(TestRunSavedEvent event) {
+        if (clusterRelay.isEnabled()) {
+            clusterRelay.publishOrThrow(ClusterEventType.TEST_RUN_SAVED, event.summary());
+            return;
+        }
+        route(eventLog.append(event.summary()));
+    }
+
+    /**
+     * Добавляет запуск, прочитанный из журнала кластера, в {@link TestRunEventLog} с номером события кластера
+     * и ставит его в очереди адресов. Запуск, опоздавший за более поздние номера (см. {@link ClusterRelay}),
+     * в журнал уже не попадает, но подписчикам рассылается.
+     *
+     * @param event Событие о запуске, сохраненном на одном из узлов.
+     */
+    @EventListener
+    public void onTestRunReplicated(TestRunReplicatedEvent event) {
+        if (!eventLog.appendSequenced(event.summary())) {
+            log.debug("Test run {} arrived after later cluster events (#{}), it is not replayable.",
+                    event.summary().id(), event.summary().sequence());
+        }
+        route(event.summary());
+    }
+
+    /**
+     * Возвращает метрики каналов уведомлений о новых запусках, на которые есть подписчики или
+     * по которым уже отправлялись пакеты.
+     *
+     * @return Метрики по адресам, общий канал первым.
+     */
+    public List<LiveTopicStatsDTO> getStatistics() {
+        long second = currentSecond();
+        List<LiveTopicStatsDTO> result = new ArrayList<>();
+        synchronized (lock) {
+            subscriptionRegistry.destinations().forEach(this::channel);
+            channels.forEach((destination, channel) -> result.add(channel.toStats(destination,
+                    subscriptionRegistry.subscribers(destination), second)));
+        }
+        result.sort(Comparator.comparing(LiveTopicStatsDTO::destination));
+        return result;
+    }
+
+    /**
+     * Отправляет накопленные за окно пакеты во все адреса, где они не пусты.
+     */
+    void flush() {
+        Map<String, TestRunBatchDTO> batches = new HashMap<>();
+        synchronized (lock) {
+            for (Iterator<Map.Entry<String, Channel>> it = channels.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Channel> entry = it.next();
+                Channel channel = entry.getValue();
+                if (channel.hasPending()) {
+                    batches.put(entry.getKey(), channel.drain());
+                } else if (subscriptionRegistry.subscribers(entry.getKey()) == 0) {
+                    it.remove();
+                }
+            }
+        }
+        if (batches.isEmpty()) {
+            return;
+        }
+        long second = currentSecond();
+        batches.forEach((destination, batch) -> {
+            try {
+                broadcastTimer.record(() -> messagingTemplate.convertAndSend(destination, batch));
+                synchronized (lock) {
+                    Channel channel = channels.get(destination);
+                    if (channel != null) {
+                        channel.recordSent(batch, second);
+                    }
+                }
+                if (batch.omitted() > 0) {
+                    log.debug("Broadcast {} new test runs to {}, {} more omitted.", batch.runs().size(), destination, batch.omitted());
+                }
+            } catch (MessagingException e) {
+                log.warn("Failed to broadcast {} new test runs to {}: {}", batch.runs().size() + batch.omitted(), destination, e.getMessage());
+            }
+        });
+    }
+
+    private void route(TestRunSummaryDTO summary) {
+        synchronized (lock) {
+            for (String destination : subscriptionRegistry.destinations()) {
+                Channel channel = channel(destination);
+                if (channel != null && channel.filter != null && channel.filter.matches(summary)) {
+                    channel.enqueue(summary, maxPerWindow);
+                }
+            }
+        }
+    }
+
+    /**
+     * Возвращает канал для адреса, создавая его при первом обращении. Вызывается под {@link #lock}.
+     *
+     * @param destination Адрес подписки.
+     * @return Канал или {@code null}, если адрес не относится к уведомлениям о новых запусках.
+     */
+    private Channel channel(String destination) {
+        if (!destination.equals(DESTINATION) && !destination.startsWith(DESTINATION + "/")) {
+            return null;
+        }
+        return channels.computeIfAbsent(destination, key -> {
+            TestRunFilter filter = TestRunFilter.parse(key.substring(DESTINATION.length())).orElse(null);
+            if (filter == null) {
+                log.warn("Ignoring subscription to {}: unsupported filter, expected pairs of {} and a value.", key, TestRunFilter.DIMENSIONS);
+            }
+            return new Channel(filter);
+        });
+    }
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * Очередь и счетчики одного адреса. Все поля защищены {@link #lock}.
+     */
+    private static final class Channel {
+
+        private final TestRunFilter filter;
+        private List<TestRunSummaryDTO> pending = new ArrayList<>();
+        private int omitted;
+
+        private long messagesSent;
+        private long runsSent;
+        private long runsOmitted;
+        private LocalDateTime lastSentAt;
+        private final long[] bucketSeconds = new long[RATE_WINDOW_SECONDS];
+        private final long[] bucketMessages = new long[RATE_WINDOW_SECONDS];
+        private final long[] bucketRuns = new long[RATE_WINDOW_SECONDS];
+
+        Channel(TestRunFilter filter) {
+            this.filter = filter;
+        }
+
+        void enqueue(TestRunSummaryDTO summary, int maxPerWindow) {
+            if (pending.size() < maxPerWindow) {
+                pending.add(summary);
+            } else {
+                omitted++;
+            }
+        }
+
+        boolean hasPending() {
+            return !pending.isEmpty() || omitted > 0;
+        }
+
+        TestRunBatchDTO drain() {
+            var batch = new TestRunBatchDTO(pending, omitted);
+            pending = new ArrayList<>();
+            omitted = 0;
+            return batch;
+        }
+
+        void recordSent(TestRunBatchDTO batch, long second) {
+            messagesSent++;
+            runsSent += batch.runs().size();
+            runsOmitted += batch.omitted();
+            lastSentAt = LocalDateTime.now();
+            int index = (int) (second % RATE_WINDOW_SECONDS);
+            if (bucketSeconds[index] != second) {
+                bucketSeconds[index] = second;
+                bucketMessages[index] = 0;
+                bucketRuns[index] = 0;
+            }
+            bucketMessages[index]++;
+            bucketRuns[index] += batch.runs().size();
+        }
+
+        LiveTopicStatsDTO toStats(String destination, int subscribers, long second) {
+            long messagesLastMinute = 0;
+            long runsLastMinute = 0;
+            for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+                if (second - bucketSeconds[i] < RATE_WINDOW_SECONDS) {
+                    messagesLastMinute += bucketMessages[i];
+                    runsLastMinute += bucketRuns[i];
+                }
+            }
+            return new LiveTopicStatsDTO(destination, filter != null ? filter.criteria() : Map.of(), filter != null,
+                    subscribers, messagesSent, runsSent, runsOmitted, messagesLastMinute, runsLastMinute, lastSentAt);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import com.svedentsov.xaiobserverapp.dto.TestRunReplayDTO;
+import com.svedentsov.xaiobserverapp.dto.TestRunSummaryDTO;
+import com.svedentsov.xaiobserverapp.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Журнал последних событий живого потока запусков: кольцевой буфер в памяти на
+ * {@code xai.live.replay.capacity} событий с монотонными порядковыми номерами.
+ * <p>
+ * Клиент запоминает номер последнего полученного события ({@link TestRunSummaryDTO#sequence()}) и после
+ * переподключения дочитывает пропущенное с этого номера - через REST или SSE. Только если нужные события
+ * уже вытеснены из буфера, ответ помечается как разрыв ({@code gap}), и клиент перезагружает список целиком.
+ * <p>
+ * На одиночном узле номера выдает сам журнал: они начинаются с 1 и сбрасываются при перезапуске, поэтому
+ * номер больше последнего выданного также считается разрывом. В режиме кластера номером служит сквозной
+ * номер события кластера, одинаковый на всех узлах, и номера в журнале могут идти с пропусками.
+ */
+@Component
+public class TestRunEventLog {
+
+    private final TestRunSummaryDTO[] buffer;
+    private int head;
+    private int size;
+    private long lastSequence;
+    private long lastEvictedSequence;
+
+    /**
+     * Конструктор журнала.
+     *
+     * @param capacity Количество хранимых событий.
+     */
+    public TestRunEventLog(@Value("${xai.live.replay.capacity:10000}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("xai.live.replay.capacity must be positive");
+        }
+        this.buffer = new TestRunSummaryDTO[capacity];
+    }
+
+    /**
+     * Добавляет событие в журнал, присваивая ему следующий порядковый номер.
+     *
+     * @param summary Краткие данные о запуске.
+     * @return Копия данных с присвоенным номером.
+     */
+    public synchronized TestRunSummaryDTO append(TestRunSummaryDTO summary) {
+        TestRunSummaryDTO sequenced = summary.withSequence(lastSequence + 1);
+        add(sequenced);
+        return sequenced;
+    }
+
+    /**
+     * Добавляет событие с уже присвоенным номером (сквозной номер события кластера).
+     *
+     * @param summary Краткие данные о запуске с номером.
+     * @return {@code false}, если номер не больше последнего добавленного и событие пропущено.
+     */
+    public synchronized boolean appendSequenced(TestRunSummaryDTO summary) {
+        if (summary.sequence() <= lastSequence) {
+            return false;
+        }
+        add(summary);
+        return true;
+    }
+
+    /**
+     * Начинает пустой журнал с указанного номера: события с номером не больше него на этом узле не появятся,
+     * и запрос с более ранней позиции считается разрывом. Используется в режиме кластера при старте узла.
+     *
+     * @param sequence Номер последнего события, предшествующего журналу.
+     */
+    public synchronized void startAt(long sequence) {
+        if (size == 0) {
+            lastSequence = sequence;
+            lastEvictedSequence = sequence;
+        }
+    }
+
+    /**
+     * Возвращает номер последнего добавленного события.
+     *
+     * @return Номер или 0, если событий еще не было.
+     */
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Читает события после указанного номера.
+     *
+     * @param after    Номер последнего полученного клиентом события; {@code null} - только текущая позиция потока.
+     * @param criteria Условия фильтра (см. {@link TestRunFilter}).
+     * @param limit    Максимальное количество запусков в ответе.
+     * @return События, текущая позиция чтения и признаки разрыва и продолжения.
+     * @throws BadRequestException если фильтр или лимит некорректны.
+     */
+    public TestRunReplayDTO replay(Long after, Map<String, String> criteria, int limit) {
+        if (limit <= 0) {
+            throw new BadRequestException("Limit must be positive");
+        }
+        return replay(after, TestRunFilter.of(criteria), limit);
+    }
+
+    synchronized TestRunReplayDTO replay(Long after, TestRunFilter filter, int limit) {
+        if (after == null) {
+            return new TestRunReplayDTO(List.of(), lastSequence, false, false);
+        }
+        boolean gap = after > lastSequence || after < lastEvictedSequence;
+        int index = gap ? 0 : firstIndexAfter(after);
+        List<TestRunSummaryDTO> runs = new ArrayList<>();
+        for (; index < size; index++) {
+            TestRunSummaryDTO run = get(index);
+            if (filter.matches(run)) {
+                runs.add(run);
+                if (runs.size() == limit) {
+                    return new TestRunReplayDTO(runs, run.sequence(), gap, run.sequence() < lastSequence);
+                }
+            }
+        }
+        return new TestRunReplayDTO(runs, lastSequence, gap, false);
+    }
+
+    private void add(TestRunSummaryDTO sequenced) {
+        if (size == buffer.length) {
+            lastEvictedSequence = buffer[head].sequence();
+            buffer[head] = sequenced;
+            head = (head + 1) % buffer.length;
+        } else {
+            buffer[(head + size) % buffer.length] = sequenced;
+            size++;
+        }
+        lastSequence = sequenced.sequence();
+    }
+
+    private TestRunSummaryDTO get(int index) {
+        return buffer[(head + index) % buffer.length];
+    }
+
+    /**
+     * Двоичный поиск первого события с номером больше заданного (номера в буфере возрастают).
+     */
+    private int firstIndexAfter(long sequence) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid).sequence() <= sequence) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
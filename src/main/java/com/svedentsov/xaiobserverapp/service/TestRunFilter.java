@@ -0,0 +1,111 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import com.svedentsov.xaiobserverapp.dto.TestRunSummaryDTO;
+
+import com.svedentsov.xaiobserverapp.exception.BadRequestException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Фильтр живых уведомлений о запусках, заданный в адресе подписки парами {@code /измерение/значение},
+ * например {@code /topic/new-test-run/suite/Regression/status/FAILED}. Все условия должны выполняться
+ * одновременно. Значения сравниваются без учета регистра и передаются в URL-кодировке.
+ *
+ * @param criteria Условия фильтра: измерение - ожидаемое значение.
+ */
+record TestRunFilter(Map<String, String> criteria) {
+
+    /**
+     * Поддерживаемые измерения фильтра.
+     */
+    static final Set<String> DIMENSIONS = Set.of("suite", "environment", "app-version", "status");
+
+    /**
+     * Фильтр без условий (общий канал).
+     */
+    static final TestRunFilter ALL = new TestRunFilter(Map.of());
+
+    /**
+     * Разбирает фильтр из части адреса подписки после базового канала.
+     *
+     * @param path Часть адреса вида {@code /suite/Regression/status/FAILED} (пустая строка - без условий).
+     * @return Фильтр или пустой Optional, если адрес некорректен или содержит неизвестное измерение.
+     */
+    static Optional<TestRunFilter> parse(String path) {
+        if (path.isEmpty()) {
+            return Optional.of(ALL);
+        }
+        if (!path.startsWith("/")) {
+            return Optional.empty();
+        }
+        String[] parts = path.substring(1).split("/", -1);
+        if (parts.length % 2 != 0) {
+            return Optional.empty();
+        }
+        Map<String, String> criteria = new LinkedHashMap<>();
+        for (int i = 0; i < parts.length; i += 2) {
+            String dimension = parts[i];
+            if (!DIMENSIONS.contains(dimension) || parts[i + 1].isEmpty() || criteria.containsKey(dimension)) {
+                return Optional.empty();
+            }
+            try {
+                criteria.put(dimension, URLDecoder.decode(parts[i + 1], StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new TestRunFilter(Collections.unmodifiableMap(criteria)));
+    }
+
+    /**
+     * Создает фильтр из условий, переданных параметрами запроса.
+     *
+     * @param criteria Условия: измерение - значение (пустые значения игнорируются).
+     * @return Фильтр.
+     * @throws BadRequestException если передано неизвестное измерение.
+     */
+    static TestRunFilter of(Map<String, String> criteria) {
+        Map<String, String> copy = new LinkedHashMap<>();
+        criteria.forEach((dimension, value) -> {
+            if (!DIMENSIONS.contains(dimension)) {
+                throw new BadRequestException("Unknown filter dimension '" + dimension + "', expected one of " + DIMENSIONS);
+            }
+            if (value != null && !value.isBlank()) {
+                copy.put(dimension, value);
+            }
+        });
+        return copy.isEmpty() ? ALL : new TestRunFilter(Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * Проверяет, подходит ли запуск под все условия фильтра.
+     *
+     * @param run Краткие данные о запуске.
+     * @return {@code true}, если запуск нужно отправить подписчикам фильтра.
+     */
+    boolean matches(TestRunSummaryDTO run) {
+        for (Map.Entry<String, String> criterion : criteria.entrySet()) {
+            String actual = value(criterion.getKey()).apply(run);
+            if (actual == null || !actual.equalsIgnoreCase(criterion.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Function<TestRunSummaryDTO, String> value(String dimension) {
+        return switch (dimension) {
+            case "suite" -> run -> run.configuration() != null ? run.configuration().testSuite() : null;
+            case "environment" -> run -> run.configuration() != null ? run.configuration().environment() : null;
+            case "app-version" -> run -> run.configuration() != null ? run.configuration().appVersion() : null;
+            case "status" -> TestRunSummaryDTO::status;
+            default -> throw new IllegalArgumentException("Unknown filter dimension: " + dimension);
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import com.svedentsov.xaiobserverapp.dto.TestRunSummaryDTO;
+
+/**
+ * Событие приложения: новый тестовый запуск сохранен. Записывается в транзакционный outbox вместе с запуском
+ * и публикуется после фиксации транзакции ({@code OutboxRelay}): {@link TestRunBroadcaster} включает его
+ * в ближайший пакет живых уведомлений, {@link NotificationService} учитывает проваленный запуск в сводке.
+ * Доставка не менее одного раза: при сбое подписчика событие может прийти повторно.
+ *
+ * @param summary Краткие данные о запуске.
+ */
+public record TestRunSavedEvent(TestRunSummaryDTO summary) {
+}
@@ -1,6 +1,7 @@
 package com.svedentsov.xaiobserverapp.service;
 
 import com.svedentsov.xaiobserverapp.dto.TestRunDetailDTO;
+import com.svedentsov.xaiobserverapp.exception.ResourceNotFoundException;
 import com.svedentsov.xaiobserverapp.mapper.TestRunMapper;
 import com.svedentsov.xaiobserverapp.model.TestRun;
 import com.svedentsov.xaiobserverapp.repository.TestRunRepository;
@@ -52,6 +53,21 @@ public class TestRunService {
         return testRunRepository.findById(id);
     }
 
+    /**
+     * Получает детальное DTO тестового запуска по его ID.
+     *
+     * @param id Уникальный идентификатор тестового запуска.
+     * @return Детальное DTO.
+     * @throws ResourceNotFoundException если запуск с указанным ID не найден.
+     */
+    @Transactional(readOnly = true)
+    public TestRunDetailDTO getTestRunDetails(String id) {
+        log.debug("Fetching test run details by ID: {}", id);
+        return testRunRepository.findById(id)
+                .map(testRunMapper::toDetailDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Test run with ID " + id + " not found"));
+    }
+
     /**
      * Удаляет все тестовые запуски из базы данных.
      * Этот метод использует `deleteAllInBatch` для максимальной производительности.
@@ -0,0 +1,306 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import com.svedentsov.xaiobserverapp.dto.TestRunReplayDTO;
+import com.svedentsov.xaiobserverapp.dto.TestRunSummaryDTO;
+import com.svedentsov.xaiobserverapp.exception.BadRequestException;
+import com.svedentsov.xaiobserverapp.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поток новых запусков через Server-Sent Events с возобновлением с номера события.
+ * <p>
+ * Каждый подписчик хранит позицию чтения в {@link TestRunEventLog}. Раз в окно рассылки
+ * ({@code xai.websocket.broadcast.window-ms}) один фоновый поток дочитывает для всех подписчиков новые
+ * события, прошедшие их фильтр, и ставит их в очередь подписчика как SSE-события {@code test-run} с {@code id},
+ * равным номеру. Запись в соединение выполняет отдельная задача на виртуальном потоке, по одному событию
+ * за раз, поэтому медленный клиент не задерживает рассылку остальным. Из журнала дочитывается не больше событий,
+ * чем свободно мест в очереди подписчика ({@code xai.live.sse.queue-capacity}). Подписчик, запись которому или
+ * заполненная очередь которого держатся дольше {@code xai.live.sse.send-time-limit-ms}, отключается.
+ * <p>
+ * Браузерный {@code EventSource} при переподключении сам передает {@code Last-Event-ID}, поэтому обрыв
+ * соединения не приводит к потере событий. Если часть событий уже вытеснена из буфера, подписчик получает
+ * событие {@code gap} с текущим номером потока и должен перезагрузить список запусков обычным запросом;
+ * оставшийся в буфере хвост ему не отправляется, поток продолжается с этого номера.
+ */
+@Slf4j
+@Service
+public class TestRunStreamService {
+
+    private static final int BATCH_LIMIT = 500;
+    private static final long KEEP_ALIVE_MILLIS = 15_000;
+
+    private final TestRunEventLog eventLog;
+    private final long pollMillis;
+    private final int maxClients;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final long sendTimeLimitMillis;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sendExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-send-", 0).factory());
+    private ScheduledExecutorService executor;
+
+    /**
+     * Конструктор сервиса потока.
+     *
+     * @param eventLog            Журнал событий живого потока.
+     * @param pollMillis          Интервал дочитывания журнала, мс.
+     * @param maxClients          Максимальное количество одновременных подписчиков.
+     * @param timeoutMillis       Время жизни одного SSE-соединения, мс (клиент переподключается автоматически).
+     * @param queueCapacity       Максимальное количество неотправленных событий одного подписчика.
+     * @param sendTimeLimitMillis Лимит длительности записи одного события в соединение, мс.
+     */
+    public TestRunStreamService(TestRunEventLog eventLog,
+                                @Value("${xai.websocket.broadcast.window-ms:250}") long pollMillis,
+                                @Value("${xai.live.sse.max-clients:100}") int maxClients,
+                                @Value("${xai.live.sse.timeout-ms:1800000}") long timeoutMillis,
+                                @Value("${xai.live.sse.queue-capacity:1000}") int queueCapacity,
+                                @Value("${xai.live.sse.send-time-limit-ms:10000}") long sendTimeLimitMillis) {
+        this.eventLog = eventLog;
+        this.pollMillis = pollMillis;
+        this.maxClients = maxClients;
+        this.timeoutMillis = timeoutMillis;
+        this.queueCapacity = queueCapacity;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "test-run-sse");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::pushAll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.terminate(null));
+        subscribers.clear();
+        sendExecutor.shutdownNow();
+    }
+
+    /**
+     * Открывает SSE-поток новых запусков.
+     *
+     * @param after    Номер последнего полученного события; {@code null} - только новые события.
+     * @param criteria Условия фильтра: suite, environment, app-version, status.
+     * @return SSE-эмиттер.
+     * @throws BadRequestException         если фильтр некорректен.
+     * @throws ServiceUnavailableException если достигнут лимит одновременных подписчиков.
+     */
+    public SseEmitter subscribe(Long after, Map<String, String> criteria) {
+        TestRunFilter filter = TestRunFilter.of(criteria);
+        if (subscribers.size() >= maxClients) {
+            throw new ServiceUnavailableException("Too many live stream clients (limit " + maxClients + "), please retry later.");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, filter, after != null ? after : eventLog.lastSequence());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.debug("Live stream client subscribed from sequence {} with filter {}.", subscriber.cursor, filter.criteria());
+        return emitter;
+    }
+
+    /**
+     * Возвращает количество подключенных SSE-клиентов.
+     *
+     * @return Количество подписчиков.
+     */
+    public int clientCount() {
+        return subscribers.size();
+    }
+
+    private void pushAll() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            int free = subscriber.checkLimits(now);
+            if (free > 0) {
+                poll(subscriber, free, now);
+            }
+        }
+    }
+
+    /**
+     * Дочитывает для подписчика не больше событий, чем свободно мест в его очереди; остальные остаются
+     * в журнале до следующего окна рассылки.
+     */
+    private void poll(Subscriber subscriber, int free, long now) {
+        TestRunReplayDTO replay;
+        do {
+            replay = eventLog.replay(subscriber.cursor, subscriber.filter, Math.min(BATCH_LIMIT, free));
+            if (replay.gap()) {
+                // Клиент все равно перезагрузит список, поэтому хвост буфера не отправляется: поток продолжается с конца.
+                long resumeFrom = eventLog.lastSequence();
+                subscriber.cursor = resumeFrom;
+                subscriber.enqueue(SseEmitter.event().id(Long.toString(resumeFrom)).name("gap")
+                        .data(Map.of("lastSequence", resumeFrom)), now);
+                return;
+            }
+            for (TestRunSummaryDTO run : replay.runs()) {
+                if (!subscriber.enqueue(SseEmitter.event().id(Long.toString(run.sequence())).name("test-run").data(run), now)) {
+                    return;
+                }
+            }
+            subscriber.cursor = replay.lastSequence();
+            free -= replay.runs().size();
+        } while (replay.hasMore() && free > 0);
+        if (now - subscriber.lastQueuedAt >= KEEP_ALIVE_MILLIS) {
+            subscriber.enqueue(SseEmitter.event().comment("keep-alive"), now);
+        }
+    }
+
+    /**
+     * Подписчик SSE-потока с собственной очередью отправки. Позиция чтения изменяется только потоком рассылки,
+     * очередь - потоком рассылки и задачей отправки под {@link #lock}.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final TestRunFilter filter;
+        private long cursor;
+        private long lastQueuedAt = System.currentTimeMillis();
+
+        private final Object lock = new Object();
+        private final Queue<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private boolean draining;
+        private long sendStartedAt;
+        private long fullSince;
+        private volatile boolean closing;
+
+        Subscriber(SseEmitter emitter, TestRunFilter filter, long cursor) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.cursor = cursor;
+        }
+
+        /**
+         * Ставит событие в очередь и при необходимости запускает задачу отправки.
+         * Размер очереди ограничивает вызывающий (см. {@link #checkLimits(long)}).
+         *
+         * @return {@code false}, если подписчик отключен.
+         */
+        boolean enqueue(SseEmitter.SseEventBuilder event, long now) {
+            boolean startDrain;
+            synchronized (lock) {
+                if (closing) {
+                    return false;
+                }
+                queue.add(event);
+                startDrain = !draining;
+                draining = true;
+            }
+            lastQueuedAt = now;
+            if (startDrain) {
+                try {
+                    sendExecutor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    terminate(null);
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Отключает подписчика, который не успевает принимать события: текущая запись длится дольше лимита
+         * или очередь остается заполненной дольше лимита.
+         *
+         * @return Количество свободных мест в очереди; {@code -1}, если подписчик отключен.
+         */
+        int checkLimits(long now) {
+            String reason;
+            synchronized (lock) {
+                if (closing) {
+                    return -1;
+                }
+                int free = queueCapacity - queue.size();
+                fullSince = free > 0 ? 0 : fullSince > 0 ? fullSince : now;
+                if (sendStartedAt > 0 && now - sendStartedAt > sendTimeLimitMillis) {
+                    reason = "send in progress for " + (now - sendStartedAt) + " ms exceeds limit " + sendTimeLimitMillis;
+                } else if (fullSince > 0 && now - fullSince > sendTimeLimitMillis) {
+                    reason = "send queue of " + queueCapacity + " events full for " + (now - fullSince) + " ms";
+                } else {
+                    return free;
+                }
+            }
+            terminate(reason);
+            return -1;
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (lock) {
+                    event = closing ? null : queue.poll();
+                    if (event == null) {
+                        draining = false;
+                        sendStartedAt = 0;
+                        return;
+                    }
+                    sendStartedAt = System.currentTimeMillis();
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Соединение уже закрыто: Spring MVC сам завершит запрос, вызывать complete не нужно.
+                    log.debug("Live stream client disconnected: {}", e.getMessage());
+                    synchronized (lock) {
+                        draining = false;
+                        sendStartedAt = 0;
+                        closing = true;
+                        queue.clear();
+                    }
+                    subscribers.remove(this);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Отключает подписчика: очищает очередь и завершает соединение. Завершение выполняется на потоке отправки,
+         * так как {@link SseEmitter#complete()} ждет окончания зависшей записи.
+         *
+         * @param slowReason Причина отключения медленного клиента; {@code null} при остановке сервиса.
+         */
+        void terminate(String slowReason) {
+            synchronized (lock) {
+                if (closing) {
+                    return;
+                }
+                closing = true;
+                queue.clear();
+            }
+            subscribers.remove(this);
+            if (slowReason != null) {
+                log.warn("Dropping slow live stream client at sequence {}: {}", cursor, slowReason);
+            }
+            try {
+                sendExecutor.execute(emitter::complete);
+            } catch (RejectedExecutionException e) {
+                emitter.complete();
+            }
+        }
+    }
+}
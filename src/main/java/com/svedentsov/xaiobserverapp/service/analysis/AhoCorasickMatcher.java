@@ -0,0 +1,222 @@
+package com.svedentsov.xaiobserverapp.service.analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Неизменяемый автомат Ахо-Корасик для поиска множества подстрок за один проход по тексту.
+ * <p>
+ * Строится один раз по набору шаблонов; время поиска линейно зависит от длины текста и числа
+ * найденных совпадений и не зависит от количества шаблонов. Переходы хранятся в отсортированных
+ * массивах символов (двоичный поиск), что компактно для произвольного алфавита Unicode.
+ * Сопоставление регистронезависимое: шаблоны и текст приводятся к нижнему регистру посимвольно.
+ * <p>
+ * Экземпляр потокобезопасен после построения.
+ */
+public final class AhoCorasickMatcher {
+
+    private static final int ROOT = 0;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final int patternCount;
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failure;
+    private final int[] dictionarySuffix;
+    private final int[][] outputs;
+
+    private AhoCorasickMatcher(int patternCount, char[][] transitionChars, int[][] transitionTargets,
+                               int[] failure, int[] dictionarySuffix, int[][] outputs) {
+        this.patternCount = patternCount;
+        this.transitionChars = transitionChars;
+        this.transitionTargets = transitionTargets;
+        this.failure = failure;
+        this.dictionarySuffix = dictionarySuffix;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Строит автомат по списку шаблонов. Индекс шаблона в списке является его идентификатором,
+     * который возвращается при совпадении. Пустые шаблоны игнорируются.
+     *
+     * @param patterns Шаблоны-подстроки.
+     * @return Построенный автомат.
+     */
+    public static AhoCorasickMatcher build(List<String> patterns) {
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> nodeOutputs = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        nodeOutputs.add(new ArrayList<>());
+
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            if (pattern == null || pattern.isEmpty()) {
+                continue;
+            }
+            int node = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = Character.toLowerCase(pattern.charAt(i));
+                Integer next = trie.get(node).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    nodeOutputs.add(new ArrayList<>());
+                    trie.get(node).put(c, next);
+                }
+                node = next;
+            }
+            nodeOutputs.get(node).add(id);
+        }
+
+        int size = trie.size();
+        char[][] chars = new char[size][];
+        int[][] targets = new int[size][];
+        for (int node = 0; node < size; node++) {
+            var edges = trie.get(node);
+            chars[node] = new char[edges.size()];
+            targets[node] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                chars[node][i] = edge.getKey();
+                targets[node][i] = edge.getValue();
+                i++;
+            }
+        }
+
+        int[] failure = new int[size];
+        int[] dictionarySuffix = new int[size];
+        Arrays.fill(dictionarySuffix, -1);
+        var queue = new ArrayDeque<Integer>();
+        for (int child : targets[ROOT]) {
+            failure[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < chars[node].length; i++) {
+                char c = chars[node][i];
+                int child = targets[node][i];
+                int fallback = failure[node];
+                int next;
+                while ((next = step(chars, targets, fallback, c)) < 0 && fallback != ROOT) {
+                    fallback = failure[fallback];
+                }
+                failure[child] = next >= 0 && next != child ? next : ROOT;
+                int suffix = failure[child];
+                dictionarySuffix[child] = !nodeOutputs.get(suffix).isEmpty() ? suffix : dictionarySuffix[suffix];
+                queue.add(child);
+            }
+        }
+
+        int[][] outputs = new int[size][];
+        for (int node = 0; node < size; node++) {
+            var ids = nodeOutputs.get(node);
+            outputs[node] = ids.isEmpty() ? NO_OUTPUT : ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new AhoCorasickMatcher(patterns.size(), chars, targets, failure, dictionarySuffix, outputs);
+    }
+
+    /**
+     * Строит автомат для набора уникальных шаблонов, сохраняя соответствие шаблон -> индекс.
+     *
+     * @param patterns Шаблоны; дубликаты (без учета регистра) объединяются.
+     * @param indexOut Заполняемое соответствие "шаблон в нижнем регистре -> идентификатор".
+     * @return Построенный автомат.
+     */
+    public static AhoCorasickMatcher buildDistinct(Iterable<String> patterns, Map<String, Integer> indexOut) {
+        List<String> distinct = new ArrayList<>();
+        for (String pattern : patterns) {
+            String key = normalize(pattern);
+            if (!key.isEmpty() && !indexOut.containsKey(key)) {
+                indexOut.put(key, distinct.size());
+                distinct.add(key);
+            }
+        }
+        return build(distinct);
+    }
+
+    /**
+     * Количество шаблонов, по которым построен автомат.
+     *
+     * @return Количество шаблонов.
+     */
+    public int patternCount() {
+        return patternCount;
+    }
+
+    /**
+     * Сканирует текст и сообщает идентификатор каждого найденного шаблона.
+     * Один и тот же шаблон может быть сообщен несколько раз, если встречается в тексте многократно.
+     *
+     * @param text    Текст для поиска (может быть {@code null}).
+     * @param onMatch Получатель идентификаторов найденных шаблонов.
+     */
+    public void scan(CharSequence text, IntConsumer onMatch) {
+        if (text == null || patternCount == 0) {
+            return;
+        }
+        int node = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next;
+            while ((next = step(transitionChars, transitionTargets, node, c)) < 0 && node != ROOT) {
+                node = failure[node];
+            }
+            node = Math.max(next, ROOT);
+            for (int id : outputs[node]) {
+                onMatch.accept(id);
+            }
+            for (int suffix = dictionarySuffix[node]; suffix > 0; suffix = dictionarySuffix[suffix]) {
+                for (int id : outputs[suffix]) {
+                    onMatch.accept(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Проверяет, содержит ли текст хотя бы один из шаблонов.
+     *
+     * @param text Текст для поиска.
+     * @return {@code true}, если найдено хотя бы одно совпадение.
+     */
+    public boolean containsAny(CharSequence text) {
+        var found = new boolean[1];
+        scan(text, id -> found[0] = true);
+        return found[0];
+    }
+
+    private static int step(char[][] chars, int[][] targets, int node, char c) {
+        int i = Arrays.binarySearch(chars[node], c);
+        return i >= 0 ? targets[node][i] : -1;
+    }
+
+    /**
+     * Возвращает простое описание автомата для логирования.
+     *
+     * @return Описание.
+     */
+    @Override
+    public String toString() {
+        return "AhoCorasickMatcher[patterns=" + patternCount + ", states=" + failure.length + "]";
+    }
+
+    /**
+     * Приводит строку к нижнему регистру так же, как автомат приводит текст при поиске.
+     *
+     * @param value Исходная строка.
+     * @return Строка в нижнем регистре.
+     */
+    public static String normalize(String value) {
+        var sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            sb.append(Character.toLowerCase(value.charAt(i)));
+        }
+        return sb.toString();
+    }
+}
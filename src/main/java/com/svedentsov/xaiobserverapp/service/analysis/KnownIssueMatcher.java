@@ -0,0 +1,256 @@
+package com.svedentsov.xaiobserverapp.service.analysis;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.KnownIssueMatcherInfoDTO;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.model.KnownIssue;
+import com.svedentsov.xaiobserverapp.repository.KnownIssueRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сопоставляет сбои с каталогом известных проблем ({@link KnownIssue}).
+ * <p>
+ * По всем активным сигнатурам строится один автомат {@link AhoCorasickMatcher}, поэтому стоимость
+ * проверки события зависит от длины текста ошибки, а не от количества сигнатур (их могут быть тысячи).
+ * Сообщение исключения, стек-трейс и сообщение об ошибке шага сбоя сканируются один раз каждое.
+ * <p>
+ * При изменении каталога автомат перестраивается в фоновом потоке и подменяется атомарно;
+ * до завершения перестройки анализ продолжает использовать предыдущую версию. Несколько изменений,
+ * пришедших во время перестройки, объединяются в одну следующую перестройку.
+ */
+@Slf4j
+@Component
+public class KnownIssueMatcher {
+
+    /**
+     * Тип анализа для результатов сопоставления с известными проблемами.
+     */
+    public static final String ANALYSIS_TYPE = "Известные проблемы";
+
+    private static final int MAX_REASON_LENGTH = 2000;
+
+    private final KnownIssueRepository knownIssueRepository;
+    private final int maxReportedMatches;
+    private final ExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final AtomicLong versions = new AtomicLong();
+    private final LongAdder matchedRuns = new LongAdder();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Конструктор сопоставителя.
+     *
+     * @param knownIssueRepository Репозиторий известных проблем.
+     * @param maxReportedMatches   Максимальное количество проблем, перечисляемых в одном результате анализа.
+     */
+    public KnownIssueMatcher(KnownIssueRepository knownIssueRepository,
+                             @Value("${xai.known-issues.max-reported-matches:10}") int maxReportedMatches) {
+        this.knownIssueRepository = knownIssueRepository;
+        this.maxReportedMatches = maxReportedMatches;
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "known-issue-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Строит автомат при старте приложения, чтобы первые же события проверялись по каталогу.
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Failed to build known issue matcher on startup, known issues will not be tagged until the next rebuild.", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Запрашивает перестройку автомата после фиксации транзакции, изменившей каталог.
+     *
+     * @param event Событие изменения каталога.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKnownIssuesChanged(KnownIssuesChangedEvent event) {
+        log.debug("Known issues changed ({}), scheduling matcher rebuild.", event.reason());
+        requestRebuild();
+    }
+
+    /**
+     * Ставит перестройку автомата в очередь фонового потока. Если перестройка уже ожидает выполнения,
+     * повторный запрос ничего не добавляет: ожидающая перестройка прочитает актуальный каталог.
+     */
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.error("Failed to rebuild known issue matcher, keeping version {}.", snapshot.version, e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Сопоставляет событие сбоя с известными проблемами.
+     *
+     * @param event DTO события.
+     * @return Результат анализа с перечнем совпавших проблем или пустой Optional.
+     */
+    public Optional<AnalysisResult> match(FailureEventDTO event) {
+        Snapshot current = snapshot;
+        if (current.issues.length == 0) {
+            return Optional.empty();
+        }
+        Map<Integer, String> matched = new LinkedHashMap<>();
+        scanField(current, "exceptionMessage", event.exceptionMessage(), matched);
+        scanField(current, "stackTrace", event.stackTrace(), matched);
+        scanField(current, "failedStep.errorMessage", event.failedStep() != null ? event.failedStep().getErrorMessage() : null, matched);
+        if (matched.isEmpty()) {
+            return Optional.empty();
+        }
+        matchedRuns.increment();
+        return Optional.of(toResult(current, matched));
+    }
+
+    /**
+     * Возвращает информацию о текущей версии автомата.
+     *
+     * @return DTO с информацией об автомате.
+     */
+    public KnownIssueMatcherInfoDTO getInfo() {
+        Snapshot current = snapshot;
+        return new KnownIssueMatcherInfoDTO(current.version, current.issues.length, current.matcher.patternCount(),
+                current.builtAt, current.buildMillis, matchedRuns.sum());
+    }
+
+    private synchronized void rebuild() {
+        long start = System.nanoTime();
+        List<KnownIssue> issues = knownIssueRepository.findAllByEnabledTrue();
+        Map<String, Integer> patternIndex = new HashMap<>();
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.buildDistinct(issues.stream().map(KnownIssue::getSignature).toList(), patternIndex);
+
+        List<List<Integer>> owners = new ArrayList<>(patternIndex.size());
+        for (int i = 0; i < patternIndex.size(); i++) {
+            owners.add(new ArrayList<>(1));
+        }
+        var entries = new IssueEntry[issues.size()];
+        for (int i = 0; i < issues.size(); i++) {
+            KnownIssue issue = issues.get(i);
+            entries[i] = new IssueEntry(issue.getId(), issue.getTicketId(), issue.getTitle(), issue.getSignature());
+            Integer patternId = patternIndex.get(AhoCorasickMatcher.normalize(issue.getSignature()));
+            if (patternId != null) {
+                owners.get(patternId).add(i);
+            }
+        }
+        int[][] issuesByPattern = owners.stream().map(list -> list.stream().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new);
+
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        this.snapshot = new Snapshot(versions.incrementAndGet(), matcher, entries, issuesByPattern, LocalDateTime.now(), buildMillis);
+        log.info("Known issue matcher v{} built: {} issues, {} distinct signatures in {} ms.",
+                snapshot.version, entries.length, matcher.patternCount(), buildMillis);
+    }
+
+    private static void scanField(Snapshot current, String field, String text, Map<Integer, String> matched) {
+        current.matcher.scan(text, patternId -> {
+            for (int issue : current.issuesByPattern[patternId]) {
+                matched.putIfAbsent(issue, field);
+            }
+        });
+    }
+
+    private AnalysisResult toResult(Snapshot current, Map<Integer, String> matched) {
+        List<Map<String, Object>> details = new ArrayList<>();
+        var reason = new StringBuilder("Сбой соответствует известным проблемам (" + matched.size() + "): ");
+        int reported = 0;
+        for (Map.Entry<Integer, String> match : matched.entrySet()) {
+            if (reported++ == maxReportedMatches) {
+                reason.append("и другие.");
+                break;
+            }
+            IssueEntry issue = current.issues[match.getKey()];
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("id", issue.id());
+            detail.put("ticketId", issue.ticketId());
+            detail.put("title", issue.title());
+            detail.put("signature", issue.signature());
+            detail.put("field", match.getValue());
+            details.add(detail);
+            reason.append(issue.ticketId() != null ? issue.ticketId() : "#" + issue.id());
+            if (issue.title() != null) {
+                reason.append(" - ").append(issue.title());
+            }
+            reason.append("; ");
+        }
+
+        var ar = new AnalysisResult();
+        ar.setAnalysisType(ANALYSIS_TYPE);
+        ar.setAiConfidence(0.99);
+        ar.setSuggestedReason(reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason.toString().strip());
+        ar.setSolution("Проверьте статус указанных тикетов. Если проблема уже исправлена, отключите или обновите ее сигнатуру в каталоге известных проблем.");
+        ar.setAnalysisTimestamp(LocalDateTime.now());
+        ar.setExplanationData(Map.of("knownIssues", details, "matchCount", matched.size(), "matcherVersion", current.version));
+        return ar;
+    }
+
+    /**
+     * Данные известной проблемы, необходимые для формирования результата анализа.
+     */
+    private record IssueEntry(Long id, String ticketId, String title, String signature) {
+    }
+
+    /**
+     * Неизменяемая версия автомата вместе с каталогом, по которому она построена.
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, AhoCorasickMatcher.build(List.of()), new IssueEntry[0], new int[0][], null, 0);
+
+        final long version;
+        final AhoCorasickMatcher matcher;
+        final IssueEntry[] issues;
+        /**
+         * Для каждой уникальной сигнатуры - индексы проблем в {@link #issues}, которым она принадлежит.
+         */
+        final int[][] issuesByPattern;
+        final LocalDateTime builtAt;
+        final long buildMillis;
+
+        Snapshot(long version, AhoCorasickMatcher matcher, IssueEntry[] issues, int[][] issuesByPattern,
+                 LocalDateTime builtAt, long buildMillis) {
+            this.version = version;
+            this.matcher = matcher;
+            this.issues = issues;
+            this.issuesByPattern = issuesByPattern;
+            this.builtAt = builtAt;
+            this.buildMillis = buildMillis;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.svedentsov.xaiobserverapp.service.analysis;
+
+/**
+ * Событие приложения: каталог известных проблем изменился и автомат {@link KnownIssueMatcher} нужно перестроить.
+ *
+ * @param reason Краткое описание изменения (для логирования).
+ */
+public record KnownIssuesChangedEvent(String reason) {
+}
@@ -0,0 +1,135 @@
+package com.svedentsov.xaiobserverapp.service.analysis;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.RuleDispatchStatsDTO;
+import com.svedentsov.xaiobserverapp.dto.StrategyStatsDTO;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.service.AnalysisStrategy;
+import com.svedentsov.xaiobserverapp.service.diagnostics.RcaStrategyEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Диспетчер стратегий RCA: вызывает стратегии в порядке {@code @Order} до первого срабатывания.
+ * <p>
+ * Отбор правил по полям события выполняется внутри {@link com.svedentsov.xaiobserverapp.service.analysis.rules.DeclarativeRuleEngine}
+ * общим автоматом подстрок, поэтому диспетчер стратегии не индексирует.
+ * <p>
+ * Для каждой стратегии ведется статистика: число вызовов, срабатываний и суммарное время. Длительность
+ * вызовов также публикуется как гистограмма {@value #STRATEGY_TIMER} с тегами {@code strategy} и
+ * {@code outcome} ({@code hit}/{@code miss}) и фиксируется как событие JFR {@link RcaStrategyEvent}.
+ */
+@Slf4j
+@Component
+public class RuleDispatcher {
+
+    /**
+     * Гистограмма длительности вызова стратегии.
+     */
+    public static final String STRATEGY_TIMER = "xai.rca.strategy";
+
+    private final List<RuleEntry> rules;
+    private final LongAdder dispatches = new LongAdder();
+    private final LongAdder candidateEvaluations = new LongAdder();
+
+    /**
+     * Создает диспетчер по списку стратегий, уже отсортированному Spring по {@code @Order}.
+     *
+     * @param strategies Стратегии анализа.
+     * @param registry   Реестр метрик.
+     */
+    public RuleDispatcher(List<AnalysisStrategy> strategies, MeterRegistry registry) {
+        this.rules = IntStream.range(0, strategies.size())
+                .mapToObj(i -> new RuleEntry(i, strategies.get(i), registry))
+                .toList();
+        log.info("RCA rule dispatcher initialized with {} strategies: {}.",
+                rules.size(), rules.stream().map(rule -> rule.name).toList());
+    }
+
+    /**
+     * Применяет к событию стратегии по порядку и возвращает результат первой сработавшей.
+     *
+     * @param event DTO события сбоя.
+     * @return Результат анализа или пустой Optional, если ни одна стратегия не сработала.
+     */
+    public Optional<AnalysisResult> dispatch(FailureEventDTO event) {
+        dispatches.increment();
+        for (RuleEntry rule : rules) {
+            candidateEvaluations.increment();
+            var jfrEvent = new RcaStrategyEvent();
+            jfrEvent.begin();
+            long start = System.nanoTime();
+            Optional<AnalysisResult> result = rule.strategy.analyze(event);
+            long elapsed = System.nanoTime() - start;
+            jfrEvent.commit(event.testRunId(), rule.name, result.isPresent());
+            rule.nanos.add(elapsed);
+            rule.evaluations.increment();
+            (result.isPresent() ? rule.hitTimer : rule.missTimer).record(elapsed, TimeUnit.NANOSECONDS);
+            if (result.isPresent()) {
+                rule.hits.increment();
+                log.info("Analysis found by rule-based strategy: {}", rule.name);
+                return result;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Возвращает статистику работы стратегий.
+     *
+     * @return Сводная статистика диспетчеризации.
+     */
+    public RuleDispatchStatsDTO getStatistics() {
+        long totalDispatches = dispatches.sum();
+        List<StrategyStatsDTO> stats = rules.stream().map(rule -> {
+            long evaluations = rule.evaluations.sum();
+            long hits = rule.hits.sum();
+            long micros = rule.nanos.sum() / 1_000;
+            return new StrategyStatsDTO(rule.name, rule.position, evaluations, hits,
+                    evaluations == 0 ? 0.0 : (double) hits / evaluations,
+                    micros,
+                    evaluations == 0 ? 0.0 : (double) micros / evaluations);
+        }).toList();
+        double avgCandidates = totalDispatches == 0 ? 0.0 : (double) candidateEvaluations.sum() / totalDispatches;
+        return new RuleDispatchStatsDTO(totalDispatches, avgCandidates, stats);
+    }
+
+    /**
+     * Стратегия вместе с ее позицией и счетчиками.
+     */
+    private static final class RuleEntry {
+        private final int position;
+        private final AnalysisStrategy strategy;
+        private final String name;
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final Timer hitTimer;
+        private final Timer missTimer;
+
+        private RuleEntry(int position, AnalysisStrategy strategy, MeterRegistry registry) {
+            this.position = position;
+            this.strategy = strategy;
+            this.name = AopUtils.getTargetClass(strategy).getSimpleName();
+            this.hitTimer = timer(registry, "hit");
+            this.missTimer = timer(registry, "miss");
+        }
+
+        private Timer timer(MeterRegistry registry, String outcome) {
+            return Timer.builder(STRATEGY_TIMER)
+                    .description("Длительность вызова стратегии RCA")
+                    .tags("strategy", name, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
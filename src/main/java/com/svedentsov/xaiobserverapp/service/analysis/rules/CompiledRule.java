@@ -0,0 +1,271 @@
+package com.svedentsov.xaiobserverapp.service.analysis.rules;
+
+import com.svedentsov.xaiobserverapp.dto.EnvironmentDetailsDTO;
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.service.analysis.AhoCorasickMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Правило RCA, подготовленное к быстрому применению: регулярное выражение скомпилировано,
+ * шаблоны разобраны, множества значений нормализованы. Подстроковые условия проверяются
+ * по результатам общего автомата {@link CompiledRuleSet} и здесь сводятся к проверке битов.
+ */
+final class CompiledRule {
+
+    private final String id;
+    private final int order;
+    private final int index;
+    private final String analysisType;
+    private final double confidence;
+    private final boolean scaleConfidenceByStep;
+    private final MessageTemplate reason;
+    private final MessageTemplate solution;
+    private final MessageTemplate evidence;
+    private final int requiredLiteralFields;
+    private final Boolean exceptionPresent;
+    private final Boolean failedStepPresent;
+    private final Set<TestRun.TestStatus> statuses;
+    private final Set<String> environments;
+    private final Set<String> tags;
+    private final Pattern messageRegex;
+    private final String description;
+
+    final LongAdder evaluations = new LongAdder();
+    final LongAdder hits = new LongAdder();
+    final LongAdder nanos = new LongAdder();
+
+    CompiledRule(RuleDefinition definition, int index) {
+        RuleConditions when = definition.when() != null
+                ? definition.when()
+                : new RuleConditions(null, null, null, null, null, null, null, null, null, null);
+        this.id = definition.id();
+        this.order = definition.order() != null ? definition.order() : Integer.MAX_VALUE;
+        this.index = index;
+        this.analysisType = definition.analysisType() != null ? definition.analysisType() : "Правило " + definition.id();
+        this.confidence = definition.confidence() != null ? definition.confidence() : 0.5;
+        this.scaleConfidenceByStep = Boolean.TRUE.equals(definition.scaleConfidenceByStep());
+        this.reason = MessageTemplate.compile(definition.reason());
+        this.solution = MessageTemplate.compile(definition.solution());
+        this.evidence = MessageTemplate.compile(definition.evidence());
+        this.exceptionPresent = when.exceptionPresent();
+        this.failedStepPresent = when.failedStepPresent();
+        this.statuses = when.status() == null || when.status().isEmpty() ? Set.of()
+                : when.status().stream().map(this::parseStatus).collect(Collectors.toCollection(() -> EnumSet.noneOf(TestRun.TestStatus.class)));
+        this.environments = normalizedSet(when.environment());
+        this.tags = normalizedSet(when.tags());
+        this.messageRegex = compileRegex(when.messageRegex());
+
+        int required = 0;
+        for (LiteralField field : LiteralField.values()) {
+            if (!field.literals(when).isEmpty()) {
+                required |= 1 << field.ordinal();
+            }
+        }
+        this.requiredLiteralFields = required;
+        this.description = describe(when);
+    }
+
+    String id() {
+        return id;
+    }
+
+    int order() {
+        return order;
+    }
+
+    String description() {
+        return description;
+    }
+
+    double confidence() {
+        return confidence;
+    }
+
+    /**
+     * Проверяет правило на событии.
+     *
+     * @param event          DTO события.
+     * @param literalMatches Биты выполненных подстроковых условий всех правил (см. {@link LiteralField#bit(int, LiteralField)}).
+     * @param status         Статус события.
+     * @return {@code true}, если все условия правила выполнены.
+     */
+    boolean matches(FailureEventDTO event, BitSet literalMatches, TestRun.TestStatus status) {
+        if (!statuses.isEmpty() && !statuses.contains(status)) {
+            return false;
+        }
+        if (exceptionPresent != null && StringUtils.hasText(event.exceptionType()) != exceptionPresent) {
+            return false;
+        }
+        if (failedStepPresent != null && (event.failedStep() != null) != failedStepPresent) {
+            return false;
+        }
+        for (LiteralField field : LiteralField.values()) {
+            if ((requiredLiteralFields & (1 << field.ordinal())) != 0 && !literalMatches.get(LiteralField.bit(index, field))) {
+                return false;
+            }
+        }
+        if (!environments.isEmpty()) {
+            String environment = Optional.ofNullable(event.environmentDetails()).map(EnvironmentDetailsDTO::name).orElse(null);
+            if (environment == null || !environments.contains(AhoCorasickMatcher.normalize(environment))) {
+                return false;
+            }
+        }
+        if (!tags.isEmpty() && (event.testTags() == null
+                || event.testTags().stream().filter(Objects::nonNull).map(AhoCorasickMatcher::normalize).noneMatch(tags::contains))) {
+            return false;
+        }
+        return messageRegex == null || (event.exceptionMessage() != null && messageRegex.matcher(event.exceptionMessage()).find());
+    }
+
+    /**
+     * Формирует результат анализа для сработавшего правила.
+     *
+     * @param event DTO события.
+     * @return Результат анализа.
+     */
+    AnalysisResult toResult(FailureEventDTO event) {
+        var ar = new AnalysisResult();
+        ar.setAnalysisType(analysisType);
+        double score = scaleConfidenceByStep && event.failedStep() != null
+                ? event.failedStep().getConfidenceScore() * confidence
+                : confidence;
+        ar.setAiConfidence(score);
+        ar.setSuggestedReason(reason != null ? reason.render(event) : null);
+        ar.setSolution(solution != null ? solution.render(event) : null);
+        Map<String, Object> explanation = new HashMap<>();
+        explanation.put(DeclarativeRuleEngine.RULE_KEY, id);
+        if (evidence != null) {
+            explanation.put("evidence", evidence.render(event));
+        }
+        ar.setExplanationData(explanation);
+        return ar;
+    }
+
+    private TestRun.TestStatus parseStatus(String value) {
+        try {
+            return TestRun.TestStatus.valueOf(value.strip().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Rule '" + id + "': unknown status '" + value + "'");
+        }
+    }
+
+    private Pattern compileRegex(String regex) {
+        if (!StringUtils.hasText(regex)) {
+            return null;
+        }
+        try {
+            return Pattern.compile(regex);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Rule '" + id + "': invalid messageRegex: " + e.getMessage());
+        }
+    }
+
+    private static Set<String> normalizedSet(List<String> values) {
+        return values == null ? Set.of() : values.stream()
+                .filter(StringUtils::hasText)
+                .map(AhoCorasickMatcher::normalize)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private String describe(RuleConditions when) {
+        List<String> parts = new ArrayList<>();
+        for (LiteralField field : LiteralField.values()) {
+            List<String> literals = field.literals(when);
+            if (!literals.isEmpty()) {
+                parts.add(field.key + "~" + literals);
+            }
+        }
+        if (messageRegex != null) {
+            parts.add("messageRegex=" + messageRegex.pattern());
+        }
+        if (exceptionPresent != null) {
+            parts.add("exceptionPresent=" + exceptionPresent);
+        }
+        if (failedStepPresent != null) {
+            parts.add("failedStepPresent=" + failedStepPresent);
+        }
+        if (!statuses.isEmpty()) {
+            parts.add("status=" + statuses);
+        }
+        if (!environments.isEmpty()) {
+            parts.add("environment=" + environments);
+        }
+        if (!tags.isEmpty()) {
+            parts.add("tags=" + tags);
+        }
+        return parts.isEmpty() ? "ALWAYS" : String.join(" AND ", parts);
+    }
+
+    /**
+     * Текстовые поля события, проверяемые подстроками через общий автомат.
+     */
+    enum LiteralField {
+        EXCEPTION_TYPE("exceptionType"),
+        MESSAGE("messageContains"),
+        STEP_LOCATOR("failedStepLocator"),
+        STEP_ACTION("failedStepAction");
+
+        private final String key;
+
+        LiteralField(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Возвращает подстроки условия для поля.
+         *
+         * @param when Условия правила.
+         * @return Непустые подстроки или пустой список.
+         */
+        List<String> literals(RuleConditions when) {
+            List<String> values = switch (this) {
+                case EXCEPTION_TYPE -> when.exceptionType();
+                case MESSAGE -> when.messageContains();
+                case STEP_LOCATOR -> when.failedStepLocator();
+                case STEP_ACTION -> when.failedStepAction();
+            };
+            return values == null ? List.of() : values.stream().filter(StringUtils::hasText).toList();
+        }
+
+        /**
+         * Извлекает значение поля из события.
+         *
+         * @param event DTO события.
+         * @return Текст поля или {@code null}.
+         */
+        String text(FailureEventDTO event) {
+            return switch (this) {
+                case EXCEPTION_TYPE -> event.exceptionType();
+                case MESSAGE -> event.exceptionMessage();
+                case STEP_LOCATOR -> event.failedStep() != null ? event.failedStep().getLocatorValue() : null;
+                case STEP_ACTION -> event.failedStep() != null ? event.failedStep().getAction() : null;
+            };
+        }
+
+        /**
+         * Номер бита "подстроковое условие поля {@code field} правила {@code ruleIndex} выполнено".
+         *
+         * @param ruleIndex Индекс правила в наборе.
+         * @param field     Поле.
+         * @return Номер бита.
+         */
+        static int bit(int ruleIndex, LiteralField field) {
+            return ruleIndex * values().length + field.ordinal();
+        }
+    }
+}
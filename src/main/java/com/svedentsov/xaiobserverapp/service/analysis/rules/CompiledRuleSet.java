@@ -0,0 +1,374 @@
+package com.svedentsov.xaiobserverapp.service.analysis.rules;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.RuleStatsDTO;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.service.analysis.AhoCorasickMatcher;
+import com.svedentsov.xaiobserverapp.service.analysis.rules.CompiledRule.LiteralField;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Неизменяемый скомпилированный набор правил RCA.
+ * <p>
+ * Все подстроковые условия всех правил (по типу исключения, сообщению, локатору и действию шага)
+ * объединены в один автомат {@link AhoCorasickMatcher}. Анализ события выполняется так:
+ * <ol>
+ *   <li>каждое текстовое поле события сканируется автоматом один раз, найденные подстроки
+ *   отмечают в битовой маске выполненные условия соответствующих правил;</li>
+ *   <li>правила перебираются в текущем порядке применения, для каждого проверяются биты и дешевые
+ *   условия, и только затем - заранее скомпилированное регулярное выражение.</li>
+ * </ol>
+ * Набор заменяется целиком при перезагрузке, поэтому анализ всегда видит согласованную версию правил.
+ * Исходный порядок применения задается полем {@code order}; при адаптивном упорядочивании он
+ * пересчитывается методом {@link #rerank(RuleFeedbackStatistics, long)} и подменяется атомарно.
+ * Для этого каждое N-е событие дополнительно проверяется всеми правилами (см. {@link #sampleEvery(int)}),
+ * чтобы оценить безусловную частоту срабатывания правил и выяснить, какие из них срабатывают одновременно.
+ */
+final class CompiledRuleSet {
+
+    /**
+     * Вес заявленной в правиле уверенности при сглаживании точности (в "виртуальных" отзывах).
+     */
+    private static final double PRIOR_WEIGHT = 10.0;
+    /**
+     * Ширина полосы точности: правила переставляются по отзывам, только если их точности различаются на полосу.
+     */
+    private static final double ACCURACY_BAND = 0.05;
+
+    private final String source;
+    private final LocalDateTime loadedAt;
+    private final List<CompiledRule> rules;
+    private final AhoCorasickMatcher matcher;
+    /**
+     * Для каждого поля и каждого шаблона автомата - номера битов условий, которые он выполняет.
+     */
+    private final int[][][] ownersByField;
+    /**
+     * Текущий порядок применения правил (индексы в {@link #rules}).
+     */
+    private volatile Ranking ranking;
+
+    private volatile int sampleEvery;
+    private final AtomicLong sampleCounter = new AtomicLong();
+    /**
+     * Выборка полных проверок (защищена блокировкой на {@link #coMatches}): количество событий,
+     * на которых сработало хотя бы одно правило, срабатывания каждого правила и пары совместных срабатываний.
+     */
+    private long samples;
+    private final long[] sampleHits;
+    private final BitSet[] coMatches;
+
+    private CompiledRuleSet(String source, List<CompiledRule> rules, AhoCorasickMatcher matcher, int[][][] ownersByField) {
+        this.source = source;
+        this.loadedAt = LocalDateTime.now();
+        this.rules = rules;
+        this.matcher = matcher;
+        this.ownersByField = ownersByField;
+        this.ranking = new Ranking(IntStream.range(0, rules.size()).toArray(), null);
+        this.sampleHits = new long[rules.size()];
+        this.coMatches = new BitSet[rules.size()];
+        for (int i = 0; i < coMatches.length; i++) {
+            coMatches[i] = new BitSet(rules.size());
+        }
+    }
+
+    /**
+     * Пустой набор правил (до первой загрузки).
+     *
+     * @return Пустой набор.
+     */
+    static CompiledRuleSet empty() {
+        return compile(new RuleSetDefinition(List.of()), "none");
+    }
+
+    /**
+     * Проверяет и компилирует описание правил.
+     *
+     * @param definition Описание набора правил.
+     * @param source     Источник (для диагностики).
+     * @return Скомпилированный набор.
+     * @throws IllegalArgumentException если описание некорректно (пустой или повторяющийся id,
+     *                                  неверное регулярное выражение, неизвестная подстановка или статус).
+     */
+    static CompiledRuleSet compile(RuleSetDefinition definition, String source) {
+        List<RuleDefinition> definitions = definition.rules() != null ? definition.rules() : List.of();
+        Set<String> ids = new HashSet<>();
+        for (RuleDefinition rule : definitions) {
+            if (rule == null || !StringUtils.hasText(rule.id())) {
+                throw new IllegalArgumentException("Every rule must have a non-empty id");
+            }
+            if (!ids.add(rule.id())) {
+                throw new IllegalArgumentException("Duplicate rule id: " + rule.id());
+            }
+        }
+        List<RuleDefinition> active = definitions.stream()
+                .filter(rule -> !Boolean.FALSE.equals(rule.enabled()))
+                .sorted(Comparator.comparing(rule -> rule.order() != null ? rule.order() : Integer.MAX_VALUE))
+                .toList();
+
+        List<CompiledRule> rules = new ArrayList<>(active.size());
+        Map<String, Integer> patternIndex = new LinkedHashMap<>();
+        List<List<List<Integer>>> owners = new ArrayList<>();
+        for (int i = 0; i < active.size(); i++) {
+            RuleDefinition rule = active.get(i);
+            rules.add(new CompiledRule(rule, i));
+            RuleConditions when = rule.when();
+            if (when == null) {
+                continue;
+            }
+            for (LiteralField field : LiteralField.values()) {
+                for (String literal : field.literals(when)) {
+                    String key = AhoCorasickMatcher.normalize(literal);
+                    int id = patternIndex.computeIfAbsent(key, k -> {
+                        List<List<Integer>> perField = new ArrayList<>();
+                        for (int f = 0; f < LiteralField.values().length; f++) {
+                            perField.add(new ArrayList<>());
+                        }
+                        owners.add(perField);
+                        return owners.size() - 1;
+                    });
+                    owners.get(id).get(field.ordinal()).add(LiteralField.bit(i, field));
+                }
+            }
+        }
+
+        AhoCorasickMatcher matcher = AhoCorasickMatcher.build(new ArrayList<>(patternIndex.keySet()));
+        int[][][] ownersByField = new int[LiteralField.values().length][owners.size()][];
+        for (int id = 0; id < owners.size(); id++) {
+            for (LiteralField field : LiteralField.values()) {
+                ownersByField[field.ordinal()][id] = owners.get(id).get(field.ordinal()).stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+        return new CompiledRuleSet(source, List.copyOf(rules), matcher, ownersByField);
+    }
+
+    /**
+     * Применяет правила к событию и возвращает результат первого сработавшего.
+     *
+     * @param event DTO события.
+     * @return Результат анализа или пустой Optional.
+     */
+    Optional<AnalysisResult> evaluate(FailureEventDTO event) {
+        if (rules.isEmpty()) {
+            return Optional.empty();
+        }
+        BitSet literalMatches = new BitSet(rules.size() * LiteralField.values().length);
+        for (LiteralField field : LiteralField.values()) {
+            int[][] owners = ownersByField[field.ordinal()];
+            matcher.scan(field.text(event), patternId -> {
+                for (int bit : owners[patternId]) {
+                    literalMatches.set(bit);
+                }
+            });
+        }
+        TestRun.TestStatus status = TestRun.TestStatus.fromString(event.status());
+        int every = sampleEvery;
+        if (every > 0 && sampleCounter.incrementAndGet() % every == 0) {
+            sample(event, literalMatches, status);
+        }
+        for (int index : ranking.order()) {
+            CompiledRule rule = rules.get(index);
+            long start = System.nanoTime();
+            boolean matched = rule.matches(event, literalMatches, status);
+            rule.nanos.add(System.nanoTime() - start);
+            rule.evaluations.increment();
+            if (matched) {
+                rule.hits.increment();
+                return Optional.of(rule.toResult(event));
+            }
+        }
+        return Optional.empty();
+    }
+
+    String source() {
+        return source;
+    }
+
+    LocalDateTime loadedAt() {
+        return loadedAt;
+    }
+
+    int ruleCount() {
+        return rules.size();
+    }
+
+    int patternCount() {
+        return matcher.patternCount();
+    }
+
+    LocalDateTime rerankedAt() {
+        return ranking.rankedAt();
+    }
+
+    /**
+     * Включает выборочную полную проверку: каждое {@code every}-е событие проверяется всеми правилами.
+     *
+     * @param every Период выборки в событиях (0 - не собирать выборку).
+     */
+    void sampleEvery(int every) {
+        this.sampleEvery = every;
+    }
+
+    /**
+     * Пересчитывает порядок применения правил по накопленной статистике.
+     * <p>
+     * Порядок правил, которые могут сработать на одном событии, определяет результат анализа, поэтому
+     * такие правила переставляются только по отзывам пользователей: правило, чья сглаженная точность
+     * ({@code (confirmed + K * confidence) / (rated + K)}) поднялась относительно заявленной уверенности
+     * на большее число полос шириной {@value #ACCURACY_BAND}, применяется раньше, иначе сохраняется исходный
+     * порядок. Правила, ни разу не сработавшие вместе в выборке из не менее чем {@code minSamples} событий,
+     * считаются независимыми: их порядок влияет только на время анализа, и раньше применяются правила
+     * с большим отношением частоты срабатывания к средней стоимости проверки. Пока выборка меньше,
+     * все правила считаются зависимыми.
+     *
+     * @param feedback   Счетчики обратной связи по правилам.
+     * @param minSamples Минимальный размер выборки для признания правил независимыми.
+     */
+    void rerank(RuleFeedbackStatistics feedback, long minSamples) {
+        int size = rules.size();
+        long sampled;
+        long[] hits;
+        BitSet[] overlaps = new BitSet[size];
+        synchronized (coMatches) {
+            sampled = samples;
+            hits = sampleHits.clone();
+            for (int i = 0; i < size; i++) {
+                overlaps[i] = (BitSet) coMatches[i].clone();
+            }
+        }
+        boolean independenceKnown = sampled >= Math.max(minSamples, 1);
+
+        int[] feedbackShift = new int[size];
+        double[] avgNanos = new double[size];
+        double nanosSum = 0;
+        int measured = 0;
+        for (int i = 0; i < size; i++) {
+            CompiledRule rule = rules.get(i);
+            feedbackShift[i] = band(smoothedAccuracy(rule, feedback.get(rule.id()))) - band(rule.confidence());
+            long evaluations = rule.evaluations.sum();
+            if (evaluations > 0) {
+                avgNanos[i] = Math.max((double) rule.nanos.sum() / evaluations, 1.0);
+                nanosSum += avgNanos[i];
+                measured++;
+            }
+        }
+        double[] efficiency = new double[size];
+        for (int i = 0; i < size; i++) {
+            double cost = avgNanos[i] > 0 ? avgNanos[i] : (measured > 0 ? nanosSum / measured : 1.0);
+            efficiency[i] = independenceKnown ? (hits[i] + 1.0) / (sampled + 2.0) / cost : 0.0;
+        }
+
+        // Зависимые пары задают обязательный порядок: сначала правило с лучшей точностью, при равенстве - исходный.
+        int[] blockers = new int[size];
+        List<List<Integer>> successors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            successors.add(new ArrayList<>());
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                if (!independenceKnown || overlaps[i].get(j)) {
+                    boolean jFirst = feedbackShift[j] > feedbackShift[i];
+                    successors.get(jFirst ? j : i).add(jFirst ? i : j);
+                    blockers[jFirst ? i : j]++;
+                }
+            }
+        }
+        PriorityQueue<Integer> ready = new PriorityQueue<>(Comparator.<Integer>comparingDouble(i -> -efficiency[i])
+                .thenComparingInt(i -> -feedbackShift[i])
+                .thenComparingInt(i -> i));
+        for (int i = 0; i < size; i++) {
+            if (blockers[i] == 0) {
+                ready.add(i);
+            }
+        }
+        int[] order = new int[size];
+        int position = 0;
+        while (!ready.isEmpty()) {
+            int next = ready.poll();
+            order[position++] = next;
+            for (int successor : successors.get(next)) {
+                if (--blockers[successor] == 0) {
+                    ready.add(successor);
+                }
+            }
+        }
+        this.ranking = new Ranking(order, LocalDateTime.now());
+    }
+
+    /**
+     * Возвращает статистику правил текущего набора.
+     *
+     * @param feedback Счетчики обратной связи по правилам.
+     * @return Статистика в текущем порядке применения правил.
+     */
+    List<RuleStatsDTO> statistics(RuleFeedbackStatistics feedback) {
+        int[] order = ranking.order();
+        List<RuleStatsDTO> stats = new ArrayList<>(order.length);
+        for (int position = 0; position < order.length; position++) {
+            CompiledRule rule = rules.get(order[position]);
+            long evaluations = rule.evaluations.sum();
+            long hits = rule.hits.sum();
+            long micros = rule.nanos.sum() / 1_000;
+            RuleFeedbackStatistics.Counts counts = feedback.get(rule.id());
+            stats.add(new RuleStatsDTO(rule.id(), position, rule.description(), evaluations, hits,
+                    evaluations == 0 ? 0.0 : (double) hits / evaluations,
+                    micros,
+                    evaluations == 0 ? 0.0 : (double) micros / evaluations,
+                    order[position], counts.confirmed(), counts.rejected(),
+                    counts.rated() == 0 ? null : (double) counts.confirmed() / counts.rated()));
+        }
+        return stats;
+    }
+
+    private void sample(FailureEventDTO event, BitSet literalMatches, TestRun.TestStatus status) {
+        BitSet matched = new BitSet(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i).matches(event, literalMatches, status)) {
+                matched.set(i);
+            }
+        }
+        if (matched.isEmpty()) {
+            return;
+        }
+        synchronized (coMatches) {
+            samples++;
+            for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+                sampleHits[i]++;
+                coMatches[i].or(matched);
+            }
+        }
+    }
+
+    private static int band(double accuracy) {
+        return (int) Math.floor(accuracy / ACCURACY_BAND + 1e-9);
+    }
+
+    private static double smoothedAccuracy(CompiledRule rule, RuleFeedbackStatistics.Counts counts) {
+        return (counts.confirmed() + PRIOR_WEIGHT * rule.confidence()) / (counts.rated() + PRIOR_WEIGHT);
+    }
+
+    /**
+     * Порядок применения правил.
+     *
+     * @param order    Индексы правил в порядке применения.
+     * @param rankedAt Время последнего пересчета ({@code null} - исходный порядок).
+     */
+    private record Ranking(int[] order, LocalDateTime rankedAt) {
+    }
+
+}
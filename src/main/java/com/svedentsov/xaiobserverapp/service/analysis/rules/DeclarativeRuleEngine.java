@@ -0,0 +1,231 @@
+package com.svedentsov.xaiobserverapp.service.analysis.rules;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.RuleSetInfoDTO;
+import com.svedentsov.xaiobserverapp.dto.RuleStatsDTO;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.service.AnalysisStrategy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Декларативный движок правил RCA.
+ * <p>
+ * Правила описываются в YAML-файле {@code xai.rules.location} (по умолчанию {@code classpath:rca-rules.yml})
+ * и компилируются в {@link CompiledRuleSet}: регулярные выражения и шаблоны сообщений разбираются один раз,
+ * все подстроковые условия объединяются в один автомат. Если правила лежат в файловой системе, файл
+ * периодически проверяется на изменения и перезагружается без рестарта приложения.
+ * <p>
+ * Новый набор подменяет старый атомарно (одной записью в volatile-поле): анализ, начавшийся до
+ * перезагрузки, дорабатывает на старой версии. Некорректный файл при перезагрузке не применяется -
+ * продолжает работать предыдущая версия правил.
+ * <p>
+ * При включенном адаптивном упорядочивании ({@code xai.rules.adaptive.enabled}) порядок применения правил
+ * периодически пересчитывается: из правил, срабатывающих на одних и тех же событиях, первым проверяется
+ * более точное по отзывам пользователей, а независимые правила упорядочиваются так, чтобы часто
+ * срабатывающие и дешевые проверялись раньше.
+ */
+@Slf4j
+@Component
+@Order(0)
+public class DeclarativeRuleEngine implements AnalysisStrategy {
+
+    /**
+     * Ключ {@code explanationData} с ID сработавшего правила.
+     */
+    public static final String RULE_KEY = "rule";
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final RuleFeedbackStatistics feedbackStatistics;
+    private final String location;
+    private final long reloadIntervalMillis;
+    private final boolean adaptiveEnabled;
+    private final long adaptiveIntervalMillis;
+    private final int adaptiveSampleEvery;
+    private final long adaptiveMinSamples;
+
+    private volatile CompiledRuleSet ruleSet = CompiledRuleSet.empty();
+    private volatile long lastModified;
+    private ScheduledExecutorService reloadExecutor;
+    private ScheduledExecutorService reorderExecutor;
+
+    /**
+     * Конструктор движка правил.
+     *
+     * @param resourceLoader       Загрузчик ресурсов Spring.
+     * @param objectMapper         Jackson ObjectMapper для преобразования YAML в описание правил.
+     * @param feedbackStatistics   Счетчики обратной связи пользователей по правилам.
+     * @param location             Расположение файла правил.
+     * @param reloadIntervalMillis Интервал проверки файла на изменения, мс (0 - не проверять).
+     * @param adaptiveEnabled        Включено ли адаптивное упорядочивание правил.
+     * @param adaptiveIntervalMillis Интервал пересчета порядка правил, мс.
+     * @param adaptiveSampleEvery    Период выборочной проверки события всеми правилами, в событиях.
+     * @param adaptiveMinSamples     Минимальный размер выборки для признания правил независимыми.
+     */
+    public DeclarativeRuleEngine(ResourceLoader resourceLoader,
+                                 ObjectMapper objectMapper,
+                                 RuleFeedbackStatistics feedbackStatistics,
+                                 @Value("${xai.rules.location:classpath:rca-rules.yml}") String location,
+                                 @Value("${xai.rules.reload-interval-ms:5000}") long reloadIntervalMillis,
+                                 @Value("${xai.rules.adaptive.enabled:false}") boolean adaptiveEnabled,
+                                 @Value("${xai.rules.adaptive.interval-ms:30000}") long adaptiveIntervalMillis,
+                                 @Value("${xai.rules.adaptive.sample-every:20}") int adaptiveSampleEvery,
+                                 @Value("${xai.rules.adaptive.min-samples:50}") long adaptiveMinSamples) {
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper.copy().enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.feedbackStatistics = feedbackStatistics;
+        this.location = location;
+        this.reloadIntervalMillis = reloadIntervalMillis;
+        this.adaptiveEnabled = adaptiveEnabled;
+        this.adaptiveIntervalMillis = adaptiveIntervalMillis;
+        this.adaptiveSampleEvery = adaptiveSampleEvery;
+        this.adaptiveMinSamples = adaptiveMinSamples;
+    }
+
+    /**
+     * Загружает правила при старте. Ошибка в файле правил прерывает запуск приложения.
+     */
+    @PostConstruct
+    public void init() {
+        reload();
+        Resource resource = resourceLoader.getResource(location);
+        if (resource.isFile() && reloadIntervalMillis > 0) {
+            reloadExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "rca-rules-reloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloadExecutor.scheduleWithFixedDelay(this::reloadIfModified, reloadIntervalMillis, reloadIntervalMillis, TimeUnit.MILLISECONDS);
+            log.info("Watching RCA rules file {} for changes every {} ms.", location, reloadIntervalMillis);
+        }
+        if (adaptiveEnabled && adaptiveIntervalMillis > 0) {
+            reorderExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "rca-rules-reorder");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reorderExecutor.scheduleWithFixedDelay(this::reorderQuietly, adaptiveIntervalMillis, adaptiveIntervalMillis, TimeUnit.MILLISECONDS);
+            log.info("Adaptive RCA rule ordering enabled, re-ranking every {} ms.", adaptiveIntervalMillis);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reloadExecutor != null) {
+            reloadExecutor.shutdownNow();
+        }
+        if (reorderExecutor != null) {
+            reorderExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public Optional<AnalysisResult> analyze(FailureEventDTO event) {
+        Optional<AnalysisResult> result = ruleSet.evaluate(event);
+        result.ifPresent(ar -> log.debug("RCA rule '{}' matched event {}.", ar.getExplanationData().get(RULE_KEY), event.testRunId()));
+        return result;
+    }
+
+    /**
+     * Перечитывает и компилирует файл правил, затем атомарно заменяет текущий набор.
+     *
+     * @return Информация о загруженном наборе.
+     * @throws IllegalArgumentException если файл не найден, не читается или содержит некорректные правила.
+     */
+    public synchronized RuleSetInfoDTO reload() {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            throw new IllegalArgumentException("RCA rules file not found: " + location);
+        }
+        long modified = lastModified(resource);
+        RuleSetDefinition definition;
+        try (InputStream in = resource.getInputStream()) {
+            Object yaml = new Yaml(new SafeConstructor(new LoaderOptions())).load(in);
+            definition = yaml == null
+                    ? new RuleSetDefinition(null)
+                    : objectMapper.convertValue(yaml, RuleSetDefinition.class);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Cannot read RCA rules from " + location + ": " + e.getMessage(), e);
+        }
+        CompiledRuleSet compiled = CompiledRuleSet.compile(definition, location);
+        if (adaptiveEnabled) {
+            compiled.sampleEvery(adaptiveSampleEvery);
+            compiled.rerank(feedbackStatistics, adaptiveMinSamples);
+        }
+        this.ruleSet = compiled;
+        this.lastModified = modified;
+        log.info("Loaded {} RCA rules ({} literal patterns) from {}.", compiled.ruleCount(), compiled.patternCount(), location);
+        return getRuleSetInfo();
+    }
+
+    /**
+     * Возвращает информацию о текущем наборе правил и статистику их срабатываний.
+     *
+     * @return DTO с информацией о наборе правил.
+     */
+    public RuleSetInfoDTO getRuleSetInfo() {
+        CompiledRuleSet current = ruleSet;
+        return new RuleSetInfoDTO(current.source(), current.loadedAt(), current.ruleCount(),
+                current.patternCount(), current.statistics(feedbackStatistics), adaptiveEnabled, current.rerankedAt());
+    }
+
+    /**
+     * Немедленно пересчитывает порядок применения правил по накопленной статистике. Если адаптивный
+     * режим выключен, выборка совместных срабатываний не собирается и порядок меняется только по отзывам.
+     *
+     * @return Информация о наборе правил в новом порядке.
+     */
+    public RuleSetInfoDTO reorder() {
+        CompiledRuleSet current = ruleSet;
+        current.rerank(feedbackStatistics, adaptiveMinSamples);
+        log.info("RCA rules re-ranked: {}.", current.statistics(feedbackStatistics).stream().map(RuleStatsDTO::strategy).toList());
+        return getRuleSetInfo();
+    }
+
+    private void reorderQuietly() {
+        try {
+            ruleSet.rerank(feedbackStatistics, adaptiveMinSamples);
+        } catch (RuntimeException e) {
+            log.error("Failed to re-rank RCA rules: {}", e.getMessage(), e);
+        }
+    }
+
+    private void reloadIfModified() {
+        try {
+            long modified = lastModified(resourceLoader.getResource(location));
+            if (modified != lastModified) {
+                lastModified = modified;
+                reload();
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to reload RCA rules from {}, keeping the previous version: {}", location, e.getMessage());
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.isFile() ? resource.lastModified() : 0L;
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
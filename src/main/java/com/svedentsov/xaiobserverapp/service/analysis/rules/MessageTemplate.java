@@ -0,0 +1,101 @@
+package com.svedentsov.xaiobserverapp.service.analysis.rules;
+
+import com.svedentsov.xaiobserverapp.dto.EnvironmentDetailsDTO;
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.model.AiDecisionMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Предварительно разобранный текстовый шаблон с подстановками вида {@code ${name}}.
+ * Разбор выполняется один раз при загрузке правил; при анализе шаблон только склеивает
+ * литеральные фрагменты и значения полей события.
+ */
+final class MessageTemplate {
+
+    private static final Map<String, Function<FailureEventDTO, String>> VARIABLES = Map.of(
+            "exceptionType", FailureEventDTO::exceptionType,
+            "exceptionMessage", FailureEventDTO::exceptionMessage,
+            "testClass", FailureEventDTO::testClass,
+            "testMethod", FailureEventDTO::testMethod,
+            "environment", event -> Optional.ofNullable(event.environmentDetails()).map(EnvironmentDetailsDTO::name).orElse(null),
+            "failedStep.action", event -> step(event).map(AiDecisionMetadata::getAction).orElse(null),
+            "failedStep.locatorStrategy", event -> step(event).map(AiDecisionMetadata::getLocatorStrategy).orElse(null),
+            "failedStep.locatorValue", event -> step(event).map(AiDecisionMetadata::getLocatorValue).orElse(null),
+            "failedStep.confidence", event -> step(event).map(s -> String.format(Locale.ROOT, "%.2f", s.getConfidenceScore())).orElse(null)
+    );
+
+    private final List<Object> segments;
+
+    private MessageTemplate(List<Object> segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Разбирает шаблон.
+     *
+     * @param template Текст шаблона (может быть {@code null}).
+     * @return Разобранный шаблон или {@code null}, если шаблон не задан.
+     * @throws IllegalArgumentException при неизвестной или незакрытой подстановке.
+     */
+    static MessageTemplate compile(String template) {
+        if (template == null) {
+            return null;
+        }
+        List<Object> segments = new ArrayList<>();
+        int position = 0;
+        while (position < template.length()) {
+            int start = template.indexOf("${", position);
+            if (start < 0) {
+                segments.add(template.substring(position));
+                break;
+            }
+            int end = template.indexOf('}', start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in template: " + template);
+            }
+            if (start > position) {
+                segments.add(template.substring(position, start));
+            }
+            String name = template.substring(start + 2, end);
+            Function<FailureEventDTO, String> variable = VARIABLES.get(name);
+            if (variable == null) {
+                throw new IllegalArgumentException("Unknown placeholder ${" + name + "}, supported: " + VARIABLES.keySet());
+            }
+            segments.add(variable);
+            position = end + 1;
+        }
+        return new MessageTemplate(List.copyOf(segments));
+    }
+
+    /**
+     * Формирует текст для события.
+     *
+     * @param event DTO события.
+     * @return Текст с подставленными значениями; отсутствующие значения заменяются пустой строкой.
+     */
+    @SuppressWarnings("unchecked")
+    String render(FailureEventDTO event) {
+        var sb = new StringBuilder();
+        for (Object segment : segments) {
+            if (segment instanceof String literal) {
+                sb.append(literal);
+            } else {
+                String value = ((Function<FailureEventDTO, String>) segment).apply(event);
+                if (value != null) {
+                    sb.append(value);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Optional<AiDecisionMetadata> step(FailureEventDTO event) {
+        return Optional.ofNullable(event.failedStep());
+    }
+}
@@ -0,0 +1,37 @@
+package com.svedentsov.xaiobserverapp.service.analysis.rules;
+
+import java.util.List;
+
+/**
+ * Условия срабатывания правила. Все заданные условия объединяются по "И",
+ * значения внутри списка - по "ИЛИ". Незаданные условия не проверяются.
+ * Подстроки сопоставляются без учета регистра как вхождение в любом месте значения поля. В частности,
+ * {@code exceptionType} ищется в имени класса в том виде, в каком оно пришло в событии (обычно полном):
+ * {@code TimeoutException} срабатывает для {@code org.openqa.selenium.TimeoutException},
+ * {@code ScriptTimeoutException} и {@code TimeoutExceptionWrapper}, а {@code selenium} - для любого исключения
+ * из пакетов Selenium.
+ *
+ * @param exceptionType     Подстроки типа исключения.
+ * @param exceptionPresent  Требуется ли наличие (или отсутствие) типа исключения.
+ * @param messageContains   Подстроки сообщения исключения.
+ * @param messageRegex      Регулярное выражение для сообщения исключения (поиск вхождения).
+ * @param failedStepPresent Требуется ли наличие (или отсутствие) шага сбоя.
+ * @param failedStepLocator Подстроки значения локатора шага сбоя.
+ * @param failedStepAction  Подстроки действия шага сбоя.
+ * @param environment       Имена окружений (точное совпадение без учета регистра).
+ * @param tags              Теги теста (достаточно одного совпадения, без учета регистра).
+ * @param status            Статусы теста.
+ */
+public record RuleConditions(
+        List<String> exceptionType,
+        Boolean exceptionPresent,
+        List<String> messageContains,
+        String messageRegex,
+        Boolean failedStepPresent,
+        List<String> failedStepLocator,
+        List<String> failedStepAction,
+        List<String> environment,
+        List<String> tags,
+        List<String> status
+) {
+}
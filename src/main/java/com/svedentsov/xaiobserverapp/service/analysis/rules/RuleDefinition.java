@@ -0,0 +1,34 @@
+package com.svedentsov.xaiobserverapp.service.analysis.rules;
+
+/**
+ * Описание одного правила анализа первопричин в файле правил.
+ * <p>
+ * В текстах {@code reason}, {@code solution} и {@code evidence} допускаются подстановки:
+ * {@code ${exceptionType}}, {@code ${exceptionMessage}}, {@code ${testClass}}, {@code ${testMethod}},
+ * {@code ${environment}}, {@code ${failedStep.action}}, {@code ${failedStep.locatorStrategy}},
+ * {@code ${failedStep.locatorValue}}, {@code ${failedStep.confidence}}.
+ *
+ * @param id                    Уникальный идентификатор правила.
+ * @param order                 Приоритет: правила применяются по возрастанию, срабатывает первое подходящее.
+ * @param enabled               Включено ли правило ({@code null} - включено).
+ * @param analysisType          Тип анализа в результате.
+ * @param confidence            Уверенность результата (от 0.0 до 1.0).
+ * @param scaleConfidenceByStep Умножать ли уверенность на уверенность AI на шаге сбоя.
+ * @param reason                Шаблон предполагаемой причины.
+ * @param solution              Шаблон рекомендуемого решения.
+ * @param evidence              Шаблон текста-доказательства для {@code explanationData}.
+ * @param when                  Условия срабатывания.
+ */
+public record RuleDefinition(
+        String id,
+        Integer order,
+        Boolean enabled,
+        String analysisType,
+        Double confidence,
+        Boolean scaleConfidenceByStep,
+        String reason,
+        String solution,
+        String evidence,
+        RuleConditions when
+) {
+}
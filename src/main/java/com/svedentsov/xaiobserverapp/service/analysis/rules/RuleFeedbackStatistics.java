@@ -0,0 +1,143 @@
+package com.svedentsov.xaiobserverapp.service.analysis.rules;
+
+import com.svedentsov.xaiobserverapp.model.RuleFeedbackCounter;
+import com.svedentsov.xaiobserverapp.repository.RuleFeedbackCounterRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Инкрементальная статистика обратной связи пользователей по правилам RCA.
+ * <p>
+ * Счетчики подтверждений и отклонений хранятся в таблице {@code rca_rule_feedback} (одна строка на правило)
+ * и в памяти. Каждый отзыв меняет их на единицу, поэтому точность правила доступна без агрегации
+ * всех отзывов. Если пользователь меняет оценку уже оцененного результата, предыдущая оценка вычитается.
+ */
+@Slf4j
+@Component
+public class RuleFeedbackStatistics {
+
+    private static final Counts NONE = new Counts(0, 0);
+
+    private final RuleFeedbackCounterRepository repository;
+    private final TransactionTemplate createTransaction;
+    private final Map<String, Counts> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор статистики.
+     *
+     * @param repository         Репозиторий счетчиков.
+     * @param transactionManager Менеджер транзакций для создания строки счетчиков в отдельной транзакции.
+     */
+    public RuleFeedbackStatistics(RuleFeedbackCounterRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.createTransaction = new TransactionTemplate(transactionManager);
+        this.createTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Загружает накопленные счетчики при старте.
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            repository.findAll().forEach(c -> counts.put(c.getRuleId(), new Counts(c.getConfirmed(), c.getRejected())));
+            log.info("Loaded user feedback counters for {} RCA rules.", counts.size());
+        } catch (DataAccessException e) {
+            log.warn("Failed to load RCA rule feedback counters: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Учитывает оценку пользователем результата правила. Должен вызываться внутри транзакции сохранения отзыва:
+     * счетчики в БД меняются в ней же, а в памяти - только после ее фиксации.
+     *
+     * @param ruleId   ID правила, давшего результат.
+     * @param previous Предыдущая оценка результата ({@code null}, если результат еще не оценивался).
+     * @param current  Новая оценка.
+     */
+    public void record(String ruleId, Boolean previous, boolean current) {
+        if (previous != null && previous == current) {
+            return;
+        }
+        long confirmedDelta = (current ? 1 : 0) - (Boolean.TRUE.equals(previous) ? 1 : 0);
+        long rejectedDelta = (current ? 0 : 1) - (Boolean.FALSE.equals(previous) ? 1 : 0);
+        LocalDateTime now = LocalDateTime.now();
+        if (repository.increment(ruleId, confirmedDelta, rejectedDelta, now) == 0) {
+            createCounter(ruleId, now);
+            if (repository.increment(ruleId, confirmedDelta, rejectedDelta, now) == 0) {
+                throw new IllegalStateException("Feedback counters for RCA rule " + ruleId + " were not created");
+            }
+        }
+        Runnable apply = () -> counts.merge(ruleId, new Counts(confirmedDelta, rejectedDelta), Counts::plus);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    /**
+     * Создает нулевую строку счетчиков правила в НОВОЙ транзакции (REQUIRES_NEW), чтобы при гонке двух первых
+     * отзывов ошибка вставки дубликата откатила только ее, а не транзакцию сохранения отзыва.
+     * Если строку уже создал другой поток, {@link DataIntegrityViolationException} игнорируется:
+     * приращение затем применяется к существующей строке.
+     *
+     * @param ruleId ID правила.
+     * @param now    Время создания.
+     */
+    private void createCounter(String ruleId, LocalDateTime now) {
+        try {
+            createTransaction.executeWithoutResult(status -> {
+                if (!repository.existsById(ruleId)) {
+                    repository.saveAndFlush(new RuleFeedbackCounter(ruleId, 0, 0, now));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Feedback counters for RCA rule {} were created concurrently.", ruleId);
+        }
+    }
+
+    /**
+     * Возвращает счетчики правила.
+     *
+     * @param ruleId ID правила.
+     * @return Счетчики (нулевые, если отзывов еще не было).
+     */
+    public Counts get(String ruleId) {
+        return counts.getOrDefault(ruleId, NONE);
+    }
+
+    /**
+     * Количество подтверждений и отклонений результатов правила.
+     *
+     * @param confirmed Количество подтверждений.
+     * @param rejected  Количество отклонений.
+     */
+    public record Counts(long confirmed, long rejected) {
+
+        Counts plus(Counts other) {
+            return new Counts(confirmed + other.confirmed, rejected + other.rejected);
+        }
+
+        long rated() {
+            return confirmed + rejected;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.svedentsov.xaiobserverapp.service.analysis.rules;
+
+import java.util.List;
+
+/**
+ * Корневой элемент файла правил RCA.
+ *
+ * @param rules Список правил; порядок применения определяется полем {@link RuleDefinition#order()}.
+ */
+public record RuleSetDefinition(List<RuleDefinition> rules) {
+}
@@ -0,0 +1,152 @@
+package com.svedentsov.xaiobserverapp.service.backfill;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.mapper.TestRunMapper;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.model.RcaBackfillDiff;
+import com.svedentsov.xaiobserverapp.model.RcaBackfillJob;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.repository.RcaBackfillJobRepository;
+import com.svedentsov.xaiobserverapp.repository.TestRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Чтение и пакетная запись данных повторного анализа.
+ * <p>
+ * Результаты всего пакета и контрольная точка задания сохраняются в одной транзакции, поэтому после сбоя
+ * задание продолжается ровно с первого незаписанного запуска. Результаты, по которым пользователь уже оставил
+ * обратную связь ({@code userConfirmedCorrect}), сохраняются вместе с отзывами и не заменяются; заменяются только
+ * остальные. Запуски, результаты которых не изменились, не перезаписываются.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RcaBackfillBatchWriter {
+
+    private final TestRunRepository testRunRepository;
+    private final RcaBackfillJobRepository jobRepository;
+    private final TestRunMapper testRunMapper;
+
+    /**
+     * Загружает запуски страницы и восстанавливает по ним события для анализа.
+     *
+     * @param ids ID запусков.
+     * @return События в порядке возрастания ID.
+     */
+    @Transactional(readOnly = true)
+    public List<FailureEventDTO> loadEvents(Collection<String> ids) {
+        return testRunRepository.findAllByIdIn(ids).stream()
+                .sorted(Comparator.comparing(TestRun::getId))
+                .map(testRunMapper::toEvent)
+                .toList();
+    }
+
+    /**
+     * Сравнивает новые результаты со старыми, записывает изменившиеся (если это не пробный прогон)
+     * и сохраняет контрольную точку задания. Запуски, анализ которых завершился ошибкой, запоминаются
+     * в задании для повторного прохода.
+     *
+     * @param job              Задание (отсоединенная сущность с состоянием до пакета).
+     * @param lastKey          ID последнего запуска страницы.
+     * @param results          Новые результаты анализа по ID запуска.
+     * @param failedIds        ID запусков страницы, анализ которых завершился ошибкой.
+     * @param maxReportedDiffs Максимальный размер выборки различий в задании.
+     * @return Сохраненное задание с обновленными счетчиками.
+     */
+    @Transactional
+    public RcaBackfillJob writeBatch(RcaBackfillJob job, String lastKey, Map<String, List<AnalysisResult>> results,
+                                     Collection<String> failedIds, int maxReportedDiffs) {
+        job.setLastKey(lastKey);
+        job.setProcessedRuns(job.getProcessedRuns() + results.size() + failedIds.size());
+        job.getFailedRunIds().addAll(failedIds);
+        RcaBackfillJob saved = applyResults(job, results, maxReportedDiffs);
+        log.debug("Backfill batch up to {} written: {} failed.", lastKey, failedIds.size());
+        return saved;
+    }
+
+    /**
+     * Записывает результаты повторного анализа запусков, ранее завершившихся ошибкой, и исключает их
+     * из списка ошибок задания. Контрольная точка не меняется.
+     *
+     * @param job              Задание (отсоединенная сущность с состоянием до пакета).
+     * @param results          Новые результаты анализа по ID запуска.
+     * @param resolvedIds      ID запусков, которые больше не нужно повторять (проанализированы или удалены).
+     * @param maxReportedDiffs Максимальный размер выборки различий в задании.
+     * @return Сохраненное задание с обновленными счетчиками.
+     */
+    @Transactional
+    public RcaBackfillJob writeRetryBatch(RcaBackfillJob job, Map<String, List<AnalysisResult>> results,
+                                          Collection<String> resolvedIds, int maxReportedDiffs) {
+        job.getFailedRunIds().removeAll(Set.copyOf(resolvedIds));
+        return applyResults(job, results, maxReportedDiffs);
+    }
+
+    private RcaBackfillJob applyResults(RcaBackfillJob job, Map<String, List<AnalysisResult>> results, int maxReportedDiffs) {
+        int changed = 0;
+        int unchanged = 0;
+        for (TestRun run : testRunRepository.findAllByIdIn(results.keySet())) {
+            List<AnalysisResult> confirmed = run.getAnalysisResults().stream()
+                    .filter(result -> result.getUserConfirmedCorrect() != null)
+                    .toList();
+            Set<String> confirmedSummaries = confirmed.stream().map(RcaBackfillBatchWriter::summarize).collect(Collectors.toSet());
+            List<AnalysisResult> replaceable = run.getAnalysisResults().stream()
+                    .filter(result -> result.getUserConfirmedCorrect() == null)
+                    .toList();
+            List<AnalysisResult> fresh = results.get(run.getId()).stream()
+                    .filter(result -> !confirmedSummaries.contains(summarize(result)))
+                    .toList();
+
+            List<String> before = replaceable.stream().map(RcaBackfillBatchWriter::summarize).toList();
+            List<String> after = fresh.stream().map(RcaBackfillBatchWriter::summarize).toList();
+            if (before.equals(after)) {
+                unchanged++;
+            } else {
+                changed++;
+                if (job.getDiffSample().size() < maxReportedDiffs) {
+                    job.getDiffSample().add(new RcaBackfillDiff(run.getId(), run.getTestClass() + "." + run.getTestMethod(), before, after));
+                }
+                if (!job.isDryRun()) {
+                    run.getAnalysisResults().removeAll(replaceable);
+                    fresh.forEach(run::addAnalysisResult);
+                }
+            }
+            if (!job.isDryRun()) {
+                run.setAnalysisStatus(TestRun.AnalysisStatus.COMPLETED);
+            }
+        }
+        job.setChangedRuns(job.getChangedRuns() + changed);
+        job.setUnchangedRuns(job.getUnchangedRuns() + unchanged);
+        job.setFailedRuns(job.getFailedRunIds().size());
+        job.setUpdatedAt(LocalDateTime.now());
+        log.debug("Backfill results written: {} changed, {} unchanged.", changed, unchanged);
+        return jobRepository.save(job);
+    }
+
+    /**
+     * Сохраняет состояние задания.
+     *
+     * @param job Задание.
+     * @return Сохраненное задание.
+     */
+    @Transactional
+    public RcaBackfillJob saveJob(RcaBackfillJob job) {
+        return jobRepository.save(job);
+    }
+
+    private static String summarize(AnalysisResult result) {
+        return String.format(Locale.ROOT, "%s: %s (%.2f)", result.getAnalysisType(), result.getSuggestedReason(),
+                result.getAiConfidence() != null ? result.getAiConfidence() : 0.0);
+    }
+}
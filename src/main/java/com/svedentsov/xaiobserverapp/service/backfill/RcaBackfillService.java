@@ -0,0 +1,452 @@
+package com.svedentsov.xaiobserverapp.service.backfill;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.RcaBackfillRequestDTO;
+import com.svedentsov.xaiobserverapp.dto.RcaBackfillStatusDTO;
+import com.svedentsov.xaiobserverapp.exception.BadRequestException;
+import com.svedentsov.xaiobserverapp.exception.ConflictException;
+import com.svedentsov.xaiobserverapp.exception.ResourceNotFoundException;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.model.RcaBackfillJob;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.repository.RcaBackfillJobRepository;
+import com.svedentsov.xaiobserverapp.repository.TestRunRepository;
+import com.svedentsov.xaiobserverapp.service.RcaService;
+import com.svedentsov.xaiobserverapp.service.StatisticsService;
+import com.svedentsov.xaiobserverapp.service.xai.XaiPredictionCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис повторного анализа первопричин (RCA backfill) исторических запусков.
+ * <p>
+ * После улучшения правил или ML-модели старые сбои сохраняют устаревшие результаты анализа. Задание отбирает
+ * запуски по фильтру и обходит их страницами по возрастанию ID (keyset-пагинация, без OFFSET). Запуски страницы
+ * анализируются параллельно в ограниченном пуле, а частота анализов, которые могут обратиться к XAI-сервису,
+ * ограничивается {@link RequestThrottle}. Результаты страницы и контрольная точка записываются
+ * {@link RcaBackfillBatchWriter}'ом в одной транзакции.
+ * <p>
+ * Одновременно выполняется не более одного задания. Отмененное, упавшее или прерванное остановкой приложения
+ * задание можно продолжить с контрольной точки. Запуски, анализ которых завершился ошибкой, запоминаются в задании
+ * и анализируются повторно после основного прохода; завершенное задание с такими запусками тоже можно продолжить,
+ * чтобы повторить их еще раз. В режиме пробного прогона результаты не записываются, а собирается выборка различий
+ * между старыми и новыми результатами.
+ */
+@Slf4j
+@Service
+public class RcaBackfillService {
+
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = 5_000_000_000L;
+    private static final Set<TestRun.TestStatus> DEFAULT_STATUSES = EnumSet.of(TestRun.TestStatus.FAILED, TestRun.TestStatus.BROKEN);
+
+    private final RcaBackfillJobRepository jobRepository;
+    private final TestRunRepository testRunRepository;
+    private final RcaBackfillBatchWriter batchWriter;
+    private final RcaService rcaService;
+    private final XaiPredictionCache predictionCache;
+    private final StatisticsService statisticsService;
+    private final int defaultParallelism;
+    private final int defaultBatchSize;
+    private final double defaultMaxXaiRequestsPerSecond;
+    private final int maxReportedDiffs;
+
+    private final AtomicReference<ActiveJob> active = new AtomicReference<>();
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param jobRepository                  Репозиторий заданий.
+     * @param testRunRepository              Репозиторий тестовых запусков.
+     * @param batchWriter                    Пакетный писатель результатов.
+     * @param rcaService                     Сервис анализа первопричин.
+     * @param predictionCache                Кэш предсказаний XAI.
+     * @param statisticsService              Сервис статистики (сброс кэша после записи).
+     * @param defaultParallelism             Параллелизм по умолчанию.
+     * @param defaultBatchSize               Размер страницы по умолчанию.
+     * @param defaultMaxXaiRequestsPerSecond Ограничение частоты обращений к XAI по умолчанию (0 - без ограничения).
+     * @param maxReportedDiffs               Максимальный размер выборки различий.
+     */
+    public RcaBackfillService(RcaBackfillJobRepository jobRepository,
+                              TestRunRepository testRunRepository,
+                              RcaBackfillBatchWriter batchWriter,
+                              RcaService rcaService,
+                              XaiPredictionCache predictionCache,
+                              StatisticsService statisticsService,
+                              @Value("${xai.backfill.parallelism:4}") int defaultParallelism,
+                              @Value("${xai.backfill.batch-size:200}") int defaultBatchSize,
+                              @Value("${xai.backfill.max-xai-requests-per-second:20}") double defaultMaxXaiRequestsPerSecond,
+                              @Value("${xai.backfill.max-reported-diffs:200}") int maxReportedDiffs) {
+        this.jobRepository = jobRepository;
+        this.testRunRepository = testRunRepository;
+        this.batchWriter = batchWriter;
+        this.rcaService = rcaService;
+        this.predictionCache = predictionCache;
+        this.statisticsService = statisticsService;
+        this.defaultParallelism = defaultParallelism;
+        this.defaultBatchSize = defaultBatchSize;
+        this.defaultMaxXaiRequestsPerSecond = defaultMaxXaiRequestsPerSecond;
+        this.maxReportedDiffs = maxReportedDiffs;
+    }
+
+    /**
+     * Отмечает задания, выполнявшиеся в момент предыдущей остановки приложения, как прерванные.
+     */
+    @PostConstruct
+    public void init() {
+        int interrupted = jobRepository.markRunningAsInterrupted();
+        if (interrupted > 0) {
+            log.warn("{} RCA backfill job(s) were interrupted by a restart and can be resumed.", interrupted);
+        }
+    }
+
+    /**
+     * Запрашивает остановку выполняющегося задания при остановке приложения.
+     * Незаписанная страница будет обработана повторно: после рестарта задание продолжится с контрольной точки.
+     */
+    @PreDestroy
+    public void stop() {
+        ActiveJob current = active.get();
+        if (current != null) {
+            current.cancelled = true;
+        }
+    }
+
+    /**
+     * Создает и запускает новое задание.
+     *
+     * @param request Параметры отбора и выполнения.
+     * @return Состояние запущенного задания.
+     * @throws BadRequestException если параметры некорректны.
+     * @throws ConflictException        если уже выполняется другое задание.
+     */
+    public RcaBackfillStatusDTO start(RcaBackfillRequestDTO request) {
+        Set<TestRun.TestStatus> statuses = request.statuses() == null || request.statuses().isEmpty()
+                ? DEFAULT_STATUSES
+                : request.statuses().stream().map(RcaBackfillService::parseStatus).collect(Collectors.toCollection(() -> EnumSet.noneOf(TestRun.TestStatus.class)));
+        if (request.from() != null && request.to() != null && !request.from().isBefore(request.to())) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+
+        var job = new RcaBackfillJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setDryRun(Boolean.TRUE.equals(request.dryRun()));
+        job.setUseXai(!Boolean.FALSE.equals(request.useXai()));
+        job.setStatuses(statuses.stream().map(Enum::name).collect(Collectors.joining(",")));
+        job.setFromTimestamp(request.from());
+        job.setToTimestamp(request.to());
+        job.setTestClass(StringUtils.hasText(request.testClass()) ? request.testClass() : null);
+        job.setEnvironment(StringUtils.hasText(request.environment()) ? request.environment() : null);
+        job.setAnalysisStatus(StringUtils.hasText(request.analysisStatus()) ? parseAnalysisStatus(request.analysisStatus()) : null);
+        job.setParallelism(request.parallelism() != null ? request.parallelism() : defaultParallelism);
+        job.setBatchSize(request.batchSize() != null ? request.batchSize() : defaultBatchSize);
+        job.setMaxXaiRequestsPerSecond(request.maxXaiRequestsPerSecond() != null ? request.maxXaiRequestsPerSecond()
+                : defaultMaxXaiRequestsPerSecond > 0 ? defaultMaxXaiRequestsPerSecond : null);
+        job.setCreatedAt(LocalDateTime.now());
+
+        if (Boolean.TRUE.equals(request.refreshXaiCache()) && job.isUseXai()) {
+            predictionCache.clear();
+        }
+        log.info("Starting RCA backfill job {}: statuses={}, dryRun={}, useXai={}, parallelism={}, batchSize={}.",
+                job.getId(), job.getStatuses(), job.isDryRun(), job.isUseXai(), job.getParallelism(), job.getBatchSize());
+        return launch(job);
+    }
+
+    /**
+     * Продолжает отмененное, упавшее или прерванное задание с контрольной точки. Завершенное задание
+     * продолжается, только если в нем остались запуски, анализ которых завершился ошибкой: они анализируются повторно.
+     *
+     * @param id ID задания.
+     * @return Состояние продолженного задания.
+     * @throws ResourceNotFoundException если задание не найдено.
+     * @throws ConflictException         если задание нельзя продолжить или уже выполняется другое задание.
+     */
+    public RcaBackfillStatusDTO resume(String id) {
+        RcaBackfillJob job = jobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("RCA backfill job with ID " + id + " not found"));
+        boolean hasFailedRuns = job.getFailedRunIds() != null && !job.getFailedRunIds().isEmpty();
+        if (!job.getState().isResumable() && !(job.getState() == RcaBackfillJob.State.COMPLETED && hasFailedRuns)) {
+            throw new ConflictException("RCA backfill job " + id + " is " + job.getState() + " and cannot be resumed");
+        }
+        log.info("Resuming RCA backfill job {} after key {} ({} runs already processed).", id, job.getLastKey(), job.getProcessedRuns());
+        return launch(job);
+    }
+
+    /**
+     * Запрашивает остановку выполняющегося задания после текущей страницы.
+     *
+     * @param id ID задания.
+     * @return Состояние задания.
+     * @throws ConflictException если задание не выполняется.
+     */
+    public RcaBackfillStatusDTO cancel(String id) {
+        ActiveJob current = active.get();
+        if (current == null || !current.jobId.equals(id)) {
+            throw new ConflictException("RCA backfill job " + id + " is not running");
+        }
+        current.cancelled = true;
+        log.info("Cancellation of RCA backfill job {} requested.", id);
+        return getStatus(id);
+    }
+
+    /**
+     * Возвращает состояние задания.
+     *
+     * @param id ID задания.
+     * @return Состояние задания.
+     * @throws ResourceNotFoundException если задание не найдено.
+     */
+    public RcaBackfillStatusDTO getStatus(String id) {
+        return jobRepository.findById(id)
+                .map(this::toStatus)
+                .orElseThrow(() -> new ResourceNotFoundException("RCA backfill job with ID " + id + " not found"));
+    }
+
+    /**
+     * Возвращает все задания, начиная с самых новых.
+     *
+     * @return Список состояний заданий.
+     */
+    public List<RcaBackfillStatusDTO> findAll() {
+        return jobRepository.findAllByOrderByCreatedAtDesc().stream().map(this::toStatus).toList();
+    }
+
+    private RcaBackfillStatusDTO launch(RcaBackfillJob job) {
+        var runtime = new ActiveJob(job.getId(), job.getProcessedRuns());
+        if (!active.compareAndSet(null, runtime)) {
+            throw new ConflictException("RCA backfill job " + active.get().jobId + " is already running");
+        }
+        try {
+            job.setTotalRuns(job.getProcessedRuns() + testRunRepository.countBackfillCandidates(parseStatuses(job.getStatuses()),
+                    job.getLastKey() != null ? job.getLastKey() : "", job.getFromTimestamp(), job.getToTimestamp(),
+                    job.getTestClass(), job.getEnvironment(), job.getAnalysisStatus()));
+            if (job.getDiffSample() == null) {
+                job.setDiffSample(new ArrayList<>());
+            }
+            if (job.getFailedRunIds() == null) {
+                job.setFailedRunIds(new ArrayList<>());
+            }
+            job.setState(RcaBackfillJob.State.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+            job.setFinishedAt(null);
+            job.setErrorMessage(null);
+            RcaBackfillJob saved = batchWriter.saveJob(job);
+            runtime.total = saved.getTotalRuns();
+            Thread thread = new Thread(() -> run(saved, runtime), "rca-backfill");
+            thread.setDaemon(true);
+            thread.start();
+            return toStatus(saved);
+        } catch (RuntimeException e) {
+            active.set(null);
+            throw e;
+        }
+    }
+
+    private void run(RcaBackfillJob initial, ActiveJob runtime) {
+        RcaBackfillJob job = initial;
+        Set<TestRun.TestStatus> statuses = parseStatuses(job.getStatuses());
+        boolean useXai = job.isUseXai();
+        var throttle = new RequestThrottle(useXai ? job.getMaxXaiRequestsPerSecond() : null);
+        var workerIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(job.getParallelism(), r -> {
+            Thread thread = new Thread(r, "rca-backfill-worker-" + workerIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            String afterKey = job.getLastKey() != null ? job.getLastKey() : "";
+            while (!runtime.cancelled) {
+                List<String> keys = testRunRepository.findBackfillKeys(statuses, afterKey, job.getFromTimestamp(), job.getToTimestamp(),
+                        job.getTestClass(), job.getEnvironment(), job.getAnalysisStatus(), Limit.of(job.getBatchSize()));
+                if (keys.isEmpty()) {
+                    break;
+                }
+                List<String> failed = new ArrayList<>();
+                Map<String, List<AnalysisResult>> results = analyzePage(batchWriter.loadEvents(keys), pool, useXai, throttle, failed);
+                if (runtime.cancelled) {
+                    break;
+                }
+                afterKey = keys.get(keys.size() - 1);
+                job = batchWriter.writeBatch(job, afterKey, results, failed, maxReportedDiffs);
+                runtime.processed = job.getProcessedRuns();
+                runtime.logIfDue(job);
+            }
+            if (!runtime.cancelled) {
+                job = retryFailedRuns(job, runtime, pool, useXai, throttle);
+            }
+            finish(job, runtime.cancelled ? RcaBackfillJob.State.CANCELLED : RcaBackfillJob.State.COMPLETED, null);
+        } catch (RuntimeException e) {
+            log.error("RCA backfill job {} failed after key {}.", job.getId(), job.getLastKey(), e);
+            finish(job, RcaBackfillJob.State.FAILED, e.getMessage());
+        } finally {
+            pool.shutdownNow();
+            active.set(null);
+            if (!job.isDryRun() && job.getChangedRuns() > 0) {
+                statisticsService.clearStatisticsCache();
+            }
+        }
+    }
+
+    /**
+     * Повторно анализирует запуски, анализ которых ранее завершился ошибкой. Каждый запуск повторяется один раз
+     * за проход; снова не проанализированные остаются в задании до следующего продолжения.
+     */
+    private RcaBackfillJob retryFailedRuns(RcaBackfillJob job, ActiveJob runtime, ExecutorService pool,
+                                           boolean useXai, RequestThrottle throttle) {
+        List<String> pending = List.copyOf(job.getFailedRunIds());
+        if (pending.isEmpty()) {
+            return job;
+        }
+        log.info("RCA backfill job {}: retrying {} run(s) whose analysis failed.", job.getId(), pending.size());
+        for (int from = 0; from < pending.size() && !runtime.cancelled; from += job.getBatchSize()) {
+            List<String> ids = pending.subList(from, Math.min(from + job.getBatchSize(), pending.size()));
+            List<String> failed = new ArrayList<>();
+            Map<String, List<AnalysisResult>> results = analyzePage(batchWriter.loadEvents(ids), pool, useXai, throttle, failed);
+            if (runtime.cancelled) {
+                break;
+            }
+            // Удаленные с момента ошибки запуски тоже больше не повторяются
+            List<String> resolved = ids.stream().filter(id -> !failed.contains(id)).toList();
+            job = batchWriter.writeRetryBatch(job, results, resolved, maxReportedDiffs);
+        }
+        return job;
+    }
+
+    /**
+     * Анализирует запуски страницы параллельно в пуле задания; ID запусков, анализ которых завершился ошибкой,
+     * добавляются в {@code failed}.
+     */
+    private Map<String, List<AnalysisResult>> analyzePage(List<FailureEventDTO> events, ExecutorService pool, boolean useXai,
+                                                          RequestThrottle throttle, List<String> failed) {
+        Map<String, CompletableFuture<List<AnalysisResult>>> futures = new LinkedHashMap<>();
+        for (FailureEventDTO event : events) {
+            futures.put(event.testRunId(), CompletableFuture.supplyAsync(() -> analyze(event, useXai, throttle), pool));
+        }
+        Map<String, List<AnalysisResult>> results = new HashMap<>();
+        for (var entry : futures.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException e) {
+                failed.add(entry.getKey());
+                log.warn("Backfill analysis of test run {} failed: {}", entry.getKey(), e.getCause().getMessage());
+            }
+        }
+        return results;
+    }
+
+    private List<AnalysisResult> analyze(FailureEventDTO event, boolean useXai, RequestThrottle throttle) {
+        try {
+            throttle.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for XAI throttle", e);
+        }
+        return rcaService.analyzeTestRun(event, useXai);
+    }
+
+    private void finish(RcaBackfillJob job, RcaBackfillJob.State state, String errorMessage) {
+        job.setState(state);
+        job.setErrorMessage(errorMessage != null && errorMessage.length() > 2000 ? errorMessage.substring(0, 2000) : errorMessage);
+        job.setFinishedAt(LocalDateTime.now());
+        try {
+            batchWriter.saveJob(job);
+        } catch (RuntimeException e) {
+            log.error("Failed to save final state of RCA backfill job {}: {}", job.getId(), e.getMessage());
+        }
+        log.info("RCA backfill job {} {}: {}/{} runs processed, {} changed, {} unchanged, {} failed.", job.getId(), state,
+                job.getProcessedRuns(), job.getTotalRuns(), job.getChangedRuns(), job.getUnchangedRuns(), job.getFailedRuns());
+    }
+
+    private RcaBackfillStatusDTO toStatus(RcaBackfillJob job) {
+        ActiveJob runtime = active.get();
+        boolean running = runtime != null && runtime.jobId.equals(job.getId());
+        long processed = running ? Math.max(runtime.processed, job.getProcessedRuns()) : job.getProcessedRuns();
+        long total = Math.max(job.getTotalRuns(), processed);
+        Double runsPerSecond = running ? runtime.runsPerSecond() : null;
+        Long etaSeconds = running && runsPerSecond > 0 ? Math.round((total - processed) / runsPerSecond) : null;
+        return new RcaBackfillStatusDTO(job.getId(), job.getState().name(), job.isDryRun(), job.isUseXai(),
+                Arrays.asList(job.getStatuses().split(",")), total, processed, job.getChangedRuns(), job.getUnchangedRuns(),
+                job.getFailedRuns(), total == 0 ? 100.0 : Math.round(processed * 1000.0 / total) / 10.0, runsPerSecond, etaSeconds,
+                job.getLastKey(), job.getCreatedAt(), job.getStartedAt(), job.getUpdatedAt(), job.getFinishedAt(),
+                job.getErrorMessage(), job.getDiffSample() != null ? List.copyOf(job.getDiffSample()) : List.of());
+    }
+
+    private static Set<TestRun.TestStatus> parseStatuses(String statuses) {
+        return Arrays.stream(statuses.split(","))
+                .map(RcaBackfillService::parseStatus)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(TestRun.TestStatus.class)));
+    }
+
+    private static TestRun.TestStatus parseStatus(String value) {
+        try {
+            return TestRun.TestStatus.valueOf(value.strip().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new BadRequestException("Unknown test status: " + value);
+        }
+    }
+
+    private static TestRun.AnalysisStatus parseAnalysisStatus(String value) {
+        try {
+            return TestRun.AnalysisStatus.valueOf(value.strip().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown analysis status: " + value);
+        }
+    }
+
+    /**
+     * Состояние выполняющегося задания в памяти: флаг отмены и данные для расчета скорости и ETA.
+     */
+    private static final class ActiveJob {
+        private final String jobId;
+        private final long processedAtStart;
+        private final long startNanos = System.nanoTime();
+        private long lastLogNanos = startNanos;
+        private volatile boolean cancelled;
+        private volatile long processed;
+        private volatile long total;
+
+        private ActiveJob(String jobId, long processedAtStart) {
+            this.jobId = jobId;
+            this.processedAtStart = processedAtStart;
+            this.processed = processedAtStart;
+        }
+
+        private double runsPerSecond() {
+            double seconds = Math.max((System.nanoTime() - startNanos) / 1_000_000_000.0, 0.001);
+            return Math.round((processed - processedAtStart) / seconds * 10.0) / 10.0;
+        }
+
+        private void logIfDue(RcaBackfillJob job) {
+            long now = System.nanoTime();
+            if (now - lastLogNanos >= PROGRESS_LOG_INTERVAL_NANOS) {
+                lastLogNanos = now;
+                double rate = runsPerSecond();
+                log.info("RCA backfill job {} progress: {}/{} runs, {} changed, {} failed ({} runs/s, ETA {} s).", jobId,
+                        processed, total, job.getChangedRuns(), job.getFailedRuns(), rate,
+                        rate > 0 ? Math.round((total - processed) / rate) : "n/a");
+            }
+        }
+    }
+}
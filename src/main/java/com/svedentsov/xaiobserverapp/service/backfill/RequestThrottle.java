@@ -0,0 +1,42 @@
+package com.svedentsov.xaiobserverapp.service.backfill;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Простой ограничитель частоты: выдает разрешения с равным интервалом, не допуская всплесков.
+ * Каждый вызов {@link #acquire()} резервирует следующий свободный слот и ждет его наступления.
+ */
+final class RequestThrottle {
+
+    private final long intervalNanos;
+    private long nextFreeNanos;
+
+    /**
+     * @param permitsPerSecond Разрешений в секунду; {@code null} или не положительное значение - без ограничения.
+     */
+    RequestThrottle(Double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond != null && permitsPerSecond > 0 ? (long) (1_000_000_000L / permitsPerSecond) : 0L;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Блокирует поток до наступления зарезервированного слота.
+     *
+     * @throws InterruptedException если поток прерван во время ожидания.
+     */
+    void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeNanos);
+            nextFreeNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
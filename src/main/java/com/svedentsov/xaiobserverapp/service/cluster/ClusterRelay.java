@@ -0,0 +1,398 @@
+package com.svedentsov.xaiobserverapp.service.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.svedentsov.xaiobserverapp.dto.ClusterStatusDTO;
+import com.svedentsov.xaiobserverapp.dto.TestRunSummaryDTO;
+import com.svedentsov.xaiobserverapp.model.ClusterEvent;
+import com.svedentsov.xaiobserverapp.model.ClusterEvent.ClusterEventType;
+import com.svedentsov.xaiobserverapp.repository.ClusterEventRepository;
+import com.svedentsov.xaiobserverapp.service.StatisticsInvalidatedEvent;
+import com.svedentsov.xaiobserverapp.service.StatisticsService;
+import com.svedentsov.xaiobserverapp.service.TestRunEventLog;
+import com.svedentsov.xaiobserverapp.service.analysis.KnownIssueMatcher;
+import com.svedentsov.xaiobserverapp.service.analysis.KnownIssuesChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Обмен событиями между узлами кластера через общую БД.
+ * <p>
+ * Без режима кластера ({@code xai.cluster.enabled=false}) сброс кэша статистики и рассылки клиентам
+ * WebSocket действуют только на своем узле, и за балансировщиком дашборды видят устаревшую статистику и
+ * не получают запуски, принятые другими узлами. В режиме кластера узел записывает такие события в таблицу
+ * {@code cluster_event}, а фоновый поток каждые {@code poll-interval-ms} читает новые события всех узлов
+ * по возрастанию номера:
+ * <ul>
+ *   <li>{@code STATISTICS_INVALIDATED} - сброс локального кэша статистики и рассылка свежего снимка;</li>
+ *   <li>{@code KNOWN_ISSUES_CHANGED} - перестройка автомата известных проблем;</li>
+ *   <li>{@code TEST_RUN_SAVED} - запуск попадает в живой поток каждого узла, включая узел-источник, со сквозным
+ *   номером события, поэтому клиент может возобновить поток на любом узле;</li>
+ *   <li>{@code TOPIC_MESSAGE} - сообщение пересылается подписчикам адреса на остальных узлах.</li>
+ * </ul>
+ * Номер выдается при вставке, и событие с меньшим номером из параллельной транзакции может стать видимым
+ * позже события с большим. Поэтому узел применяет события строго подряд: встретив пропуск номера, он ждет
+ * недостающее событие до {@code gap-timeout-ms} по собственным монотонным часам (часы других узлов и время
+ * записи событий не используются). Если пропуск не заполнился (номер поглощен откатом или фиксация сильно
+ * задержалась), узел переходит дальше, но еще {@code retention-minutes} проверяет пропущенные номера
+ * и применяет событие, если оно все-таки появится. Журнал работает на любой общей БД
+ * (PostgreSQL, H2 в режиме {@code AUTO_SERVER}), события старше {@code retention-minutes} удаляются.
+ */
+@Slf4j
+@Component
+public class ClusterRelay {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_SKIPPED_IDS = 1000;
+
+    private final ClusterEventRepository repository;
+    private final StatisticsService statisticsService;
+    private final KnownIssueMatcher knownIssueMatcher;
+    private final TestRunEventLog eventLog;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate publishTransaction;
+    private final boolean enabled;
+    private final String nodeId;
+    private final long pollIntervalMillis;
+    private final long gapTimeoutNanos;
+    private final Duration retention;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    /**
+     * Пропущенные номера, которые еще могут появиться, и момент пропуска ({@link System#nanoTime()}).
+     * Используется только потоком чтения журнала.
+     */
+    private final NavigableMap<Long, Long> skippedIds = new TreeMap<>();
+    private long awaitedId;
+    private long awaitedSince;
+    private volatile long lastEventId;
+    private volatile LocalDateTime lastPollAt;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Конструктор обмена событиями кластера.
+     *
+     * @param repository         Репозиторий журнала событий кластера.
+     * @param statisticsService  Сервис статистики (сброс кэша по событиям других узлов).
+     * @param knownIssueMatcher  Автомат известных проблем (перестройка по событиям других узлов).
+     * @param eventLog           Журнал живого потока запусков.
+     * @param messagingTemplate  Шаблон отправки STOMP-сообщений.
+     * @param objectMapper       Jackson ObjectMapper для данных событий.
+     * @param eventPublisher     Публикатор событий приложения.
+     * @param transactionManager Менеджер транзакций.
+     * @param enabled            Включен ли режим кластера.
+     * @param nodeId             Идентификатор узла (пустой - случайный).
+     * @param pollIntervalMillis Интервал чтения журнала, мс.
+     * @param gapTimeoutMillis   Сколько ждать события с пропущенным номером, мс.
+     * @param retentionMinutes   Время хранения событий, минуты.
+     */
+    public ClusterRelay(ClusterEventRepository repository,
+                        StatisticsService statisticsService,
+                        KnownIssueMatcher knownIssueMatcher,
+                        TestRunEventLog eventLog,
+                        SimpMessagingTemplate messagingTemplate,
+                        ObjectMapper objectMapper,
+                        ApplicationEventPublisher eventPublisher,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${xai.cluster.enabled:false}") boolean enabled,
+                        @Value("${xai.cluster.node-id:}") String nodeId,
+                        @Value("${xai.cluster.poll-interval-ms:250}") long pollIntervalMillis,
+                        @Value("${xai.cluster.gap-timeout-ms:2000}") long gapTimeoutMillis,
+                        @Value("${xai.cluster.retention-minutes:60}") long retentionMinutes) {
+        this.repository = repository;
+        this.statisticsService = statisticsService;
+        this.knownIssueMatcher = knownIssueMatcher;
+        this.eventLog = eventLog;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.publishTransaction = new TransactionTemplate(transactionManager);
+        this.publishTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString();
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMillis);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    /**
+     * В режиме кластера начинает чтение журнала с текущего последнего события.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        lastEventId = repository.findMaxId();
+        eventLog.startAt(lastEventId);
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cluster-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::cleanup, 1, 1, TimeUnit.MINUTES);
+        log.info("Cluster mode enabled, node {} reading cluster events after #{} every {} ms.", nodeId, lastEventId, pollIntervalMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Публикует событие для всех узлов кластера. Без режима кластера ничего не делает.
+     * Ошибка записи только учитывается и журналируется: так публикуются уведомления, потеря которых
+     * не нарушает данных (сброс кэша, сообщения подписчикам).
+     *
+     * @param type    Тип события.
+     * @param payload Данные события (сериализуются в JSON) или {@code null}.
+     */
+    public void publish(ClusterEventType type, Object payload) {
+        try {
+            publishOrThrow(type, payload);
+        } catch (DataAccessException | TransactionException | IllegalStateException e) {
+            log.warn("Failed to publish cluster event {}: {}", type, e.getMessage());
+        }
+    }
+
+    /**
+     * Публикует событие для всех узлов кластера, передавая ошибку записи вызывающему.
+     * Без режима кластера ничего не делает. Используется обработчиками событий outbox:
+     * исключение оставляет событие outbox недоставленным, и оно будет опубликовано при повторе.
+     * <p>
+     * Событие записывается в отдельной транзакции: публикация обычно вызывается после фиксации
+     * исходной транзакции, и новая запись в ней не сохранится.
+     *
+     * @param type    Тип события.
+     * @param payload Данные события (сериализуются в JSON) или {@code null}.
+     * @throws DataAccessException   если событие не удалось записать.
+     * @throws TransactionException  если не удалось зафиксировать транзакцию записи.
+     * @throws IllegalStateException если данные события не сериализуются в JSON.
+     */
+    public void publishOrThrow(ClusterEventType type, Object payload) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String json = payload != null ? objectMapper.writeValueAsString(payload) : null;
+            publishTransaction.executeWithoutResult(tx ->
+                    repository.save(new ClusterEvent(null, nodeId, type, json, LocalDateTime.now())));
+            published.increment();
+        } catch (JsonProcessingException e) {
+            failed.increment();
+            throw new IllegalStateException("Cluster event " + type + " payload is not serializable: " + e.getOriginalMessage(), e);
+        } catch (DataAccessException | TransactionException e) {
+            failed.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Отправляет сообщение подписчикам адреса на этом узле и, в режиме кластера, на всех остальных.
+     *
+     * @param destination Адрес STOMP.
+     * @param payload     Сообщение.
+     */
+    public void sendClusterWide(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+        if (enabled) {
+            publish(ClusterEventType.TOPIC_MESSAGE, new TopicMessage(destination, objectMapper.valueToTree(payload)));
+        }
+    }
+
+    /**
+     * Публикует в кластер сброс кэша статистики, выполненный на этом узле.
+     *
+     * @param event Событие о сбросе кэша.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatisticsInvalidated(StatisticsInvalidatedEvent event) {
+        if (!event.replicated()) {
+            publish(ClusterEventType.STATISTICS_INVALIDATED, null);
+        }
+    }
+
+    /**
+     * Публикует в кластер изменение каталога известных проблем, выполненное на этом узле.
+     *
+     * @param event Событие изменения каталога.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKnownIssuesChanged(KnownIssuesChangedEvent event) {
+        publish(ClusterEventType.KNOWN_ISSUES_CHANGED, event.reason());
+    }
+
+    /**
+     * Возвращает состояние узла в кластере.
+     *
+     * @return DTO с состоянием.
+     */
+    public ClusterStatusDTO getStatus() {
+        return new ClusterStatusDTO(enabled, nodeId, lastEventId, published.sum(), received.sum(), failed.sum(),
+                skipped.sum(), lastPollAt);
+    }
+
+    void poll() {
+        try {
+            int applied;
+            do {
+                applied = 0;
+                for (ClusterEvent event : repository.findByIdGreaterThanOrderByIdAsc(lastEventId, Limit.of(BATCH_SIZE))) {
+                    long expected = lastEventId + 1;
+                    if (event.getId() > expected) {
+                        if (!gapTimedOut(expected)) {
+                            break;
+                        }
+                        skip(expected, event.getId() - 1);
+                    }
+                    apply(event);
+                    lastEventId = event.getId();
+                    applied++;
+                }
+            } while (applied == BATCH_SIZE);
+            applyLateEvents();
+            lastPollAt = LocalDateTime.now();
+        } catch (RuntimeException e) {
+            log.warn("Failed to read cluster events after #{}: {}", lastEventId, e.getMessage());
+        }
+    }
+
+    /**
+     * Истекло ли ожидание события с номером {@code id}. Отсчет начинается при первом обнаружении пропуска.
+     */
+    private boolean gapTimedOut(long id) {
+        long now = System.nanoTime();
+        if (awaitedId != id) {
+            awaitedId = id;
+            awaitedSince = now;
+        }
+        return now - awaitedSince >= gapTimeoutNanos;
+    }
+
+    private void skip(long fromId, long toId) {
+        long count = toId - fromId + 1;
+        skipped.add(count);
+        log.warn("Cluster events #{}..#{} did not appear within the gap timeout, continuing without them.", fromId, toId);
+        long now = System.nanoTime();
+        for (long id = Math.max(fromId, toId - MAX_SKIPPED_IDS + 1); id <= toId; id++) {
+            skippedIds.put(id, now);
+        }
+        while (skippedIds.size() > MAX_SKIPPED_IDS) {
+            skippedIds.pollFirstEntry();
+        }
+    }
+
+    /**
+     * Применяет события с пропущенными номерами, которые стали видимы после истечения ожидания.
+     * Номера, не появившиеся за время хранения журнала, больше не проверяются.
+     */
+    private void applyLateEvents() {
+        if (skippedIds.isEmpty()) {
+            return;
+        }
+        long expiredBefore = System.nanoTime() - retention.toNanos();
+        skippedIds.values().removeIf(skippedAt -> skippedAt - expiredBefore < 0);
+        if (skippedIds.isEmpty()) {
+            return;
+        }
+        List<ClusterEvent> late = repository.findAllById(skippedIds.keySet());
+        late.stream().sorted(Comparator.comparing(ClusterEvent::getId)).forEach(event -> {
+            log.info("Applying late cluster event #{} {} from node {}.", event.getId(), event.getEventType(), event.getNodeId());
+            apply(event);
+            skippedIds.remove(event.getId());
+        });
+    }
+
+    private void apply(ClusterEvent event) {
+        boolean local = nodeId.equals(event.getNodeId());
+        try {
+            switch (event.getEventType()) {
+                case TEST_RUN_SAVED -> {
+                    TestRunSummaryDTO summary = objectMapper.readValue(event.getPayload(), TestRunSummaryDTO.class);
+                    eventPublisher.publishEvent(new TestRunReplicatedEvent(summary.withSequence(event.getId())));
+                }
+                case STATISTICS_INVALIDATED -> {
+                    if (!local) {
+                        statisticsService.clearReplicatedStatisticsCache();
+                    }
+                }
+                case KNOWN_ISSUES_CHANGED -> {
+                    if (!local) {
+                        log.debug("Known issues changed on node {}, scheduling matcher rebuild.", event.getNodeId());
+                        knownIssueMatcher.requestRebuild();
+                    }
+                }
+                case TOPIC_MESSAGE -> {
+                    if (!local) {
+                        TopicMessage message = objectMapper.readValue(event.getPayload(), TopicMessage.class);
+                        messagingTemplate.convertAndSend(message.destination(), message.payload());
+                    }
+                }
+            }
+            if (!local) {
+                received.increment();
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            failed.increment();
+            log.warn("Failed to apply cluster event #{} {} from node {}: {}", event.getId(), event.getEventType(), event.getNodeId(), e.getMessage());
+        }
+    }
+
+    private void cleanup() {
+        try {
+            int removed = repository.deleteOlderThan(LocalDateTime.now().minus(retention));
+            if (removed > 0) {
+                log.debug("Removed {} expired cluster events.", removed);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to remove expired cluster events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Сообщение для подписчиков адреса STOMP на других узлах.
+     *
+     * @param destination Адрес.
+     * @param payload     Тело сообщения.
+     */
+    record TopicMessage(String destination, JsonNode payload) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.svedentsov.xaiobserverapp.service.cluster;
+
+import com.svedentsov.xaiobserverapp.dto.TestRunSummaryDTO;
+
+/**
+ * Событие приложения: из журнала кластера прочитан сохраненный запуск (с любого узла, включая текущий).
+ *
+ * @param summary Краткие данные о запуске со сквозным номером события кластера.
+ */
+public record TestRunReplicatedEvent(TestRunSummaryDTO summary) {
+}
@@ -0,0 +1,213 @@
+package com.svedentsov.xaiobserverapp.service.diagnostics;
+
+import com.svedentsov.xaiobserverapp.dto.FlightRecordingStatusDTO;
+import com.svedentsov.xaiobserverapp.exception.BadRequestException;
+import com.svedentsov.xaiobserverapp.exception.ConflictException;
+import com.svedentsov.xaiobserverapp.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Управление записью Java Flight Recorder внутри приложения - без подключения внешнего профилировщика.
+ * <p>
+ * Запись включает стандартные события JVM выбранного набора настроек ({@code default} - накладные расходы
+ * около 1%, пригоден для постоянной работы; {@code profile} - подробнее) и собственные события приложения
+ * ({@link PipelineEvent}): этапы приема запусков, анализ первопричин, вызовы стратегий, запросы к XAI-сервису
+ * и расчет статистики. По ID запуска и времени медленное событие сопоставляется со сборками мусора и
+ * конкуренцией за блокировки в том же интервале.
+ * <p>
+ * Одновременно ведется одна запись; она хранит последние {@code max-age-minutes} минут, но не больше
+ * {@code max-size-mb} на диске. Остановленная запись доступна для выгрузки до начала следующей.
+ */
+@Slf4j
+@Service
+public class FlightRecordingService {
+
+    /**
+     * Собственные события приложения.
+     */
+    private static final List<Class<? extends Event>> EVENT_TYPES = List.of(IngestStageEvent.class, RcaAnalysisEvent.class,
+            RcaStrategyEvent.class, XaiRequestEvent.class, StatisticsEvent.class);
+
+    private static final String RECORDING_NAME = "xai-observer";
+
+    private final boolean startOnStartup;
+    private final String defaultSettings;
+    private final long defaultMaxAgeMinutes;
+    private final long defaultMaxSizeMb;
+
+    private Recording recording;
+    private String settings;
+
+    /**
+     * Конструктор сервиса записи.
+     *
+     * @param startOnStartup       Начинать ли запись при запуске приложения.
+     * @param defaultSettings      Набор настроек JFR по умолчанию.
+     * @param defaultMaxAgeMinutes Хранимая история по умолчанию, минуты.
+     * @param defaultMaxSizeMb     Максимальный размер записи по умолчанию, МБ.
+     */
+    public FlightRecordingService(@Value("${xai.jfr.start-on-startup:false}") boolean startOnStartup,
+                                  @Value("${xai.jfr.settings:default}") String defaultSettings,
+                                  @Value("${xai.jfr.max-age-minutes:30}") long defaultMaxAgeMinutes,
+                                  @Value("${xai.jfr.max-size-mb:100}") long defaultMaxSizeMb) {
+        this.startOnStartup = startOnStartup;
+        this.defaultSettings = defaultSettings;
+        this.defaultMaxAgeMinutes = defaultMaxAgeMinutes;
+        this.defaultMaxSizeMb = defaultMaxSizeMb;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnStartup() {
+        if (startOnStartup) {
+            start(null, null, null);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Начинает новую запись. Предыдущая остановленная запись при этом удаляется.
+     *
+     * @param settingsName  Набор настроек JFR; {@code null} - из конфигурации.
+     * @param maxAgeMinutes Хранимая история, минуты; {@code null} - из конфигурации.
+     * @param maxSizeMb     Максимальный размер записи, МБ; {@code null} - из конфигурации.
+     * @return Состояние записи.
+     * @throws ConflictException        если запись уже идет.
+     * @throws BadRequestException если набор настроек неизвестен или лимиты не положительны.
+     */
+    public synchronized FlightRecordingStatusDTO start(String settingsName, Long maxAgeMinutes, Long maxSizeMb) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new ConflictException("Flight recording is already running");
+        }
+        String name = settingsName != null ? settingsName : defaultSettings;
+        long maxAge = maxAgeMinutes != null ? maxAgeMinutes : defaultMaxAgeMinutes;
+        long maxSize = maxSizeMb != null ? maxSizeMb : defaultMaxSizeMb;
+        if (maxAge <= 0 || maxSize <= 0) {
+            throw new BadRequestException("maxAgeMinutes and maxSizeMb must be positive");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(name);
+        } catch (IOException | ParseException e) {
+            throw new BadRequestException("Unknown JFR settings '" + name + "', expected 'default' or 'profile'");
+        }
+
+        close();
+        Recording newRecording = new Recording(configuration);
+        newRecording.setName(RECORDING_NAME);
+        newRecording.setToDisk(true);
+        newRecording.setMaxAge(Duration.ofMinutes(maxAge));
+        newRecording.setMaxSize(maxSize * 1024 * 1024);
+        EVENT_TYPES.forEach(type -> newRecording.enable(type).withoutStackTrace());
+        newRecording.start();
+        recording = newRecording;
+        settings = name;
+        log.info("Flight recording started with '{}' settings, keeping {} minutes up to {} MB.", name, maxAge, maxSize);
+        return getStatus();
+    }
+
+    /**
+     * Останавливает текущую запись; ее данные остаются доступны для выгрузки.
+     *
+     * @return Состояние записи.
+     * @throws ConflictException если запись не идет.
+     */
+    public synchronized FlightRecordingStatusDTO stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new ConflictException("Flight recording is not running");
+        }
+        recording.stop();
+        log.info("Flight recording stopped, {} bytes recorded.", recording.getSize());
+        return getStatus();
+    }
+
+    /**
+     * Проверяет, что есть запись для выгрузки.
+     *
+     * @throws ResourceNotFoundException если записи нет.
+     */
+    public synchronized void checkAvailable() {
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            throw new ResourceNotFoundException("No flight recording available");
+        }
+    }
+
+    /**
+     * Выгружает данные текущей или последней остановленной записи в формате {@code .jfr}.
+     * Идущая запись при этом продолжается.
+     *
+     * @param out Поток, в который пишется файл записи.
+     * @throws ResourceNotFoundException если записи нет.
+     * @throws UncheckedIOException      при ошибке записи.
+     */
+    public void dump(OutputStream out) {
+        Path file;
+        try {
+            file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            synchronized (this) {
+                checkAvailable();
+                recording.dump(file);
+            }
+            Files.copy(file, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete temporary flight recording {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Возвращает состояние записи.
+     *
+     * @return DTO с состоянием.
+     */
+    public synchronized FlightRecordingStatusDTO getStatus() {
+        List<String> events = EVENT_TYPES.stream().map(type -> type.getAnnotation(Name.class).value()).toList();
+        if (recording == null) {
+            return new FlightRecordingStatusDTO("NONE", null, null, null, defaultMaxAgeMinutes, defaultMaxSizeMb, 0, events);
+        }
+        return new FlightRecordingStatusDTO(recording.getState().name(), settings,
+                toLocalDateTime(recording.getStartTime()), toLocalDateTime(recording.getStopTime()),
+                recording.getMaxAge().toMinutes(), recording.getMaxSize() / (1024 * 1024), recording.getSize(), events);
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return instant != null ? LocalDateTime.ofInstant(instant, ZoneId.systemDefault()) : null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.svedentsov.xaiobserverapp.service.diagnostics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Этап обработки события о завершении теста в {@code TestEventOrchestrator}.
+ * Этап {@code total} охватывает обработку целиком, включая фиксацию транзакции.
+ */
+@Name("com.svedentsov.xai.IngestStage")
+@Label("Ingest Stage")
+@Description("Этап обработки события о завершении теста")
+public class IngestStageEvent extends PipelineEvent {
+
+    @Label("Outcome")
+    private String outcome;
+
+    /**
+     * Фиксирует событие, если идет запись.
+     *
+     * @param runId   ID тестового запуска.
+     * @param stage   Этап.
+     * @param outcome Результат этапа.
+     */
+    public void commit(String runId, String stage, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.runId = runId;
+            this.stage = stage;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.svedentsov.xaiobserverapp.service.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Базовое событие Java Flight Recorder для горячих путей приема и анализа запусков.
+ * <p>
+ * Длительность события - встроенная ({@link #begin()}/{@link #end()}), поэтому в JDK Mission Control оно
+ * ложится на временную шкалу рядом со сборками мусора, блокировками и операциями ввода-вывода того же потока.
+ * Пока запись не идет, {@link #shouldCommit()} возвращает {@code false}, и стоимость события сводится
+ * к созданию объекта, которое JIT обычно устраняет; поля заполняются только перед фиксацией.
+ * Стек вызовов не записывается.
+ */
+@Category({"XAI Observer"})
+@StackTrace(false)
+public abstract class PipelineEvent extends Event {
+
+    @Label("Run ID")
+    protected String runId;
+
+    @Label("Stage")
+    protected String stage;
+
+    @Label("Strategy")
+    protected String strategy;
+}
@@ -0,0 +1,37 @@
+package com.svedentsov.xaiobserverapp.service.diagnostics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Анализ первопричин одного запуска в {@code RcaService}: стадия {@code stage} - источник результата
+ * ({@code passed}, {@code rules}, {@code xai}, {@code fallback}), {@code strategy} - тип полученного анализа.
+ */
+@Name("com.svedentsov.xai.RcaAnalysis")
+@Label("RCA Analysis")
+@Description("Анализ первопричин сбоя одного запуска")
+public class RcaAnalysisEvent extends PipelineEvent {
+
+    @Label("Known Issue Matched")
+    private boolean knownIssue;
+
+    /**
+     * Фиксирует событие, если идет запись.
+     *
+     * @param runId      ID тестового запуска.
+     * @param stage      Источник результата.
+     * @param strategy   Тип анализа.
+     * @param knownIssue Найдена ли известная проблема.
+     */
+    public void commit(String runId, String stage, String strategy, boolean knownIssue) {
+        end();
+        if (shouldCommit()) {
+            this.runId = runId;
+            this.stage = stage;
+            this.strategy = strategy;
+            this.knownIssue = knownIssue;
+            commit();
+        }
+    }
+}
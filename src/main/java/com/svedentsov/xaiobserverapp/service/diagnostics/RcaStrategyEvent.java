@@ -0,0 +1,35 @@
+package com.svedentsov.xaiobserverapp.service.diagnostics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Вызов одной "rule-based" стратегии анализа диспетчером правил.
+ */
+@Name("com.svedentsov.xai.RcaStrategy")
+@Label("RCA Strategy")
+@Description("Вызов стратегии анализа первопричин")
+public class RcaStrategyEvent extends PipelineEvent {
+
+    @Label("Matched")
+    private boolean matched;
+
+    /**
+     * Фиксирует событие, если идет запись.
+     *
+     * @param runId    ID тестового запуска.
+     * @param strategy Имя стратегии.
+     * @param matched  Сработала ли стратегия.
+     */
+    public void commit(String runId, String strategy, boolean matched) {
+        end();
+        if (shouldCommit()) {
+            this.runId = runId;
+            this.stage = "rca";
+            this.strategy = strategy;
+            this.matched = matched;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.svedentsov.xaiobserverapp.service.diagnostics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Расчет статистики дашборда в {@code StatisticsService}: стадия {@code dashboard} - расчет при промахе кэша,
+ * {@code refresh} - пересчет для рассылки после изменения данных.
+ */
+@Name("com.svedentsov.xai.Statistics")
+@Label("Dashboard Statistics")
+@Description("Расчет статистики дашборда")
+public class StatisticsEvent extends PipelineEvent {
+
+    @Label("Total Runs")
+    private long totalRuns;
+
+    /**
+     * Фиксирует событие, если идет запись.
+     *
+     * @param stage     Вид расчета.
+     * @param totalRuns Количество запусков в статистике.
+     */
+    public void commit(String stage, long totalRuns) {
+        end();
+        if (shouldCommit()) {
+            this.stage = stage;
+            this.totalRuns = totalRuns;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.svedentsov.xaiobserverapp.service.diagnostics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * HTTP-запрос к внешнему XAI-сервису: стадия {@code predict} или {@code batch}. У пакетного запроса
+ * нет одного ID запуска, вместо него указывается размер пакета.
+ */
+@Name("com.svedentsov.xai.XaiRequest")
+@Label("XAI Request")
+@Description("Запрос к внешнему XAI-сервису")
+public class XaiRequestEvent extends PipelineEvent {
+
+    @Label("Outcome")
+    private String outcome;
+
+    @Label("Batch Size")
+    private int batchSize;
+
+    /**
+     * Фиксирует событие, если идет запись.
+     *
+     * @param runId     ID тестового запуска или {@code null} для пакета.
+     * @param stage     Endpoint.
+     * @param outcome   Результат запроса.
+     * @param batchSize Количество событий в запросе.
+     */
+    public void commit(String runId, String stage, String outcome, int batchSize) {
+        end();
+        if (shouldCommit()) {
+            this.runId = runId;
+            this.stage = stage;
+            this.strategy = "xai";
+            this.outcome = outcome;
+            this.batchSize = batchSize;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.svedentsov.xaiobserverapp.service.export;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Писатель выгрузки в компактном блочно-колоночном бинарном формате ({@code .xcol}).
+ * <p>
+ * Строки накапливаются блоками фиксированного размера ({@value #BLOCK_SIZE}), после чего блок
+ * записывается по колонкам. Потребление памяти ограничено одним блоком и не зависит от объема выгрузки.
+ * <p>
+ * Структура файла (все целые - unsigned varint, знаковые - zigzag varint):
+ * <pre>
+ * "XCOL" | version(1 байт) | columnCount | { name(строка) | type(1 байт: 0=STRING, 1=LONG, 2=TIMESTAMP) }*
+ * { rowCount | { nullBitmap(ceil(rowCount/8) байт) | данные колонки }* }*
+ * 0 (блок с rowCount = 0 - конец файла)
+ * </pre>
+ * Данные колонок внутри блока:
+ * <ul>
+ *   <li>STRING - словарь блока ({@code dictSize}, строки) и индекс в словаре для каждой непустой строки;</li>
+ *   <li>LONG и TIMESTAMP (epoch millis) - zigzag-дельты относительно предыдущего непустого значения блока.</li>
+ * </ul>
+ * Строка кодируется как длина в байтах + UTF-8.
+ */
+class ColumnarExportWriter implements ExportWriter {
+
+    static final int BLOCK_SIZE = 4096;
+    private static final byte[] MAGIC = {'X', 'C', 'O', 'L'};
+    private static final int VERSION = 1;
+
+    private final DataOutputStream out;
+    private final ExportColumn[] columns = ExportColumn.values();
+    private final Object[][] block = new Object[columns.length][BLOCK_SIZE];
+    private int rowsInBlock;
+
+    ColumnarExportWriter(OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        writeVarint(columns.length);
+        for (ExportColumn column : columns) {
+            writeString(column.getColumnName());
+            out.writeByte(column.getType().ordinal());
+        }
+    }
+
+    @Override
+    public void writeRow(ExportRow row) throws IOException {
+        for (int c = 0; c < columns.length; c++) {
+            block[c][rowsInBlock] = columns[c].valueOf(row);
+        }
+        if (++rowsInBlock == BLOCK_SIZE) {
+            flushBlock();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (rowsInBlock > 0) {
+            flushBlock();
+        }
+        writeVarint(0);
+        out.flush();
+    }
+
+    private void flushBlock() throws IOException {
+        writeVarint(rowsInBlock);
+        for (int c = 0; c < columns.length; c++) {
+            Object[] values = block[c];
+            writeNullBitmap(values);
+            switch (columns[c].getType()) {
+                case STRING -> writeStringColumn(values);
+                case LONG, TIMESTAMP -> writeLongColumn(values);
+            }
+            Arrays.fill(values, 0, rowsInBlock, null);
+        }
+        rowsInBlock = 0;
+    }
+
+    private void writeNullBitmap(Object[] values) throws IOException {
+        int current = 0;
+        for (int i = 0; i < rowsInBlock; i++) {
+            if (values[i] != null) {
+                current |= 1 << (i & 7);
+            }
+            if ((i & 7) == 7) {
+                out.writeByte(current);
+                current = 0;
+            }
+        }
+        if ((rowsInBlock & 7) != 0) {
+            out.writeByte(current);
+        }
+    }
+
+    private void writeStringColumn(Object[] values) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> entries = new ArrayList<>();
+        int[] indexes = new int[rowsInBlock];
+        for (int i = 0; i < rowsInBlock; i++) {
+            if (values[i] != null) {
+                String value = values[i].toString();
+                indexes[i] = dictionary.computeIfAbsent(value, key -> {
+                    entries.add(key);
+                    return entries.size() - 1;
+                });
+            }
+        }
+        writeVarint(entries.size());
+        for (String entry : entries) {
+            writeString(entry);
+        }
+        for (int i = 0; i < rowsInBlock; i++) {
+            if (values[i] != null) {
+                writeVarint(indexes[i]);
+            }
+        }
+    }
+
+    private void writeLongColumn(Object[] values) throws IOException {
+        long previous = 0;
+        for (int i = 0; i < rowsInBlock; i++) {
+            Object value = values[i];
+            if (value == null) continue;
+            long current = value instanceof LocalDateTime time
+                    ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : ((Number) value).longValue();
+            long delta = current - previous;
+            writeVarint((delta << 1) ^ (delta >> 63));
+            previous = current;
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
@@ -0,0 +1,62 @@
+package com.svedentsov.xaiobserverapp.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Писатель выгрузки в формате CSV (RFC 4180): разделитель - запятая,
+ * значения с запятыми, кавычками или переводами строк заключаются в кавычки.
+ * Временные метки пишутся в формате ISO-8601, {@code null} - пустым полем.
+ */
+class CsvExportWriter implements ExportWriter {
+
+    private final Writer writer;
+
+    CsvExportWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public void writeHeader() throws IOException {
+        ExportColumn[] columns = ExportColumn.values();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) writer.write(',');
+            writer.write(columns[i].getColumnName());
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void writeRow(ExportRow row) throws IOException {
+        ExportColumn[] columns = ExportColumn.values();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) writer.write(',');
+            Object value = columns[i].valueOf(row);
+            if (value != null) {
+                writeEscaped(value.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    private void writeEscaped(String value) throws IOException {
+        boolean needsQuoting = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuoting) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,51 @@
+package com.svedentsov.xaiobserverapp.service.export;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.function.Function;
+
+/**
+ * Описание колонок выгрузки. Единый источник порядка, имен и типов колонок
+ * для всех форматов ({@link ExportFormat}).
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportColumn {
+    ID("id", Type.STRING, ExportRow::id),
+    TEST_CLASS("testClass", Type.STRING, ExportRow::testClass),
+    TEST_METHOD("testMethod", Type.STRING, ExportRow::testMethod),
+    STATUS("status", Type.STRING, ExportRow::status),
+    TIMESTAMP("timestamp", Type.TIMESTAMP, ExportRow::timestamp),
+    START_TIME("startTime", Type.TIMESTAMP, ExportRow::startTime),
+    END_TIME("endTime", Type.TIMESTAMP, ExportRow::endTime),
+    DURATION_MILLIS("durationMillis", Type.LONG, ExportRow::durationMillis),
+    EXCEPTION_TYPE("exceptionType", Type.STRING, ExportRow::exceptionType),
+    EXCEPTION_MESSAGE("exceptionMessage", Type.STRING, ExportRow::exceptionMessage),
+    APP_VERSION("appVersion", Type.STRING, ExportRow::appVersion),
+    ENVIRONMENT("environment", Type.STRING, ExportRow::environment),
+    TEST_SUITE("testSuite", Type.STRING, ExportRow::testSuite),
+    BROWSER_TYPE("browserType", Type.STRING, ExportRow::browserType),
+    OS_TYPE("osType", Type.STRING, ExportRow::osType);
+
+    /**
+     * Логический тип значения колонки.
+     */
+    public enum Type {
+        STRING, LONG, TIMESTAMP
+    }
+
+    private final String columnName;
+    private final Type type;
+    private final Function<ExportRow, Object> accessor;
+
+    /**
+     * Извлекает значение колонки из строки выгрузки.
+     *
+     * @param row Строка выгрузки.
+     * @return Значение колонки (может быть {@code null}).
+     */
+    public Object valueOf(ExportRow row) {
+        return accessor.apply(row);
+    }
+}
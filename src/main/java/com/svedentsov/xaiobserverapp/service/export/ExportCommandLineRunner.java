@@ -0,0 +1,82 @@
+package com.svedentsov.xaiobserverapp.service.export;
+
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * CLI-режим выгрузки тестовых запусков.
+ * Активируется, когда задано свойство {@code xai.export.output}: приложение выполняет выгрузку
+ * в указанный файл и завершает работу. Пример запуска без веб-сервера:
+ * <pre>
+ * java -jar xaiobserverapp.jar --spring.main.web-application-type=none \
+ *      --xai.export.output=runs.csv.gz --xai.export.format=csv --xai.export.status=FAILED
+ * </pre>
+ * Сжатие GZIP включается автоматически для файлов с расширением {@code .gz}.
+ * Поддерживаемые фильтры: {@code xai.export.status}, {@code xai.export.from}, {@code xai.export.to}
+ * (ISO-8601), {@code xai.export.environment}, {@code xai.export.suite}, {@code xai.export.app-version},
+ * {@code xai.export.test-class}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "xai.export.output")
+public class ExportCommandLineRunner implements ApplicationRunner {
+
+    private final TestRunExportService exportService;
+    private final Environment environment;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path output = Path.of(environment.getRequiredProperty("xai.export.output"));
+        var format = ExportFormat.fromString(environment.getProperty("xai.export.format", "csv"));
+        boolean gzip = output.getFileName().toString().endsWith(".gz");
+        var filter = new TestRunExportFilter(
+                parseStatus(environment.getProperty("xai.export.status")),
+                parseDateTime(environment.getProperty("xai.export.from")),
+                parseDateTime(environment.getProperty("xai.export.to")),
+                environment.getProperty("xai.export.environment"),
+                environment.getProperty("xai.export.suite"),
+                environment.getProperty("xai.export.app-version"),
+                environment.getProperty("xai.export.test-class"));
+
+        log.info("CLI export mode: writing {} to {} with filter {}", format, output, filter);
+        int exitCode = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+            long rows = exportService.export(filter, format, gzip, out);
+            log.info("CLI export finished: {} rows written to {}", rows, output.toAbsolutePath());
+        } catch (Exception e) {
+            log.error("CLI export failed", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> code));
+    }
+
+    private TestRun.TestStatus parseStatus(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        return TestRun.TestStatus.parse(value)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown test status: " + value));
+    }
+
+    private LocalDateTime parseDateTime(String value) {
+        return StringUtils.hasText(value) ? LocalDateTime.parse(value) : null;
+    }
+}
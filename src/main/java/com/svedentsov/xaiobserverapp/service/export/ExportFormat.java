@@ -0,0 +1,62 @@
+package com.svedentsov.xaiobserverapp.service.export;
+
+import com.svedentsov.xaiobserverapp.exception.BadRequestException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Поддерживаемые форматы выгрузки тестовых запусков.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    /**
+     * Текстовый CSV с заголовком.
+     */
+    CSV("text/csv", "csv"),
+    /**
+     * Newline-delimited JSON: один объект на строку.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+    /**
+     * Компактный блочно-колоночный бинарный формат, см. {@link ColumnarExportWriter}.
+     */
+    COLUMNAR("application/octet-stream", "xcol");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    /**
+     * Создает писателя данного формата поверх выходного потока.
+     *
+     * @param out Выходной поток.
+     * @return Новый {@link ExportWriter}.
+     * @throws IOException если писатель не удалось инициализировать.
+     */
+    ExportWriter createWriter(OutputStream out) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvExportWriter(out);
+            case NDJSON -> new NdjsonExportWriter(out);
+            case COLUMNAR -> new ColumnarExportWriter(out);
+        };
+    }
+
+    /**
+     * Безопасно преобразует строку в формат выгрузки (без учета регистра).
+     *
+     * @param text Название формата.
+     * @return Формат выгрузки.
+     * @throws BadRequestException если формат не поддерживается.
+     */
+    public static ExportFormat fromString(String text) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(text) || format.fileExtension.equalsIgnoreCase(text)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Unsupported export format: " + text);
+    }
+}
@@ -0,0 +1,43 @@
+package com.svedentsov.xaiobserverapp.service.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * Плоская строка выгрузки тестового запуска.
+ * Содержит только скалярные поля {@code test_run} и {@code test_configuration},
+ * поэтому читается одним SQL-запросом без подгрузки коллекций.
+ *
+ * @param id               ID запуска.
+ * @param testClass        Класс теста.
+ * @param testMethod       Метод теста.
+ * @param status           Статус.
+ * @param timestamp        Время завершения.
+ * @param startTime        Время начала.
+ * @param endTime          Время окончания.
+ * @param durationMillis   Длительность в мс.
+ * @param exceptionType    Тип исключения.
+ * @param exceptionMessage Сообщение исключения.
+ * @param appVersion       Версия приложения.
+ * @param environment      Окружение.
+ * @param testSuite        Тестовый набор.
+ * @param browserType      Тип браузера.
+ * @param osType           Тип операционной системы.
+ */
+public record ExportRow(
+        String id,
+        String testClass,
+        String testMethod,
+        String status,
+        LocalDateTime timestamp,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        long durationMillis,
+        String exceptionType,
+        String exceptionMessage,
+        String appVersion,
+        String environment,
+        String testSuite,
+        String browserType,
+        String osType
+) {
+}
@@ -0,0 +1,34 @@
+package com.svedentsov.xaiobserverapp.service.export;
+
+import java.io.IOException;
+
+/**
+ * Потоковый писатель выгрузки. Реализации не накапливают строки целиком,
+ * а пишут их в выходной поток по мере поступления с курсора БД
+ * (допускается только буферизация ограниченного блока строк).
+ */
+public interface ExportWriter {
+
+    /**
+     * Записывает заголовок файла (имена колонок, магическое число формата и т.п.).
+     *
+     * @throws IOException при ошибке записи.
+     */
+    void writeHeader() throws IOException;
+
+    /**
+     * Записывает одну строку выгрузки.
+     *
+     * @param row Строка выгрузки.
+     * @throws IOException при ошибке записи.
+     */
+    void writeRow(ExportRow row) throws IOException;
+
+    /**
+     * Дописывает буферизованные данные и завершающие маркеры формата.
+     * Не закрывает нижележащий поток.
+     *
+     * @throws IOException при ошибке записи.
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,52 @@
+package com.svedentsov.xaiobserverapp.service.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Писатель выгрузки в формате NDJSON (newline-delimited JSON): по одному JSON-объекту на строку.
+ * Использует потоковый {@link JsonGenerator} Jackson, поэтому не строит дерево объектов
+ * и не создает промежуточных DTO для каждой строки.
+ */
+class NdjsonExportWriter implements ExportWriter {
+
+    private final JsonGenerator generator;
+
+    NdjsonExportWriter(OutputStream out) throws IOException {
+        this.generator = new JsonFactory()
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .createGenerator(out);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void writeHeader() {
+        // NDJSON не имеет заголовка: имена полей содержатся в каждом объекте.
+    }
+
+    @Override
+    public void writeRow(ExportRow row) throws IOException {
+        generator.writeStartObject();
+        for (ExportColumn column : ExportColumn.values()) {
+            Object value = column.valueOf(row);
+            generator.writeFieldName(column.getColumnName());
+            switch (value) {
+                case null -> generator.writeNull();
+                case Long number -> generator.writeNumber(number);
+                case LocalDateTime time -> generator.writeString(time.toString());
+                default -> generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.flush();
+    }
+}
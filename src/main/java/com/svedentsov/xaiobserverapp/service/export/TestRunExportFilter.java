@@ -0,0 +1,34 @@
+package com.svedentsov.xaiobserverapp.service.export;
+
+import com.svedentsov.xaiobserverapp.model.TestRun.TestStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Набор необязательных фильтров для выгрузки тестовых запусков.
+ * Поля со значением {@code null} не участвуют в отборе.
+ *
+ * @param status      Статус запуска.
+ * @param from        Нижняя граница времени завершения (включительно).
+ * @param to          Верхняя граница времени завершения (не включительно).
+ * @param environment Название окружения.
+ * @param testSuite   Название тестового набора.
+ * @param appVersion  Версия приложения.
+ * @param testClass   Полное имя класса теста.
+ */
+public record TestRunExportFilter(
+        TestStatus status,
+        LocalDateTime from,
+        LocalDateTime to,
+        String environment,
+        String testSuite,
+        String appVersion,
+        String testClass
+) {
+    /**
+     * @return Фильтр без ограничений (выгрузка всех запусков).
+     */
+    public static TestRunExportFilter none() {
+        return new TestRunExportFilter(null, null, null, null, null, null, null);
+    }
+}
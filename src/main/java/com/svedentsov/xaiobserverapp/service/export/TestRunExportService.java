@@ -0,0 +1,165 @@
+package com.svedentsov.xaiobserverapp.service.export;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Сервис потоковой выгрузки тестовых запусков.
+ * <p>
+ * Данные читаются напрямую через JDBC, минуя Hibernate, серверным курсором:
+ * в read-only транзакции (для PostgreSQL курсор работает только при выключенном autocommit)
+ * с заданным fetch size. Каждая строка сразу передается {@link ExportWriter}'у и сбрасывается
+ * в выходной поток, поэтому потребление памяти не зависит от объема выгрузки.
+ */
+@Slf4j
+@Service
+public class TestRunExportService {
+
+    private static final String BASE_QUERY = """
+            SELECT tr.id, tr.test_class, tr.test_method, tr.status, tr.timestamp, tr.start_time, tr.end_time,
+                   tr.duration_millis, tr.exception_type, tr.exception_message,
+                   tc.app_version, tc.environment, tc.test_suite, tr.browser_type, tr.os_type
+            FROM test_run tr
+            JOIN test_configuration tc ON tc.id = tr.configuration_id
+            WHERE 1 = 1
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param dataSource источник данных приложения.
+     * @param fetchSize  количество строк, получаемых с курсора за один сетевой запрос.
+     */
+    public TestRunExportService(DataSource dataSource,
+                                @Value("${xai.export.fetch-size:1000}") int fetchSize) {
+        var template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    /**
+     * Выгружает отфильтрованные тестовые запуски в выходной поток.
+     * Поток не закрывается: этим управляет вызывающая сторона.
+     *
+     * @param filter Фильтры выгрузки.
+     * @param format Формат выгрузки.
+     * @param gzip   Сжимать ли данные GZIP на лету.
+     * @param out    Выходной поток.
+     * @return Количество выгруженных строк.
+     * @throws IOException при ошибке записи в поток.
+     */
+    @Transactional(readOnly = true)
+    public long export(TestRunExportFilter filter, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        long startNanos = System.nanoTime();
+        var params = new MapSqlParameterSource();
+        String sql = buildQuery(filter, params);
+
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, 64 * 1024) : null;
+        ExportWriter writer = format.createWriter(gzipStream != null ? gzipStream : out);
+        writer.writeHeader();
+
+        var rowCounter = new long[1];
+        try {
+            jdbcTemplate.query(sql, params, (RowCallbackHandler) rs -> {
+                try {
+                    writer.writeRow(mapRow(rs));
+                    rowCounter[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.finish();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        out.flush();
+
+        long rows = rowCounter[0];
+        double seconds = Math.max((System.nanoTime() - startNanos) / 1_000_000_000.0, 0.001);
+        log.info("Exported {} test runs as {}{} in {} s ({} rows/s).",
+                rows, format, gzip ? "+gzip" : "", String.format("%.2f", seconds), Math.round(rows / seconds));
+        return rows;
+    }
+
+    /**
+     * Достраивает SQL-запрос условиями фильтра и заполняет именованные параметры.
+     *
+     * @param filter Фильтры выгрузки.
+     * @param params Контейнер параметров запроса.
+     * @return Итоговый SQL.
+     */
+    private String buildQuery(TestRunExportFilter filter, MapSqlParameterSource params) {
+        var sql = new StringBuilder(BASE_QUERY);
+        if (filter.status() != null) {
+            sql.append(" AND tr.status = :status");
+            params.addValue("status", filter.status().name());
+        }
+        if (filter.from() != null) {
+            sql.append(" AND tr.timestamp >= :from");
+            params.addValue("from", filter.from());
+        }
+        if (filter.to() != null) {
+            sql.append(" AND tr.timestamp < :to");
+            params.addValue("to", filter.to());
+        }
+        if (StringUtils.hasText(filter.environment())) {
+            sql.append(" AND tc.environment = :environment");
+            params.addValue("environment", filter.environment());
+        }
+        if (StringUtils.hasText(filter.testSuite())) {
+            sql.append(" AND tc.test_suite = :testSuite");
+            params.addValue("testSuite", filter.testSuite());
+        }
+        if (StringUtils.hasText(filter.appVersion())) {
+            sql.append(" AND tc.app_version = :appVersion");
+            params.addValue("appVersion", filter.appVersion());
+        }
+        if (StringUtils.hasText(filter.testClass())) {
+            sql.append(" AND tr.test_class = :testClass");
+            params.addValue("testClass", filter.testClass());
+        }
+        sql.append(" ORDER BY tr.timestamp");
+        return sql.toString();
+    }
+
+    private ExportRow mapRow(ResultSet rs) throws SQLException {
+        return new ExportRow(
+                rs.getString("id"),
+                rs.getString("test_class"),
+                rs.getString("test_method"),
+                rs.getString("status"),
+                rs.getObject("timestamp", LocalDateTime.class),
+                rs.getObject("start_time", LocalDateTime.class),
+                rs.getObject("end_time", LocalDateTime.class),
+                rs.getLong("duration_millis"),
+                rs.getString("exception_type"),
+                rs.getString("exception_message"),
+                rs.getString("app_version"),
+                rs.getString("environment"),
+                rs.getString("test_suite"),
+                rs.getString("browser_type"),
+                rs.getString("os_type"));
+    }
+}
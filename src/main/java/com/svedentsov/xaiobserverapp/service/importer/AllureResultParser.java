@@ -0,0 +1,158 @@
+package com.svedentsov.xaiobserverapp.service.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.TestArtifactsDTO;
+import com.svedentsov.xaiobserverapp.model.AiDecisionMetadata;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Парсер результатов Allure ({@code *-result.json}).
+ * Каждый файл описывает ровно один тест и невелик по размеру, поэтому читается целиком в дерево Jackson.
+ * <p>
+ * Статусы Allure отображаются напрямую: passed, failed, broken, skipped.
+ * Шаги ({@code steps}) становятся путем выполнения, первый непрошедший шаг - шагом сбоя,
+ * вложения-изображения - ссылками на скриншоты.
+ */
+@Component
+@RequiredArgsConstructor
+public class AllureResultParser implements TestResultFileParser {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public boolean supports(Path file) {
+        return file.getFileName().toString().endsWith("-result.json");
+    }
+
+    @Override
+    public void parse(Path file, ImportOptions options, Consumer<FailureEventDTO> sink) throws IOException {
+        JsonNode root;
+        try (InputStream in = Files.newInputStream(file)) {
+            root = objectMapper.readTree(in);
+        }
+        if (root == null || !root.isObject()) {
+            throw new IOException("Allure result is not a JSON object: " + file);
+        }
+
+        Map<String, String> labels = new LinkedHashMap<>();
+        List<String> tags = new ArrayList<>(List.of("imported", "allure"));
+        for (JsonNode label : root.path("labels")) {
+            String name = label.path("name").asText();
+            String value = label.path("value").asText();
+            if ("tag".equals(name)) {
+                tags.add(value);
+            } else {
+                labels.putIfAbsent(name, value);
+            }
+        }
+
+        String fullName = text(root, "fullName");
+        String testClass = labels.getOrDefault("testClass", classFromFullName(fullName));
+        String testMethod = labels.getOrDefault("testMethod", text(root, "name"));
+        String status = root.path("status").asText("unknown").toUpperCase(Locale.ROOT);
+        long start = root.path("start").asLong(0);
+        long stop = root.path("stop").asLong(start);
+        String message = text(root.path("statusDetails"), "message");
+        String trace = text(root.path("statusDetails"), "trace");
+
+        List<AiDecisionMetadata> executionPath = new ArrayList<>();
+        int stepNumber = 1;
+        for (JsonNode step : root.path("steps")) {
+            executionPath.add(toStep(step, stepNumber++));
+        }
+        AiDecisionMetadata failedStep = executionPath.stream()
+                .filter(step -> "FAILURE".equals(step.getResult()))
+                .findFirst()
+                .orElse(null);
+
+        List<String> screenshots = new ArrayList<>();
+        collectImageAttachments(root, screenshots);
+        TestArtifactsDTO artifacts = screenshots.isEmpty() ? null : new TestArtifactsDTO(screenshots, null, null, null, null);
+
+        String testSuite = StringUtils.hasText(options.testSuite())
+                ? options.testSuite()
+                : labels.getOrDefault("suite", labels.get("parentSuite"));
+        String uuid = StringUtils.hasText(text(root, "uuid"))
+                ? text(root, "uuid")
+                : ImportMappingSupport.deterministicId("allure", file.toAbsolutePath().normalize().toString());
+
+        sink.accept(new FailureEventDTO(
+                ImportMappingSupport.truncate(uuid, 255),
+                ImportMappingSupport.truncate(testClass, 255),
+                ImportMappingSupport.truncate(testMethod, 255),
+                start,
+                stop,
+                Math.max(0, stop - start),
+                status,
+                ImportMappingSupport.truncate(ImportMappingSupport.exceptionTypeFromTrace(trace), 255),
+                ImportMappingSupport.truncate(message, 2000),
+                trace,
+                failedStep,
+                executionPath,
+                options.appVersion(),
+                ImportMappingSupport.environmentOf(options),
+                ImportMappingSupport.truncate(testSuite, 255),
+                tags,
+                artifacts,
+                Map.of("importSource", "allure", "sourceFile", ImportMappingSupport.truncate(file.getFileName().toString(), 1000))));
+    }
+
+    private AiDecisionMetadata toStep(JsonNode step, int stepNumber) {
+        long start = step.path("start").asLong(0);
+        long stop = step.path("stop").asLong(start);
+        String result = switch (step.path("status").asText("").toLowerCase(Locale.ROOT)) {
+            case "passed" -> "SUCCESS";
+            case "failed", "broken" -> "FAILURE";
+            default -> "SKIPPED";
+        };
+        var metadata = new AiDecisionMetadata();
+        metadata.setStepNumber(stepNumber);
+        metadata.setAction(ImportMappingSupport.truncate(text(step, "name"), 255));
+        metadata.setResult(result);
+        metadata.setErrorMessage(ImportMappingSupport.truncate(text(step.path("statusDetails"), "message"), 255));
+        metadata.setConfidenceScore(1.0);
+        metadata.setStepStartTime(start);
+        metadata.setStepEndTime(stop);
+        metadata.setStepDurationMillis(Math.max(0, stop - start));
+        return metadata;
+    }
+
+    private void collectImageAttachments(JsonNode node, List<String> target) {
+        for (JsonNode attachment : node.path("attachments")) {
+            if (attachment.path("type").asText("").startsWith("image/")) {
+                target.add(attachment.path("source").asText());
+            }
+        }
+        for (JsonNode step : node.path("steps")) {
+            collectImageAttachments(step, target);
+        }
+    }
+
+    private String classFromFullName(String fullName) {
+        if (fullName == null) {
+            return null;
+        }
+        int separator = Math.max(fullName.lastIndexOf('#'), fullName.lastIndexOf('.'));
+        return separator > 0 ? fullName.substring(0, separator) : fullName;
+    }
+
+    private String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
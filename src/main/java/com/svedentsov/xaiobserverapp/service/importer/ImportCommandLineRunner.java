@@ -0,0 +1,60 @@
+package com.svedentsov.xaiobserverapp.service.importer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * CLI-режим импорта исторических результатов.
+ * Активируется, когда задано свойство {@code xai.import.directory}: приложение импортирует
+ * каталог и завершает работу. Пример запуска без веб-сервера:
+ * <pre>
+ * java -jar xaiobserverapp.jar --spring.main.web-application-type=none \
+ *      --xai.import.directory=/ci/archive --xai.import.app-version=2.3.1 --xai.import.environment=staging
+ * </pre>
+ * Дополнительные параметры: {@code xai.import.suite}, {@code xai.import.batch-size}, {@code xai.import.parallelism}.
+ * Прерванный импорт можно перезапустить той же командой - уже обработанные файлы будут пропущены.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "xai.import.directory")
+public class ImportCommandLineRunner implements ApplicationRunner {
+
+    private final TestResultImportService importService;
+    private final Environment environment;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Path directory = Path.of(environment.getRequiredProperty("xai.import.directory"));
+        var options = importService.options(
+                environment.getProperty("xai.import.app-version"),
+                environment.getProperty("xai.import.environment"),
+                environment.getProperty("xai.import.suite"),
+                environment.getProperty("xai.import.batch-size", Integer.class),
+                environment.getProperty("xai.import.parallelism", Integer.class));
+
+        log.info("CLI import mode: importing {} with {}", directory, options);
+        int exitCode = 0;
+        try {
+            var report = importService.importDirectory(directory, options);
+            if (report.filesFailed() > 0) {
+                exitCode = 2;
+            }
+        } catch (Exception e) {
+            log.error("CLI import failed", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> code));
+    }
+}
@@ -0,0 +1,146 @@
+package com.svedentsov.xaiobserverapp.service.importer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Наблюдатель за каталогом результатов: автоматически импортирует новые файлы JUnit XML и Allure,
+ * которые CI-система складывает в каталог {@code xai.import.watch-dir}.
+ * <p>
+ * Файл импортируется только после того, как не изменялся в течение {@code xai.import.settle-millis},
+ * чтобы не читать его в процессе записи. Подкаталоги, созданные после старта, тоже отслеживаются.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "xai.import.watch-dir")
+public class ImportDirectoryWatcher {
+
+    private final TestResultImportService importService;
+    private final Path watchDir;
+    private final long settleMillis;
+    private final ImportOptions options;
+    private final Map<Path, Long> pendingFiles = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    /**
+     * Конструктор наблюдателя.
+     *
+     * @param importService Сервис импорта.
+     * @param watchDir      Отслеживаемый каталог.
+     * @param settleMillis  Время "успокоения" файла перед импортом, мс.
+     * @param appVersion    Версия приложения для импортируемых запусков.
+     * @param environment   Окружение для импортируемых запусков.
+     */
+    public ImportDirectoryWatcher(TestResultImportService importService,
+                                  @Value("${xai.import.watch-dir}") String watchDir,
+                                  @Value("${xai.import.settle-millis:2000}") long settleMillis,
+                                  @Value("${xai.import.app-version:#{null}}") String appVersion,
+                                  @Value("${xai.import.environment:#{null}}") String environment) {
+        this.importService = importService;
+        this.watchDir = Path.of(watchDir).toAbsolutePath().normalize();
+        this.settleMillis = settleMillis;
+        this.options = importService.options(appVersion, environment, null, null, 1);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(watchDir);
+        watchService = FileSystems.getDefault().newWatchService();
+        registerRecursively(watchDir);
+        watcherThread = new Thread(this::watchLoop, "xai-import-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        log.info("Watching {} for new test result files (settle delay {} ms).", watchDir, settleMillis);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.poll(settleMillis / 2 + 1, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    handleEvents(key);
+                }
+                importSettledFiles();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Import directory watcher for {} stopped.", watchDir);
+    }
+
+    private void handleEvents(WatchKey key) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                continue;
+            }
+            Path child = dir.resolve((Path) event.context());
+            if (Files.isDirectory(child)) {
+                try {
+                    registerRecursively(child);
+                } catch (IOException e) {
+                    log.warn("Failed to watch new directory {}: {}", child, e.getMessage());
+                }
+            } else if (importService.isSupported(child)) {
+                pendingFiles.put(child, System.currentTimeMillis());
+            }
+        }
+        key.reset();
+    }
+
+    private void importSettledFiles() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, Long>> iterator = pendingFiles.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (now - entry.getValue() < settleMillis) {
+                continue;
+            }
+            iterator.remove();
+            Path file = entry.getKey();
+            if (Files.isRegularFile(file)) {
+                var report = importService.importSingleFile(file, options);
+                log.info("Auto-imported {}: {} runs added, {} skipped.", file, report.runsImported(), report.runsSkipped());
+            }
+        }
+    }
+
+    private void registerRecursively(Path root) throws IOException {
+        try (Stream<Path> dirs = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.svedentsov.xaiobserverapp.service.importer;
+
+import com.svedentsov.xaiobserverapp.dto.EnvironmentDetailsDTO;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Общие вспомогательные методы для преобразования внешних форматов в {@link com.svedentsov.xaiobserverapp.dto.FailureEventDTO}.
+ */
+final class ImportMappingSupport {
+
+    private ImportMappingSupport() {
+    }
+
+    /**
+     * Формирует детерминированный UUID по стабильным координатам запуска в исходном файле.
+     * Повторный импорт того же файла дает те же ID, что делает импорт идемпотентным.
+     *
+     * @param parts Составные части ключа.
+     * @return Строковое представление UUID.
+     */
+    static String deterministicId(String... parts) {
+        return UUID.nameUUIDFromBytes(String.join("#", parts).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Обрезает строку до ограничения длины колонки БД.
+     *
+     * @param value     Исходная строка.
+     * @param maxLength Максимальная длина.
+     * @return Обрезанная строка или {@code null}.
+     */
+    static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    /**
+     * Извлекает тип исключения из первой строки стек-трейса вида {@code com.x.SomeException: message}.
+     *
+     * @param trace Стек-трейс.
+     * @return Тип исключения или {@code null}, если определить не удалось.
+     */
+    static String exceptionTypeFromTrace(String trace) {
+        if (!StringUtils.hasText(trace)) {
+            return null;
+        }
+        String firstLine = trace.strip().lines().findFirst().orElse("");
+        int colon = firstLine.indexOf(':');
+        String candidate = (colon > 0 ? firstLine.substring(0, colon) : firstLine).strip();
+        return candidate.matches("[\\w.$]+") ? candidate : null;
+    }
+
+    /**
+     * Создает DTO окружения, содержащий только имя окружения из параметров импорта.
+     *
+     * @param options Параметры импорта.
+     * @return DTO окружения.
+     */
+    static EnvironmentDetailsDTO environmentOf(ImportOptions options) {
+        return new EnvironmentDetailsDTO(options.environment(), null, null, null, null, null, null, null, null, null);
+    }
+}
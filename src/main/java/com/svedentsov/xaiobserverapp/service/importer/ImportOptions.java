@@ -0,0 +1,21 @@
+package com.svedentsov.xaiobserverapp.service.importer;
+
+/**
+ * Параметры импорта исторических результатов.
+ * Значения конфигурации применяются ко всем импортируемым запускам, так как
+ * JUnit XML и Allure не содержат версии приложения и окружения в стандартизированном виде.
+ *
+ * @param appVersion  Версия приложения для импортируемых запусков (по умолчанию "unknown").
+ * @param environment Окружение для импортируемых запусков (по умолчанию "unknown").
+ * @param testSuite   Тестовый набор; если не задан, берется из файла результата.
+ * @param batchSize   Количество запусков, сохраняемых в одной транзакции.
+ * @param parallelism Количество файлов, обрабатываемых параллельно.
+ */
+public record ImportOptions(
+        String appVersion,
+        String environment,
+        String testSuite,
+        int batchSize,
+        int parallelism
+) {
+}
@@ -0,0 +1,193 @@
+package com.svedentsov.xaiobserverapp.service.importer;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Потоковый парсер отчетов в формате JUnit XML ({@code <testsuites>/<testsuite>/<testcase>}).
+ * Использует StAX, поэтому размер файла не влияет на потребление памяти: каждый {@code <testcase>}
+ * преобразуется в событие сразу после закрывающего тега.
+ * <p>
+ * Статусы: {@code <failure>} - FAILED, {@code <error>} - BROKEN, {@code <skipped>} - SKIPPED, иначе PASSED.
+ * Время начала вычисляется от атрибута {@code timestamp} набора с накоплением длительностей
+ * предыдущих тестов; при его отсутствии используется время изменения файла.
+ */
+@Slf4j
+@Component
+public class JUnitXmlResultParser implements TestResultFileParser {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createSecureFactory();
+
+    @Override
+    public boolean supports(Path file) {
+        return file.getFileName().toString().endsWith(".xml");
+    }
+
+    @Override
+    public void parse(Path file, ImportOptions options, Consumer<FailureEventDTO> sink) throws IOException {
+        long fileTimestamp = Files.getLastModifiedTime(file).toMillis();
+        String source = file.toAbsolutePath().normalize().toString();
+
+        try (InputStream in = Files.newInputStream(file)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                boolean rootChecked = false;
+                String suiteName = null;
+                long suiteCursor = fileTimestamp;
+                int caseIndex = 0;
+                TestCaseState current = null;
+
+                while (reader.hasNext()) {
+                    int eventType = reader.next();
+                    if (eventType == XMLStreamConstants.START_ELEMENT) {
+                        String element = reader.getLocalName();
+                        if (!rootChecked) {
+                            rootChecked = true;
+                            if (!"testsuites".equals(element) && !"testsuite".equals(element)) {
+                                log.debug("Skipping non-JUnit XML file: {}", file);
+                                return;
+                            }
+                        }
+                        switch (element) {
+                            case "testsuite" -> {
+                                suiteName = reader.getAttributeValue(null, "name");
+                                suiteCursor = parseTimestamp(reader.getAttributeValue(null, "timestamp"), fileTimestamp);
+                            }
+                            case "testcase" -> current = new TestCaseState(
+                                    reader.getAttributeValue(null, "classname"),
+                                    reader.getAttributeValue(null, "name"),
+                                    parseSeconds(reader.getAttributeValue(null, "time")));
+                            case "failure", "error" -> {
+                                if (current != null) {
+                                    current.status = "failure".equals(element) ? "FAILED" : "BROKEN";
+                                    current.exceptionType = reader.getAttributeValue(null, "type");
+                                    current.exceptionMessage = reader.getAttributeValue(null, "message");
+                                    current.stackTrace = reader.getElementText();
+                                }
+                            }
+                            case "skipped" -> {
+                                if (current != null) {
+                                    current.status = "SKIPPED";
+                                    current.exceptionMessage = reader.getAttributeValue(null, "message");
+                                }
+                            }
+                            default -> {
+                                // system-out, system-err, properties и прочие элементы не импортируются
+                            }
+                        }
+                    } else if (eventType == XMLStreamConstants.END_ELEMENT && "testcase".equals(reader.getLocalName()) && current != null) {
+                        sink.accept(toEvent(current, suiteName, suiteCursor, options, source, caseIndex++));
+                        suiteCursor += current.durationMillis;
+                        current = null;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed JUnit XML in " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private FailureEventDTO toEvent(TestCaseState state, String suiteName, long startTime, ImportOptions options, String source, int index) {
+        String exceptionType = StringUtils.hasText(state.exceptionType)
+                ? state.exceptionType
+                : ImportMappingSupport.exceptionTypeFromTrace(state.stackTrace);
+        String exceptionMessage = StringUtils.hasText(state.exceptionMessage) || !"FAILED".equals(state.status) && !"BROKEN".equals(state.status)
+                ? state.exceptionMessage
+                : ImportMappingSupport.truncate(state.stackTrace, 2000);
+        String testSuite = StringUtils.hasText(options.testSuite()) ? options.testSuite() : suiteName;
+
+        return new FailureEventDTO(
+                ImportMappingSupport.deterministicId("junit", source, String.valueOf(index), state.className, state.name),
+                ImportMappingSupport.truncate(state.className, 255),
+                ImportMappingSupport.truncate(state.name, 255),
+                startTime,
+                startTime + state.durationMillis,
+                state.durationMillis,
+                state.status,
+                ImportMappingSupport.truncate(exceptionType, 255),
+                ImportMappingSupport.truncate(exceptionMessage, 2000),
+                state.stackTrace,
+                null,
+                Collections.emptyList(),
+                options.appVersion(),
+                ImportMappingSupport.environmentOf(options),
+                ImportMappingSupport.truncate(testSuite, 255),
+                List.of("imported", "junit"),
+                null,
+                Map.of("importSource", "junit-xml", "sourceFile", ImportMappingSupport.truncate(source, 1000)));
+    }
+
+    private long parseSeconds(String value) {
+        if (!StringUtils.hasText(value)) {
+            return 0L;
+        }
+        try {
+            return Math.round(Double.parseDouble(value.replace(",", "")) * 1000);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private long parseTimestamp(String value, long fallback) {
+        if (!StringUtils.hasText(value)) {
+            return fallback;
+        }
+        try {
+            return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            try {
+                return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+            } catch (DateTimeParseException ignored) {
+                return fallback;
+            }
+        }
+    }
+
+    private static XMLInputFactory createSecureFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Отчеты приходят из внешних CI-систем: запрещаем DTD и внешние сущности (защита от XXE).
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Изменяемое состояние разбираемого {@code <testcase>}.
+     */
+    private static final class TestCaseState {
+        private final String className;
+        private final String name;
+        private final long durationMillis;
+        private String status = "PASSED";
+        private String exceptionType;
+        private String exceptionMessage;
+        private String stackTrace;
+
+        private TestCaseState(String className, String name, long durationMillis) {
+            this.className = className;
+            this.name = name;
+            this.durationMillis = durationMillis;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.svedentsov.xaiobserverapp.service.importer;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Парсер файлов с результатами тестов внешних форматов (JUnit XML, Allure и т.п.).
+ * Реализации регистрируются как Spring-компоненты и выбираются по {@link #supports(Path)}.
+ */
+public interface TestResultFileParser {
+
+    /**
+     * Проверяет, может ли парсер обработать файл (по имени, без чтения содержимого).
+     *
+     * @param file Путь к файлу.
+     * @return {@code true}, если файл поддерживается.
+     */
+    boolean supports(Path file);
+
+    /**
+     * Потоково разбирает файл и передает каждое найденное событие в {@code sink}
+     * по мере чтения, не накапливая их целиком.
+     *
+     * @param file    Путь к файлу.
+     * @param options Параметры импорта.
+     * @param sink    Получатель событий.
+     * @throws IOException если файл не удалось прочитать или разобрать.
+     */
+    void parse(Path file, ImportOptions options, Consumer<FailureEventDTO> sink) throws IOException;
+}
@@ -0,0 +1,298 @@
+package com.svedentsov.xaiobserverapp.service.importer;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.ImportReportDTO;
+import com.svedentsov.xaiobserverapp.exception.BadRequestException;
+import com.svedentsov.xaiobserverapp.service.StatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Сервис массового импорта исторических результатов тестов (JUnit XML, Allure) из каталога.
+ * <p>
+ * Файлы обрабатываются параллельно в выделенном пуле. Каждый файл разбирается потоково,
+ * события собираются в пакеты фиксированного размера и сохраняются {@link TestRunBulkWriter}'ом
+ * в отдельных транзакциях. Импорт идемпотентен: ID запусков детерминированы, а уже
+ * существующие записи пропускаются.
+ * <p>
+ * После каждого успешно обработанного файла его путь дописывается в файл контрольной точки
+ * {@value #CHECKPOINT_FILE_NAME} в корне каталога, поэтому прерванный импорт при повторном
+ * запуске продолжается с необработанных файлов.
+ * <p>
+ * Каталоги, переданные через REST API, разрешаются только внутри корня {@code xai.import.root}
+ * (см. {@link #resolveImportDirectory(String)}), так как импорт читает файлы и пишет контрольную точку.
+ */
+@Slf4j
+@Service
+public class TestResultImportService {
+
+    /**
+     * Верхняя граница размера пакета (и транзакции) сохранения.
+     */
+    public static final int MAX_BATCH_SIZE = 5000;
+
+    /**
+     * Верхняя граница количества параллельно обрабатываемых файлов (потоков пула импорта).
+     */
+    public static final int MAX_PARALLELISM = 64;
+
+    static final String CHECKPOINT_FILE_NAME = ".xai-import-checkpoint";
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = 5_000_000_000L;
+
+    private final List<TestResultFileParser> parsers;
+    private final TestRunBulkWriter bulkWriter;
+    private final StatisticsService statisticsService;
+    private final int defaultBatchSize;
+    private final int defaultParallelism;
+    private final Path importRoot;
+
+    /**
+     * Конструктор сервиса.
+     *
+     * @param parsers            Все зарегистрированные парсеры форматов.
+     * @param bulkWriter         Пакетный писатель запусков.
+     * @param statisticsService  Сервис статистики (для сброса кэша после импорта).
+     * @param defaultBatchSize   Размер пакета по умолчанию.
+     * @param defaultParallelism Количество параллельно обрабатываемых файлов по умолчанию.
+     * @param importRoot         Корневой каталог, внутри которого разрешен импорт через REST API.
+     */
+    public TestResultImportService(List<TestResultFileParser> parsers,
+                                   TestRunBulkWriter bulkWriter,
+                                   StatisticsService statisticsService,
+                                   @Value("${xai.import.batch-size:500}") int defaultBatchSize,
+                                   @Value("${xai.import.parallelism:4}") int defaultParallelism,
+                                   @Value("${xai.import.root:import}") String importRoot) {
+        this.parsers = parsers;
+        this.bulkWriter = bulkWriter;
+        this.statisticsService = statisticsService;
+        this.defaultBatchSize = defaultBatchSize;
+        this.defaultParallelism = defaultParallelism;
+        this.importRoot = Path.of(importRoot).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Разрешает каталог импорта относительно корня {@code xai.import.root}.
+     *
+     * @param directory Путь к каталогу: относительный (от корня) или абсолютный внутри корня.
+     * @return Нормализованный абсолютный путь.
+     * @throws BadRequestException если путь выходит за пределы корня, в том числе через символические ссылки.
+     * @throws IOException              если не удалось определить реальный путь каталога.
+     */
+    public Path resolveImportDirectory(String directory) throws IOException {
+        Path resolved = importRoot.resolve(directory).normalize();
+        if (!resolved.startsWith(importRoot)) {
+            throw new BadRequestException("Import directory must be inside the import root " + importRoot);
+        }
+        if (Files.exists(resolved) && !resolved.toRealPath().startsWith(importRoot.toRealPath())) {
+            throw new BadRequestException("Import directory must be inside the import root " + importRoot);
+        }
+        return resolved;
+    }
+
+    /**
+     * Создает параметры импорта, подставляя значения по умолчанию для незаданных полей.
+     * Размер пакета и параллелизм ограничиваются сверху {@link #MAX_BATCH_SIZE} и {@link #MAX_PARALLELISM}:
+     * от них зависят размер транзакции и количество потоков пула.
+     *
+     * @param appVersion  Версия приложения (может быть {@code null}).
+     * @param environment Окружение (может быть {@code null}).
+     * @param testSuite   Тестовый набор (может быть {@code null}).
+     * @param batchSize   Размер пакета ({@code null} или не положительное - значение по умолчанию).
+     * @param parallelism Параллелизм ({@code null} или не положительное - значение по умолчанию).
+     * @return Параметры импорта.
+     */
+    public ImportOptions options(String appVersion, String environment, String testSuite, Integer batchSize, Integer parallelism) {
+        return new ImportOptions(
+                appVersion,
+                environment,
+                testSuite,
+                Math.min(batchSize != null && batchSize > 0 ? batchSize : defaultBatchSize, MAX_BATCH_SIZE),
+                Math.min(parallelism != null && parallelism > 0 ? parallelism : defaultParallelism, MAX_PARALLELISM));
+    }
+
+    /**
+     * Импортирует все поддерживаемые файлы из каталога (рекурсивно).
+     *
+     * @param directory Корневой каталог с результатами.
+     * @param options   Параметры импорта.
+     * @return Итоги импорта.
+     * @throws IOException если каталог не существует или не может быть прочитан.
+     */
+    public ImportReportDTO importDirectory(Path directory, ImportOptions options) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new BadRequestException("Import directory does not exist: " + directory);
+        }
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE_NAME);
+        Set<String> processed = readCheckpoint(checkpoint);
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(file -> findParser(file).isPresent())
+                    .sorted()
+                    .toList();
+        }
+        List<Path> pending = files.stream()
+                .filter(file -> !processed.contains(directory.relativize(file).toString()))
+                .toList();
+        log.info("Import of {} started: {} supported files, {} already imported, parallelism={}, batchSize={}.",
+                directory, files.size(), files.size() - pending.size(), options.parallelism(), options.batchSize());
+
+        var progress = new Progress(System.nanoTime());
+        var pool = new ForkJoinPool(options.parallelism());
+        try {
+            pool.submit(() -> pending.parallelStream().forEach(file -> {
+                if (importFile(file, options, progress)) {
+                    appendCheckpoint(checkpoint, directory.relativize(file).toString());
+                }
+                progress.logIfDue(pending.size());
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import of " + directory + " was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import of " + directory + " failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        if (progress.runsImported.get() > 0) {
+            statisticsService.clearStatisticsCache();
+        }
+        var report = progress.toReport(files.size(), files.size() - pending.size());
+        log.info("Import of {} finished: {}", directory, report);
+        return report;
+    }
+
+    /**
+     * Импортирует один файл (используется наблюдателем каталога для новых файлов).
+     *
+     * @param file    Путь к файлу.
+     * @param options Параметры импорта.
+     * @return Итоги импорта.
+     */
+    public ImportReportDTO importSingleFile(Path file, ImportOptions options) {
+        var progress = new Progress(System.nanoTime());
+        importFile(file, options, progress);
+        if (progress.runsImported.get() > 0) {
+            statisticsService.clearStatisticsCache();
+        }
+        return progress.toReport(1, 0);
+    }
+
+    /**
+     * Проверяет, поддерживается ли файл одним из парсеров.
+     *
+     * @param file Путь к файлу.
+     * @return {@code true}, если файл может быть импортирован.
+     */
+    public boolean isSupported(Path file) {
+        return findParser(file).isPresent();
+    }
+
+    private boolean importFile(Path file, ImportOptions options, Progress progress) {
+        var parser = findParser(file).orElseThrow();
+        List<FailureEventDTO> batch = new ArrayList<>(options.batchSize());
+        try {
+            parser.parse(file, options, event -> {
+                batch.add(event);
+                if (batch.size() >= options.batchSize()) {
+                    flush(batch, progress);
+                }
+            });
+            flush(batch, progress);
+            progress.filesImported.incrementAndGet();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to import {}: {}", file, e.getMessage());
+            progress.filesFailed.incrementAndGet();
+            return false;
+        }
+    }
+
+    private void flush(List<FailureEventDTO> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int inserted = bulkWriter.writeBatch(batch);
+        progress.runsImported.addAndGet(inserted);
+        progress.runsSkipped.addAndGet(batch.size() - inserted);
+        batch.clear();
+    }
+
+    private Optional<TestResultFileParser> findParser(Path file) {
+        return parsers.stream().filter(parser -> parser.supports(file)).findFirst();
+    }
+
+    private Set<String> readCheckpoint(Path checkpoint) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return Set.of();
+        }
+        try (Stream<String> lines = Files.lines(checkpoint, StandardCharsets.UTF_8)) {
+            return lines.filter(line -> !line.isBlank()).collect(HashSet::new, Set::add, Set::addAll);
+        }
+    }
+
+    private synchronized void appendCheckpoint(Path checkpoint, String relativePath) {
+        try {
+            Files.writeString(checkpoint, relativePath + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Потокобезопасные счетчики прогресса одного импорта.
+     */
+    private static final class Progress {
+        private final long startNanos;
+        private final AtomicLong lastLogNanos;
+        private final AtomicLong filesImported = new AtomicLong();
+        private final AtomicLong filesFailed = new AtomicLong();
+        private final AtomicLong runsImported = new AtomicLong();
+        private final AtomicLong runsSkipped = new AtomicLong();
+
+        private Progress(long startNanos) {
+            this.startNanos = startNanos;
+            this.lastLogNanos = new AtomicLong(startNanos);
+        }
+
+        private void logIfDue(int filesPending) {
+            long now = System.nanoTime();
+            long last = lastLogNanos.get();
+            if (now - last >= PROGRESS_LOG_INTERVAL_NANOS && lastLogNanos.compareAndSet(last, now)) {
+                log.info("Import progress: {}/{} files, {} runs imported ({} runs/s).",
+                        filesImported.get() + filesFailed.get(), filesPending, runsImported.get(), runsPerSecond(now));
+            }
+        }
+
+        private long runsPerSecond(long now) {
+            double seconds = Math.max((now - startNanos) / 1_000_000_000.0, 0.001);
+            return Math.round(runsImported.get() / seconds);
+        }
+
+        private ImportReportDTO toReport(long filesTotal, long filesSkipped) {
+            long now = System.nanoTime();
+            return new ImportReportDTO(filesTotal, filesImported.get(), filesSkipped, filesFailed.get(),
+                    runsImported.get(), runsSkipped.get(), (now - startNanos) / 1_000_000, runsPerSecond(now));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.svedentsov.xaiobserverapp.service.importer;
+
+import com.svedentsov.xaiobserverapp.dto.EnvironmentDetailsDTO;
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.mapper.TestRunMapper;
+import com.svedentsov.xaiobserverapp.model.TestConfiguration;
+import com.svedentsov.xaiobserverapp.repository.TestRunRepository;
+import com.svedentsov.xaiobserverapp.service.RcaService;
+import com.svedentsov.xaiobserverapp.service.TestConfigurationService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Пакетная запись импортируемых тестовых запусков.
+ * <p>
+ * В отличие от {@link com.svedentsov.xaiobserverapp.service.TestEventOrchestrator}, обрабатывающего
+ * события по одному, здесь весь пакет сохраняется в одной транзакции: конфигурации разрешаются
+ * один раз на пакет, уже существующие запуски отбрасываются одним запросом, а новые сущности
+ * добавляются через {@link EntityManager#persist}, что вместе с {@code hibernate.jdbc.batch_size}
+ * позволяет Hibernate отправлять INSERT'ы JDBC-пакетами. WebSocket-рассылка и уведомления
+ * о сбоях для исторических данных не выполняются.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TestRunBulkWriter {
+
+    private final TestRunRepository testRunRepository;
+    private final TestConfigurationService testConfigurationService;
+    private final RcaService rcaService;
+    private final TestRunMapper testRunMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Сохраняет пакет событий в одной транзакции.
+     *
+     * @param events События для сохранения.
+     * @return Количество реально добавленных запусков (без уже существующих).
+     */
+    @Transactional
+    public int writeBatch(List<FailureEventDTO> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+        Set<String> existingIds = new HashSet<>(testRunRepository.findExistingIds(
+                events.stream().map(FailureEventDTO::testRunId).collect(Collectors.toSet())));
+
+        Map<String, TestConfiguration> configurations = new HashMap<>();
+        Set<String> seenIds = new HashSet<>();
+        int inserted = 0;
+        for (var event : events) {
+            if (existingIds.contains(event.testRunId()) || !seenIds.add(event.testRunId())) {
+                continue;
+            }
+            var config = configurations.computeIfAbsent(configurationKey(event),
+                    key -> testConfigurationService.findOrCreateConfiguration(event));
+
+            var testRun = testRunMapper.toEntity(event);
+            testRun.setConfiguration(config);
+            rcaService.analyzeTestRun(event, false).forEach(testRun::addAnalysisResult);
+            entityManager.persist(testRun);
+            inserted++;
+        }
+        entityManager.flush();
+        entityManager.clear();
+        log.debug("Bulk batch written: {} inserted, {} skipped.", inserted, events.size() - inserted);
+        return inserted;
+    }
+
+    private String configurationKey(FailureEventDTO event) {
+        String environment = Optional.ofNullable(event.environmentDetails()).map(EnvironmentDetailsDTO::name).orElse(null);
+        return String.join(":", String.valueOf(event.appVersion()), String.valueOf(event.testSuite()), String.valueOf(environment));
+    }
+}
@@ -0,0 +1,193 @@
+package com.svedentsov.xaiobserverapp.service.metrics;
+
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.service.diagnostics.IngestStageEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики конвейера приема результатов тестов ({@code TestEventOrchestrator}).
+ * <p>
+ * Для каждого этапа обработки события публикуется гистограмма длительности {@value #STAGE_TIMER}
+ * с тегом {@code stage}, для принятых запусков - счетчик {@value #RUNS_COUNTER} с тегом {@code status}
+ * (частота приема считается как {@code rate()} в Prometheus). Метры создаются один раз при старте,
+ * поэтому запись на горячем пути сводится к обращению к готовому объекту. Каждый этап также фиксируется
+ * как событие Java Flight Recorder ({@link IngestStageEvent}) с ID запуска.
+ */
+@Component
+public class IngestMetrics {
+
+    /**
+     * Гистограмма длительности этапов обработки события.
+     */
+    public static final String STAGE_TIMER = "xai.ingest.stage";
+
+    /**
+     * Счетчик принятых запусков.
+     */
+    public static final String RUNS_COUNTER = "xai.ingest.runs";
+
+    /**
+     * Счетчик событий, обработка которых завершилась ошибкой.
+     */
+    public static final String ERRORS_COUNTER = "xai.ingest.errors";
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<TestRun.TestStatus, Counter> runCounters = new EnumMap<>(TestRun.TestStatus.class);
+    private final Counter errors;
+
+    /**
+     * Конструктор метрик.
+     *
+     * @param registry Реестр метрик.
+     */
+    public IngestMetrics(MeterRegistry registry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder(STAGE_TIMER)
+                    .description("Длительность этапа обработки события о завершении теста")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (TestRun.TestStatus status : TestRun.TestStatus.values()) {
+            runCounters.put(status, Counter.builder(RUNS_COUNTER)
+                    .description("Принятые тестовые запуски")
+                    .tag("status", status.name())
+                    .register(registry));
+        }
+        this.errors = Counter.builder(ERRORS_COUNTER)
+                .description("События, обработка которых завершилась ошибкой")
+                .register(registry);
+    }
+
+    /**
+     * Начинает отсчет обработки события: первый этап и обработка целиком ({@link Stage#TOTAL}). Обработка
+     * целиком записывается после завершения текущей транзакции, чтобы в нее вошла и фиксация; вне транзакции
+     * она не записывается.
+     *
+     * @param runId ID тестового запуска для событий JFR.
+     * @return Отсчет этапов обработки события.
+     */
+    public Trace start(String runId) {
+        Trace trace = new Trace(runId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    trace.finish(status == STATUS_COMMITTED ? "committed" : "rolled_back");
+                }
+            });
+        }
+        return trace;
+    }
+
+    /**
+     * Учитывает сохраненный запуск.
+     *
+     * @param status Статус запуска.
+     */
+    public void recordRun(TestRun.TestStatus status) {
+        if (status != null) {
+            runCounters.get(status).increment();
+        }
+    }
+
+    /**
+     * Учитывает событие, обработка которого завершилась ошибкой.
+     */
+    public void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Отсчет этапов обработки одного события. Каждый этап длится от предыдущей отметки до вызова
+     * {@link #completed(Stage)} и записывается в гистограмму {@value #STAGE_TIMER} и как событие
+     * JFR {@link IngestStageEvent}. Используется одним потоком.
+     */
+    public final class Trace {
+
+        private final String runId;
+        private final long startNanos = System.nanoTime();
+        private final IngestStageEvent totalEvent = new IngestStageEvent();
+        private long markNanos = startNanos;
+        private IngestStageEvent stageEvent = new IngestStageEvent();
+
+        private Trace(String runId) {
+            this.runId = runId;
+            totalEvent.begin();
+            stageEvent.begin();
+        }
+
+        /**
+         * Отмечает окончание этапа и начало следующего.
+         *
+         * @param stage Завершившийся этап.
+         */
+        public void completed(Stage stage) {
+            long now = System.nanoTime();
+            stageTimers.get(stage).record(now - markNanos, TimeUnit.NANOSECONDS);
+            stageEvent.commit(runId, stage.tag, "completed");
+            markNanos = now;
+            stageEvent = new IngestStageEvent();
+            stageEvent.begin();
+        }
+
+        private void finish(String outcome) {
+            stageTimers.get(Stage.TOTAL).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            totalEvent.commit(runId, Stage.TOTAL.tag, outcome);
+        }
+    }
+
+    /**
+     * Этап обработки события о завершении теста.
+     */
+    public enum Stage {
+        /**
+         * Поиск или создание конфигурации запуска.
+         */
+        CONFIG_LOOKUP("config_lookup"),
+        /**
+         * Преобразование DTO в сущность.
+         */
+        MAP("map"),
+        /**
+         * Анализ первопричин (правила, XAI-сервис, известные проблемы).
+         */
+        RCA("rca"),
+        /**
+         * Сохранение запуска.
+         */
+        SAVE("save"),
+        /**
+         * Запись события для рассылки и уведомлений в outbox. Сама рассылка выполняется после фиксации
+         * транзакции и измеряется отдельно ({@code xai.live.broadcast}).
+         */
+        OUTBOX("outbox"),
+        /**
+         * Сброс кэша статистики.
+         */
+        CACHE_EVICT("cache_evict"),
+        /**
+         * Обработка события целиком, включая фиксацию транзакции.
+         */
+        TOTAL("total");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+}
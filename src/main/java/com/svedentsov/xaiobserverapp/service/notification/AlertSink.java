@@ -0,0 +1,27 @@
+package com.svedentsov.xaiobserverapp.service.notification;
+
+/**
+ * Канал доставки сводок о сбоях (лог, webhook, email и т.д.).
+ * <p>
+ * Реализации регистрируются как Spring-бины и подключаются к {@code NotificationService} автоматически.
+ * Метод {@link #send} вызывается в потоке рассылки уведомлений, а не в потоке приема результатов, поэтому
+ * медленный или недоступный канал не задерживает обработку запусков. Ошибка доставки сообщается исключением
+ * и учитывается в статистике канала.
+ */
+public interface AlertSink {
+
+    /**
+     * Возвращает имя канала для логов и статистики.
+     *
+     * @return Имя канала.
+     */
+    String name();
+
+    /**
+     * Доставляет сводку.
+     *
+     * @param digest Сводка о сбоях одной группы.
+     * @throws RuntimeException если доставить сводку не удалось.
+     */
+    void send(FailureAlertDigest digest);
+}
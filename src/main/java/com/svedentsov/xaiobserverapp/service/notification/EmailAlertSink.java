@@ -0,0 +1,43 @@
+package com.svedentsov.xaiobserverapp.service.notification;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Канал уведомлений по email (заглушка).
+ * <p>
+ * Формирует письмо со сводкой для получателей {@code xai.notifications.email.to} и записывает его в лог.
+ * Для реальной отправки достаточно подключить {@code spring-boot-starter-mail} и заменить запись в лог
+ * вызовом {@code JavaMailSender}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "xai.notifications.email.to")
+public class EmailAlertSink implements AlertSink {
+
+    private final List<String> recipients;
+
+    /**
+     * Конструктор канала.
+     *
+     * @param recipients Адреса получателей через запятую.
+     */
+    public EmailAlertSink(@Value("${xai.notifications.email.to}") List<String> recipients) {
+        this.recipients = recipients;
+    }
+
+    @Override
+    public String name() {
+        return "email";
+    }
+
+    @Override
+    public void send(FailureAlertDigest digest) {
+        String subject = String.format("[XAI Observer] %d сбоев: %s (%s)", digest.failures(), digest.exceptionType(), digest.environment());
+        log.info("Email to {}: {}\n{}\nЗапуски: {}", recipients, subject, digest.summary(), digest.sampleTestRunIds());
+    }
+}
@@ -0,0 +1,47 @@
+package com.svedentsov.xaiobserverapp.service.notification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Сводка о сбоях одной группы (конфигурация и тип исключения) за период.
+ *
+ * @param environment        Окружение.
+ * @param appVersion         Версия приложения.
+ * @param testSuite          Тестовый набор.
+ * @param exceptionType      Тип исключения.
+ * @param periodStart        Время первого сбоя в сводке.
+ * @param periodEnd          Время последнего сбоя в сводке.
+ * @param failures           Количество сбоев.
+ * @param distinctTests      Количество различных тестов (не больше лимита отслеживаемых тестов группы).
+ * @param moreTests          Были ли тесты сверх лимита отслеживаемых.
+ * @param sampleTests        Несколько проваленных тестов для примера.
+ * @param sampleTestRunIds   ID нескольких проваленных запусков для перехода на дашборд.
+ * @param deferredDigests    Сколько раз сводка откладывалась из-за лимита частоты уведомлений группы.
+ */
+public record FailureAlertDigest(
+        String environment,
+        String appVersion,
+        String testSuite,
+        String exceptionType,
+        LocalDateTime periodStart,
+        LocalDateTime periodEnd,
+        long failures,
+        int distinctTests,
+        boolean moreTests,
+        List<String> sampleTests,
+        List<String> sampleTestRunIds,
+        int deferredDigests
+) {
+
+    /**
+     * Возвращает краткое текстовое описание сводки для логов и писем.
+     *
+     * @return Текст сводки.
+     */
+    public String summary() {
+        return String.format("%d сбоев (%s%d тестов) с %s в окружении '%s', версия '%s', набор '%s' за период %s - %s. Примеры: %s",
+                failures, moreTests ? "более " : "", distinctTests, exceptionType, environment, appVersion, testSuite,
+                periodStart, periodEnd, String.join(", ", sampleTests));
+    }
+}
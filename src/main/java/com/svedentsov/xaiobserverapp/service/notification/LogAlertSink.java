@@ -0,0 +1,25 @@
+package com.svedentsov.xaiobserverapp.service.notification;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Канал уведомлений, записывающий сводки о сбоях в лог приложения.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "xai.notifications.log.enabled", havingValue = "true", matchIfMissing = true)
+public class LogAlertSink implements AlertSink {
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void send(FailureAlertDigest digest) {
+        log.warn("!!! УВЕДОМЛЕНИЕ О СБОЯХ !!! {}. Запуски: {}. Пожалуйста, проверьте дашборд.",
+                digest.summary(), digest.sampleTestRunIds());
+    }
+}
@@ -0,0 +1,71 @@
+package com.svedentsov.xaiobserverapp.service.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+/**
+ * Канал уведомлений, отправляющий сводку о сбоях POST-запросом в JSON на {@code xai.notifications.webhook.url}
+ * (например, входящий webhook мессенджера или собственный сервис оповещений).
+ */
+@Component
+@ConditionalOnProperty(name = "xai.notifications.webhook.url")
+public class WebhookAlertSink implements AlertSink {
+
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Конструктор канала.
+     *
+     * @param restClientBuilder Билдер для создания RestClient.
+     * @param objectMapper      Jackson ObjectMapper для тела запроса.
+     * @param url               URL webhook'а.
+     * @param timeoutMs         Таймаут подключения и ожидания ответа, мс.
+     */
+    public WebhookAlertSink(RestClient.Builder restClientBuilder,
+                            ObjectMapper objectMapper,
+                            @Value("${xai.notifications.webhook.url}") String url,
+                            @Value("${xai.notifications.webhook.timeout-ms:5000}") long timeoutMs) {
+        var settings = ClientHttpRequestFactorySettings.DEFAULTS
+                .withConnectTimeout(Duration.ofMillis(timeoutMs))
+                .withReadTimeout(Duration.ofMillis(timeoutMs));
+        this.restClient = restClientBuilder
+                .baseUrl(url)
+                .requestFactory(ClientHttpRequestFactories.get(settings))
+                .build();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    /**
+     * Отправляет сводку. Тело сериализуется заранее, чтобы запрос ушел с {@code Content-Length}, а не
+     * частями: не все приемники webhook'ов поддерживают chunked-кодирование.
+     */
+    @Override
+    public void send(FailureAlertDigest digest) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(digest);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize failure alert digest: " + e.getMessage(), e);
+        }
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -0,0 +1,249 @@
+package com.svedentsov.xaiobserverapp.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.svedentsov.xaiobserverapp.dto.OutboxStatsDTO;
+import com.svedentsov.xaiobserverapp.dto.TestRunSummaryDTO;
+import com.svedentsov.xaiobserverapp.model.OutboxEvent;
+import com.svedentsov.xaiobserverapp.repository.OutboxEventRepository;
+import com.svedentsov.xaiobserverapp.service.TestRunSavedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Доставка событий транзакционного outbox подписчикам.
+ * <p>
+ * Фоновый поток выбирает готовые к доставке события ({@link OutboxEventRepository#findDeliverableIds}) пакетами
+ * по {@code batch-size} по возрастанию номера, захватывает их (см. {@link OutboxEventRepository#claim}) и публикует как события приложения: {@code TEST_RUN_SAVED} -
+ * {@link TestRunSavedEvent}, который получают рассылка по WebSocket, уведомления о сбоях и любые новые
+ * подписчики. Доставленные события удаляются одним запросом на пакет. Поток запускается сразу после фиксации
+ * транзакции, записавшей событие ({@link OutboxService}), и дополнительно каждые {@code poll-interval-ms} -
+ * для повторных попыток и событий, оставшихся после перезапуска.
+ * <p>
+ * Гарантии:
+ * <ul>
+ *   <li>доставка не менее одного раза: событие удаляется только после того, как все подписчики обработали его
+ *   без исключения; при ошибке или падении узла оно доставляется повторно, поэтому подписчики должны
+ *   переносить повторы;</li>
+ *   <li>порядок по ключу: событие с ключом, предыдущее событие которого еще не доставлено (ожидает повтора или
+ *   захвачено другим узлом), в пакет не попадает; отбор выполняется в БД, поэтому ключ, ожидающий повтора,
+ *   не задерживает доставку событий других ключей;</li>
+ *   <li>повторы с экспоненциальной задержкой от {@code retry-delay-ms} до минуты; после {@code max-attempts}
+ *   попыток событие помечается как недоставленное, и следующие события с тем же ключом продолжают доставляться.</li>
+ * </ul>
+ * Задержка от записи события до его доставки публикуется как гистограмма {@code xai.outbox.delivery.lag},
+ * количество доставленных событий и повторов - как счетчики {@code xai.outbox.delivered} и {@code xai.outbox.retried}.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(1);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final Timer deliveryLag;
+    private volatile boolean started;
+    private volatile LocalDateTime lastDrainAt;
+    private volatile String lastError;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Конструктор доставки событий outbox.
+     *
+     * @param repository         Репозиторий событий outbox.
+     * @param objectMapper       Jackson ObjectMapper для данных событий.
+     * @param eventPublisher     Публикатор событий приложения.
+     * @param pollIntervalMillis Интервал проверки outbox, мс.
+     * @param batchSize          Максимальное количество событий в пакете.
+     * @param leaseSeconds       Время, на которое событие захватывается для доставки, секунды.
+     * @param maxAttempts        Максимальное количество попыток доставки события.
+     * @param retryDelayMillis   Задержка перед первой повторной попыткой, мс.
+     * @param registry           Реестр метрик.
+     */
+    public OutboxRelay(OutboxEventRepository repository,
+                       ObjectMapper objectMapper,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${xai.outbox.poll-interval-ms:1000}") long pollIntervalMillis,
+                       @Value("${xai.outbox.batch-size:200}") int batchSize,
+                       @Value("${xai.outbox.lease-seconds:30}") long leaseSeconds,
+                       @Value("${xai.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${xai.outbox.retry-delay-ms:1000}") long retryDelayMillis,
+                       MeterRegistry registry) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMillis = retryDelayMillis;
+        this.deliveryLag = Timer.builder("xai.outbox.delivery.lag")
+                .description("Время от записи события в outbox до его доставки")
+                .publishPercentileHistogram()
+                .register(registry);
+        FunctionCounter.builder("xai.outbox.delivered", delivered, LongAdder::sum)
+                .description("Доставленные события outbox")
+                .register(registry);
+        FunctionCounter.builder("xai.outbox.retried", retried, LongAdder::sum)
+                .description("Повторные попытки доставки событий outbox")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Начинает доставку, когда приложение полностью запущено: до регистрации обработчиков {@code @EventListener}
+     * опубликованное событие никто не получил бы, а из outbox оно было бы удалено как доставленное.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        started = true;
+        executor.scheduleWithFixedDelay(this::drain, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Запрашивает доставку без ожидания очередной проверки. Повторные запросы, поступившие до начала доставки,
+     * объединяются в один. До запуска приложения ничего не делает: события доставит первая проверка.
+     */
+    public void wakeUp() {
+        if (started && wakeUpPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                wakeUpPending.set(false);
+                drain();
+            });
+        }
+    }
+
+    /**
+     * Возвращает статистику outbox.
+     *
+     * @return DTO со статистикой.
+     */
+    public OutboxStatsDTO getStatistics() {
+        return new OutboxStatsDTO(repository.countByFailedFalse(), repository.countByFailedTrue(),
+                delivered.sum(), retried.sum(), lastDrainAt, lastError);
+    }
+
+    /**
+     * Доставляет пакеты, пока есть готовые к доставке события: следующее событие ключа становится
+     * готовым только после доставки предыдущего.
+     */
+    void drain() {
+        try {
+            int claimed;
+            do {
+                claimed = drainBatch();
+            } while (claimed > 0);
+        } catch (RuntimeException e) {
+            log.error("Failed to drain transactional outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    private int drainBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> candidates = repository.findDeliverableIds(now, Limit.of(batchSize));
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        String claimToken = UUID.randomUUID().toString();
+        int claimed = repository.claim(candidates, claimToken, now, now.plus(lease));
+        if (claimed == 0) {
+            return 0;
+        }
+
+        List<Long> deliveredIds = new ArrayList<>();
+        for (OutboxEvent event : repository.findByClaimTokenOrderByIdAsc(claimToken)) {
+            try {
+                dispatch(event);
+                deliveredIds.add(event.getId());
+                deliveryLag.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } catch (JsonProcessingException e) {
+                fail(event, "Malformed payload: " + e.getOriginalMessage());
+            } catch (RuntimeException e) {
+                if (event.getAttempts() >= maxAttempts) {
+                    fail(event, e.toString());
+                } else {
+                    retry(event, e.toString(), now);
+                }
+            }
+        }
+        if (!deliveredIds.isEmpty()) {
+            repository.deleteAllByIdInBatch(deliveredIds);
+            delivered.add(deliveredIds.size());
+        }
+        lastDrainAt = LocalDateTime.now();
+        return claimed;
+    }
+
+    private void dispatch(OutboxEvent event) throws JsonProcessingException {
+        switch (event.getEventType()) {
+            case TEST_RUN_SAVED -> eventPublisher.publishEvent(
+                    new TestRunSavedEvent(objectMapper.readValue(event.getPayload(), TestRunSummaryDTO.class)));
+        }
+    }
+
+    private void retry(OutboxEvent event, String error, LocalDateTime now) {
+        long delay = Math.min(MAX_RETRY_DELAY.toMillis(), retryDelayMillis << Math.min(event.getAttempts() - 1, 16));
+        repository.reschedule(List.of(event.getId()), now.plus(Duration.ofMillis(delay)), truncate(error));
+        retried.increment();
+        lastError = error;
+        log.warn("Delivery of outbox event #{} {} failed (attempt {} of {}), retrying in {} ms: {}",
+                event.getId(), event.getEventType(), event.getAttempts(), maxAttempts, delay, error);
+    }
+
+    private void fail(OutboxEvent event, String error) {
+        repository.markFailed(event.getId(), truncate(error));
+        lastError = error;
+        log.error("Giving up on outbox event #{} {} for {} after {} attempts: {}",
+                event.getId(), event.getEventType(), event.getAggregateKey(), event.getAttempts(), error);
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
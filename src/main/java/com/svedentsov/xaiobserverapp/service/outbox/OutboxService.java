@@ -0,0 +1,60 @@
+package com.svedentsov.xaiobserverapp.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.svedentsov.xaiobserverapp.model.OutboxEvent;
+import com.svedentsov.xaiobserverapp.model.OutboxEvent.OutboxEventType;
+import com.svedentsov.xaiobserverapp.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись событий в транзакционный outbox.
+ * <p>
+ * Событие сохраняется в той же транзакции, что и данные, о которых оно сообщает: если транзакция
+ * откатывается, события нет, а если фиксируется - событие будет доставлено ({@link OutboxRelay}), даже если
+ * узел упадет сразу после фиксации. Доставка запускается сразу после фиксации транзакции.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final int MAX_KEY_LENGTH = 512;
+
+    private final OutboxEventRepository repository;
+    private final OutboxRelay relay;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Записывает событие в outbox в текущей транзакции.
+     *
+     * @param type         Тип события.
+     * @param aggregateKey Ключ упорядочивания: события с одним ключом доставляются по порядку.
+     * @param payload      Данные события (сериализуются в JSON).
+     * @throws IllegalStateException если данные не сериализуются в JSON.
+     * @throws org.springframework.transaction.IllegalTransactionStateException если нет активной транзакции.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(OutboxEventType type, String aggregateKey, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox event " + type + ": " + e.getMessage(), e);
+        }
+        String key = aggregateKey.length() > MAX_KEY_LENGTH ? aggregateKey.substring(0, MAX_KEY_LENGTH) : aggregateKey;
+        repository.save(new OutboxEvent(type, key, json, LocalDateTime.now()));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay.wakeUp();
+            }
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package com.svedentsov.xaiobserverapp.service.xai;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Клиент XAI-сервиса с кэшем предсказаний по отпечатку сбоя - звено цепочки клиентов:
+ * {@code LocalModelXaiServiceClient -> CachingXaiServiceClient -> ResilientXaiServiceClient -> HttpXaiServiceClient}.
+ * <p>
+ * Повторение уже известного сбоя обслуживается из {@link XaiPredictionCache} без обращения к сервису.
+ * Одновременные запросы с одинаковым отпечатком объединяются: к сервису уходит один запрос,
+ * а его результат получают все ожидающие. В {@code explanationData} каждого результата записывается
+ * отпечаток, чтобы отрицательная обратная связь могла инвалидировать соответствующую запись кэша.
+ * <p>
+ * Вызывающий может передать обработчик свежих ответов сервиса ({@link #getPredictionAsync(FailureEventDTO, Consumer)}):
+ * он вызывается только для ответа, действительно полученного от сервиса по этому запросу, но не для попаданий
+ * в кэш и не для копий, полученных объединенными запросами.
+ */
+@Slf4j
+@Service
+public class CachingXaiServiceClient implements XaiServiceClient {
+
+    private final ResilientXaiServiceClient delegate;
+    private final XaiPredictionCache cache;
+    private final Map<String, CompletableFuture<Optional<AnalysisResult>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор клиента.
+     *
+     * @param delegate Отказоустойчивый клиент XAI-сервиса.
+     * @param cache    Кэш предсказаний.
+     */
+    public CachingXaiServiceClient(ResilientXaiServiceClient delegate, XaiPredictionCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Optional<AnalysisResult> getPrediction(FailureEventDTO event) {
+        return getPredictionAsync(event).join();
+    }
+
+    @Override
+    public CompletableFuture<Optional<AnalysisResult>> getPredictionAsync(FailureEventDTO event) {
+        return getPredictionAsync(event, prediction -> { });
+    }
+
+    /**
+     * Асинхронно получает предсказание, сообщая о свежем ответе XAI-сервиса.
+     *
+     * @param event            DTO события.
+     * @param onRemoteResponse Обработчик ответа, полученного от сервиса по этому запросу;
+     *                         не вызывается для результатов из кэша и объединенных запросов.
+     * @return Future с результатом анализа или пустым Optional.
+     */
+    public CompletableFuture<Optional<AnalysisResult>> getPredictionAsync(FailureEventDTO event, Consumer<AnalysisResult> onRemoteResponse) {
+        if (!cache.isEnabled()) {
+            return delegate.getPredictionAsync(event).thenApply(result -> {
+                result.ifPresent(prediction -> notifyRemoteResponse(onRemoteResponse, prediction));
+                return result;
+            });
+        }
+        String fingerprint = FailureFingerprint.of(event);
+        Optional<AnalysisResult> cached = cache.get(fingerprint);
+        if (cached.isPresent()) {
+            log.debug("XAI prediction for {} served from cache (fingerprint {}).", event.testRunId(), fingerprint);
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        var created = new CompletableFuture<Optional<AnalysisResult>>();
+        CompletableFuture<Optional<AnalysisResult>> shared = inFlight.putIfAbsent(fingerprint, created);
+        if (shared != null) {
+            cache.recordCoalesced();
+            return shared.thenApply(result -> result.map(prediction -> copyOf(prediction, fingerprint)));
+        }
+        delegate.getPredictionAsync(event).whenComplete((result, error) -> {
+            Optional<AnalysisResult> prediction = result != null ? result : Optional.empty();
+            prediction.ifPresent(value -> {
+                value.setExplanationData(withFingerprint(value.getExplanationData(), fingerprint));
+                cache.put(fingerprint, value);
+            });
+            inFlight.remove(fingerprint, created);
+            prediction.ifPresent(value -> notifyRemoteResponse(onRemoteResponse, value));
+            created.complete(prediction);
+        });
+        return created;
+    }
+
+    private static void notifyRemoteResponse(Consumer<AnalysisResult> onRemoteResponse, AnalysisResult prediction) {
+        try {
+            onRemoteResponse.accept(prediction);
+        } catch (RuntimeException e) {
+            log.warn("Failed to handle fresh XAI response: {}", e.getMessage(), e);
+        }
+    }
+
+    private static Map<String, Object> withFingerprint(Map<String, Object> explanationData, String fingerprint) {
+        Map<String, Object> explanation = explanationData != null ? new LinkedHashMap<>(explanationData) : new LinkedHashMap<>();
+        explanation.put(XaiPredictionCache.FINGERPRINT_KEY, fingerprint);
+        return explanation;
+    }
+
+    /**
+     * Копирует результат для ожидающего, объединенного с чужим запросом: у каждого запуска
+     * должен быть собственный экземпляр сущности {@link AnalysisResult}.
+     */
+    private static AnalysisResult copyOf(AnalysisResult source, String fingerprint) {
+        var ar = new AnalysisResult();
+        ar.setAnalysisType(source.getAnalysisType());
+        ar.setSuggestedReason(source.getSuggestedReason());
+        ar.setSolution(source.getSolution());
+        ar.setAiConfidence(source.getAiConfidence());
+        ar.setExplanationData(withFingerprint(source.getExplanationData(), fingerprint));
+        return ar;
+    }
+}
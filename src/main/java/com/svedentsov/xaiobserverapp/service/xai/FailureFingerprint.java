@@ -0,0 +1,81 @@
+package com.svedentsov.xaiobserverapp.service.xai;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.model.AiDecisionMetadata;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Отпечаток (fingerprint) сбоя - ключ, одинаковый для повторений "того же самого" сбоя.
+ * <p>
+ * В отпечаток входят тип исключения, нормализованная первая строка сообщения, а также действие
+ * и локатор шага сбоя. При нормализации сообщение приводится к нижнему регистру, а изменчивые
+ * фрагменты (UUID, шестнадцатеричные адреса, числа, лишние пробелы) заменяются заглушками, поэтому
+ * сообщения, отличающиеся только идентификаторами сессий, таймаутами или номерами строк, дают один отпечаток.
+ * Диагностические строки, которые Selenium добавляет после первой строки (build info, host), не учитываются.
+ */
+public final class FailureFingerprint {
+
+    private static final Pattern UUID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final Pattern HEX = Pattern.compile("\\b0x[0-9a-f]+\\b|\\b[0-9a-f]{16,}\\b");
+    private static final Pattern NUMBER = Pattern.compile("\\d+(?:\\.\\d+)?");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private FailureFingerprint() {
+    }
+
+    /**
+     * Вычисляет отпечаток сбоя.
+     *
+     * @param event DTO события.
+     * @return Отпечаток - 32 шестнадцатеричных символа (128 бит SHA-256).
+     */
+    public static String of(FailureEventDTO event) {
+        AiDecisionMetadata step = event.failedStep();
+        String key = String.join("\u0000",
+                nullToEmpty(event.exceptionType()),
+                normalizeMessage(event.exceptionMessage()),
+                step != null ? nullToEmpty(step.getAction()) : "",
+                step != null ? nullToEmpty(step.getLocatorStrategy()) : "",
+                step != null ? nullToEmpty(step.getLocatorValue()) : "");
+        return sha256(key).substring(0, 32);
+    }
+
+    /**
+     * Нормализует сообщение исключения для отпечатка.
+     *
+     * @param message Исходное сообщение (может быть {@code null}).
+     * @return Нормализованная первая строка сообщения.
+     */
+    public static String normalizeMessage(String message) {
+        if (message == null || message.isBlank()) {
+            return "";
+        }
+        String firstLine = message.strip().lines().findFirst().orElse("");
+        String normalized = firstLine.toLowerCase(Locale.ROOT);
+        normalized = UUID.matcher(normalized).replaceAll("<uuid>");
+        normalized = HEX.matcher(normalized).replaceAll("<hex>");
+        normalized = NUMBER.matcher(normalized).replaceAll("<n>");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").strip();
+        return normalized.length() > MAX_MESSAGE_LENGTH ? normalized.substring(0, MAX_MESSAGE_LENGTH) : normalized;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -2,24 +2,53 @@ package com.svedentsov.xaiobserverapp.service.xai;
 
 import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
 import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.service.diagnostics.XaiRequestEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Реализация клиента для взаимодействия с внешним XAI-сервисом по HTTP.
  * Использует современный {@link RestClient} для выполнения запросов.
+ * Таймауты подключения и чтения ограничивают время, на которое зависший сервис может занять поток.
+ * Длительность запросов публикуется как гистограмма {@value #REQUEST_TIMER} с тегами {@code endpoint}
+ * ({@code predict}/{@code batch}) и {@code outcome} ({@code success}, {@code empty} - неполный ответ,
+ * {@code error} - ошибка транспорта), каждый запрос также фиксируется как событие JFR {@link XaiRequestEvent}.
+ * <p>
+ * Это "сырой" транспорт без защитных механизмов; в приложении используется обертка
+ * {@link ResilientXaiServiceClient}.
  */
 @Slf4j
 @Service
 public class HttpXaiServiceClient implements XaiServiceClient {
 
+    /**
+     * Гистограмма длительности запросов к XAI-сервису.
+     */
+    public static final String REQUEST_TIMER = "xai.client.requests";
+
+    private static final String PREDICT = "predict";
+    private static final String BATCH = "batch";
+    private static final List<String> OUTCOMES = List.of("success", "empty", "error");
+
+    private final Map<String, Map<String, Timer>> timers;
     private final RestClient restClient;
     private final String xaiServiceUrl;
+    private final String xaiBatchUrl;
 
     /**
      * Конструктор для создания клиента.
@@ -27,14 +56,28 @@ public class HttpXaiServiceClient implements XaiServiceClient {
      * @param restClientBuilder билдер для создания RestClient.
      * @param xaiServiceUrl     URL внешнего XAI-сервиса, берется из `application.properties`.
      *                          По умолчанию используется URL мок-контроллера.
+     * @param xaiBatchUrl       URL пакетного endpoint'а XAI-сервиса.
+     * @param connectTimeoutMs  Таймаут установки соединения, мс.
+     * @param readTimeoutMs     Таймаут ожидания ответа, мс.
+     * @param registry          Реестр метрик.
      */
     public HttpXaiServiceClient(RestClient.Builder restClientBuilder,
-                                @Value("${xai.analysis.service.url:http://localhost:8080/mock/xai/predict}") String xaiServiceUrl) {
+                                @Value("${xai.analysis.service.url:http://localhost:8080/mock/xai/predict}") String xaiServiceUrl,
+                                @Value("${xai.analysis.service.batch-url:${xai.analysis.service.url:http://localhost:8080/mock/xai/predict}/batch}") String xaiBatchUrl,
+                                @Value("${xai.analysis.client.connect-timeout-ms:1000}") long connectTimeoutMs,
+                                @Value("${xai.analysis.client.read-timeout-ms:5000}") long readTimeoutMs,
+                                MeterRegistry registry) {
+        var settings = ClientHttpRequestFactorySettings.DEFAULTS
+                .withConnectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .withReadTimeout(Duration.ofMillis(readTimeoutMs));
         this.restClient = restClientBuilder
                 .baseUrl(xaiServiceUrl)
+                .requestFactory(ClientHttpRequestFactories.get(settings))
                 .defaultHeader("Accept", "application/json")
                 .build();
         this.xaiServiceUrl = xaiServiceUrl;
+        this.xaiBatchUrl = xaiBatchUrl;
+        this.timers = Map.of(PREDICT, timers(registry, PREDICT), BATCH, timers(registry, BATCH));
     }
 
     /**
@@ -46,24 +89,97 @@ public class HttpXaiServiceClient implements XaiServiceClient {
      */
     @Override
     public Optional<AnalysisResult> getPrediction(FailureEventDTO event) {
-        log.info("Calling external XAI service at URL: {}", xaiServiceUrl);
         try {
-            AnalysisResult result = restClient.post()
+            return predict(event);
+        } catch (RestClientException e) {
+            log.error("Error calling XAI service at {}: {}", xaiServiceUrl, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Выполняет запрос к XAI-сервису, не скрывая ошибок транспорта.
+     *
+     * @param event DTO с информацией о сбое.
+     * @return {@link Optional} с результатом или пустой Optional, если сервис вернул неполный ответ.
+     * @throws RestClientException при ошибке соединения, таймауте или ответе с кодом ошибки.
+     */
+    Optional<AnalysisResult> predict(FailureEventDTO event) {
+        log.debug("Calling external XAI service at URL: {}", xaiServiceUrl);
+        var jfrEvent = new XaiRequestEvent();
+        jfrEvent.begin();
+        long start = System.nanoTime();
+        AnalysisResult result;
+        try {
+            result = restClient.post()
                     .uri("") // Base URL is already set
                     .body(event)
                     .retrieve()
                     .body(AnalysisResult.class);
+        } catch (RestClientException e) {
+            record(PREDICT, "error", start, jfrEvent, event.testRunId(), 1);
+            throw e;
+        }
 
-            if (result == null || result.getSuggestedReason() == null) {
-                log.warn("XAI service returned a null or incomplete result.");
-                return Optional.empty();
-            }
-            log.info("Received a valid prediction from XAI service.");
-            return Optional.of(result);
+        if (result == null || result.getSuggestedReason() == null) {
+            record(PREDICT, "empty", start, jfrEvent, event.testRunId(), 1);
+            log.warn("XAI service returned a null or incomplete result.");
+            return Optional.empty();
+        }
+        record(PREDICT, "success", start, jfrEvent, event.testRunId(), 1);
+        log.debug("Received a valid prediction from XAI service.");
+        return Optional.of(result);
+    }
 
+    /**
+     * Отправляет пакет событий одним запросом на пакетный endpoint.
+     * Сервис возвращает массив результатов в порядке событий; для событий без предсказания - {@code null}.
+     *
+     * @param events События пакета.
+     * @return {@link Optional} со списком результатов или пустой Optional, если ответ не соответствует пакету.
+     * @throws RestClientException при ошибке соединения, таймауте или ответе с кодом ошибки.
+     */
+    Optional<List<AnalysisResult>> predictBatch(List<FailureEventDTO> events) {
+        log.debug("Calling external XAI batch endpoint {} with {} events", xaiBatchUrl, events.size());
+        var jfrEvent = new XaiRequestEvent();
+        jfrEvent.begin();
+        long start = System.nanoTime();
+        List<AnalysisResult> results;
+        try {
+            results = restClient.post()
+                    .uri(xaiBatchUrl)
+                    .body(events)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<>() {
+                    });
         } catch (RestClientException e) {
-            log.error("Error calling XAI service at {}: {}", xaiServiceUrl, e.getMessage());
+            record(BATCH, "error", start, jfrEvent, null, events.size());
+            throw e;
+        }
+
+        if (results == null || results.size() != events.size()) {
+            record(BATCH, "empty", start, jfrEvent, null, events.size());
+            log.warn("XAI batch endpoint returned {} results for {} events.", results == null ? null : results.size(), events.size());
             return Optional.empty();
         }
+        record(BATCH, "success", start, jfrEvent, null, events.size());
+        return Optional.of(results);
+    }
+
+    private void record(String endpoint, String outcome, long startNanos, XaiRequestEvent jfrEvent, String runId, int batchSize) {
+        timers.get(endpoint).get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        jfrEvent.commit(runId, endpoint, outcome, batchSize);
+    }
+
+    private static Map<String, Timer> timers(MeterRegistry registry, String endpoint) {
+        Map<String, Timer> byOutcome = new HashMap<>();
+        for (String outcome : OUTCOMES) {
+            byOutcome.put(outcome, Timer.builder(REQUEST_TIMER)
+                    .description("Длительность запросов к XAI-сервису")
+                    .tags("endpoint", endpoint, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        return byOutcome;
     }
 }
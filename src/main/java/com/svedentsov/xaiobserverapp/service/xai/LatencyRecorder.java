@@ -0,0 +1,74 @@
+package com.svedentsov.xaiobserverapp.service.xai;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потокобезопасный накопитель длительностей вызовов.
+ * Хранит последние {@code capacity} измерений в кольцевом буфере для расчета перцентилей,
+ * а также общее количество, сумму и максимум за все время работы.
+ */
+final class LatencyRecorder {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong position = new AtomicLong();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    LatencyRecorder(int capacity) {
+        this.samples = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Регистрирует длительность одного вызова.
+     *
+     * @param nanos Длительность в наносекундах.
+     */
+    void record(long nanos) {
+        samples.set((int) (position.getAndIncrement() % samples.length()), nanos);
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    double averageMillis() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / n;
+    }
+
+    double maxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Рассчитывает перцентили по последним измерениям.
+     *
+     * @param quantiles Квантили в диапазоне [0, 1].
+     * @return Значения перцентилей в миллисекундах (в том же порядке).
+     */
+    double[] percentilesMillis(double... quantiles) {
+        int size = (int) Math.min(position.get(), samples.length());
+        long[] window = new long[size];
+        for (int i = 0; i < size; i++) {
+            window[i] = samples.get(i);
+        }
+        Arrays.sort(window);
+        double[] result = new double[quantiles.length];
+        if (size == 0) {
+            return result;
+        }
+        for (int i = 0; i < quantiles.length; i++) {
+            int rank = Math.max(0, (int) Math.ceil(quantiles[i] * size) - 1);
+            result[i] = window[Math.min(size - 1, rank)] / 1_000_000.0;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,325 @@
+package com.svedentsov.xaiobserverapp.service.xai;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.XaiClientStatsDTO;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Отказоустойчивый неблокирующий клиент XAI-сервиса - обертка над {@link HttpXaiServiceClient}.
+ * Приложение обращается к нему через кэширующий {@link CachingXaiServiceClient}.
+ * <p>
+ * Защитные механизмы:
+ * <ul>
+ *   <li><b>Таймауты</b> - таймауты подключения и чтения HTTP-клиента плюс общий предел времени вызова;</li>
+ *   <li><b>Bulkhead</b> - не более {@code max-concurrent} одновременных запросов к сервису; лишние вызовы
+ *   сразу получают fallback, а не встают в очередь;</li>
+ *   <li><b>Circuit breaker</b> - при высокой доле ошибок вызовы временно не выполняются, и клиент
+ *   немедленно возвращает пустой результат (в {@link com.svedentsov.xaiobserverapp.service.RcaService}
+ *   это приводит к общему резюме сбоя);</li>
+ *   <li><b>Hedged retries</b> - если ответ не пришел за {@code hedge-delay-ms}, отправляется дублирующий
+ *   запрос, и используется первый успешный ответ; при ошибке первой попытки повтор отправляется сразу.</li>
+ * </ul>
+ * <p>
+ * При включенной пакетной отправке ({@code xai.analysis.batch.enabled}) события собираются
+ * {@link XaiPredictionBatcher} в пакеты, и защитные механизмы применяются к пакетному запросу целиком:
+ * один HTTP-запрос занимает одно место в bulkhead и учитывается выключателем как одна попытка.
+ * <p>
+ * Запросы выполняются в виртуальных потоках, поэтому ожидание ответа не занимает потоки приложения.
+ * Счетчики и распределение задержек доступны через {@link #getStatistics()}.
+ */
+@Slf4j
+@Service
+public class ResilientXaiServiceClient implements XaiServiceClient {
+
+    private final HttpXaiServiceClient delegate;
+    private final XaiCircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final int maxAttempts;
+    private final long hedgeDelayMillis;
+    private final long callTimeoutMillis;
+    private final XaiPredictionBatcher batcher;
+    private final ExecutorService requestExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("xai-client-", 0).factory());
+    private final ScheduledExecutorService hedgeScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "xai-client-hedge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LatencyRecorder callLatency = new LatencyRecorder(2048);
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder predictions = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedEvents = new LongAdder();
+
+    /**
+     * Конструктор клиента.
+     *
+     * @param delegate             HTTP-транспорт к XAI-сервису.
+     * @param maxConcurrent        Максимальное число одновременных запросов (bulkhead).
+     * @param maxAttempts          Максимальное число попыток на один вызов (первая + дублирующие/повторные).
+     * @param hedgeDelayMillis     Задержка перед отправкой дублирующего запроса, мс.
+     * @param callTimeoutMillis    Общий предел времени одного вызова, мс.
+     * @param windowSize           Количество последних попыток, по которым считается доля ошибок.
+     * @param minimumCalls         Минимальное количество попыток в окне для размыкания цепи.
+     * @param failureRateThreshold Доля ошибок, при которой цепь размыкается.
+     * @param openDurationMillis   Время, на которое цепь размыкается, мс.
+     * @param batchEnabled         Отправлять ли события пакетами на пакетный endpoint.
+     * @param batchMaxSize         Максимальный размер пакета.
+     * @param batchMaxWaitMillis   Максимальное время накопления пакета, мс.
+     */
+    public ResilientXaiServiceClient(HttpXaiServiceClient delegate,
+                                     @Value("${xai.analysis.client.max-concurrent:8}") int maxConcurrent,
+                                     @Value("${xai.analysis.client.max-attempts:2}") int maxAttempts,
+                                     @Value("${xai.analysis.client.hedge-delay-ms:1500}") long hedgeDelayMillis,
+                                     @Value("${xai.analysis.client.call-timeout-ms:8000}") long callTimeoutMillis,
+                                     @Value("${xai.analysis.client.breaker.window-size:20}") int windowSize,
+                                     @Value("${xai.analysis.client.breaker.minimum-calls:10}") int minimumCalls,
+                                     @Value("${xai.analysis.client.breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                                     @Value("${xai.analysis.client.breaker.open-duration-ms:30000}") long openDurationMillis,
+                                     @Value("${xai.analysis.batch.enabled:false}") boolean batchEnabled,
+                                     @Value("${xai.analysis.batch.max-size:32}") int batchMaxSize,
+                                     @Value("${xai.analysis.batch.max-wait-ms:50}") long batchMaxWaitMillis) {
+        this.delegate = delegate;
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.callTimeoutMillis = callTimeoutMillis;
+        this.circuitBreaker = new XaiCircuitBreaker(windowSize, minimumCalls, failureRateThreshold, openDurationMillis);
+        this.batcher = batchEnabled
+                ? new XaiPredictionBatcher(batchMaxSize, batchMaxWaitMillis, hedgeScheduler, this::sendBatch)
+                : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeScheduler.shutdownNow();
+        requestExecutor.shutdownNow();
+    }
+
+    /**
+     * Синхронный вызов: ожидает результат асинхронного вызова. Время ожидания ограничено
+     * {@code call-timeout-ms}, поэтому зависший сервис не блокирует вызывающий поток дольше этого предела.
+     *
+     * @param event DTO с информацией о сбое.
+     * @return Optional с результатом анализа от ML-модели.
+     */
+    @Override
+    public Optional<AnalysisResult> getPrediction(FailureEventDTO event) {
+        return getPredictionAsync(event).join();
+    }
+
+    @Override
+    public CompletableFuture<Optional<AnalysisResult>> getPredictionAsync(FailureEventDTO event) {
+        calls.increment();
+        long start = System.nanoTime();
+        CompletableFuture<Optional<AnalysisResult>> prediction = batcher != null
+                ? batcher.submit(event)
+                : execute(event.testRunId(), () -> delegate.predict(event));
+        return prediction.whenComplete((result, error) -> {
+            callLatency.record(System.nanoTime() - start);
+            if (result != null && result.isPresent()) {
+                predictions.increment();
+            } else {
+                fallbacks.increment();
+            }
+        });
+    }
+
+    private CompletableFuture<Optional<List<AnalysisResult>>> sendBatch(List<FailureEventDTO> events) {
+        batches.increment();
+        batchedEvents.add(events.size());
+        return execute("batch of " + events.size(), () -> delegate.predictBatch(events));
+    }
+
+    /**
+     * Выполняет запрос к сервису под защитой выключателя, bulkhead, дублирующих запросов и общего таймаута.
+     *
+     * @param description Описание запроса для логирования.
+     * @param request     Запрос; бросает {@link RestClientException} при ошибке транспорта. Любое другое
+     *                    исключение также считается неудачной попыткой.
+     * @param <T>         Тип ответа.
+     * @return Future с ответом или пустым Optional; никогда не завершается исключением.
+     */
+    private <T> CompletableFuture<Optional<T>> execute(String description, Supplier<Optional<T>> request) {
+        var call = new HedgedCall<>(description, request);
+        call.launch();
+        if (maxAttempts > 1 && hedgeDelayMillis > 0) {
+            hedgeScheduler.schedule(call::hedge, hedgeDelayMillis, TimeUnit.MILLISECONDS);
+        }
+        return call.result.completeOnTimeout(Optional.empty(), callTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Возвращает счетчики вызовов, состояние выключателя и распределение задержек.
+     *
+     * @return DTO со статистикой клиента.
+     */
+    public XaiClientStatsDTO getStatistics() {
+        double[] percentiles = callLatency.percentilesMillis(0.50, 0.95, 0.99);
+        return new XaiClientStatsDTO(
+                circuitBreaker.state().name(),
+                maxConcurrent,
+                maxConcurrent - bulkhead.availablePermits(),
+                calls.sum(),
+                predictions.sum(),
+                fallbacks.sum(),
+                attempts.sum(),
+                failures.sum(),
+                timeouts.sum(),
+                rejected.sum(),
+                shortCircuited.sum(),
+                hedges.sum(),
+                batcher != null,
+                batches.sum(),
+                batchedEvents.sum(),
+                callLatency.averageMillis(),
+                percentiles[0],
+                percentiles[1],
+                percentiles[2],
+                callLatency.maxMillis());
+    }
+
+    /**
+     * Один логический вызов XAI-сервиса, который может состоять из нескольких попыток.
+     * Результат - первый успешный ответ; если ни одна попытка не дала ответа, - пустой Optional.
+     *
+     * @param <T> Тип ответа.
+     */
+    private final class HedgedCall<T> {
+
+        private final String description;
+        private final Supplier<Optional<T>> request;
+        private final CompletableFuture<Optional<T>> result = new CompletableFuture<>();
+        private final AtomicInteger started = new AtomicInteger();
+        private final AtomicInteger finished = new AtomicInteger();
+
+        private HedgedCall(String description, Supplier<Optional<T>> request) {
+            this.description = description;
+            this.request = request;
+        }
+
+        /**
+         * Отправляет дублирующий запрос, если первый еще не ответил.
+         */
+        private void hedge() {
+            if (!result.isDone() && started.get() == 1 && finished.get() == 0) {
+                log.debug("XAI response for {} is slow, sending a hedged request.", description);
+                launch();
+            }
+        }
+
+        /**
+         * Запускает очередную попытку, если это разрешают лимит попыток, выключатель и bulkhead.
+         * Если попытку запустить нельзя и активных попыток нет, вызов завершается пустым результатом.
+         */
+        private void launch() {
+            if (result.isDone()) {
+                return;
+            }
+            int attempt = started.incrementAndGet();
+            if (attempt > maxAttempts) {
+                started.decrementAndGet();
+                completeIfIdle();
+                return;
+            }
+            XaiCircuitBreaker.Permission permission = circuitBreaker.tryAcquirePermission();
+            if (permission == XaiCircuitBreaker.Permission.DENIED) {
+                shortCircuited.increment();
+                started.decrementAndGet();
+                completeIfIdle();
+                return;
+            }
+            if (!bulkhead.tryAcquire()) {
+                rejected.increment();
+                circuitBreaker.releasePermission(permission);
+                started.decrementAndGet();
+                completeIfIdle();
+                return;
+            }
+            attempts.increment();
+            if (attempt > 1) {
+                hedges.increment();
+            }
+            try {
+                requestExecutor.execute(this::attempt);
+            } catch (RuntimeException e) {
+                bulkhead.release();
+                circuitBreaker.releasePermission(permission);
+                started.decrementAndGet();
+                completeIfIdle();
+            }
+        }
+
+        private void attempt() {
+            boolean failed = false;
+            try {
+                Optional<T> response = request.get();
+                circuitBreaker.onSuccess();
+                if (response.isPresent()) {
+                    result.complete(response);
+                }
+            } catch (RuntimeException e) {
+                // Любая ошибка попытки (не только транспортная) учитывается выключателем, иначе
+                // пробный вызов в полуоткрытом состоянии не получил бы исхода.
+                failed = true;
+                Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+                if (cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException) {
+                    timeouts.increment();
+                } else {
+                    failures.increment();
+                }
+                if (e instanceof RestClientException) {
+                    log.warn("XAI service call for {} failed: {}", description, e.getMessage());
+                } else {
+                    log.error("XAI service call for {} failed unexpectedly: {}", description, e.getMessage(), e);
+                }
+                if (circuitBreaker.onFailure()) {
+                    log.warn("XAI circuit breaker opened: failures exceeded the threshold, predictions are suspended.");
+                }
+            } finally {
+                bulkhead.release();
+                finished.incrementAndGet();
+            }
+            if (failed) {
+                launch();
+            } else {
+                completeIfIdle();
+            }
+        }
+
+        private void completeIfIdle() {
+            if (finished.get() >= started.get()) {
+                result.complete(Optional.empty());
+            }
+        }
+    }
+}
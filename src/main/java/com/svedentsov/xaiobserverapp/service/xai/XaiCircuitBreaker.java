@@ -0,0 +1,161 @@
+package com.svedentsov.xaiobserverapp.service.xai;
+
+/**
+ * Автоматический выключатель (circuit breaker) для вызовов XAI-сервиса.
+ * <p>
+ * Учитывает исходы последних {@code windowSize} вызовов. Когда доля ошибок среди них (при наличии
+ * не менее {@code minimumCalls} вызовов) достигает порога, выключатель размыкается: вызовы
+ * не выполняются в течение {@code openDurationMillis}, и клиент сразу возвращает fallback.
+ * Затем выключатель переходит в полуоткрытое состояние и пропускает один пробный вызов:
+ * успех замыкает цепь, ошибка снова размыкает ее. Если пробный вызов так и не был отправлен
+ * (отказ bulkhead или пула), разрешение возвращается через {@link #releasePermission(Permission)}.
+ */
+final class XaiCircuitBreaker {
+
+    /**
+     * Состояние выключателя.
+     */
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Результат запроса разрешения на вызов.
+     */
+    enum Permission {
+        /**
+         * Цепь разомкнута или пробный вызов уже выполняется.
+         */
+        DENIED,
+        /**
+         * Обычный вызов в замкнутой цепи.
+         */
+        GRANTED,
+        /**
+         * Единственный пробный вызов в полуоткрытом состоянии.
+         */
+        TRIAL
+    }
+
+    private final boolean[] outcomes;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationMillis;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    XaiCircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openDurationMillis) {
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * Проверяет, можно ли выполнить вызов.
+     *
+     * @return {@link Permission#DENIED}, если цепь разомкнута или пробный вызов уже выполняется;
+     * {@link Permission#TRIAL}, если вызов стал пробным; иначе {@link Permission#GRANTED}.
+     */
+    synchronized Permission tryAcquirePermission() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> Permission.GRANTED;
+            case OPEN -> Permission.DENIED;
+            case HALF_OPEN -> {
+                if (trialInFlight) {
+                    yield Permission.DENIED;
+                }
+                trialInFlight = true;
+                yield Permission.TRIAL;
+            }
+        };
+    }
+
+    /**
+     * Возвращает разрешение вызова, который так и не был выполнен. Для пробного вызова
+     * это позволяет следующему вызову стать пробным, иначе выключатель навсегда остался бы полуоткрытым.
+     *
+     * @param permission Полученное ранее разрешение.
+     */
+    synchronized void releasePermission(Permission permission) {
+        if (permission == Permission.TRIAL && state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Регистрирует успешный вызов.
+     */
+    synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            reset(State.CLOSED);
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * Регистрирует неуспешный вызов (ошибка или таймаут).
+     *
+     * @return {@code true}, если в результате этого вызова цепь разомкнулась.
+     */
+    synchronized boolean onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return true;
+        }
+        if (state == State.OPEN) {
+            return false;
+        }
+        record(true);
+        if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+            open();
+            return true;
+        }
+        return false;
+    }
+
+    synchronized State state() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMillis) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openedAt = System.currentTimeMillis();
+    }
+
+    private void reset(State newState) {
+        state = newState;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        trialInFlight = false;
+    }
+}
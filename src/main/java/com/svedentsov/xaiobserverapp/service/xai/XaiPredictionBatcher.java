@@ -0,0 +1,106 @@
+package com.svedentsov.xaiobserverapp.service.xai;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Накопитель запросов предсказаний для пакетной отправки в XAI-сервис.
+ * <p>
+ * Запросы копятся, пока в пакете не наберется {@code maxBatchSize} событий или пока с момента
+ * поступления первого из них не пройдет {@code maxWaitMillis}. Затем пакет целиком отправляется
+ * одним запросом, а ответы раздаются ожидающим future в порядке событий. Если пакетный запрос
+ * не удался, каждый ожидающий получает пустой результат.
+ */
+final class XaiPredictionBatcher {
+
+    private final int maxBatchSize;
+    private final long maxWaitMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Function<List<FailureEventDTO>, CompletableFuture<Optional<List<AnalysisResult>>>> sender;
+
+    private List<Pending> buffer = new ArrayList<>();
+    private ScheduledFuture<?> flushTimer;
+
+    /**
+     * @param maxBatchSize  Максимальный размер пакета.
+     * @param maxWaitMillis Максимальное время ожидания первого события пакета, мс.
+     * @param scheduler     Планировщик таймера отправки.
+     * @param sender        Отправка пакета; результаты возвращаются в порядке событий.
+     */
+    XaiPredictionBatcher(int maxBatchSize, long maxWaitMillis, ScheduledExecutorService scheduler,
+                         Function<List<FailureEventDTO>, CompletableFuture<Optional<List<AnalysisResult>>>> sender) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitMillis = maxWaitMillis;
+        this.scheduler = scheduler;
+        this.sender = sender;
+    }
+
+    /**
+     * Добавляет событие в текущий пакет.
+     *
+     * @param event DTO события.
+     * @return Future с предсказанием для этого события.
+     */
+    CompletableFuture<Optional<AnalysisResult>> submit(FailureEventDTO event) {
+        var pending = new Pending(event, new CompletableFuture<>());
+        List<Pending> ready = null;
+        synchronized (this) {
+            buffer.add(pending);
+            if (buffer.size() >= maxBatchSize) {
+                ready = drain();
+            } else if (buffer.size() == 1) {
+                flushTimer = scheduler.schedule(this::flushOnTimer, maxWaitMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (ready != null) {
+            send(ready);
+        }
+        return pending.future();
+    }
+
+    private void flushOnTimer() {
+        List<Pending> ready;
+        synchronized (this) {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            ready = drain();
+        }
+        send(ready);
+    }
+
+    private List<Pending> drain() {
+        if (flushTimer != null) {
+            flushTimer.cancel(false);
+            flushTimer = null;
+        }
+        List<Pending> ready = buffer;
+        buffer = new ArrayList<>(maxBatchSize);
+        return ready;
+    }
+
+    private void send(List<Pending> batch) {
+        List<FailureEventDTO> events = batch.stream().map(Pending::event).toList();
+        sender.apply(events).whenComplete((results, error) -> {
+            List<AnalysisResult> list = results != null ? results.orElse(List.of()) : List.of();
+            for (int i = 0; i < batch.size(); i++) {
+                AnalysisResult result = i < list.size() ? list.get(i) : null;
+                batch.get(i).future().complete(result != null && result.getSuggestedReason() != null
+                        ? Optional.of(result)
+                        : Optional.empty());
+            }
+        });
+    }
+
+    private record Pending(FailureEventDTO event, CompletableFuture<Optional<AnalysisResult>> future) {
+    }
+}
@@ -0,0 +1,274 @@
+package com.svedentsov.xaiobserverapp.service.xai;
+
+import com.svedentsov.xaiobserverapp.dto.XaiCacheStatsDTO;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.model.XaiPredictionCacheEntry;
+import com.svedentsov.xaiobserverapp.repository.XaiPredictionCacheRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограниченный по размеру кэш предсказаний XAI-сервиса с временем жизни записей.
+ * Ключ - отпечаток сбоя ({@link FailureFingerprint}).
+ * <p>
+ * В памяти хранится не более {@code max-size} записей, при переполнении вытесняется давно не использованная
+ * (LRU). При включенном режиме {@code persistent} записи дополнительно сохраняются в таблицу
+ * {@code xai_prediction_cache} и подгружаются из нее при промахе в памяти, поэтому кэш переживает перезапуск.
+ * <p>
+ * Каждый возвращаемый результат - новый экземпляр {@link AnalysisResult}, помеченный в {@code explanationData}
+ * как взятый из кэша.
+ */
+@Slf4j
+@Component
+public class XaiPredictionCache {
+
+    /**
+     * Ключ {@code explanationData} с отпечатком сбоя, по которому получено предсказание.
+     */
+    public static final String FINGERPRINT_KEY = "fingerprint";
+
+    /**
+     * Ключ {@code explanationData}, отмечающий результат, взятый из кэша.
+     */
+    public static final String CACHE_HIT_KEY = "cacheHit";
+
+    private final XaiPredictionCacheRepository repository;
+    private final boolean enabled;
+    private final boolean persistent;
+    private final int maxSize;
+    private final Duration ttl;
+    private final Map<String, CachedPrediction> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder persistentHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Конструктор кэша.
+     *
+     * @param repository Репозиторий персистентного кэша.
+     * @param enabled    Включен ли кэш.
+     * @param persistent Сохранять ли записи в БД.
+     * @param maxSize    Максимальное количество записей в памяти.
+     * @param ttlMinutes Время жизни записи, минуты.
+     */
+    public XaiPredictionCache(XaiPredictionCacheRepository repository,
+                              @Value("${xai.analysis.cache.enabled:true}") boolean enabled,
+                              @Value("${xai.analysis.cache.persistent:false}") boolean persistent,
+                              @Value("${xai.analysis.cache.max-size:10000}") int maxSize,
+                              @Value("${xai.analysis.cache.ttl-minutes:1440}") long ttlMinutes) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.persistent = persistent;
+        this.maxSize = maxSize;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPrediction> eldest) {
+                return size() > XaiPredictionCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Удаляет устаревшие записи персистентного кэша при старте.
+     */
+    @PostConstruct
+    public void init() {
+        if (enabled && persistent) {
+            try {
+                int removed = repository.deleteExpired(LocalDateTime.now());
+                log.info("XAI prediction cache is persistent, removed {} expired entries.", removed);
+            } catch (DataAccessException e) {
+                log.warn("Failed to clean up expired XAI prediction cache entries: {}", e.getMessage());
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ищет предсказание по отпечатку: сначала в памяти, затем (в персистентном режиме) в БД.
+     *
+     * @param fingerprint Отпечаток сбоя.
+     * @return Новый экземпляр результата, помеченный как попадание в кэш, или пустой Optional.
+     */
+    public Optional<AnalysisResult> get(String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        CachedPrediction cached;
+        synchronized (entries) {
+            cached = entries.get(fingerprint);
+            if (cached != null && cached.expiresAt().isBefore(now)) {
+                entries.remove(fingerprint);
+                cached = null;
+            }
+        }
+        if (cached == null && persistent) {
+            cached = loadPersistent(fingerprint, now);
+            if (cached != null) {
+                persistentHits.increment();
+                synchronized (entries) {
+                    entries.put(fingerprint, cached);
+                }
+            }
+        }
+        if (cached == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cached.toResult(fingerprint));
+    }
+
+    /**
+     * Сохраняет предсказание в кэш.
+     *
+     * @param fingerprint Отпечаток сбоя.
+     * @param result      Результат, полученный от XAI-сервиса.
+     */
+    public void put(String fingerprint, AnalysisResult result) {
+        LocalDateTime now = LocalDateTime.now();
+        var cached = new CachedPrediction(result.getAnalysisType(), result.getSuggestedReason(), result.getSolution(),
+                result.getAiConfidence(), result.getExplanationData() != null ? Map.copyOf(withoutNullValues(result.getExplanationData())) : Map.of(),
+                now, now.plus(ttl));
+        synchronized (entries) {
+            entries.put(fingerprint, cached);
+        }
+        if (persistent) {
+            try {
+                repository.save(new XaiPredictionCacheEntry(fingerprint, cached.analysisType(), cached.suggestedReason(),
+                        cached.solution(), cached.aiConfidence(), cached.explanationData(), cached.createdAt(), cached.expiresAt()));
+            } catch (DataAccessException e) {
+                log.warn("Failed to persist XAI prediction for fingerprint {}: {}", fingerprint, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Удаляет предсказание для отпечатка (например, после отрицательной обратной связи пользователя).
+     * Ошибка хранилища не прерывает операцию: она логируется, а запись удаляется только из памяти.
+     *
+     * @param fingerprint Отпечаток сбоя.
+     * @return {@code true}, если запись была в кэше.
+     */
+    public boolean invalidate(String fingerprint) {
+        boolean removed;
+        synchronized (entries) {
+            removed = entries.remove(fingerprint) != null;
+        }
+        if (persistent) {
+            try {
+                if (repository.existsById(fingerprint)) {
+                    repository.deleteById(fingerprint);
+                    removed = true;
+                }
+            } catch (DataAccessException e) {
+                log.warn("Failed to remove persisted XAI prediction for fingerprint {}: {}", fingerprint, e.getMessage());
+            }
+        }
+        if (removed) {
+            invalidations.increment();
+            log.info("XAI prediction cache entry {} invalidated.", fingerprint);
+        }
+        return removed;
+    }
+
+    /**
+     * Полностью очищает кэш.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        if (persistent) {
+            try {
+                repository.deleteAllInBatch();
+            } catch (DataAccessException e) {
+                log.warn("Failed to clear persisted XAI prediction cache entries: {}", e.getMessage());
+            }
+        }
+        log.info("XAI prediction cache cleared.");
+    }
+
+    /**
+     * Регистрирует запрос, объединенный с уже выполняющимся запросом для того же отпечатка.
+     */
+    void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    /**
+     * Возвращает статистику кэша.
+     *
+     * @return DTO со статистикой.
+     */
+    public XaiCacheStatsDTO getStatistics() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return new XaiCacheStatsDTO(enabled, persistent, size, maxSize, ttl.toMinutes(), hitCount, persistentHits.sum(),
+                misses.sum(), coalesced.sum(), invalidations.sum(), lookups == 0 ? 0.0 : (double) hitCount / lookups);
+    }
+
+    private CachedPrediction loadPersistent(String fingerprint, LocalDateTime now) {
+        try {
+            return repository.findById(fingerprint)
+                    .filter(entry -> entry.getExpiresAt().isAfter(now))
+                    .map(entry -> new CachedPrediction(entry.getAnalysisType(), entry.getSuggestedReason(), entry.getSolution(),
+                            entry.getAiConfidence(), entry.getExplanationData() != null ? Map.copyOf(withoutNullValues(entry.getExplanationData())) : Map.of(),
+                            entry.getCreatedAt(), entry.getExpiresAt()))
+                    .orElse(null);
+        } catch (DataAccessException e) {
+            log.warn("Failed to read XAI prediction cache entry {}: {}", fingerprint, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Map<String, Object> withoutNullValues(Map<String, Object> map) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        map.forEach((key, value) -> {
+            if (key != null && value != null) {
+                copy.put(key, value);
+            }
+        });
+        return copy;
+    }
+
+    /**
+     * Неизменяемая копия предсказания, из которой для каждого попадания создается новый {@link AnalysisResult}.
+     */
+    private record CachedPrediction(String analysisType, String suggestedReason, String solution, Double aiConfidence,
+                                    Map<String, Object> explanationData, LocalDateTime createdAt, LocalDateTime expiresAt) {
+
+        AnalysisResult toResult(String fingerprint) {
+            var ar = new AnalysisResult();
+            ar.setAnalysisType(analysisType);
+            ar.setSuggestedReason(suggestedReason);
+            ar.setSolution(solution);
+            ar.setAiConfidence(aiConfidence);
+            Map<String, Object> explanation = new LinkedHashMap<>(explanationData);
+            explanation.put(FINGERPRINT_KEY, fingerprint);
+            explanation.put(CACHE_HIT_KEY, true);
+            explanation.put("cachedAt", createdAt.toString());
+            ar.setExplanationData(explanation);
+            return ar;
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.svedentsov.xaiobserverapp.service.xai;
 
 import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
 import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Абстракция для взаимодействия с внешним XAI-сервисом (например, Python-сервисом).
@@ -16,4 +18,16 @@ public interface XaiServiceClient {
      * @return Optional с результатом анализа от ML-модели.
      */
     Optional<AnalysisResult> getPrediction(FailureEventDTO event);
+
+    /**
+     * Асинхронный вариант {@link #getPrediction(FailureEventDTO)}. Возвращаемый future никогда
+     * не завершается исключением: при любой ошибке он содержит пустой Optional.
+     * Реализация по умолчанию выполняет синхронный вызов в текущем потоке.
+     *
+     * @param event DTO с информацией о сбое.
+     * @return Future с результатом анализа от ML-модели.
+     */
+    default CompletableFuture<Optional<AnalysisResult>> getPredictionAsync(FailureEventDTO event) {
+        return CompletableFuture.completedFuture(getPrediction(event));
+    }
 }
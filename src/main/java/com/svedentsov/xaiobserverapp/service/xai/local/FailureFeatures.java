@@ -0,0 +1,117 @@
+package com.svedentsov.xaiobserverapp.service.xai.local;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.model.AiDecisionMetadata;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.service.xai.FailureFingerprint;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Извлечение признаков сбоя для локальной модели: тип исключения, слова нормализованного сообщения,
+ * верхние кадры стека и причины ({@code Caused by}), действие и локатор шага сбоя.
+ * Каждый признак - строка вида {@code "message:timed"}; повторяющиеся признаки учитываются один раз.
+ */
+final class FailureFeatures {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}_]+");
+    private static final Pattern FRAME_LOCATION = Pattern.compile("\\(.*\\)$");
+    private static final int MAX_MESSAGE_WORDS = 30;
+    private static final int MAX_STACK_FRAMES = 8;
+    private static final int MAX_LOCATOR_WORDS = 10;
+    private static final int MAX_STACK_LINES = 200;
+
+    private FailureFeatures() {
+    }
+
+    /**
+     * Признаки события о завершении теста.
+     *
+     * @param event DTO события.
+     * @return Признаки в порядке извлечения.
+     */
+    static List<String> of(FailureEventDTO event) {
+        return extract(event.exceptionType(), event.exceptionMessage(), event.stackTrace(), event.failedStep());
+    }
+
+    /**
+     * Признаки сохраненного тестового запуска.
+     *
+     * @param testRun Сущность тестового запуска.
+     * @return Признаки в порядке извлечения.
+     */
+    static List<String> of(TestRun testRun) {
+        return extract(testRun.getExceptionType(), testRun.getExceptionMessage(), testRun.getStackTrace(), testRun.getFailedStep());
+    }
+
+    private static List<String> extract(String exceptionType, String message, String stackTrace, AiDecisionMetadata step) {
+        Set<String> features = new LinkedHashSet<>();
+        if (StringUtils.hasText(exceptionType)) {
+            features.add("exception=" + simpleName(exceptionType.strip()));
+        }
+        words(FailureFingerprint.normalizeMessage(message), MAX_MESSAGE_WORDS).forEach(word -> features.add("message:" + word));
+        if (StringUtils.hasText(stackTrace)) {
+            int frames = 0;
+            int lines = 0;
+            for (String line : (Iterable<String>) stackTrace.lines()::iterator) {
+                if (++lines > MAX_STACK_LINES) {
+                    break;
+                }
+                String trimmed = line.strip();
+                if (trimmed.startsWith("at ") && frames < MAX_STACK_FRAMES) {
+                    String frame = FRAME_LOCATION.matcher(trimmed.substring(3)).replaceFirst("");
+                    features.add("frame:" + lastSegments(frame));
+                    frames++;
+                } else if (trimmed.startsWith("Caused by:")) {
+                    String cause = trimmed.substring("Caused by:".length()).strip();
+                    int colon = cause.indexOf(':');
+                    features.add("cause=" + simpleName(colon > 0 ? cause.substring(0, colon) : cause));
+                }
+            }
+        }
+        if (step != null) {
+            if (StringUtils.hasText(step.getAction())) {
+                features.add("step.action=" + step.getAction().strip().toLowerCase(Locale.ROOT));
+            }
+            if (StringUtils.hasText(step.getLocatorStrategy())) {
+                features.add("step.locator=" + step.getLocatorStrategy().strip().toLowerCase(Locale.ROOT));
+            }
+            if (step.getLocatorValue() != null) {
+                words(step.getLocatorValue().toLowerCase(Locale.ROOT), MAX_LOCATOR_WORDS).forEach(word -> features.add("step.target:" + word));
+            }
+        }
+        return List.copyOf(features);
+    }
+
+    private static List<String> words(String text, int limit) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        return WORD_SEPARATOR.splitAsStream(text)
+                .filter(word -> word.length() >= 3)
+                .distinct()
+                .limit(limit)
+                .toList();
+    }
+
+    private static String simpleName(String className) {
+        int dot = className.lastIndexOf('.');
+        return dot >= 0 ? className.substring(dot + 1) : className;
+    }
+
+    /**
+     * Оставляет от кадра стека простое имя класса и метод: {@code LoginPage.submit}.
+     */
+    private static String lastSegments(String frame) {
+        int methodDot = frame.lastIndexOf('.');
+        if (methodDot <= 0) {
+            return frame;
+        }
+        return simpleName(frame.substring(0, methodDot)) + frame.substring(methodDot);
+    }
+}
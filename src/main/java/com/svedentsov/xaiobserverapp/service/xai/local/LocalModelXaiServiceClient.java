@@ -0,0 +1,59 @@
+package com.svedentsov.xaiobserverapp.service.xai.local;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.service.xai.CachingXaiServiceClient;
+import com.svedentsov.xaiobserverapp.service.xai.XaiServiceClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Клиент XAI-анализа, сначала обращающийся к локальной модели - внешнее звено цепочки клиентов:
+ * {@code LocalModelXaiServiceClient -> CachingXaiServiceClient -> ResilientXaiServiceClient -> HttpXaiServiceClient}.
+ * <p>
+ * Если {@link LocalXaiModel} классифицирует сбой с уверенностью не ниже порога, результат возвращается
+ * сразу, без сетевого вызова. Иначе запрос уходит во внешний XAI-сервис, а его ответ сравнивается
+ * с предсказанием локальной модели и дообучает ее. Модель учится только на свежих ответах сервиса:
+ * попадания в кэш предсказаний повторяют уже учтенный ответ и в обучении не участвуют.
+ */
+@Slf4j
+@Primary
+@Service
+public class LocalModelXaiServiceClient implements XaiServiceClient {
+
+    private final CachingXaiServiceClient delegate;
+    private final LocalXaiModel model;
+
+    /**
+     * Конструктор клиента.
+     *
+     * @param delegate Клиент внешнего XAI-сервиса с кэшем предсказаний.
+     * @param model    Локальная модель.
+     */
+    public LocalModelXaiServiceClient(CachingXaiServiceClient delegate, LocalXaiModel model) {
+        this.delegate = delegate;
+        this.model = model;
+    }
+
+    @Override
+    public Optional<AnalysisResult> getPrediction(FailureEventDTO event) {
+        return getPredictionAsync(event).join();
+    }
+
+    @Override
+    public CompletableFuture<Optional<AnalysisResult>> getPredictionAsync(FailureEventDTO event) {
+        if (!model.isEnabled()) {
+            return delegate.getPredictionAsync(event);
+        }
+        LocalXaiModel.Classification classification = model.classify(event);
+        if (classification.confident()) {
+            log.debug("Failure {} classified by the local model.", event.testRunId());
+            return CompletableFuture.completedFuture(Optional.of(model.toResult(classification)));
+        }
+        return delegate.getPredictionAsync(event, prediction -> model.learnFromRemote(classification, prediction));
+    }
+}
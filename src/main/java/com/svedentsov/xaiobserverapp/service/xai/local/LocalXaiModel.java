@@ -0,0 +1,379 @@
+package com.svedentsov.xaiobserverapp.service.xai.local;
+
+import com.svedentsov.xaiobserverapp.dto.AnalysisFeedbackDTO;
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.LocalXaiModelStatsDTO;
+import com.svedentsov.xaiobserverapp.exception.ConflictException;
+import com.svedentsov.xaiobserverapp.model.AnalysisFeedback;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.repository.AnalysisFeedbackRepository;
+import com.svedentsov.xaiobserverapp.repository.AnalysisResultRepository;
+import com.svedentsov.xaiobserverapp.service.xai.local.NaiveBayesFailureClassifier.Prediction;
+import com.svedentsov.xaiobserverapp.service.xai.local.NaiveBayesFailureClassifier.Prototype;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Локальная (встроенная в JVM) модель классификации сбоев - быстрый заменитель внешнего XAI-сервиса
+ * для типовых категорий сбоев.
+ * <p>
+ * Модель ({@link NaiveBayesFailureClassifier}) обучается инкрементально:
+ * <ul>
+ *   <li>при старте - по сохраненным результатам XAI-сервиса, не отклоненным пользователями,
+ *   и по исправлениям пользователей (отзывам с указанной верной причиной);</li>
+ *   <li>в процессе работы - по каждому новому ответу XAI-сервиса и по каждому первому отзыву на
+ *   результат ML-анализа: подтвержденный локальный результат добавляется в модель, отклоненный
+ *   (локальный или XAI-сервиса) из нее вычитается, указанная пользователем причина становится новым классом.</li>
+ * </ul>
+ * Класс сбоя - значение {@code explanationData.prediction} ответа XAI-сервиса.
+ * Результат локальной модели использует причину и решение из последнего ответа XAI-сервиса
+ * (или исправления пользователя) этого класса, а в
+ * {@code explanationData} содержит вклад признаков события в выбор класса.
+ */
+@Slf4j
+@Component
+public class LocalXaiModel {
+
+    /**
+     * Ключ {@code explanationData} с классом сбоя.
+     */
+    public static final String PREDICTION_KEY = "prediction";
+
+    /**
+     * Ключ {@code explanationData} с источником результата ML-анализа.
+     */
+    public static final String SOURCE_KEY = "source";
+
+    /**
+     * Значение {@link #SOURCE_KEY} для результатов локальной модели.
+     */
+    public static final String LOCAL_SOURCE = "local-model";
+
+    private static final String ANALYSIS_TYPE = "Локальный ML-анализ";
+    private static final int TRAINING_PAGE_SIZE = 500;
+    private static final int MAX_LABEL_LENGTH = 200;
+
+    private final AnalysisResultRepository analysisResultRepository;
+    private final AnalysisFeedbackRepository analysisFeedbackRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final double confidenceThreshold;
+    private final long minExamples;
+    private final long minLabelExamples;
+    private final int trainingLimit;
+
+    private final NaiveBayesFailureClassifier classifier = new NaiveBayesFailureClassifier();
+    private final AtomicBoolean training = new AtomicBoolean();
+    private final LongAdder servedLocally = new LongAdder();
+    private final LongAdder delegated = new LongAdder();
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder agreements = new LongAdder();
+    private final LongAdder classifications = new LongAdder();
+    private final LongAdder classifyNanos = new LongAdder();
+
+    /**
+     * Конструктор локальной модели.
+     *
+     * @param analysisResultRepository   Репозиторий результатов анализа.
+     * @param analysisFeedbackRepository Репозиторий отзывов.
+     * @param transactionManager         Менеджер транзакций.
+     * @param enabled                    Включена ли локальная модель.
+     * @param confidenceThreshold        Минимальная уверенность для ответа без обращения к XAI-сервису.
+     * @param minExamples                Минимальное количество обучающих примеров модели для локальных ответов.
+     * @param minLabelExamples           Минимальное количество обучающих примеров предсказанного класса.
+     * @param trainingLimit              Сколько последних результатов анализа просматривать при обучении по истории.
+     */
+    public LocalXaiModel(AnalysisResultRepository analysisResultRepository,
+                         AnalysisFeedbackRepository analysisFeedbackRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${xai.analysis.local-model.enabled:true}") boolean enabled,
+                         @Value("${xai.analysis.local-model.confidence-threshold:0.9}") double confidenceThreshold,
+                         @Value("${xai.analysis.local-model.min-examples:50}") long minExamples,
+                         @Value("${xai.analysis.local-model.min-label-examples:10}") long minLabelExamples,
+                         @Value("${xai.analysis.local-model.training-limit:20000}") int trainingLimit) {
+        this.analysisResultRepository = analysisResultRepository;
+        this.analysisFeedbackRepository = analysisFeedbackRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.confidenceThreshold = confidenceThreshold;
+        this.minExamples = minExamples;
+        this.minLabelExamples = minLabelExamples;
+        this.trainingLimit = trainingLimit;
+    }
+
+    /**
+     * Запускает фоновое обучение по сохраненной истории.
+     */
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            startTraining();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Классифицирует сбой.
+     *
+     * @param event DTO события.
+     * @return Результат классификации: признаки события и предсказание (если модель может его дать).
+     */
+    public Classification classify(FailureEventDTO event) {
+        long start = System.nanoTime();
+        List<String> features = FailureFeatures.of(event);
+        Prediction prediction = classifier.predict(features).orElse(null);
+        classifyNanos.add(System.nanoTime() - start);
+        classifications.increment();
+        boolean confident = prediction != null
+                && prediction.probability() >= confidenceThreshold
+                && prediction.labelExamples() >= minLabelExamples
+                && prediction.prototype() != null
+                && classifier.examples() >= minExamples;
+        if (confident) {
+            servedLocally.increment();
+        } else {
+            delegated.increment();
+        }
+        return new Classification(features, prediction, confident);
+    }
+
+    /**
+     * Учитывает ответ XAI-сервиса: сравнивает его с предсказанием модели и добавляет в обучающие примеры.
+     *
+     * @param classification Результат локальной классификации того же события.
+     * @param result         Ответ XAI-сервиса.
+     */
+    public void learnFromRemote(Classification classification, AnalysisResult result) {
+        String label = labelOf(result);
+        if (label == null) {
+            return;
+        }
+        if (classification.prediction() != null) {
+            comparisons.increment();
+            if (label.equals(classification.prediction().label())) {
+                agreements.increment();
+            }
+        }
+        classifier.learn(classification.features(), label, prototypeOf(result), 1);
+    }
+
+    /**
+     * Учитывает первый отзыв пользователя на результат ML-анализа (локальной модели или XAI-сервиса).
+     * Должен вызываться внутри транзакции сохранения отзыва: модель меняется только после ее фиксации.
+     * Повторные оценки того же результата модель не меняют.
+     * <p>
+     * Отклонение вычитает пример предсказанного класса и для локального результата: признаки события
+     * ослабляют этот класс, поэтому повторение сбоя снижает уверенность модели и уходит во внешний сервис,
+     * даже если пользователь не указал верную причину.
+     *
+     * @param result   Результат анализа с загруженным тестовым запуском.
+     * @param previous Предыдущая оценка результата.
+     * @param feedback Отзыв пользователя.
+     */
+    public void onFeedback(AnalysisResult result, Boolean previous, AnalysisFeedbackDTO feedback) {
+        if (!enabled || previous != null || feedback.isAiSuggestionCorrect() == null) {
+            return;
+        }
+        String label = labelOf(result);
+        if (label == null) {
+            return;
+        }
+        boolean local = LOCAL_SOURCE.equals(result.getExplanationData().get(SOURCE_KEY));
+        List<String> features = FailureFeatures.of(result.getTestRun());
+        Runnable update;
+        if (feedback.isAiSuggestionCorrect()) {
+            update = local ? () -> classifier.learn(features, label, null, 1) : () -> { };
+        } else {
+            String correctedLabel = correctedLabel(feedback.userProvidedReason());
+            Prototype corrected = correctedLabel != null
+                    ? new Prototype(feedback.userProvidedReason(), feedback.userProvidedSolution())
+                    : null;
+            update = () -> {
+                classifier.learn(features, label, null, -1);
+                if (corrected != null) {
+                    classifier.learn(features, correctedLabel, corrected, 1);
+                }
+            };
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * Формирует результат анализа по уверенному предсказанию модели.
+     *
+     * @param classification Результат классификации.
+     * @return Результат анализа с вкладом признаков в {@code explanationData}.
+     */
+    public AnalysisResult toResult(Classification classification) {
+        Prediction prediction = classification.prediction();
+        var ar = new AnalysisResult();
+        ar.setAnalysisType(ANALYSIS_TYPE);
+        ar.setSuggestedReason(prediction.prototype().reason());
+        ar.setSolution(prediction.prototype().solution());
+        ar.setAiConfidence(Math.round(prediction.probability() * 1000) / 1000.0);
+        ar.setAnalysisTimestamp(LocalDateTime.now());
+        Map<String, Object> explanation = new LinkedHashMap<>();
+        explanation.put("type", "NaiveBayes");
+        explanation.put(SOURCE_KEY, LOCAL_SOURCE);
+        explanation.put(PREDICTION_KEY, prediction.label());
+        explanation.put("runner_up", prediction.runnerUp());
+        explanation.put("training_examples", prediction.labelExamples());
+        explanation.put("feature_importances", prediction.importances());
+        ar.setExplanationData(explanation);
+        return ar;
+    }
+
+    /**
+     * Сбрасывает модель и заново обучает ее по сохраненной истории в фоне.
+     *
+     * @return Статистика модели на момент запуска обучения.
+     * @throws ConflictException если модель отключена или обучение уже выполняется.
+     */
+    public LocalXaiModelStatsDTO retrain() {
+        if (!enabled) {
+            throw new ConflictException("Local XAI model is disabled");
+        }
+        if (!startTraining()) {
+            throw new ConflictException("Local XAI model training is already in progress");
+        }
+        return getStatistics();
+    }
+
+    /**
+     * Возвращает статистику модели.
+     *
+     * @return DTO со статистикой.
+     */
+    public LocalXaiModelStatsDTO getStatistics() {
+        NaiveBayesFailureClassifier.Summary summary = classifier.summary();
+        long compared = comparisons.sum();
+        long classified = classifications.sum();
+        return new LocalXaiModelStatsDTO(enabled, training.get(), confidenceThreshold, summary.examples(), summary.vocabulary(),
+                servedLocally.sum(), delegated.sum(), compared,
+                compared == 0 ? null : (double) agreements.sum() / compared,
+                classified == 0 ? 0.0 : classifyNanos.sum() / 1_000.0 / classified,
+                summary.labelExamples());
+    }
+
+    private boolean startTraining() {
+        if (!training.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                classifier.clear();
+                long started = System.currentTimeMillis();
+                int learned = trainFromHistory();
+                log.info("Local XAI model trained on {} stored analyses and corrections in {} ms.", learned, System.currentTimeMillis() - started);
+            } catch (RuntimeException e) {
+                log.error("Local XAI model training failed: {}", e.getMessage(), e);
+            } finally {
+                training.set(false);
+            }
+        }, "local-xai-training");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private int trainFromHistory() {
+        int learned = 0;
+        for (int page = 0; page * TRAINING_PAGE_SIZE < trainingLimit; page++) {
+            int pageNumber = page;
+            List<AnalysisResult> results = readOnlyTransaction.execute(status ->
+                    analysisResultRepository.findTrainingCandidates(TestRun.TestStatus.PASSED, PageRequest.of(pageNumber, TRAINING_PAGE_SIZE)));
+            if (results == null || results.isEmpty()) {
+                break;
+            }
+            for (AnalysisResult result : results) {
+                String label = labelOf(result);
+                boolean local = label != null && LOCAL_SOURCE.equals(result.getExplanationData().get(SOURCE_KEY));
+                if (label != null && (!local || Boolean.TRUE.equals(result.getUserConfirmedCorrect()))) {
+                    classifier.learn(FailureFeatures.of(result.getTestRun()), label, local ? null : prototypeOf(result), 1);
+                    learned++;
+                }
+            }
+            if (results.size() < TRAINING_PAGE_SIZE) {
+                break;
+            }
+        }
+        List<AnalysisFeedback> corrections = readOnlyTransaction.execute(status ->
+                analysisFeedbackRepository.findCorrections(Limit.of(trainingLimit)));
+        if (corrections != null) {
+            for (AnalysisFeedback correction : corrections) {
+                AnalysisResult result = correction.getAnalysisResult();
+                String label = correctedLabel(correction.getUserProvidedReason());
+                if (label != null) {
+                    classifier.learn(FailureFeatures.of(result.getTestRun()), label,
+                            new Prototype(correction.getUserProvidedReason(), correction.getUserProvidedSolution()), 1);
+                    learned++;
+                }
+            }
+        }
+        return learned;
+    }
+
+    /**
+     * Класс сбоя результата ML-анализа: {@code explanationData.prediction}. Результаты без этого ключа
+     * (правила, известные проблемы, общее резюме) в обучении не участвуют.
+     */
+    private static String labelOf(AnalysisResult result) {
+        Map<String, Object> explanation = result.getExplanationData();
+        if (explanation != null && explanation.get(PREDICTION_KEY) instanceof String label && StringUtils.hasText(label)) {
+            return label;
+        }
+        return null;
+    }
+
+    private static String correctedLabel(String userProvidedReason) {
+        if (!StringUtils.hasText(userProvidedReason)) {
+            return null;
+        }
+        String label = userProvidedReason.strip();
+        return label.length() > MAX_LABEL_LENGTH ? label.substring(0, MAX_LABEL_LENGTH) : label;
+    }
+
+    private static Prototype prototypeOf(AnalysisResult result) {
+        return new Prototype(result.getSuggestedReason(), result.getSolution());
+    }
+
+    /**
+     * Результат локальной классификации события.
+     *
+     * @param features   Признаки события.
+     * @param prediction Предсказание модели ({@code null}, если модель не может классифицировать событие).
+     * @param confident  Достаточно ли предсказание уверенное, чтобы не обращаться к XAI-сервису.
+     */
+    public record Classification(List<String> features, Prediction prediction, boolean confident) {
+    }
+}
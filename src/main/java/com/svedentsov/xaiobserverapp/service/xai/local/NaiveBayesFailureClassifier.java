@@ -0,0 +1,279 @@
+package com.svedentsov.xaiobserverapp.service.xai.local;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Мультиномиальный наивный байесовский классификатор сбоев по хэшированным признакам.
+ * <p>
+ * Признаки ({@link FailureFeatures}) хэшируются в пространство фиксированного размера {@value #DIMENSION},
+ * поэтому словарь не растет неограниченно. Обучение инкрементальное: пример добавляет (или, при отрицательной
+ * обратной связи, вычитает) единицу к счетчикам признаков своего класса. Сглаживание Лапласа.
+ * <p>
+ * Наивное предположение о независимости признаков для сбоев заведомо неверно (слова сообщения и кадры стека
+ * сильно коррелированы), из-за чего апостериорные вероятности получаются близкими к 0 и 1. Поэтому
+ * логарифмы правдоподобия делятся на {@code max(1, n / EFFECTIVE_FEATURES)}, где {@code n} - число известных
+ * модели признаков события: уверенность соответствует примерно {@value #EFFECTIVE_FEATURES} независимым признакам.
+ * <p>
+ * Класс потокобезопасен: предсказания выполняются под блокировкой чтения, обучение - под блокировкой записи.
+ */
+final class NaiveBayesFailureClassifier {
+
+    static final int DIMENSION = 1 << 18;
+    private static final double ALPHA = 1.0;
+    private static final double EFFECTIVE_FEATURES = 5.0;
+    private static final int MAX_IMPORTANCES = 5;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, LabelModel> labels = new HashMap<>();
+    /**
+     * Для каждого хэша - в скольких примерах (всех классов) встречался признак.
+     */
+    private final int[] documentFrequency = new int[DIMENSION];
+    private int vocabulary;
+    private long documents;
+
+    /**
+     * Добавляет пример в модель или вычитает ранее добавленный.
+     *
+     * @param features  Признаки примера.
+     * @param label     Класс примера.
+     * @param prototype Текст результата для класса (причина и решение); {@code null} - оставить прежний.
+     * @param delta     {@code 1} - добавить пример, {@code -1} - вычесть.
+     */
+    void learn(List<String> features, String label, Prototype prototype, int delta) {
+        int[] hashes = hash(features);
+        lock.writeLock().lock();
+        try {
+            LabelModel model = labels.get(label);
+            if (model == null) {
+                if (delta < 0) {
+                    return;
+                }
+                model = new LabelModel();
+                labels.put(label, model);
+            }
+            if (delta < 0 && model.documents == 0) {
+                return;
+            }
+            for (int hash : hashes) {
+                int count = model.counts.getOrDefault(hash, 0);
+                if (delta < 0 && count == 0) {
+                    continue;
+                }
+                if (count + delta == 0) {
+                    model.counts.remove(hash);
+                } else {
+                    model.counts.put(hash, count + delta);
+                }
+                model.tokens += delta;
+                int before = documentFrequency[hash];
+                documentFrequency[hash] = Math.max(before + delta, 0);
+                if (before == 0 && documentFrequency[hash] > 0) {
+                    vocabulary++;
+                } else if (before > 0 && documentFrequency[hash] == 0) {
+                    vocabulary--;
+                }
+            }
+            model.documents += delta;
+            documents += delta;
+            if (prototype != null && delta > 0) {
+                model.prototype = prototype;
+            }
+            if (model.documents == 0) {
+                labels.remove(label);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Определяет наиболее вероятный класс сбоя.
+     *
+     * @param features Признаки события.
+     * @return Предсказание или пустой Optional, если в модели меньше двух классов
+     * или ни один признак события модели не известен.
+     */
+    Optional<Prediction> predict(List<String> features) {
+        int[] hashes = hash(features);
+        lock.readLock().lock();
+        try {
+            if (labels.size() < 2) {
+                return Optional.empty();
+            }
+            List<Integer> known = new ArrayList<>(hashes.length);
+            List<String> knownNames = new ArrayList<>(hashes.length);
+            for (int i = 0; i < hashes.length; i++) {
+                if (documentFrequency[hashes[i]] > 0) {
+                    known.add(hashes[i]);
+                    knownNames.add(features.get(i));
+                }
+            }
+            if (known.isEmpty()) {
+                return Optional.empty();
+            }
+            double temperature = Math.max(1.0, known.size() / EFFECTIVE_FEATURES);
+            List<Map.Entry<String, LabelModel>> entries = new ArrayList<>(labels.entrySet());
+            double[] scores = new double[entries.size()];
+            int best = 0;
+            int second = -1;
+            for (int c = 0; c < entries.size(); c++) {
+                LabelModel model = entries.get(c).getValue();
+                double score = Math.log((model.documents + 1.0) / (documents + labels.size()));
+                double likelihood = 0;
+                for (int hash : known) {
+                    likelihood += model.logProbability(hash, vocabulary);
+                }
+                scores[c] = score + likelihood / temperature;
+                if (c > 0 && scores[c] > scores[best]) {
+                    second = best;
+                    best = c;
+                } else if (c > 0 && (second < 0 || scores[c] > scores[second])) {
+                    second = c;
+                }
+            }
+            double normalizer = 0;
+            for (double score : scores) {
+                normalizer += Math.exp(score - scores[best]);
+            }
+            LabelModel top = entries.get(best).getValue();
+            LabelModel runnerUp = entries.get(second).getValue();
+            return Optional.of(new Prediction(entries.get(best).getKey(), 1.0 / normalizer, entries.get(second).getKey(),
+                    top.prototype, top.documents, importances(known, knownNames, top, runnerUp)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет все примеры.
+     */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            labels.clear();
+            Arrays.fill(documentFrequency, 0);
+            vocabulary = 0;
+            documents = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Количество обучающих примеров.
+     *
+     * @return Количество примеров всех классов.
+     */
+    long examples() {
+        lock.readLock().lock();
+        try {
+            return documents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Снимок размеров модели.
+     *
+     * @return Количество примеров, размер словаря и количество примеров каждого класса.
+     */
+    Summary summary() {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> perLabel = new LinkedHashMap<>();
+            labels.entrySet().stream()
+                    .sorted(Map.Entry.<String, LabelModel>comparingByValue(Comparator.comparingLong(m -> -m.documents)))
+                    .forEach(e -> perLabel.put(e.getKey(), e.getValue().documents));
+            return new Summary(documents, vocabulary, perLabel);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Вклад признаков в выбор класса: разность логарифмов правдоподобия признака для выбранного класса
+     * и ближайшего конкурента, нормированная к сумме 1. Возвращаются только признаки "за" выбранный класс.
+     */
+    private Map<String, Double> importances(List<Integer> known, List<String> names, LabelModel top, LabelModel runnerUp) {
+        List<Map.Entry<String, Double>> contributions = new ArrayList<>();
+        for (int i = 0; i < known.size(); i++) {
+            double delta = top.logProbability(known.get(i), vocabulary) - runnerUp.logProbability(known.get(i), vocabulary);
+            if (delta > 0) {
+                contributions.add(Map.entry(names.get(i), delta));
+            }
+        }
+        contributions.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+        List<Map.Entry<String, Double>> topContributions = contributions.subList(0, Math.min(MAX_IMPORTANCES, contributions.size()));
+        double total = topContributions.stream().mapToDouble(Map.Entry::getValue).sum();
+        Map<String, Double> result = new LinkedHashMap<>();
+        topContributions.forEach(e -> result.put(e.getKey(), Math.round(e.getValue() / total * 1000) / 1000.0));
+        return result;
+    }
+
+    private static int[] hash(List<String> features) {
+        int[] hashes = new int[features.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            int h = features.get(i).hashCode() * 0x9E3779B9;
+            hashes[i] = (h ^ (h >>> 16)) & (DIMENSION - 1);
+        }
+        return hashes;
+    }
+
+    /**
+     * Счетчики одного класса.
+     */
+    private static final class LabelModel {
+        private final Map<Integer, Integer> counts = new HashMap<>();
+        private long tokens;
+        private long documents;
+        private Prototype prototype;
+
+        double logProbability(int hash, int vocabulary) {
+            return Math.log((counts.getOrDefault(hash, 0) + ALPHA) / (tokens + ALPHA * Math.max(vocabulary, 1)));
+        }
+    }
+
+    /**
+     * Текст результата анализа, который выдается для класса.
+     *
+     * @param reason   Предполагаемая причина.
+     * @param solution Рекомендуемое решение.
+     */
+    record Prototype(String reason, String solution) {
+    }
+
+    /**
+     * Предсказание модели.
+     *
+     * @param label         Наиболее вероятный класс.
+     * @param probability   Его апостериорная вероятность.
+     * @param runnerUp      Второй по вероятности класс.
+     * @param prototype     Текст результата для класса.
+     * @param labelExamples Количество обучающих примеров класса.
+     * @param importances   Вклад признаков события в выбор класса.
+     */
+    record Prediction(String label, double probability, String runnerUp, Prototype prototype, long labelExamples,
+                      Map<String, Double> importances) {
+    }
+
+    /**
+     * Размеры модели.
+     *
+     * @param examples      Количество обучающих примеров.
+     * @param vocabulary    Количество различных хэшей признаков.
+     * @param labelExamples Количество примеров каждого класса.
+     */
+    record Summary(long examples, int vocabulary, Map<String, Long> labelExamples) {
+    }
+}
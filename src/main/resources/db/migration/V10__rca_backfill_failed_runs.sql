@@ -0,0 +1,3 @@
+-- ID запусков, анализ которых при повторном анализе завершился ошибкой. Контрольная точка last_key проходит
+-- мимо них, поэтому задание повторяет их отдельным проходом, а не теряет при продолжении.
+ALTER TABLE rca_backfill_job ADD COLUMN failed_run_ids JSON;
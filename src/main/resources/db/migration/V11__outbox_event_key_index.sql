@@ -0,0 +1,2 @@
+-- Выбор готовых к доставке событий outbox проверяет, нет ли у ключа более раннего недоставленного события.
+CREATE INDEX idx_outbox_event_key ON outbox_event (aggregate_key, failed, id);
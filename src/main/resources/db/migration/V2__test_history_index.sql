@@ -0,0 +1,4 @@
+-- Составной индекс по идентичности теста и времени завершения.
+-- Обслуживает запрос истории одного теста (класс + метод), отсортированной по времени,
+-- без сортировки в памяти и без обращения к индексу idx_testrun_test_name с последующей фильтрацией.
+CREATE INDEX idx_testrun_identity_timestamp ON test_run(test_class, test_method, timestamp);
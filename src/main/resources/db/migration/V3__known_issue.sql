@@ -0,0 +1,11 @@
+-- Каталог известных проблем: подстроки-сигнатуры, по которым сбои автоматически
+-- связываются с тикетами инфраструктурных ошибок и дефектов продукта.
+CREATE TABLE known_issue (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    signature VARCHAR(1000) NOT NULL,
+    ticket_id VARCHAR(100),
+    title VARCHAR(500),
+    enabled BOOLEAN NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP
+);
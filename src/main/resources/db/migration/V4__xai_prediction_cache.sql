@@ -0,0 +1,12 @@
+-- Персистентный кэш предсказаний XAI-сервиса, ключ - отпечаток сбоя (тип исключения,
+-- нормализованное сообщение, локатор шага). Позволяет кэшу пережить перезапуск приложения.
+CREATE TABLE xai_prediction_cache (
+    fingerprint VARCHAR(64) PRIMARY KEY,
+    analysis_type VARCHAR(255),
+    suggested_reason VARCHAR(2000),
+    solution VARCHAR(4000),
+    ai_confidence DOUBLE PRECISION,
+    explanation_data JSON,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,5 @@
+-- Статус анализа первопричин запуска: PENDING - анализ еще выполняется в фоне (отложенный RCA),
+-- COMPLETED - результаты сохранены, FAILED - анализ завершился ошибкой.
+ALTER TABLE test_run ADD COLUMN analysis_status VARCHAR(50) DEFAULT 'COMPLETED' NOT NULL;
+
+CREATE INDEX idx_test_run_analysis_status ON test_run (analysis_status);
@@ -0,0 +1,31 @@
+-- Задания повторного анализа первопричин (RCA backfill) исторических запусков.
+-- last_key - контрольная точка: ID последнего обработанного запуска (обход идет по возрастанию ID),
+-- она фиксируется в той же транзакции, что и результаты пакета, поэтому прерванное задание
+-- продолжается ровно с необработанного запуска.
+CREATE TABLE rca_backfill_job (
+    id VARCHAR(36) PRIMARY KEY,
+    state VARCHAR(20) NOT NULL,
+    dry_run BOOLEAN NOT NULL,
+    use_xai BOOLEAN NOT NULL,
+    statuses VARCHAR(100) NOT NULL,
+    from_timestamp TIMESTAMP,
+    to_timestamp TIMESTAMP,
+    test_class VARCHAR(255),
+    environment VARCHAR(255),
+    analysis_status VARCHAR(20),
+    parallelism INT NOT NULL,
+    batch_size INT NOT NULL,
+    max_xai_requests_per_second DOUBLE PRECISION,
+    last_key VARCHAR(255),
+    total_runs BIGINT NOT NULL,
+    processed_runs BIGINT NOT NULL,
+    changed_runs BIGINT NOT NULL,
+    unchanged_runs BIGINT NOT NULL,
+    failed_runs BIGINT NOT NULL,
+    diff_sample JSON,
+    error_message VARCHAR(2000),
+    created_at TIMESTAMP NOT NULL,
+    started_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    finished_at TIMESTAMP
+);
@@ -0,0 +1,9 @@
+-- Накопительные счетчики обратной связи пользователей по правилам RCA.
+-- Обновляются инкрементально при каждом отзыве, поэтому точность правила не требует
+-- агрегирующего запроса по всей таблице analysis_feedback.
+CREATE TABLE rca_rule_feedback (
+    rule_id VARCHAR(255) PRIMARY KEY,
+    confirmed BIGINT NOT NULL,
+    rejected BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
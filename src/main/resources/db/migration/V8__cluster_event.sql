@@ -0,0 +1,11 @@
+-- Журнал событий кластера: узлы публикуют сюда сброс кэшей и рассылки клиентам и читают события
+-- друг друга по возрастанию id. Id также служит сквозным номером события живого потока запусков.
+CREATE TABLE cluster_event (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    node_id VARCHAR(64) NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    payload TEXT,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_cluster_event_created_at ON cluster_event (created_at);
@@ -0,0 +1,17 @@
+-- Транзакционный outbox: события о сохраненных данных записываются в одной транзакции с самими данными
+-- и доставляются подписчикам после фиксации. Строка удаляется после успешной доставки.
+CREATE TABLE outbox_event (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type VARCHAR(32) NOT NULL,
+    aggregate_key VARCHAR(512) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    next_attempt_at TIMESTAMP NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    claim_token VARCHAR(64),
+    last_error VARCHAR(1000),
+    failed BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE INDEX idx_outbox_event_pending ON outbox_event (failed, id);
+CREATE INDEX idx_outbox_event_claim_token ON outbox_event (claim_token);
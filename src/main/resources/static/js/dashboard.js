@@ -7,6 +7,7 @@
             statistics: '/api/v1/statistics',
             paginatedTests: (page, size) => `/api/v1/tests?page=${page}&size=${size}&sort=timestamp,desc`,
             testDetails: (id) => `/api/v1/tests/${id}`,
+            liveReplay: (params) => `/api/v1/live/test-runs?${params}`,
             feedback: (id) => `/api/v1/analysis/${id}/feedback`,
             deleteAll: '/api/v1/tests/all',
             createDemo: '/demo/create'
@@ -42,7 +43,7 @@
     };
 
     // --- 2. МОДУЛЬ СОСТОЯНИЯ ПРИЛОЖЕНИЯ ---
-    const state = { stompClient: null, charts: {}, testDetailsCache: new Map(), currentPage: 0, isLoading: false, isLastPage: false, activeFilters: { status: 'ALL', searchQuery: '' }, debounceTimer: null };
+    const state = { stompClient: null, charts: {}, testDetailsCache: new Map(), currentPage: 0, isLoading: false, isLastPage: false, lastSequence: null, activeFilters: { status: 'ALL', searchQuery: '' }, debounceTimer: null };
 
     // --- 3. СЕРВИСНЫЙ МОДУЛЬ API ---
     const apiService = {
@@ -51,6 +52,7 @@
         getPaginatedTests: (page, size) => apiService.fetchJson(config.API_ENDPOINTS.paginatedTests(page, size)),
         getStatistics: () => apiService.fetchJson(`${config.API_ENDPOINTS.statistics}?_=${new Date().getTime()}`),
         getTestDetails: (id) => apiService.fetchJson(config.API_ENDPOINTS.testDetails(id)),
+        replayLiveRuns: (after, filterParams) => { const params = new URLSearchParams(filterParams); if (after !== null) params.set('after', after); return apiService.fetchJson(config.API_ENDPOINTS.liveReplay(params)); },
         submitFeedback: (id, data) => apiService.fetchWithMethod('POST', config.API_ENDPOINTS.feedback(id), data),
         deleteAllData: () => apiService.fetchWithMethod('DELETE', config.API_ENDPOINTS.deleteAll),
         createDemo: () => apiService.fetchWithMethod('POST', config.API_ENDPOINTS.createDemo),
@@ -119,12 +121,14 @@
     };
 
     // --- 7. МОДУЛЬ WEBSOCKET ---
-    const webSocketHandler = { connect() { try { const socket = new SockJS('/ws'); state.stompClient = Stomp.over(socket); state.stompClient.debug = null; state.stompClient.connect({}, () => { uiRenderer.showToast('Подключено к серверу для обновлений.', 'success'); state.stompClient.subscribe('/topic/new-test-run', message => { const newTestRun = JSON.parse(message.body); state.testDetailsCache.set(newTestRun.id, newTestRun); uiRenderer.prependNewTestRow(newTestRun); actions.loadStatistics(); uiRenderer.showToast(`Получен новый запуск: ${newTestRun.testMethod}`, 'info'); }); }, () => { uiRenderer.showToast('Соединение потеряно. Переподключение...', 'error'); setTimeout(() => this.connect(), 5000); }); } catch (e) { uiRenderer.showToast('Не удалось подключиться к WebSocket.', 'error'); } } };
+    const webSocketHandler = { connect() { try { const socket = new SockJS('/ws'); state.stompClient = Stomp.over(socket); state.stompClient.debug = null; state.stompClient.connect({}, () => { uiRenderer.showToast('Подключено к серверу для обновлений.', 'success'); state.stompClient.subscribe(this.liveDestination(), message => { const batch = JSON.parse(message.body); this.applyRuns(batch.runs); if (batch.omitted > 0) this.resume(); const total = batch.runs.length + batch.omitted; if (total === 1) uiRenderer.showToast(`Получен новый запуск: ${batch.runs[0].testMethod}`, 'info'); else uiRenderer.showToast(`Получено новых запусков: ${total}`, 'info'); }); state.stompClient.subscribe('/topic/statistics', message => actions.renderStatistics(JSON.parse(message.body))); this.resume(); }, () => { uiRenderer.showToast('Соединение потеряно. Переподключение...', 'error'); setTimeout(() => this.connect(), 5000); }); } catch (e) { uiRenderer.showToast('Не удалось подключиться к WebSocket.', 'error'); } }, liveFilterParams() { const params = new URLSearchParams(window.location.search); return ['suite', 'environment', 'app-version', 'status'].filter(dimension => params.get(dimension)).map(dimension => [dimension, params.get(dimension)]); }, liveDestination() { return this.liveFilterParams().reduce((destination, [dimension, value]) => `${destination}/${dimension}/${encodeURIComponent(value)}`, '/topic/new-test-run'); }, applyRuns(runs) { runs.forEach(summary => { if (state.lastSequence === null || summary.sequence > state.lastSequence) state.lastSequence = summary.sequence; if (config.DOM.testListTableBody.querySelector(`.test-row[data-id="${summary.id}"]`)) return; state.testDetailsCache.delete(summary.id); uiRenderer.prependNewTestRow(summary); if (summary.analysisStatus === 'PENDING') this.awaitAnalysis(summary.id); }); }, async resume() { try { const firstConnect = state.lastSequence === null; const replay = await apiService.replayLiveRuns(state.lastSequence, this.liveFilterParams()); if (firstConnect) { state.lastSequence = Math.max(state.lastSequence ?? 0, replay.lastSequence); return; } if (replay.gap) { state.lastSequence = replay.lastSequence; uiRenderer.showToast('Пропущено слишком много запусков, список перезагружается.', 'info'); actions.reloadTestRuns(); return; } this.applyRuns(replay.runs); state.lastSequence = Math.max(state.lastSequence, replay.lastSequence); if (replay.hasMore) this.resume(); } catch (error) { console.error('Failed to resume live updates:', error); } }, awaitAnalysis(testRunId) { let settled = false; const settle = analyzedRun => { if (settled) return; settled = true; subscription.unsubscribe(); if (!analyzedRun) return; state.testDetailsCache.set(analyzedRun.id, analyzedRun); const selectedRow = config.DOM.testListTableBody.querySelector('.test-row.selected'); if (selectedRow && selectedRow.dataset.id === analyzedRun.id) uiRenderer.renderTestDetails(analyzedRun); }; const subscription = state.stompClient.subscribe(`/topic/test-runs/${testRunId}/analysis`, message => settle(JSON.parse(message.body))); apiService.getTestDetails(testRunId).then(run => { if (run.analysisStatus !== 'PENDING') settle(run); }).catch(() => settle(null)); } };
 
     // --- 8. МОДУЛЬ ДЕЙСТВИЙ (CONTROLLER) ---
     const actions = {
         async fetchAndRenderTestRuns(page, initialLoad = false) { if (state.isLoading || state.isLastPage) return; state.isLoading = true; config.DOM.listSpinner.style.display = 'block'; try { const pageData = await apiService.getPaginatedTests(page, config.PAGE_SIZE); const fragment = document.createDocumentFragment(); pageData.content.forEach(run => { state.testDetailsCache.set(run.id, run); fragment.appendChild(uiRenderer.createTestRow(run)); }); config.DOM.testListTableBody.appendChild(fragment); state.isLastPage = pageData.last; state.currentPage = pageData.number; if (initialLoad && pageData.content.length > 0) { const firstRow = config.DOM.testListTableBody.querySelector('.test-row'); if (firstRow) this.loadTestDetails(firstRow.dataset.id, firstRow); } uiRenderer.applyFilters(); } catch (error) { uiRenderer.showToast('Не удалось загрузить список тестов.', 'error'); } finally { state.isLoading = false; config.DOM.listSpinner.style.display = 'none'; } },
-        async loadStatistics() { try { const stats = await apiService.getStatistics(); uiRenderer.renderStatistics(stats); chartManager.renderPassRateChart(stats.dailyPassRateTrend); chartManager.renderTopFailingTestsChart(stats.topFailingTests); chartManager.renderExceptionTypesChart(stats.topExceptionTypes); chartManager.renderPieChart('runsBySuite', config.DOM.runsBySuiteChartCtx, stats.runsBySuite); chartManager.renderPieChart('runsByEnv', config.DOM.runsByEnvChartCtx, stats.runsByEnvironment); } catch (error) { console.error("Failed to load statistics:", error); uiRenderer.showToast('Не удалось загрузить статистику.', 'error'); } },
+        reloadTestRuns() { config.DOM.testListTableBody.innerHTML = ''; state.testDetailsCache.clear(); state.currentPage = 0; state.isLastPage = false; this.fetchAndRenderTestRuns(0); },
+        async loadStatistics() { try { this.renderStatistics(await apiService.getStatistics()); } catch (error) { console.error("Failed to load statistics:", error); uiRenderer.showToast('Не удалось загрузить статистику.', 'error'); } },
+        renderStatistics(stats) { uiRenderer.renderStatistics(stats); chartManager.renderPassRateChart(stats.dailyPassRateTrend); chartManager.renderTopFailingTestsChart(stats.topFailingTests); chartManager.renderExceptionTypesChart(stats.topExceptionTypes); chartManager.renderPieChart('runsBySuite', config.DOM.runsBySuiteChartCtx, stats.runsBySuite); chartManager.renderPieChart('runsByEnv', config.DOM.runsByEnvChartCtx, stats.runsByEnvironment); },
         async loadTestDetails(testRunId, selectedRow = null) { document.querySelectorAll('.test-row.selected').forEach(row => row.classList.remove('selected')); if (selectedRow) selectedRow.classList.add('selected'); document.body.classList.add('show-details-on-mobile'); uiRenderer.renderPlaceholder('Загрузка деталей...'); if (state.testDetailsCache.has(testRunId)) { uiRenderer.renderTestDetails(state.testDetailsCache.get(testRunId)); return; } try { const testRun = await apiService.getTestDetails(testRunId); state.testDetailsCache.set(testRunId, testRun); uiRenderer.renderTestDetails(testRun); } catch (error) { uiRenderer.renderPlaceholder('Ошибка при загрузке деталей.', true); uiRenderer.showToast('Не удалось загрузить детали.', 'error'); } },
         async submitAiFeedback(analysisId, isCorrect, button) { const feedbackContainer = button.closest('.feedback-actions'); if (feedbackContainer.classList.contains('voted')) return; try { await apiService.submitFeedback(analysisId, { isAiSuggestionCorrect: isCorrect }); uiRenderer.showToast('Спасибо за ваш отзыв!', 'success'); feedbackContainer.classList.add('voted'); button.classList.add(isCorrect ? 'selected-true' : 'selected-false'); } catch (error) { uiRenderer.showToast('Не удалось отправить отзыв.', 'error'); } },
         async deleteAllData() { if (confirm('Вы уверены, что хотите удалить все данные? Это действие необратимо.')) { try { await apiService.deleteAllData(); uiRenderer.showToast('Все данные удалены. Страница будет перезагружена.', 'success'); setTimeout(() => window.location.reload(), 2000); } catch (error) { uiRenderer.showToast('Ошибка при удалении данных.', 'error'); } } },
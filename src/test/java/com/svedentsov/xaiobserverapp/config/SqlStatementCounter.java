@@ -0,0 +1,70 @@
+package com.svedentsov.xaiobserverapp.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Счетчик SQL-выражений, отправляемых Hibernate в БД в текущем потоке.
+ * Регистрируется как {@link StatementInspector} ({@code hibernate.session_factory.statement_inspector})
+ * только в тестовом профиле ({@code application-test.properties}) и не изменяет SQL, а только увеличивает
+ * потоковый счетчик.
+ * <p>
+ * Позволяет зафиксировать количество запросов для сценария и обнаружить регрессии N+1:
+ * <pre>
+ * SqlStatementCounter.reset();
+ * testRunService.getAllTestRunsPaginated(PageRequest.of(0, 30));
+ * SqlStatementCounter.assertCount(8);
+ * </pre>
+ * Запросы, выполняемые напрямую через JDBC (например, выгрузка), не учитываются.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNTER = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNTER.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Обнуляет счетчик текущего потока.
+     */
+    public static void reset() {
+        COUNTER.get()[0] = 0;
+    }
+
+    /**
+     * Возвращает количество SQL-выражений, выполненных в текущем потоке с момента последнего сброса.
+     *
+     * @return Количество выражений.
+     */
+    public static long get() {
+        return COUNTER.get()[0];
+    }
+
+    /**
+     * Проверяет, что с момента последнего сброса было выполнено ровно {@code expected} выражений.
+     *
+     * @param expected Ожидаемое количество.
+     * @throws IllegalStateException если фактическое количество отличается.
+     */
+    public static void assertCount(long expected) {
+        long actual = get();
+        if (actual != expected) {
+            throw new IllegalStateException("Expected " + expected + " SQL statements but " + actual + " were executed");
+        }
+    }
+
+    /**
+     * Проверяет, что с момента последнего сброса было выполнено не более {@code max} выражений.
+     *
+     * @param max Допустимый максимум.
+     * @throws IllegalStateException если лимит превышен.
+     */
+    public static void assertAtMost(long max) {
+        long actual = get();
+        if (actual > max) {
+            throw new IllegalStateException("Expected at most " + max + " SQL statements but " + actual + " were executed");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.svedentsov.xaiobserverapp.repository;
+
+import com.svedentsov.xaiobserverapp.model.OutboxEvent;
+import com.svedentsov.xaiobserverapp.model.OutboxEvent.OutboxEventType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет выбор готовых к доставке событий outbox: событие, ожидающее повтора, задерживает только
+ * следующие события своего ключа и не занимает пакет, предназначенный для остальных ключей.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxEventRepository repository;
+
+    @Test
+    void keyAwaitingRetryDoesNotStallOtherKeys() {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent stalled = event("run-a", now);
+        stalled.setNextAttemptAt(now.plusMinutes(1));
+        repository.save(stalled);
+        repository.save(event("run-a", now));
+        repository.save(event("run-a", now));
+        long b1 = repository.save(event("run-b", now)).getId();
+        long c1 = repository.save(event("run-c", now)).getId();
+        repository.save(event("run-c", now));
+
+        assertThat(repository.findDeliverableIds(now, Limit.of(2))).containsExactly(b1, c1);
+    }
+
+    @Test
+    void failedEventNoLongerBlocksItsKey() {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent failed = event("run-d", now);
+        failed.setFailed(true);
+        repository.save(failed);
+        long d2 = repository.save(event("run-d", now)).getId();
+        repository.save(event("run-d", now));
+
+        assertThat(repository.findDeliverableIds(now, Limit.of(10))).containsExactly(d2);
+    }
+
+    private static OutboxEvent event(String key, LocalDateTime now) {
+        return new OutboxEvent(OutboxEventType.TEST_RUN_SAVED, key, "{}", now.minusSeconds(1));
+    }
+}
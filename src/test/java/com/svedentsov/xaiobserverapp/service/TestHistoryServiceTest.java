@@ -0,0 +1,64 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import com.svedentsov.xaiobserverapp.dto.TestHistoryTimelineDTO;
+import com.svedentsov.xaiobserverapp.model.TestRun.TestStatus;
+import com.svedentsov.xaiobserverapp.repository.TestRunHistoryPoint;
+import com.svedentsov.xaiobserverapp.repository.TestRunRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Проверяет сборку временной шкалы: порядок по возрастанию времени и история длиннее начального буфера.
+ */
+class TestHistoryServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private final TestRunRepository repository = mock(TestRunRepository.class);
+    private final TestHistoryService service = new TestHistoryService(repository);
+
+    @Test
+    void longHistoryIsReturnedInAscendingOrder() {
+        int runs = 1_000;
+        when(repository.streamHistory(eq("LoginTests"), eq("login"), any()))
+                .thenReturn(LongStream.range(0, runs).map(i -> runs - 1 - i).mapToObj(TestHistoryServiceTest::point));
+
+        TestHistoryTimelineDTO timeline = service.getTimeline("LoginTests", "login", TestHistoryService.MAX_LIMIT);
+
+        assertThat(timeline.count()).isEqualTo(runs);
+        assertThat(timeline.timestampDeltas()).hasSize(runs).startsWith(0L).containsOnly(0L, 1_000L);
+        assertThat(timeline.durations()[0]).isZero();
+        assertThat(timeline.durations()[runs - 1]).isEqualTo(runs - 1);
+        assertThat(timeline.statusCodes()[1]).isEqualTo(TestStatus.FAILED.ordinal());
+        assertThat(timeline.configurationIdDeltas()).containsOnly(7L, 0L);
+    }
+
+    @Test
+    void emptyHistory() {
+        when(repository.streamHistory(any(), any(), any())).thenReturn(Stream.empty());
+
+        TestHistoryTimelineDTO timeline = service.getTimeline("LoginTests", "login", 10);
+
+        assertThat(timeline.count()).isZero();
+        assertThat(timeline.baseTimestamp()).isZero();
+        assertThat(timeline.durations()).isEmpty();
+    }
+
+    private static TestRunHistoryPoint point(long index) {
+        TestRunHistoryPoint point = mock(TestRunHistoryPoint.class);
+        when(point.getRunTimestamp()).thenReturn(START.plusSeconds(index));
+        when(point.getRunStatus()).thenReturn(index % 2 == 0 ? TestStatus.PASSED : TestStatus.FAILED);
+        when(point.getRunDuration()).thenReturn(index);
+        when(point.getConfigurationId()).thenReturn(7L);
+        return point;
+    }
+}
@@ -0,0 +1,77 @@
+package com.svedentsov.xaiobserverapp.service;
+
+import com.svedentsov.xaiobserverapp.config.SqlStatementCounter;
+import com.svedentsov.xaiobserverapp.dto.TestRunDetailDTO;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Фиксирует количество SQL-выражений для списка и карточки запуска.
+ * Рост числа выражений при увеличении размера страницы означает регрессию N+1.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TestRunServiceStatementCountTest {
+
+    private static final int RUNS = 30;
+    /**
+     * Страница списка: выборка страницы с конфигурацией, подсчет общего количества
+     * и по одному пакетному запросу на каждую лениво загружаемую коллекцию.
+     */
+    private static final long LIST_STATEMENTS = 8;
+    /**
+     * Карточка запуска: выборка по графу {@link TestRun#GRAPH_DETAIL} и догрузка остальных коллекций.
+     */
+    private static final long DETAIL_STATEMENTS = 6;
+
+    @Autowired
+    private TestEventOrchestrator orchestrator;
+    @Autowired
+    private DemoDataFactory demoDataFactory;
+    @Autowired
+    private TestRunService testRunService;
+
+    private final List<String> runIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        List<CompletableFuture<TestRun>> saved = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            saved.add(orchestrator.processAndSaveTestEvent(demoDataFactory.generateRandomEvent()));
+        }
+        saved.forEach(future -> runIds.add(future.join().getId()));
+    }
+
+    @Test
+    void listPageStatementCountDoesNotDependOnPageSize() {
+        assertThat(countList(5)).isEqualTo(LIST_STATEMENTS);
+        assertThat(countList(RUNS)).isEqualTo(LIST_STATEMENTS);
+    }
+
+    @Test
+    void detailStatementCount() {
+        SqlStatementCounter.reset();
+        TestRunDetailDTO details = testRunService.getTestRunDetails(runIds.get(0));
+        SqlStatementCounter.assertCount(DETAIL_STATEMENTS);
+        assertThat(details.id()).isEqualTo(runIds.get(0));
+    }
+
+    private long countList(int pageSize) {
+        SqlStatementCounter.reset();
+        assertThat(testRunService.getAllTestRunsPaginated(PageRequest.of(0, pageSize)).getContent()).hasSize(pageSize);
+        return SqlStatementCounter.get();
+    }
+}
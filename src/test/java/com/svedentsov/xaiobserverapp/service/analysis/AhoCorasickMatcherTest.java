@@ -0,0 +1,108 @@
+package com.svedentsov.xaiobserverapp.service.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AhoCorasickMatcherTest {
+
+    @Test
+    void reportsOverlappingAndNestedPatterns() {
+        List<String> patterns = List.of("he", "she", "his", "hers", "timeout", "TimeoutException");
+
+        int[] counts = matchCounts(patterns, "ushers: TimeoutException after timeout");
+
+        assertThat(counts).containsExactly(1, 1, 0, 1, 2, 1);
+        assertMatchesLinearScan(patterns, "ushers: TimeoutException after timeout");
+    }
+
+    @Test
+    void findsMatchesReachedThroughFailureLinks() {
+        // "abcd" обрывается на 'x', и "bcx"/"cx" находятся только через переходы по ссылкам отказа.
+        List<String> patterns = List.of("abcd", "bcx", "cx", "aab");
+
+        int[] counts = matchCounts(patterns, "abcxaaab");
+
+        assertThat(counts).containsExactly(0, 1, 1, 1);
+        assertMatchesLinearScan(patterns, "abcxaaab");
+    }
+
+    @Test
+    void emptyPatternSetNeverMatches() {
+        AhoCorasickMatcher empty = AhoCorasickMatcher.build(List.of());
+        AhoCorasickMatcher blanks = AhoCorasickMatcher.build(Arrays.asList("", null));
+
+        assertThat(empty.patternCount()).isZero();
+        assertThat(empty.containsAny("anything")).isFalse();
+        assertThat(blanks.containsAny("anything")).isFalse();
+        assertThat(blanks.containsAny(null)).isFalse();
+    }
+
+    @Test
+    void matchingIgnoresCase() {
+        List<String> patterns = List.of("NoSuchElement", "connection REFUSED");
+
+        assertThat(matchCounts(patterns, "org.openqa.selenium.NOSUCHELEMENTException: Connection refused"))
+                .containsExactly(1, 1);
+
+        var index = new HashMap<String, Integer>();
+        AhoCorasickMatcher distinct = AhoCorasickMatcher.buildDistinct(List.of("Timeout", "TIMEOUT", "timeout"), index);
+        assertThat(distinct.patternCount()).isEqualTo(1);
+        assertThat(index).containsExactly(Map.entry("timeout", 0));
+    }
+
+    @Test
+    void agreesWithLinearScanOnRandomInput() {
+        var random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<String> patterns = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(8); i++) {
+                patterns.add(randomText(random, 1 + random.nextInt(4)));
+            }
+            assertMatchesLinearScan(patterns, randomText(random, random.nextInt(60)));
+        }
+    }
+
+    private static void assertMatchesLinearScan(List<String> patterns, String text) {
+        assertThat(matchCounts(patterns, text))
+                .as("patterns %s in '%s'", patterns, text)
+                .containsExactly(linearScanCounts(patterns, text));
+    }
+
+    private static int[] matchCounts(List<String> patterns, String text) {
+        int[] counts = new int[patterns.size()];
+        AhoCorasickMatcher.build(patterns).scan(text, id -> counts[id]++);
+        return counts;
+    }
+
+    /**
+     * Прежний способ поиска: по очереди ищет каждый шаблон в тексте, включая перекрывающиеся вхождения.
+     */
+    private static int[] linearScanCounts(List<String> patterns, String text) {
+        String haystack = AhoCorasickMatcher.normalize(text);
+        int[] counts = new int[patterns.size()];
+        for (int id = 0; id < patterns.size(); id++) {
+            String needle = AhoCorasickMatcher.normalize(patterns.get(id));
+            for (int at = haystack.indexOf(needle); at >= 0; at = haystack.indexOf(needle, at + 1)) {
+                counts[id]++;
+            }
+        }
+        return counts;
+    }
+
+    private static String randomText(Random random, int length) {
+        var sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            char c = (char) ('a' + random.nextInt(3));
+            sb.append(random.nextBoolean() ? c : Character.toUpperCase(c));
+        }
+        return sb.toString();
+    }
+}
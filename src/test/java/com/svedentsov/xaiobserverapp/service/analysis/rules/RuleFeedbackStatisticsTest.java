@@ -0,0 +1,69 @@
+package com.svedentsov.xaiobserverapp.service.analysis.rules;
+
+import com.svedentsov.xaiobserverapp.model.RuleFeedbackCounter;
+import com.svedentsov.xaiobserverapp.repository.RuleFeedbackCounterRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет, что одновременные первые отзывы по правилу не теряются и не падают на вставке строки счетчиков.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RuleFeedbackStatisticsTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private RuleFeedbackStatistics statistics;
+    @Autowired
+    private RuleFeedbackCounterRepository repository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentFirstFeedbacksAreAllCounted() {
+        var transaction = new TransactionTemplate(transactionManager);
+        var barrier = new CyclicBarrier(THREADS);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<Void>> feedbacks = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                boolean confirmed = i % 2 == 0;
+                feedbacks.add(CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+                    await(barrier);
+                    statistics.record("concurrent-rule", null, confirmed);
+                }), pool));
+            }
+            feedbacks.forEach(CompletableFuture::join);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        RuleFeedbackCounter counter = repository.findById("concurrent-rule").orElseThrow();
+        assertThat(counter.getConfirmed()).isEqualTo(THREADS / 2);
+        assertThat(counter.getRejected()).isEqualTo(THREADS / 2);
+        assertThat(statistics.get("concurrent-rule")).isEqualTo(new RuleFeedbackStatistics.Counts(THREADS / 2, THREADS / 2));
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
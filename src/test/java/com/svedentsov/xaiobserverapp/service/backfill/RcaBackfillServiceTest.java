@@ -0,0 +1,135 @@
+package com.svedentsov.xaiobserverapp.service.backfill;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.RcaBackfillRequestDTO;
+import com.svedentsov.xaiobserverapp.exception.ConflictException;
+import com.svedentsov.xaiobserverapp.model.RcaBackfillJob;
+import com.svedentsov.xaiobserverapp.repository.RcaBackfillJobRepository;
+import com.svedentsov.xaiobserverapp.repository.TestRunRepository;
+import com.svedentsov.xaiobserverapp.service.RcaService;
+import com.svedentsov.xaiobserverapp.service.StatisticsService;
+import com.svedentsov.xaiobserverapp.service.xai.XaiPredictionCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Проверяет, что запуски, анализ которых завершился ошибкой, не теряются при продвижении контрольной точки.
+ */
+class RcaBackfillServiceTest {
+
+    private final RcaBackfillJobRepository jobRepository = mock(RcaBackfillJobRepository.class);
+    private final TestRunRepository testRunRepository = mock(TestRunRepository.class);
+    private final RcaBackfillBatchWriter batchWriter = mock(RcaBackfillBatchWriter.class);
+    private final RcaService rcaService = mock(RcaService.class);
+    private final RcaBackfillService service = new RcaBackfillService(jobRepository, testRunRepository, batchWriter,
+            rcaService, mock(XaiPredictionCache.class), mock(StatisticsService.class), 1, 10, 0, 10);
+    private final AtomicReference<RcaBackfillJob> lastSaved = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        when(testRunRepository.findBackfillKeys(any(), eq(""), any(), any(), any(), any(), any(), any())).thenReturn(List.of("a", "b"));
+        when(testRunRepository.findBackfillKeys(any(), eq("b"), any(), any(), any(), any(), any(), any())).thenReturn(List.of());
+        FailureEventDTO a = event("a");
+        FailureEventDTO b = event("b");
+        when(batchWriter.loadEvents(List.of("a", "b"))).thenReturn(List.of(a, b));
+        when(batchWriter.loadEvents(List.of("a"))).thenReturn(List.of(a));
+        when(batchWriter.saveJob(any())).thenAnswer(invocation -> {
+            RcaBackfillJob job = invocation.getArgument(0);
+            lastSaved.set(job);
+            return job;
+        });
+        when(batchWriter.writeBatch(any(), any(), any(), any(), anyInt())).thenAnswer(invocation -> {
+            RcaBackfillJob job = invocation.getArgument(0);
+            job.setLastKey(invocation.getArgument(1));
+            job.getFailedRunIds().addAll(invocation.<Collection<String>>getArgument(3));
+            return job;
+        });
+        when(batchWriter.writeRetryBatch(any(), any(), any(), anyInt())).thenAnswer(invocation -> {
+            RcaBackfillJob job = invocation.getArgument(0);
+            job.getFailedRunIds().removeAll(Set.copyOf(invocation.<Collection<String>>getArgument(2)));
+            return job;
+        });
+    }
+
+    @Test
+    void failedRunIsRetriedAfterTheMainPass() {
+        when(rcaService.analyzeTestRun(argThat(event -> event != null && "a".equals(event.testRunId())), anyBoolean()))
+                .thenThrow(new IllegalStateException("XAI response is malformed"))
+                .thenReturn(List.of());
+
+        service.start(request());
+
+        verify(batchWriter, timeout(5000).times(2)).saveJob(any());
+        verify(batchWriter).writeBatch(any(), eq("b"), argThat(results -> results.keySet().equals(Set.of("b"))), eq(List.of("a")), anyInt());
+        verify(batchWriter).writeRetryBatch(any(), argThat(results -> results.keySet().equals(Set.of("a"))), eq(List.of("a")), anyInt());
+        assertThat(lastSaved.get().getState()).isEqualTo(RcaBackfillJob.State.COMPLETED);
+        assertThat(lastSaved.get().getFailedRunIds()).isEmpty();
+    }
+
+    @Test
+    void completedJobWithFailedRunsCanBeResumed() throws InterruptedException {
+        when(rcaService.analyzeTestRun(argThat(event -> event != null && "a".equals(event.testRunId())), anyBoolean()))
+                .thenThrow(new IllegalStateException("XAI response is malformed"));
+
+        service.start(request());
+        verify(batchWriter, timeout(5000).times(2)).saveJob(any());
+        RcaBackfillJob completed = lastSaved.get();
+        assertThat(completed.getState()).isEqualTo(RcaBackfillJob.State.COMPLETED);
+        assertThat(completed.getFailedRunIds()).containsExactly("a");
+
+        when(jobRepository.findById(completed.getId())).thenReturn(Optional.of(completed));
+        resumeWhenIdle(completed.getId());
+
+        verify(batchWriter, timeout(5000).times(4)).saveJob(any());
+        verify(batchWriter, times(2)).loadEvents(List.of("a"));
+        assertThat(lastSaved.get().getFailedRunIds()).containsExactly("a");
+    }
+
+    /**
+     * Продолжает задание, дождавшись освобождения исполнителя: финальное состояние задания сохраняется
+     * до того, как поток задания освобождает слот выполняющегося задания.
+     */
+    private void resumeWhenIdle(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                service.resume(id);
+                return;
+            } catch (ConflictException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static RcaBackfillRequestDTO request() {
+        return new RcaBackfillRequestDTO(null, null, null, null, null, null, false, false, false, 1, 10, null);
+    }
+
+    private static FailureEventDTO event(String testRunId) {
+        FailureEventDTO event = mock(FailureEventDTO.class);
+        when(event.testRunId()).thenReturn(testRunId);
+        return event;
+    }
+}
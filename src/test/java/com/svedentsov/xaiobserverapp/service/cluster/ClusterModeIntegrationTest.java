@@ -0,0 +1,82 @@
+package com.svedentsov.xaiobserverapp.service.cluster;
+
+import com.svedentsov.xaiobserverapp.XaiObserverAppApplication;
+import com.svedentsov.xaiobserverapp.dto.TestRunSummaryDTO;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.service.DemoDataFactory;
+import com.svedentsov.xaiobserverapp.service.TestEventOrchestrator;
+import com.svedentsov.xaiobserverapp.service.TestRunEventLog;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Запускает два узла в режиме кластера на общей БД в памяти и проверяет, что запуск, принятый одним узлом,
+ * попадает в живой поток обоих узлов с одинаковым сквозным номером.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClusterModeIntegrationTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    void stopNodes() {
+        Stream.of(nodeB, nodeA).filter(context -> context != null).forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void runSavedOnOneNodeReachesLiveStreamOfBoth() throws InterruptedException {
+        TestRun saved = nodeA.getBean(TestEventOrchestrator.class)
+                .processAndSaveTestEvent(nodeA.getBean(DemoDataFactory.class).generateRandomEvent())
+                .join();
+
+        TestRunSummaryDTO onA = awaitReplayed(nodeA, saved.getId());
+        TestRunSummaryDTO onB = awaitReplayed(nodeB, saved.getId());
+
+        assertThat(onB.sequence()).isEqualTo(onA.sequence());
+        assertThat(nodeB.getBean(ClusterRelay.class).getStatus().receivedEvents()).isPositive();
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(XaiObserverAppApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:xaiobserver-cluster-test;DB_CLOSE_DELAY=-1",
+                        "--xai.cluster.enabled=true",
+                        "--xai.cluster.node-id=" + nodeId,
+                        "--xai.cluster.poll-interval-ms=50");
+    }
+
+    private static TestRunSummaryDTO awaitReplayed(ConfigurableApplicationContext node, String testRunId) throws InterruptedException {
+        TestRunEventLog eventLog = node.getBean(TestRunEventLog.class);
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            List<TestRunSummaryDTO> runs = eventLog.replay(0L, Map.of(), 100).runs();
+            for (TestRunSummaryDTO run : runs) {
+                if (run.id().equals(testRunId)) {
+                    return run;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Test run " + testRunId + " did not reach the live stream of " + node.getId());
+    }
+}
@@ -0,0 +1,100 @@
+package com.svedentsov.xaiobserverapp.service.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.svedentsov.xaiobserverapp.model.ClusterEvent;
+import com.svedentsov.xaiobserverapp.model.ClusterEvent.ClusterEventType;
+import com.svedentsov.xaiobserverapp.repository.ClusterEventRepository;
+import com.svedentsov.xaiobserverapp.service.StatisticsService;
+import com.svedentsov.xaiobserverapp.service.TestRunEventLog;
+import com.svedentsov.xaiobserverapp.service.analysis.KnownIssueMatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Проверяет, что события кластера применяются по возрастанию номера без опоры на часы узлов:
+ * пропуск номера выдерживается до истечения ожидания, а опоздавшее событие применяется позже, а не теряется.
+ * Ошибка публикации события из outbox доходит до вызывающего, чтобы outbox повторил доставку.
+ */
+class ClusterRelayTest {
+
+    private static final long GAP_TIMEOUT_MILLIS = 50;
+
+    private final ClusterEventRepository repository = mock(ClusterEventRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final ClusterRelay relay = new ClusterRelay(repository, mock(StatisticsService.class), mock(KnownIssueMatcher.class),
+            new TestRunEventLog(100), mock(SimpMessagingTemplate.class), new ObjectMapper().findAndRegisterModules(),
+            eventPublisher, mock(PlatformTransactionManager.class), true, "node-b", 250, GAP_TIMEOUT_MILLIS, 60);
+    private final List<Long> applied = new ArrayList<>();
+
+    ClusterRelayTest() {
+        doAnswer(invocation -> applied.add(invocation.<TestRunReplicatedEvent>getArgument(0).summary().sequence()))
+                .when(eventPublisher).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void waitsForMissingIdBeforeMovingOn() {
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(event(1), event(3)));
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(1L), any(Limit.class))).thenReturn(List.of(event(3)));
+
+        relay.poll();
+        relay.poll();
+        assertThat(applied).containsExactly(1L);
+
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(1L), any(Limit.class))).thenReturn(List.of(event(2), event(3)));
+        relay.poll();
+
+        assertThat(applied).containsExactly(1L, 2L, 3L);
+        assertThat(relay.getStatus().skippedEvents()).isZero();
+    }
+
+    @Test
+    void lateEventIsAppliedAfterTheGapTimesOut() throws InterruptedException {
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(event(1), event(3)));
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(1L), any(Limit.class))).thenReturn(List.of(event(3)));
+        relay.poll();
+        Thread.sleep(GAP_TIMEOUT_MILLIS + 10);
+        relay.poll();
+        assertThat(applied).containsExactly(1L, 3L);
+        assertThat(relay.getStatus().skippedEvents()).isEqualTo(1);
+
+        when(repository.findAllById(any())).thenReturn(List.of(event(2)));
+        relay.poll();
+        relay.poll();
+
+        assertThat(applied).containsExactly(1L, 3L, 2L);
+        assertThat(relay.getStatus().lastEventId()).isEqualTo(3);
+    }
+
+    @Test
+    void publishFailureReachesOutboxDrivenCaller() {
+        when(repository.save(any())).thenThrow(new DataAccessResourceFailureException("Connection is closed"));
+
+        assertThatThrownBy(() -> relay.publishOrThrow(ClusterEventType.TEST_RUN_SAVED, Map.of("id", "run-1")))
+                .isInstanceOf(DataAccessException.class);
+        relay.publish(ClusterEventType.STATISTICS_INVALIDATED, null);
+
+        assertThat(relay.getStatus().failedEvents()).isEqualTo(2);
+    }
+
+    private static ClusterEvent event(long id) {
+        return new ClusterEvent(id, "node-a", ClusterEventType.TEST_RUN_SAVED, "{\"id\":\"run-" + id + "\"}", LocalDateTime.now());
+    }
+}
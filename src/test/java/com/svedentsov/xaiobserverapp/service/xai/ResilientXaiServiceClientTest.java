@@ -0,0 +1,72 @@
+package com.svedentsov.xaiobserverapp.service.xai;
+
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.dto.XaiClientStatsDTO;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Проверяет, что пробный вызов полуоткрытого выключателя не теряется, если попытка не была выполнена
+ * или завершилась исключением, отличным от транспортного.
+ */
+class ResilientXaiServiceClientTest {
+
+    private static final long OPEN_MILLIS = 50;
+
+    private final HttpXaiServiceClient delegate = mock(HttpXaiServiceClient.class);
+    private final FailureEventDTO event = mock(FailureEventDTO.class);
+    private final ResilientXaiServiceClient client = new ResilientXaiServiceClient(delegate,
+            1, 1, 0, 1000, 1, 1, 0.5, OPEN_MILLIS, false, 1, 0);
+
+    @AfterEach
+    void shutdown() {
+        client.shutdown();
+    }
+
+    @Test
+    void rejectedHalfOpenTrialIsReleased() throws InterruptedException {
+        openCircuit();
+        Thread.sleep(OPEN_MILLIS + 10);
+        client.shutdown();
+
+        assertThat(client.getPrediction(event)).isEmpty();
+        assertThat(client.getPrediction(event)).isEmpty();
+
+        XaiClientStatsDTO stats = client.getStatistics();
+        assertThat(stats.circuitState()).isEqualTo("HALF_OPEN");
+        assertThat(stats.shortCircuited()).isZero();
+        assertThat(stats.inFlight()).isZero();
+    }
+
+    @Test
+    void unexpectedExceptionFailsHalfOpenTrial() throws InterruptedException {
+        openCircuit();
+        Thread.sleep(OPEN_MILLIS + 10);
+        doThrow(new IllegalStateException("malformed response")).when(delegate).predict(any());
+
+        assertThat(client.getPrediction(event)).isEmpty();
+        assertThat(client.getStatistics().circuitState()).isEqualTo("OPEN");
+
+        Thread.sleep(OPEN_MILLIS + 10);
+        doReturn(Optional.of(new AnalysisResult())).when(delegate).predict(any());
+
+        assertThat(client.getPrediction(event)).isPresent();
+        assertThat(client.getStatistics().circuitState()).isEqualTo("CLOSED");
+    }
+
+    private void openCircuit() {
+        doThrow(new ResourceAccessException("connection refused")).when(delegate).predict(any());
+        assertThat(client.getPrediction(event)).isEmpty();
+        assertThat(client.getStatistics().circuitState()).isEqualTo("OPEN");
+    }
+}
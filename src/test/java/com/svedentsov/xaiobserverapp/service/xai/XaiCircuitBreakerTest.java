@@ -0,0 +1,44 @@
+package com.svedentsov.xaiobserverapp.service.xai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class XaiCircuitBreakerTest {
+
+    private static final long OPEN_MILLIS = 50;
+
+    @Test
+    void releasedTrialLetsTheNextCallProbe() throws InterruptedException {
+        XaiCircuitBreaker breaker = openedBreaker();
+        Thread.sleep(OPEN_MILLIS + 10);
+
+        XaiCircuitBreaker.Permission trial = breaker.tryAcquirePermission();
+        assertThat(trial).isEqualTo(XaiCircuitBreaker.Permission.TRIAL);
+        assertThat(breaker.tryAcquirePermission()).isEqualTo(XaiCircuitBreaker.Permission.DENIED);
+
+        breaker.releasePermission(trial);
+
+        assertThat(breaker.state()).isEqualTo(XaiCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isEqualTo(XaiCircuitBreaker.Permission.TRIAL);
+    }
+
+    @Test
+    void releasingAnOrdinaryPermissionDoesNotFreeTheTrial() throws InterruptedException {
+        XaiCircuitBreaker breaker = openedBreaker();
+        Thread.sleep(OPEN_MILLIS + 10);
+
+        assertThat(breaker.tryAcquirePermission()).isEqualTo(XaiCircuitBreaker.Permission.TRIAL);
+        breaker.releasePermission(XaiCircuitBreaker.Permission.GRANTED);
+
+        assertThat(breaker.tryAcquirePermission()).isEqualTo(XaiCircuitBreaker.Permission.DENIED);
+    }
+
+    private static XaiCircuitBreaker openedBreaker() {
+        XaiCircuitBreaker breaker = new XaiCircuitBreaker(1, 1, 0.5, OPEN_MILLIS);
+        assertThat(breaker.tryAcquirePermission()).isEqualTo(XaiCircuitBreaker.Permission.GRANTED);
+        assertThat(breaker.onFailure()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isEqualTo(XaiCircuitBreaker.Permission.DENIED);
+        return breaker;
+    }
+}
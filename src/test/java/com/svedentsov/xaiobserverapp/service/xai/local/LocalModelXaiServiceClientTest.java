@@ -0,0 +1,92 @@
+package com.svedentsov.xaiobserverapp.service.xai.local;
+
+import com.svedentsov.xaiobserverapp.dto.AnalysisFeedbackDTO;
+import com.svedentsov.xaiobserverapp.dto.FailureEventDTO;
+import com.svedentsov.xaiobserverapp.model.AnalysisResult;
+import com.svedentsov.xaiobserverapp.model.TestRun;
+import com.svedentsov.xaiobserverapp.repository.AnalysisFeedbackRepository;
+import com.svedentsov.xaiobserverapp.repository.AnalysisResultRepository;
+import com.svedentsov.xaiobserverapp.service.xai.CachingXaiServiceClient;
+import com.svedentsov.xaiobserverapp.service.xai.ResilientXaiServiceClient;
+import com.svedentsov.xaiobserverapp.service.xai.XaiPredictionCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Проверяет, что локальная модель учится только на свежих ответах XAI-сервиса
+ * и что отклонение ее собственного ответа ослабляет предсказанный класс.
+ */
+class LocalModelXaiServiceClientTest {
+
+    private final ResilientXaiServiceClient remote = mock(ResilientXaiServiceClient.class);
+    private final XaiPredictionCache cache = mock(XaiPredictionCache.class);
+    private final LocalXaiModel model = new LocalXaiModel(mock(AnalysisResultRepository.class),
+            mock(AnalysisFeedbackRepository.class), mock(PlatformTransactionManager.class), true, 0.9, 1_000, 10, 0);
+    private final LocalModelXaiServiceClient client = new LocalModelXaiServiceClient(new CachingXaiServiceClient(remote, cache), model);
+
+    @Test
+    void learnsFromFreshRemoteResponsesOnly() {
+        FailureEventDTO event = event();
+        when(cache.isEnabled()).thenReturn(true);
+        when(cache.get(any())).thenReturn(Optional.empty());
+        when(remote.getPredictionAsync(event)).thenReturn(CompletableFuture.completedFuture(Optional.of(remoteResult("TIMEOUT"))));
+
+        client.getPrediction(event);
+        assertThat(model.getStatistics().labelExamples()).containsEntry("TIMEOUT", 1L);
+
+        when(cache.get(any())).thenReturn(Optional.of(remoteResult("TIMEOUT")));
+        client.getPrediction(event);
+        client.getPrediction(event);
+        assertThat(model.getStatistics().labelExamples()).containsEntry("TIMEOUT", 1L);
+    }
+
+    @Test
+    void rejectedLocalResultWithoutReasonWeakensItsLabel() {
+        TestRun testRun = testRun();
+        LocalXaiModel.Classification classification = new LocalXaiModel.Classification(FailureFeatures.of(testRun), null, false);
+        for (int i = 0; i < 3; i++) {
+            model.learnFromRemote(classification, remoteResult("TIMEOUT"));
+        }
+        var local = new AnalysisResult();
+        local.setTestRun(testRun);
+        local.setExplanationData(new HashMap<>(Map.of(LocalXaiModel.SOURCE_KEY, LocalXaiModel.LOCAL_SOURCE,
+                LocalXaiModel.PREDICTION_KEY, "TIMEOUT")));
+
+        model.onFeedback(local, null, new AnalysisFeedbackDTO(false, null, null, null, "qa"));
+
+        assertThat(model.getStatistics().labelExamples()).containsEntry("TIMEOUT", 2L);
+    }
+
+    private static FailureEventDTO event() {
+        FailureEventDTO event = mock(FailureEventDTO.class);
+        when(event.testRunId()).thenReturn("run-1");
+        when(event.exceptionType()).thenReturn("org.openqa.selenium.TimeoutException");
+        when(event.exceptionMessage()).thenReturn("Expected condition failed: waiting for element");
+        return event;
+    }
+
+    private static TestRun testRun() {
+        var testRun = new TestRun();
+        testRun.setExceptionType("org.openqa.selenium.TimeoutException");
+        testRun.setExceptionMessage("Expected condition failed: waiting for element");
+        return testRun;
+    }
+
+    private static AnalysisResult remoteResult(String label) {
+        var ar = new AnalysisResult();
+        ar.setSuggestedReason("Element did not appear in time");
+        ar.setSolution("Increase the wait timeout");
+        ar.setExplanationData(new HashMap<>(Map.of(LocalXaiModel.PREDICTION_KEY, label)));
+        return ar;
+    }
+}